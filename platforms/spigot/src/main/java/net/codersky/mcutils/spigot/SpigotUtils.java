@@ -1,15 +1,24 @@
 package net.codersky.mcutils.spigot;
 
 import net.codersky.mcutils.MCPlatform;
+import net.codersky.mcutils.cmd.AsyncCommandExecutor;
+import net.codersky.mcutils.cmd.AsyncMCCommand;
 import net.codersky.mcutils.cmd.MCCommand;
 import net.codersky.mcutils.cmd.MCCommandSender;
+import net.codersky.mcutils.cmd.completion.CompletionEngine;
 import net.codersky.mcutils.crossplatform.player.MCPlayer;
 import net.codersky.mcutils.crossplatform.player.PlayerProvider;
 import net.codersky.mcutils.crossplatform.server.ServerUtils;
 import net.codersky.mcutils.java.strings.MCStrings;
+import net.codersky.mcutils.spigot.cmd.AdaptedAsyncSpigotCommand;
 import net.codersky.mcutils.spigot.cmd.AdaptedSpigotCommand;
+import net.codersky.mcutils.spigot.cmd.SpigotAsyncCommandListener;
 import net.codersky.mcutils.spigot.cmd.SpigotCommand;
+import net.codersky.mcutils.spigot.cmd.SpigotCompletionListener;
+import net.codersky.mcutils.spigot.cmd.SpigotSenderCache;
+import net.codersky.mcutils.spigot.cmd.SpigotSenderCacheListener;
 import net.codersky.mcutils.java.reflection.RefObject;
+import net.codersky.mcutils.spigot.time.SpigotTaskScheduler;
 import net.codersky.mcutils.spigot.worldgen.SingleBiomeProvider;
 import net.codersky.mcutils.spigot.worldgen.VoidGenerator;
 import org.bukkit.Bukkit;
@@ -38,10 +47,13 @@ public class SpigotUtils<P extends JavaPlugin> extends ServerUtils<P> {
 
 	private final SpigotConsole console;
 	private PlayerProvider<Player> playerProvider;
+	private volatile SpigotSenderCache senderCache = null;
+	private final SpigotTaskScheduler scheduler;
 
 	public SpigotUtils(@NotNull P plugin) {
 		super(plugin);
 		this.console = new SpigotConsole(Bukkit.getConsoleSender());
+		this.scheduler = new SpigotTaskScheduler(plugin);
 	}
 
 	@NotNull
@@ -55,6 +67,29 @@ public class SpigotUtils<P extends JavaPlugin> extends ServerUtils<P> {
 		return playerProvider;
 	}
 
+	/**
+	 * Gets the {@link SpigotSenderCache} used to reuse command sender wrappers, creating
+	 * it on the first call. Wrappers of players are removed from it as soon as
+	 * said players leave.
+	 *
+	 * @return The {@link SpigotSenderCache} of this utils instance.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public SpigotSenderCache getSenderCache() {
+		SpigotSenderCache cache = senderCache;
+		if (cache == null) {
+			synchronized (this) {
+				if ((cache = senderCache) == null) {
+					senderCache = cache = new SpigotSenderCache(this);
+					new SpigotSenderCacheListener(cache).init(getPlugin());
+				}
+			}
+		}
+		return cache;
+	}
+
 	@Nullable
 	@Override
 	public MCPlayer getPlayer(@NotNull UUID uuid) {
@@ -72,6 +107,28 @@ public class SpigotUtils<P extends JavaPlugin> extends ServerUtils<P> {
 		return MCPlatform.SPIGOT;
 	}
 
+	@NotNull
+	@Override
+	public SpigotTaskScheduler getScheduler() {
+		return scheduler;
+	}
+
+	@NotNull
+	@Override
+	protected CompletionEngine createCompletionEngine() {
+		final CompletionEngine engine = new CompletionEngine();
+		new SpigotCompletionListener(engine).init(getPlugin());
+		return engine;
+	}
+
+	@NotNull
+	@Override
+	protected AsyncCommandExecutor createAsyncCommandExecutor() {
+		final AsyncCommandExecutor executor = new AsyncCommandExecutor();
+		new SpigotAsyncCommandListener(executor).init(getPlugin());
+		return executor;
+	}
+
 	/**
 	 * Gets the user-friendly name of the server version, for example, <i>"1.19.3"</i>.
 	 *
@@ -226,6 +283,8 @@ public class SpigotUtils<P extends JavaPlugin> extends ServerUtils<P> {
 			final SpigotCommand<P> spigotCommand;
 			if (command instanceof SpigotCommand)
 				spigotCommand = (SpigotCommand) command;
+			else if (command instanceof AsyncMCCommand<P, MCCommandSender> async)
+				spigotCommand = new AdaptedAsyncSpigotCommand<>(this, async);
 			else
 				spigotCommand = new AdaptedSpigotCommand<>(this, command);
 			final PluginCommand plCommand = getPlugin().getCommand(command.getName());
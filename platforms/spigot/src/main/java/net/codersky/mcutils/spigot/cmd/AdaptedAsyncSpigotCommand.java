@@ -0,0 +1,40 @@
+package net.codersky.mcutils.spigot.cmd;
+
+import net.codersky.mcutils.cmd.AsyncMCCommand;
+import net.codersky.mcutils.cmd.MCCommandSender;
+import net.codersky.mcutils.spigot.SpigotUtils;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link AdaptedSpigotCommand} of an {@link AsyncMCCommand}. As it is an
+ * {@link AsyncMCCommand} itself, the {@link net.codersky.mcutils.cmd.SubCommandHandler
+ * SubCommandHandler} hands it off to the {@link net.codersky.mcutils.cmd.AsyncCommandExecutor
+ * AsyncCommandExecutor} like any other asynchronous command, so command metrics
+ * record the actual execution instead of just the handoff.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @param <P> The plugin class that owns this command.
+ */
+public class AdaptedAsyncSpigotCommand<P extends JavaPlugin> extends AdaptedSpigotCommand<P> implements AsyncMCCommand<P, SpigotCommandSender> {
+
+	private final AsyncMCCommand<?, MCCommandSender> command;
+
+	public AdaptedAsyncSpigotCommand(@NotNull SpigotUtils<P> utils, @NotNull AsyncMCCommand<?, MCCommandSender> command) {
+		super(utils, command);
+		this.command = command;
+	}
+
+	@Override
+	public boolean isCancelledOnQuit() {
+		return command.isCancelledOnQuit();
+	}
+
+	@Override
+	public void onError(@NotNull SpigotCommandSender sender, @NotNull Throwable error) {
+		command.onError(sender, error);
+	}
+}
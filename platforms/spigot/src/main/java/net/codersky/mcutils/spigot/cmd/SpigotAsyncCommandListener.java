@@ -0,0 +1,58 @@
+package net.codersky.mcutils.spigot.cmd;
+
+import net.codersky.mcutils.cmd.AsyncCommandExecutor;
+import net.codersky.mcutils.spigot.time.SpigotAsyncExecutorListener;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Listener} that {@link AsyncCommandExecutor#cancel(java.util.UUID) cancels}
+ * the asynchronous command executions of players that leave the server, and
+ * {@link AsyncCommandExecutor#shutdown(long, TimeUnit) shuts down} said executor when its
+ * plugin is disabled, giving running executions the same {@link SpigotAsyncExecutorListener#GRACE_PERIOD_SECONDS
+ * grace period} as the tasks of the plugin to finish before interrupting them.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+@ApiStatus.Internal
+public class SpigotAsyncCommandListener implements Listener {
+
+	private final AsyncCommandExecutor executor;
+	private JavaPlugin plugin = null;
+
+	public SpigotAsyncCommandListener(@NotNull AsyncCommandExecutor executor) {
+		this.executor = executor;
+	}
+
+	@NotNull
+	public SpigotAsyncCommandListener init(@NotNull JavaPlugin plugin) {
+		this.plugin = plugin;
+		Bukkit.getPluginManager().registerEvents(this, plugin);
+		return this;
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onQuit(PlayerQuitEvent e) {
+		executor.cancel(e.getPlayer().getUniqueId());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onDisable(PluginDisableEvent e) {
+		if (e.getPlugin() != plugin)
+			return;
+		executor.shutdown(SpigotAsyncExecutorListener.GRACE_PERIOD_SECONDS, TimeUnit.SECONDS);
+		HandlerList.unregisterAll(this);
+	}
+}
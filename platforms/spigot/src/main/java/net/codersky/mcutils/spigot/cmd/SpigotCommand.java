@@ -52,20 +52,28 @@ public abstract class SpigotCommand<P extends JavaPlugin> extends Command implem
 		return this;
 	}
 
+	@NotNull
+	@Override
+	public final SubCommandHandler<P, SpigotCommandSender> getSubCommandHandler() {
+		return subCommandHandler;
+	}
+
 	@Override
 	public final boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
-		return subCommandHandler.onCommand(this, new SpigotCommandSender(sender, getUtils()), args);
+		return subCommandHandler.onCommand(this, utils.getSenderCache().get(sender), args);
 	}
 
 	@Override
 	public final boolean execute(@NotNull CommandSender sender, @NotNull String commandLabel, @NotNull String[] args) {
-		return subCommandHandler.onCommand(this, new SpigotCommandSender(sender, getUtils()), args);
+		return subCommandHandler.onCommand(this, utils.getSenderCache().get(sender), args);
 	}
 
+	// Spigot requires suggestions to be returned synchronously, so completion runs on the
+	// calling thread, relying on cached sources from the CompletionEngine to stay cheap.
 	@Override
 	@Nullable
 	public final List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
-		return subCommandHandler.onTab(this, new SpigotCommandSender(sender, getUtils()), args);
+		return subCommandHandler.onTab(this, utils.getSenderCache().get(sender), args);
 	}
 
 	// ARGUMENT CONVERSION //
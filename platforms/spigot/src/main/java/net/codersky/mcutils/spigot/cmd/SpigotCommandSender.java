@@ -16,12 +16,19 @@ public class SpigotCommandSender implements MCCommandSender {
 
 	private final CommandSender sender;
 	private final SpigotUtils<?> utils;
+	// Resolved once, wrappers are cached by the SpigotSenderCache.
+	private volatile MCPlayer player = null;
 
 	public SpigotCommandSender(@NotNull CommandSender sender, @NotNull SpigotUtils<?> utils) {
 		this.sender = sender;
 		this.utils = utils;
 	}
 
+	@NotNull
+	public CommandSender getHandle() {
+		return sender;
+	}
+
 	/*
 	 * Player related
 	 */
@@ -34,7 +41,10 @@ public class SpigotCommandSender implements MCCommandSender {
 	@Nullable
 	@Override
 	public MCPlayer asPlayer() {
-		return sender instanceof Player player ? utils.getPlayer(player.getUniqueId()) : null;
+		MCPlayer mcPlayer = this.player;
+		if (mcPlayer == null && sender instanceof Player handle)
+			this.player = mcPlayer = utils.getPlayer(handle.getUniqueId());
+		return mcPlayer;
 	}
 
 	/*
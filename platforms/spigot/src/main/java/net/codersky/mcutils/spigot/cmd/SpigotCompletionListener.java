@@ -0,0 +1,65 @@
+package net.codersky.mcutils.spigot.cmd;
+
+import net.codersky.mcutils.cmd.completion.CompletionEngine;
+import net.codersky.mcutils.cmd.completion.SuggestionSource;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link Listener} that keeps the {@link CompletionEngine#getPlayerNames() player names}
+ * of a {@link CompletionEngine} up to date as players join and leave the server, and
+ * {@link CompletionEngine#shutdown() shuts down} said engine when its plugin is disabled.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+@ApiStatus.Internal
+public class SpigotCompletionListener implements Listener {
+
+	private final CompletionEngine engine;
+	private final SuggestionSource names;
+	private JavaPlugin plugin = null;
+
+	public SpigotCompletionListener(@NotNull CompletionEngine engine) {
+		this.engine = engine;
+		this.names = engine.getPlayerNames();
+	}
+
+	@NotNull
+	public SpigotCompletionListener init(@NotNull JavaPlugin plugin) {
+		this.plugin = plugin;
+		for (Player player : Bukkit.getOnlinePlayers())
+			names.add(player.getName());
+		Bukkit.getPluginManager().registerEvents(this, plugin);
+		return this;
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onJoin(PlayerJoinEvent e) {
+		names.add(e.getPlayer().getName());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onQuit(PlayerQuitEvent e) {
+		names.remove(e.getPlayer().getName());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onDisable(PluginDisableEvent e) {
+		if (e.getPlugin() != plugin)
+			return;
+		engine.shutdown();
+		HandlerList.unregisterAll(this);
+	}
+}
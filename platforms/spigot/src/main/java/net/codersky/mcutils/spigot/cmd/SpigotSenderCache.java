@@ -0,0 +1,50 @@
+package net.codersky.mcutils.spigot.cmd;
+
+import net.codersky.mcutils.cmd.SenderCache;
+import net.codersky.mcutils.spigot.SpigotUtils;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * {@link SenderCache} of {@link SpigotCommandSender} wrappers, obtained from
+ * {@link SpigotUtils#getSenderCache()}.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class SpigotSenderCache extends SenderCache<CommandSender, SpigotCommandSender> {
+
+	private final SpigotUtils<?> utils;
+
+	public SpigotSenderCache(@NotNull SpigotUtils<?> utils) {
+		this.utils = utils;
+	}
+
+	@Nullable
+	@Override
+	protected UUID getUUID(@NotNull CommandSender handle) {
+		return handle instanceof Player player ? player.getUniqueId() : null;
+	}
+
+	@NotNull
+	@Override
+	protected SpigotCommandSender wrap(@NotNull CommandSender handle) {
+		return new SpigotCommandSender(handle, utils);
+	}
+
+	@NotNull
+	@Override
+	protected CommandSender getHandle(@NotNull SpigotCommandSender sender) {
+		return sender.getHandle();
+	}
+
+	@Override
+	protected boolean isValid(@NotNull CommandSender handle) {
+		return handle instanceof Player player && player.isOnline();
+	}
+}
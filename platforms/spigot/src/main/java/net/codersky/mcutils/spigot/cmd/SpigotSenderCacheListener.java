@@ -0,0 +1,54 @@
+package net.codersky.mcutils.spigot.cmd;
+
+import net.codersky.mcutils.cmd.SenderCache;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link Listener} that {@link SenderCache#invalidate(java.util.UUID) removes} the
+ * wrappers of players that leave the server from a {@link SenderCache}, so their
+ * handles aren't kept alive, and {@link SenderCache#clear() clears} said cache
+ * when its plugin is disabled.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+@ApiStatus.Internal
+public class SpigotSenderCacheListener implements Listener {
+
+	private final SenderCache<?, ?> cache;
+	private JavaPlugin plugin = null;
+
+	public SpigotSenderCacheListener(@NotNull SenderCache<?, ?> cache) {
+		this.cache = cache;
+	}
+
+	@NotNull
+	public SpigotSenderCacheListener init(@NotNull JavaPlugin plugin) {
+		this.plugin = plugin;
+		Bukkit.getPluginManager().registerEvents(this, plugin);
+		return this;
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onQuit(PlayerQuitEvent e) {
+		cache.invalidate(e.getPlayer().getUniqueId());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onDisable(PluginDisableEvent e) {
+		if (e.getPlugin() != plugin)
+			return;
+		cache.clear();
+		HandlerList.unregisterAll(this);
+	}
+}
@@ -11,6 +11,8 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import net.codersky.mcutils.java.MCCollections;
+import net.codersky.mcutils.spigot.SpigotUtils;
+import net.codersky.mcutils.spigot.time.SpigotTaskScheduler;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
@@ -39,8 +41,49 @@ import org.jetbrains.annotations.ApiStatus;
 public class GUIHandler implements Listener {
 
 	private final JavaPlugin plugin;
+	private SpigotTaskScheduler scheduler;
 	private final HashMap<GUI, Set<UUID>> guis = new HashMap<>();
 
+	/**
+	 * Creates a new {@link GUIHandler} that uses the {@link SpigotUtils#getScheduler()
+	 * scheduler} of the specified {@link SpigotUtils} instead of creating its own.
+	 *
+	 * @param utils the {@link SpigotUtils} of the plugin that manages this {@link GUIHandler}.
+	 *
+	 * @throws NullPointerException if <b>utils</b> is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public GUIHandler(@Nonnull SpigotUtils<?> utils) {
+		this(utils.getPlugin(), utils.getScheduler());
+	}
+
+	/**
+	 * Creates a new {@link GUIHandler} that uses the specified <b>scheduler</b>.
+	 *
+	 * @param plugin the {@link JavaPlugin} that manages this {@link GUIHandler}.
+	 * @param scheduler the {@link SpigotTaskScheduler} of said <b>plugin</b>.
+	 *
+	 * @throws NullPointerException if <b>plugin</b> or <b>scheduler</b> are {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public GUIHandler(@Nonnull JavaPlugin plugin, @Nonnull SpigotTaskScheduler scheduler) {
+		this.plugin = Objects.requireNonNull(plugin, "plugin cannot be null.");
+		this.scheduler = Objects.requireNonNull(scheduler, "scheduler cannot be null.");
+	}
+
+	/**
+	 * Creates a new {@link GUIHandler} without a scheduler, one is only created for
+	 * <b>plugin</b> if a {@link GUI} refuses to close. Prefer {@link #GUIHandler(SpigotUtils)}
+	 * so the scheduler of the plugin is reused.
+	 *
+	 * @param plugin the {@link JavaPlugin} that manages this {@link GUIHandler}.
+	 *
+	 * @throws NullPointerException if <b>plugin</b> is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
 	public GUIHandler(@Nonnull JavaPlugin plugin) {
 		this.plugin = Objects.requireNonNull(plugin, "plugin cannot be null.");
 	}
@@ -350,13 +393,21 @@ public class GUIHandler implements Listener {
 	 * GUI handling
 	 */
 
+	// Only handlers created without a scheduler create one, close events may come from any region thread on Folia.
+	@Nonnull
+	private synchronized SpigotTaskScheduler getScheduler() {
+		if (scheduler == null)
+			scheduler = new SpigotTaskScheduler(plugin);
+		return scheduler;
+	}
+
 	@ApiStatus.Internal
 	@EventHandler(priority = EventPriority.HIGHEST)
 	public void onClose(InventoryCloseEvent event) {
 		final Player player = (Player) event.getPlayer();
 		final GUI gui = getOpenedGUI(player);
 		if (gui != null && !close(player, gui, event, false))
-			Bukkit.getScheduler().runTaskLater(plugin, () -> player.openInventory(event.getInventory()), 1);
+			getScheduler().delayFor(player, () -> player.openInventory(event.getInventory()), 1);
 	}
 
 	@ApiStatus.Internal
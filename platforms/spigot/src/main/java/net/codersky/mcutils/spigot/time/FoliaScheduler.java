@@ -0,0 +1,159 @@
+package net.codersky.mcutils.spigot.time;
+
+import net.codersky.mcutils.time.Task;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.function.Consumer;
+
+/**
+ * Access to the schedulers of Folia, used by {@link SpigotTaskScheduler} when
+ * running on it. MCUtils is compiled against the Spigot API, so Folia schedulers
+ * are accessed through {@link MethodHandle method handles} resolved once per instance.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+@ApiStatus.Internal
+final class FoliaScheduler {
+
+	private static final String PACKAGE = "io.papermc.paper.threadedregions.";
+	private static final boolean SUPPORTED = isClassPresent(PACKAGE + "RegionizedServer");
+
+	private final Plugin plugin;
+	private final Object global, region;
+	private final MethodHandle globalRun, globalDelayed, globalRate;
+	private final MethodHandle regionRun, regionDelayed, regionRate;
+	private final MethodHandle entityScheduler, entityRun, entityDelayed, entityRate;
+	private final MethodHandle cancel;
+
+	private FoliaScheduler(@NotNull Plugin plugin) throws ReflectiveOperationException {
+		this.plugin = plugin;
+		final Class<?> globalClass = Class.forName(PACKAGE + "scheduler.GlobalRegionScheduler");
+		final Class<?> regionClass = Class.forName(PACKAGE + "scheduler.RegionScheduler");
+		final Class<?> entityClass = Class.forName(PACKAGE + "scheduler.EntityScheduler");
+		final Class<?> taskClass = Class.forName(PACKAGE + "scheduler.ScheduledTask");
+		this.global = Bukkit.class.getMethod("getGlobalRegionScheduler").invoke(null);
+		this.region = Bukkit.class.getMethod("getRegionScheduler").invoke(null);
+		this.globalRun = find(globalClass, "run", Plugin.class, Consumer.class);
+		this.globalDelayed = find(globalClass, "runDelayed", Plugin.class, Consumer.class, long.class);
+		this.globalRate = find(globalClass, "runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class);
+		this.regionRun = find(regionClass, "run", Plugin.class, Location.class, Consumer.class);
+		this.regionDelayed = find(regionClass, "runDelayed", Plugin.class, Location.class, Consumer.class, long.class);
+		this.regionRate = find(regionClass, "runAtFixedRate", Plugin.class, Location.class, Consumer.class, long.class, long.class);
+		this.entityScheduler = find(Entity.class, "getScheduler");
+		this.entityRun = find(entityClass, "run", Plugin.class, Consumer.class, Runnable.class);
+		this.entityDelayed = find(entityClass, "runDelayed", Plugin.class, Consumer.class, Runnable.class, long.class);
+		this.entityRate = find(entityClass, "runAtFixedRate", Plugin.class, Consumer.class, Runnable.class, long.class, long.class);
+		this.cancel = find(taskClass, "cancel");
+	}
+
+	/**
+	 * Creates a {@link FoliaScheduler} for the specified {@code plugin}
+	 * if the server is running Folia.
+	 *
+	 * @param plugin The plugin that owns the tasks.
+	 *
+	 * @return A new {@link FoliaScheduler}, {@code null} if Folia isn't available.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Nullable
+	static FoliaScheduler create(@NotNull Plugin plugin) {
+		if (!SUPPORTED)
+			return null;
+		try {
+			return new FoliaScheduler(plugin);
+		} catch (ReflectiveOperationException ex) {
+			throw new IllegalStateException("Folia was detected, but its schedulers could not be accessed", ex);
+		}
+	}
+
+	static boolean isSupported() {
+		return SUPPORTED;
+	}
+
+	private static boolean isClassPresent(@NotNull String name) {
+		try {
+			Class.forName(name);
+			return true;
+		} catch (ClassNotFoundException ex) {
+			return false;
+		}
+	}
+
+	@NotNull
+	private static MethodHandle find(@NotNull Class<?> owner, @NotNull String name, @NotNull Class<?>... params) throws ReflectiveOperationException {
+		return MethodHandles.publicLookup().unreflect(owner.getMethod(name, params));
+	}
+
+	/*
+	 * Scheduling
+	 */
+
+	// Folia rejects delays and periods lower than one, except for tasks that run right away.
+	@NotNull
+	Task runGlobal(@NotNull Runnable task, long delay, long period) {
+		final Consumer<Object> consumer = scheduled -> task.run();
+		if (period > 0)
+			return schedule(globalRate, global, plugin, consumer, Math.max(1, delay), period);
+		if (delay > 0)
+			return schedule(globalDelayed, global, plugin, consumer, delay);
+		return schedule(globalRun, global, plugin, consumer);
+	}
+
+	@NotNull
+	Task runAt(@NotNull Location location, @NotNull Runnable task, long delay, long period) {
+		final Consumer<Object> consumer = scheduled -> task.run();
+		if (period > 0)
+			return schedule(regionRate, region, plugin, location, consumer, Math.max(1, delay), period);
+		if (delay > 0)
+			return schedule(regionDelayed, region, plugin, location, consumer, delay);
+		return schedule(regionRun, region, plugin, location, consumer);
+	}
+
+	@NotNull
+	Task runFor(@NotNull Entity entity, @NotNull Runnable task, long delay, long period) {
+		final Consumer<Object> consumer = scheduled -> task.run();
+		final Object scheduler;
+		try {
+			scheduler = entityScheduler.invoke(entity);
+		} catch (Throwable ex) {
+			throw new IllegalStateException("Could not get the Folia scheduler of " + entity, ex);
+		}
+		// Tasks of entities that are removed before they run are simply dropped.
+		if (period > 0)
+			return schedule(entityRate, scheduler, plugin, consumer, null, Math.max(1, delay), period);
+		if (delay > 0)
+			return schedule(entityDelayed, scheduler, plugin, consumer, null, delay);
+		return schedule(entityRun, scheduler, plugin, consumer, null);
+	}
+
+	@NotNull
+	private Task schedule(@NotNull MethodHandle handle, @Nullable Object... args) {
+		final Object scheduled;
+		try {
+			scheduled = handle.invokeWithArguments(args);
+		} catch (Throwable ex) {
+			throw new IllegalStateException("Could not schedule a task on Folia", ex);
+		}
+		// Entity schedulers return null if the entity was already removed, so there is nothing to cancel.
+		if (scheduled == null)
+			return () -> {};
+		return () -> {
+			try {
+				cancel.invoke(scheduled);
+			} catch (Throwable ex) {
+				throw new IllegalStateException("Could not cancel a Folia task", ex);
+			}
+		};
+	}
+}
@@ -0,0 +1,59 @@
+package net.codersky.mcutils.spigot.time;
+
+import net.codersky.mcutils.time.AsyncExecutor;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Listener} that {@link AsyncExecutor#shutdown(long, TimeUnit) shuts down}
+ * the {@link AsyncExecutor} of a plugin when said plugin is disabled. Bukkit calls
+ * this listener before {@link JavaPlugin#onDisable()}, so the executor is given a
+ * {@link #GRACE_PERIOD_SECONDS grace period} in which tasks submitted by said
+ * method, and tasks that were already running, can finish.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+@ApiStatus.Internal
+public class SpigotAsyncExecutorListener implements Listener {
+
+	/**
+	 * The amount of seconds the {@link AsyncExecutor} keeps working
+	 * after its plugin starts being disabled.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public static final long GRACE_PERIOD_SECONDS = 5;
+
+	private final JavaPlugin plugin;
+	private final AsyncExecutor executor;
+
+	public SpigotAsyncExecutorListener(@NotNull JavaPlugin plugin, @NotNull AsyncExecutor executor) {
+		this.plugin = plugin;
+		this.executor = executor;
+	}
+
+	@NotNull
+	public SpigotAsyncExecutorListener init() {
+		Bukkit.getPluginManager().registerEvents(this, plugin);
+		return this;
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onDisable(PluginDisableEvent e) {
+		if (e.getPlugin() != plugin)
+			return;
+		executor.shutdown(GRACE_PERIOD_SECONDS, TimeUnit.SECONDS);
+		HandlerList.unregisterAll(this);
+	}
+}
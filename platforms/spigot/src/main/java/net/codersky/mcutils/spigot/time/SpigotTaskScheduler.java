@@ -1,57 +1,339 @@
 package net.codersky.mcutils.spigot.time;
 
+import net.codersky.mcutils.crossplatform.player.MCPlayer;
+import net.codersky.mcutils.spigot.player.SpigotPlayer;
+import net.codersky.mcutils.time.AsyncExecutor;
+import net.codersky.mcutils.time.SyncExecutor;
 import net.codersky.mcutils.time.Task;
 import net.codersky.mcutils.time.TaskScheduler;
+import net.codersky.mcutils.time.TimerWheel;
+import net.codersky.mcutils.time.metrics.TaskMetrics;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.concurrent.TimeUnit;
 
 /**
  * The Spigot platform {@link TaskScheduler}.
+ * <p>
+ * When running on Folia, where the Bukkit scheduler isn't available, tasks are
+ * scheduled on Folia's own schedulers instead. Synchronous tasks run on the
+ * global region, while {@link #runAt(Location, Runnable) location} and
+ * {@link #runFor(Entity, Runnable) entity} tasks run on the region that owns
+ * them. On any other server, every synchronous task runs on the main thread.
+ * <p>
+ * Asynchronous tasks never use the Bukkit scheduler, they run on the
+ * {@link #getAsyncExecutor() AsyncExecutor} of this scheduler instead.
  *
  * @since MCUtils 1.0.0
  */
 public class SpigotTaskScheduler implements TaskScheduler {
 
 	private final JavaPlugin plugin;
+	private final FoliaScheduler folia;
+	private volatile TimerWheel timerWheel = null;
+	private volatile SyncExecutor syncExecutor = null;
+	private volatile AsyncExecutor asyncExecutor = null;
+	private volatile TaskMetrics taskMetrics = null;
 
 	public SpigotTaskScheduler(@NotNull JavaPlugin plugin) {
 		this.plugin = plugin;
+		this.folia = FoliaScheduler.create(plugin);
+	}
+
+	/**
+	 * Checks whether the server is running Folia, in which case
+	 * tasks are scheduled on Folia's region schedulers.
+	 *
+	 * @return {@code true} if the server is running Folia, {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public static boolean isFolia() {
+		return FoliaScheduler.isSupported();
+	}
+
+	/**
+	 * Checks whether this scheduler can no longer run tasks, which
+	 * happens once the plugin that owns it is disabled.
+	 *
+	 * @return {@code true} if the plugin of this scheduler is disabled, {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Override
+	public boolean isShutdown() {
+		return !plugin.isEnabled();
 	}
 
 	private long toTicks(@NotNull TimeUnit unit, int amount) {
-		return unit.toMillis(amount) * 50;
+		return TaskScheduler.toTicks(unit, amount);
+	}
+
+	@NotNull
+	private Runnable timed(@NotNull Runnable task, boolean sync) {
+		return TaskMetrics.wrap(this, task, sync);
 	}
 
 	@Override
 	public @NotNull Task runSync(@NotNull Runnable task) {
-		return new SpigotTask(Bukkit.getScheduler().runTask(plugin, task));
+		if (folia != null)
+			return folia.runGlobal(timed(task, true), 0, 0);
+		return new SpigotTask(Bukkit.getScheduler().runTask(plugin, timed(task, true)));
 	}
 
 	@Override
 	public @NotNull Task delaySync(@NotNull Runnable task, @NotNull TimeUnit unit, int delay) {
-		return new SpigotTask(Bukkit.getScheduler().runTaskLater(plugin, task, toTicks(unit, delay)));
+		return delayTicks(task, toTicks(unit, delay));
 	}
 
 	@Override
 	public @NotNull Task repeatSync(@NotNull Runnable task, @NotNull TimeUnit unit, int delay, int repeat) {
-		return new SpigotTask(Bukkit.getScheduler().runTaskTimer(plugin, task, toTicks(unit, delay), toTicks(unit, repeat)));
+		return repeatTicks(task, toTicks(unit, delay), toTicks(unit, repeat));
+	}
+
+	@Override
+	public @NotNull Task delayTicks(@NotNull Runnable task, long delay) {
+		if (folia != null)
+			return folia.runGlobal(timed(task, true), delay, 0);
+		return new SpigotTask(Bukkit.getScheduler().runTaskLater(plugin, timed(task, true), delay));
+	}
+
+	@Override
+	public @NotNull Task repeatTicks(@NotNull Runnable task, long delay, long period) {
+		if (folia != null)
+			return folia.runGlobal(timed(task, true), delay, Math.max(1, period));
+		return new SpigotTask(Bukkit.getScheduler().runTaskTimer(plugin, timed(task, true), delay, Math.max(1, period)));
+	}
+
+	@Override
+	public @NotNull TimerWheel getTimerWheel() {
+		TimerWheel result = timerWheel;
+		if (result == null) {
+			synchronized (this) {
+				result = timerWheel;
+				if (result == null)
+					timerWheel = result = new TimerWheel(this);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public @NotNull SyncExecutor getSyncExecutor() {
+		SyncExecutor result = syncExecutor;
+		if (result == null) {
+			synchronized (this) {
+				result = syncExecutor;
+				if (result == null)
+					syncExecutor = result = new SyncExecutor(this);
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * Region aware tasks
+	 */
+
+	@Override
+	public @NotNull Task runGlobal(@NotNull Runnable task) {
+		return runSync(task);
+	}
+
+	/**
+	 * Runs {@code task} on the thread that owns the specified {@code location}.
+	 * On Folia, this is the region that contains {@code location}, on any
+	 * other server, this is just the main thread.
+	 *
+	 * @param location The {@link Location} that {@code task} interacts with.
+	 * @param task The task to run.
+	 *
+	 * @return The scheduled {@link Task}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public @NotNull Task runAt(@NotNull Location location, @NotNull Runnable task) {
+		return delayAt(location, task, 0);
+	}
+
+	/**
+	 * Runs {@code task} on the thread that owns the specified {@code location}
+	 * after the specified amount of ticks.
+	 *
+	 * @param location The {@link Location} that {@code task} interacts with.
+	 * @param task The task to run.
+	 * @param delay The delay in ticks, values lower than one run the task on the next tick.
+	 *
+	 * @return The scheduled {@link Task}.
+	 *
+	 * @since MCUtils 1.0.0
+	 *
+	 * @see #runAt(Location, Runnable)
+	 */
+	public @NotNull Task delayAt(@NotNull Location location, @NotNull Runnable task, long delay) {
+		if (folia != null)
+			return folia.runAt(location, timed(task, true), delay, 0);
+		return delayTicks(task, delay);
+	}
+
+	/**
+	 * Repeatedly runs {@code task} on the thread that owns the specified {@code location}
+	 * every {@code period} ticks, after an initial delay of {@code delay} ticks.
+	 *
+	 * @param location The {@link Location} that {@code task} interacts with.
+	 * @param task The task to run.
+	 * @param delay The initial delay in ticks, values lower than one run the task on the next tick.
+	 * @param period The period between runs in ticks, values lower than one are treated as one.
+	 *
+	 * @return The scheduled {@link Task}.
+	 *
+	 * @since MCUtils 1.0.0
+	 *
+	 * @see #runAt(Location, Runnable)
+	 */
+	public @NotNull Task repeatAt(@NotNull Location location, @NotNull Runnable task, long delay, long period) {
+		if (folia != null)
+			return folia.runAt(location, timed(task, true), delay, Math.max(1, period));
+		return repeatTicks(task, delay, period);
+	}
+
+	/**
+	 * Runs {@code task} on the thread that owns the specified {@code entity}, following
+	 * it across regions on Folia. On any other server, this is just the main thread.
+	 * On Folia, tasks of entities that are removed before the task runs never run.
+	 *
+	 * @param entity The {@link Entity} that {@code task} interacts with.
+	 * @param task The task to run.
+	 *
+	 * @return The scheduled {@link Task}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public @NotNull Task runFor(@NotNull Entity entity, @NotNull Runnable task) {
+		return delayFor(entity, task, 0);
+	}
+
+	/**
+	 * Runs {@code task} on the thread that owns the specified {@code entity}
+	 * after the specified amount of ticks.
+	 *
+	 * @param entity The {@link Entity} that {@code task} interacts with.
+	 * @param task The task to run.
+	 * @param delay The delay in ticks, values lower than one run the task on the next tick.
+	 *
+	 * @return The scheduled {@link Task}.
+	 *
+	 * @since MCUtils 1.0.0
+	 *
+	 * @see #runFor(Entity, Runnable)
+	 */
+	public @NotNull Task delayFor(@NotNull Entity entity, @NotNull Runnable task, long delay) {
+		if (folia != null)
+			return folia.runFor(entity, timed(task, true), delay, 0);
+		return delayTicks(task, delay);
+	}
+
+	/**
+	 * Repeatedly runs {@code task} on the thread that owns the specified {@code entity}
+	 * every {@code period} ticks, after an initial delay of {@code delay} ticks.
+	 *
+	 * @param entity The {@link Entity} that {@code task} interacts with.
+	 * @param task The task to run.
+	 * @param delay The initial delay in ticks, values lower than one run the task on the next tick.
+	 * @param period The period between runs in ticks, values lower than one are treated as one.
+	 *
+	 * @return The scheduled {@link Task}.
+	 *
+	 * @since MCUtils 1.0.0
+	 *
+	 * @see #runFor(Entity, Runnable)
+	 */
+	public @NotNull Task repeatFor(@NotNull Entity entity, @NotNull Runnable task, long delay, long period) {
+		if (folia != null)
+			return folia.runFor(entity, timed(task, true), delay, Math.max(1, period));
+		return repeatTicks(task, delay, period);
+	}
+
+	@Override
+	public @NotNull Task runFor(@NotNull MCPlayer player, @NotNull Runnable task) {
+		if (player instanceof final SpigotPlayer spigotPlayer)
+			return runFor(spigotPlayer.getHandle(), task);
+		return runSync(task);
+	}
+
+	/*
+	 * Asynchronous tasks
+	 */
+
+	/**
+	 * Gets the {@link AsyncExecutor} of this scheduler, creating it if needed. If the
+	 * plugin that owns this scheduler is enabled when the executor is created, it is
+	 * shut down automatically once said plugin is disabled, after a
+	 * {@link SpigotAsyncExecutorListener#GRACE_PERIOD_SECONDS grace period}.
+	 *
+	 * @return The {@link AsyncExecutor} of this scheduler.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Override
+	public @NotNull AsyncExecutor getAsyncExecutor() {
+		AsyncExecutor result = asyncExecutor;
+		if (result == null) {
+			synchronized (this) {
+				result = asyncExecutor;
+				if (result == null) {
+					result = new AsyncExecutor(plugin.getName() + " async");
+					if (plugin.isEnabled())
+						new SpigotAsyncExecutorListener(plugin, result).init();
+					asyncExecutor = result;
+				}
+			}
+		}
+		return result;
 	}
 
 	@Override
 	public @NotNull Task runAsync(@NotNull Runnable task) {
-		return new SpigotTask(Bukkit.getScheduler().runTaskAsynchronously(plugin, task));
+		return getAsyncExecutor().run(timed(task, false));
 	}
 
 	@Override
 	public @NotNull Task delayAsync(@NotNull Runnable task, @NotNull TimeUnit unit, int delay) {
-		return new SpigotTask(Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, task, unit.toMillis(delay) * 50));
+		return getAsyncExecutor().schedule(timed(task, false), delay, unit);
 	}
 
 	@Override
 	public @NotNull Task repeatAsync(@NotNull Runnable task, @NotNull TimeUnit unit, int delay, int repeat) {
-		return new SpigotTask(Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, task, toTicks(unit, delay), toTicks(unit, repeat)));
+		return getAsyncExecutor().scheduleAtFixedRate(timed(task, false), delay, repeat, unit);
+	}
+
+	@Override
+	public @NotNull Task delayTicksAsync(@NotNull Runnable task, long delay) {
+		return getAsyncExecutor().schedule(timed(task, false), delay * 50, TimeUnit.MILLISECONDS); // 1 tick = 50 milliseconds
+	}
+
+	@Override
+	public @NotNull Task repeatTicksAsync(@NotNull Runnable task, long delay, long period) {
+		return getAsyncExecutor().scheduleAtFixedRate(timed(task, false), delay * 50, Math.max(1, period) * 50, TimeUnit.MILLISECONDS);
+	}
+
+	/*
+	 * Metrics
+	 */
+
+	@Override
+	public @NotNull SpigotTaskScheduler setTaskMetrics(@Nullable TaskMetrics metrics) {
+		this.taskMetrics = metrics;
+		return this;
+	}
+
+	@Override
+	public @Nullable TaskMetrics getTaskMetrics() {
+		return taskMetrics;
 	}
 }
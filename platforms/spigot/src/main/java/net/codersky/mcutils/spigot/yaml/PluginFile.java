@@ -12,6 +12,7 @@ import java.util.function.Function;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import net.codersky.mcutils.java.strings.PrefixTrie;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.configuration.InvalidConfigurationException;
@@ -121,10 +122,10 @@ public class PluginFile extends YmlFile {
 
 	// Update //
 
-	private int updateSet(Set<String> loopKeys, Set<String> condKeys, List<String> ignored, Function<String, Object> action) {
+	private int updateSet(Set<String> loopKeys, Set<String> condKeys, PrefixTrie<?> ignored, Function<String, Object> action) {
 		int changes = 0;
 		for (String key : loopKeys) {
-			if (!condKeys.contains(key) && !isIgnored(key, ignored)) {
+			if (!condKeys.contains(key) && !ignored.matches(key)) {
 				this.set(key, action.apply(key));
 				changes++;
 			}
@@ -132,15 +133,6 @@ public class PluginFile extends YmlFile {
 		return changes;
 	}
 	
-	private boolean isIgnored(String path, List<String> ignored) {
-		if (ignored == null)
-			return false;
-		for (String ignoredPath : ignored)
-			if (path.startsWith(ignoredPath))
-				return true;
-		return false;
-	}
-	
 	private boolean log(String str, boolean ret) {
 		Bukkit.getConsoleSender().sendMessage(ChatColor.translateAlternateColorCodes('&', str));
 		return ret;
@@ -171,8 +163,9 @@ public class PluginFile extends YmlFile {
 			updated.load(new InputStreamReader(updateStream));
 			final Set<String> oldKeys = this.getKeys(true);
 			final Set<String> updKeys = updated.getKeys(true);
-			changes += updateSet(oldKeys, updKeys, ignored, key -> null);
-			changes += updateSet(updKeys, oldKeys, ignored, key -> updated.get(key));
+			final PrefixTrie<?> ignoredTrie = new PrefixTrie<>(ignored);
+			changes += updateSet(oldKeys, updKeys, ignoredTrie, key -> null);
+			changes += updateSet(updKeys, oldKeys, ignoredTrie, key -> updated.get(key));
 			if (changes == 0)
 				return true;
 			this.save(plugin.getDataFolder() + "/" + getPath());
@@ -4,23 +4,31 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import net.codersky.mcutils.Reloadable;
+import net.codersky.mcutils.SnapshotReloadable;
+import net.codersky.mcutils.storage.files.FileReloadable;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.plugin.java.JavaPlugin;
 
 /**
  * Represents a basic yml file, not necessarily present
  * on the plugin's jar file as a resource.
+ * <p>
+ * The snapshot of a {@link YmlFile} is the raw content of the file,
+ * which is read asynchronously by {@link #loadSnapshot()} and parsed
+ * on {@link #applySnapshot(String)}, as Bukkit configurations can't
+ * be swapped once created.
  * 
  * @since MCUtils 1.0.0
  * 
  * @author xDec0de_
  */
-public class YmlFile extends CharsetYamlConfiguration implements Reloadable {
+public class YmlFile extends CharsetYamlConfiguration implements Reloadable, SnapshotReloadable<String>, FileReloadable {
 
 	private final String path;
 	final File file;
@@ -122,6 +130,12 @@ public class YmlFile extends CharsetYamlConfiguration implements Reloadable {
 		return file;
 	}
 
+	@Nonnull
+	@Override
+	public File asFile() {
+		return file;
+	}
+
 	/**
 	 * Saves this file. If there is any error saving the file,
 	 * the errors will be logged and false will be returned.
@@ -158,4 +172,36 @@ public class YmlFile extends CharsetYamlConfiguration implements Reloadable {
 			return false;
 		}
 	}
+
+	@Nullable
+	@Override
+	public String loadSnapshot() {
+		try {
+			return new String(Files.readAllBytes(file.toPath()), getCharset());
+		} catch (IOException | SecurityException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Parses the specified <b>snapshot</b>, replacing the current values of this file.
+	 * Bukkit parses the whole snapshot before clearing any value, so the current values
+	 * are kept if it isn't valid.
+	 *
+	 * @param snapshot the raw content of the file, obtained with {@link #loadSnapshot()}.
+	 *
+	 * @throws IllegalArgumentException if <b>snapshot</b> isn't a valid configuration, so the
+	 * reload is reported as failed instead of looking like a successful one.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Override
+	public void applySnapshot(@Nonnull String snapshot) {
+		try {
+			this.loadFromString(snapshot);
+		} catch (InvalidConfigurationException e) {
+			throw new IllegalArgumentException("Invalid configuration on " + file.getName(), e);
+		}
+	}
 }
@@ -1,17 +1,28 @@
 package net.codersky.mcutils.velocity;
 
+import com.velocitypowered.api.command.BrigadierCommand;
 import com.velocitypowered.api.command.CommandManager;
 import com.velocitypowered.api.command.CommandMeta;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import net.codersky.mcutils.MCPlatform;
+import net.codersky.mcutils.cmd.AsyncCommandExecutor;
+import net.codersky.mcutils.cmd.AsyncMCCommand;
 import net.codersky.mcutils.cmd.MCCommand;
 import net.codersky.mcutils.cmd.MCCommandSender;
+import net.codersky.mcutils.cmd.completion.CompletionEngine;
 import net.codersky.mcutils.crossplatform.player.MCPlayer;
 import net.codersky.mcutils.crossplatform.player.PlayerProvider;
 import net.codersky.mcutils.crossplatform.proxy.ProxyUtils;
+import net.codersky.mcutils.velocity.cmd.AdaptedAsyncVelocityCommand;
 import net.codersky.mcutils.velocity.cmd.AdaptedVelocityCommand;
+import net.codersky.mcutils.velocity.cmd.VelocityAsyncCommandListener;
+import net.codersky.mcutils.velocity.cmd.VelocityBrigadierExporter;
 import net.codersky.mcutils.velocity.cmd.VelocityCommand;
+import net.codersky.mcutils.velocity.cmd.VelocityCompletionListener;
+import net.codersky.mcutils.velocity.cmd.VelocitySenderCache;
+import net.codersky.mcutils.velocity.cmd.VelocitySenderCacheListener;
+import net.codersky.mcutils.velocity.time.VelocityTaskScheduler;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -23,11 +34,15 @@ public class VelocityUtils<P> extends ProxyUtils<P> {
 	private final ProxyServer proxy;
 	private final VelocityConsole console;
 	private PlayerProvider<Player> playerProvider;
+	private volatile VelocitySenderCache senderCache = null;
+	private final VelocityTaskScheduler scheduler;
+	private boolean brigadierExport = false;
 
 	public VelocityUtils(@NotNull P plugin, @NotNull ProxyServer proxy) {
 		super(plugin);
 		this.proxy = Objects.requireNonNull(proxy);
 		this.console = new VelocityConsole(proxy.getConsoleCommandSource());
+		this.scheduler = new VelocityTaskScheduler(proxy, plugin);
 	}
 
 	@NotNull
@@ -46,6 +61,54 @@ public class VelocityUtils<P> extends ProxyUtils<P> {
 		return playerProvider;
 	}
 
+	/**
+	 * Gets the {@link VelocitySenderCache} used to reuse command sender wrappers, creating
+	 * it on the first call. Wrappers of players are removed from it as soon as
+	 * said players leave.
+	 *
+	 * @return The {@link VelocitySenderCache} of this utils instance.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public VelocitySenderCache getSenderCache() {
+		VelocitySenderCache cache = senderCache;
+		if (cache == null) {
+			synchronized (this) {
+				if ((cache = senderCache) == null) {
+					senderCache = cache = new VelocitySenderCache(this);
+					new VelocitySenderCacheListener(cache).init(getPlugin(), proxy);
+				}
+			}
+		}
+		return cache;
+	}
+
+	/**
+	 * Sets whether commands registered after calling this method are exported as
+	 * {@link BrigadierCommand Brigadier commands} instead of simple commands. This
+	 * sends the structure of each command to clients, so they can validate and
+	 * suggest sub commands and typed arguments locally, which saves proxy CPU and
+	 * suggestion packets. This is disabled by default.
+	 *
+	 * @param brigadierExport Whether to export commands to Brigadier.
+	 *
+	 * @return This {@link VelocityUtils} instance.
+	 *
+	 * @since MCUtils 1.0.0
+	 *
+	 * @see VelocityBrigadierExporter
+	 */
+	@NotNull
+	public VelocityUtils<P> setBrigadierExport(boolean brigadierExport) {
+		this.brigadierExport = brigadierExport;
+		return this;
+	}
+
+	public boolean isBrigadierExport() {
+		return brigadierExport;
+	}
+
 	@Nullable
 	public MCPlayer getPlayer(@NotNull UUID uuid) {
 		return playerProvider.getPlayer(uuid);
@@ -61,6 +124,28 @@ public class VelocityUtils<P> extends ProxyUtils<P> {
 		return MCPlatform.VELOCITY;
 	}
 
+	@NotNull
+	@Override
+	public VelocityTaskScheduler getScheduler() {
+		return scheduler;
+	}
+
+	@NotNull
+	@Override
+	protected CompletionEngine createCompletionEngine() {
+		final CompletionEngine engine = new CompletionEngine();
+		new VelocityCompletionListener(engine).init(getPlugin(), proxy);
+		return engine;
+	}
+
+	@NotNull
+	@Override
+	protected AsyncCommandExecutor createAsyncCommandExecutor() {
+		final AsyncCommandExecutor executor = new AsyncCommandExecutor();
+		new VelocityAsyncCommandListener(executor).init(getPlugin(), proxy);
+		return executor;
+	}
+
 	@Override
 	@SuppressWarnings({"unchecked", "rawtypes"})
 	public void registerCommands(MCCommand<P, MCCommandSender>... commands) {
@@ -69,8 +154,18 @@ public class VelocityUtils<P> extends ProxyUtils<P> {
 			final VelocityCommand<P> velocityCommand;
 			if (mcCommand instanceof VelocityCommand)
 				velocityCommand = (VelocityCommand) mcCommand;
+			else if (mcCommand instanceof AsyncMCCommand<P, MCCommandSender> async)
+				velocityCommand = new AdaptedAsyncVelocityCommand<>(this, async);
 			else
 				velocityCommand = new AdaptedVelocityCommand<>(this, mcCommand);
+			if (brigadierExport) {
+				final BrigadierCommand brigadierCommand = VelocityBrigadierExporter.export(velocityCommand);
+				manager.register(manager.metaBuilder(brigadierCommand)
+						.plugin(getPlugin())
+						.aliases(velocityCommand.getAliasesArray())
+						.build(), brigadierCommand);
+				continue;
+			}
 			final CommandMeta meta = manager.metaBuilder(velocityCommand.getName())
 					.plugin(getPlugin())
 					.aliases(velocityCommand.getAliasesArray())
@@ -0,0 +1,39 @@
+package net.codersky.mcutils.velocity.cmd;
+
+import net.codersky.mcutils.cmd.AsyncMCCommand;
+import net.codersky.mcutils.cmd.MCCommandSender;
+import net.codersky.mcutils.velocity.VelocityUtils;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link AdaptedVelocityCommand} of an {@link AsyncMCCommand}. As it is an
+ * {@link AsyncMCCommand} itself, the {@link net.codersky.mcutils.cmd.SubCommandHandler
+ * SubCommandHandler} hands it off to the {@link net.codersky.mcutils.cmd.AsyncCommandExecutor
+ * AsyncCommandExecutor} like any other asynchronous command, so command metrics
+ * record the actual execution instead of just the handoff.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @param <P> The plugin class that owns this command.
+ */
+public class AdaptedAsyncVelocityCommand<P> extends AdaptedVelocityCommand<P> implements AsyncMCCommand<P, VelocityCommandSender> {
+
+	private final AsyncMCCommand<P, MCCommandSender> command;
+
+	public AdaptedAsyncVelocityCommand(@NotNull VelocityUtils<P> utils, @NotNull AsyncMCCommand<P, MCCommandSender> command) {
+		super(utils, command);
+		this.command = command;
+	}
+
+	@Override
+	public boolean isCancelledOnQuit() {
+		return command.isCancelledOnQuit();
+	}
+
+	@Override
+	public void onError(@NotNull VelocityCommandSender sender, @NotNull Throwable error) {
+		command.onError(sender, error);
+	}
+}
@@ -0,0 +1,45 @@
+package net.codersky.mcutils.velocity.cmd;
+
+import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.proxy.ProxyShutdownEvent;
+import com.velocitypowered.api.proxy.ProxyServer;
+import net.codersky.mcutils.cmd.AsyncCommandExecutor;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listener that {@link AsyncCommandExecutor#cancel(java.util.UUID) cancels}
+ * the asynchronous command executions of players that leave the proxy, and
+ * {@link AsyncCommandExecutor#shutdown() shuts down} said executor when the proxy shuts down.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+@ApiStatus.Internal
+public class VelocityAsyncCommandListener {
+
+	private final AsyncCommandExecutor executor;
+
+	public VelocityAsyncCommandListener(@NotNull AsyncCommandExecutor executor) {
+		this.executor = executor;
+	}
+
+	@NotNull
+	public VelocityAsyncCommandListener init(@NotNull Object plugin, @NotNull ProxyServer proxy) {
+		proxy.getEventManager().register(plugin, this);
+		return this;
+	}
+
+	@Subscribe(order = PostOrder.LAST)
+	public void onDisconnect(DisconnectEvent e) {
+		executor.cancel(e.getPlayer().getUniqueId());
+	}
+
+	@Subscribe(order = PostOrder.LAST)
+	public void onShutdown(ProxyShutdownEvent e) {
+		executor.shutdown();
+	}
+}
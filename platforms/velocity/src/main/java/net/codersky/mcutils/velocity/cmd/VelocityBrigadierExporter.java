@@ -0,0 +1,150 @@
+package net.codersky.mcutils.velocity.cmd;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.arguments.BoolArgumentType;
+import com.mojang.brigadier.arguments.DoubleArgumentType;
+import com.mojang.brigadier.arguments.FloatArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.LongArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.builder.RequiredArgumentBuilder;
+import com.mojang.brigadier.suggestion.SuggestionProvider;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import com.velocitypowered.api.command.BrigadierCommand;
+import com.velocitypowered.api.command.CommandSource;
+import net.codersky.mcutils.cmd.MCCommand;
+import net.codersky.mcutils.cmd.SubCommandHandler;
+import net.codersky.mcutils.cmd.args.ArgumentParser;
+import net.codersky.mcutils.cmd.args.ArgumentSpec;
+import net.codersky.mcutils.cmd.args.ArgumentType;
+import net.codersky.mcutils.velocity.VelocityUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Exports a {@link VelocityCommand} as a {@link BrigadierCommand}, so clients
+ * know the structure of the command and can validate and suggest most of
+ * its arguments locally instead of asking the proxy on every key press.
+ * <p>
+ * Sub commands and their aliases become literal nodes, hidden from players
+ * that don't have {@link MCCommand#hasAccess(net.codersky.mcutils.cmd.MCCommandSender, boolean)
+ * access} to them. Commands that provide an {@link MCCommand#getArgumentParser()
+ * argument parser} get one node per argument, using native Brigadier types
+ * for numbers and booleans, and proxy side suggestions for any other type.
+ * Commands without a parser get a single greedy node that keeps their
+ * {@link MCCommand#onTab(net.codersky.mcutils.cmd.MCCommandSender, String[]) onTab}
+ * suggestions working as usual.
+ * <p>
+ * Executions are still routed through the {@link SubCommandHandler} of the
+ * command, so access checks, rate limits, asynchronous commands and metrics
+ * work exactly as with regular commands.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @see VelocityUtils#setBrigadierExport(boolean)
+ */
+public final class VelocityBrigadierExporter {
+
+	private VelocityBrigadierExporter() {}
+
+	/**
+	 * Exports the specified {@code command} as a {@link BrigadierCommand}.
+	 * The command tree is built once, so sub commands injected after calling
+	 * this method won't be present on it.
+	 *
+	 * @param command The {@link VelocityCommand} to export.
+	 *
+	 * @return A new {@link BrigadierCommand} that executes {@code command}.
+	 *
+	 * @param <P> The plugin class that owns {@code command}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static <P> BrigadierCommand export(@NotNull VelocityCommand<P> command) {
+		return new BrigadierCommand(build(command, command.getName(), command));
+	}
+
+	@NotNull
+	private static <P> LiteralArgumentBuilder<CommandSource> build(@NotNull VelocityCommand<P> root, @NotNull String name,
+	                                                                @NotNull MCCommand<P, VelocityCommandSender> cmd) {
+		final VelocitySenderCache senders = root.getUtils().getSenderCache();
+		final Command<CommandSource> executor = ctx -> {
+			root.execute(ctx.getSource(), ctx.getInput());
+			return Command.SINGLE_SUCCESS;
+		};
+		final LiteralArgumentBuilder<CommandSource> literal = BrigadierCommand.literalArgumentBuilder(name.toLowerCase())
+				.requires(source -> cmd.hasAccess(senders.get(source), false));
+		final SubCommandHandler<P, VelocityCommandSender> handler = cmd.getSubCommandHandler();
+		if (handler != null) {
+			for (MCCommand<P, VelocityCommandSender> subCommand : handler.getSubCommands()) {
+				literal.then(build(root, subCommand.getName(), subCommand));
+				for (String alias : subCommand.getAliases())
+					literal.then(build(root, alias, subCommand));
+			}
+		}
+		final ArgumentParser parser = cmd.getArgumentParser();
+		if (parser == null) {
+			final SuggestionProvider<CommandSource> legacy = (ctx, builder) -> root.suggest(ctx.getSource(), builder.getInput())
+					.thenApply(suggestions -> suggest(builder, suggestions).build());
+			return literal.executes(executor).then(BrigadierCommand.requiredArgumentBuilder("args", StringArgumentType.greedyString())
+					.suggests(legacy)
+					.executes(executor));
+		}
+		// Built backwards, a node can only be executed if every argument after it is optional.
+		final List<ArgumentSpec.Argument> arguments = parser.getArguments();
+		ArgumentBuilder<CommandSource, ?> next = null;
+		boolean optionalTail = true;
+		for (int i = arguments.size() - 1; i >= 0; i--) {
+			final ArgumentSpec.Argument argument = arguments.get(i);
+			final RequiredArgumentBuilder<CommandSource, ?> node = toNode(argument);
+			if (optionalTail)
+				node.executes(executor);
+			if (next != null)
+				node.then(next);
+			optionalTail &= argument.isOptional();
+			next = node;
+		}
+		if (optionalTail)
+			literal.executes(executor);
+		if (next != null)
+			literal.then(next);
+		return literal;
+	}
+
+	@NotNull
+	private static RequiredArgumentBuilder<CommandSource, ?> toNode(@NotNull ArgumentSpec.Argument argument) {
+		final String name = argument.getName();
+		final ArgumentType<?> type = argument.getType();
+		if (argument.isGreedy())
+			return BrigadierCommand.requiredArgumentBuilder(name, StringArgumentType.greedyString());
+		if (type == ArgumentType.INT)
+			return BrigadierCommand.requiredArgumentBuilder(name, IntegerArgumentType.integer());
+		if (type == ArgumentType.LONG)
+			return BrigadierCommand.requiredArgumentBuilder(name, LongArgumentType.longArg());
+		if (type == ArgumentType.FLOAT)
+			return BrigadierCommand.requiredArgumentBuilder(name, FloatArgumentType.floatArg());
+		if (type == ArgumentType.DOUBLE)
+			return BrigadierCommand.requiredArgumentBuilder(name, DoubleArgumentType.doubleArg());
+		if (type == ArgumentType.BOOLEAN)
+			return BrigadierCommand.requiredArgumentBuilder(name, BoolArgumentType.bool());
+		if (type == ArgumentType.STRING)
+			return BrigadierCommand.requiredArgumentBuilder(name, StringArgumentType.word());
+		// Custom types can't be validated by the client, so they are suggested by the proxy.
+		return BrigadierCommand.requiredArgumentBuilder(name, StringArgumentType.word())
+				.suggests((ctx, builder) -> suggest(builder, type.suggest(builder.getRemaining())).buildFuture());
+	}
+
+	@NotNull
+	private static SuggestionsBuilder suggest(@NotNull SuggestionsBuilder builder, @NotNull List<String> suggestions) {
+		final SuggestionsBuilder offset = builder.createOffset(builder.getInput().lastIndexOf(' ') + 1);
+		for (String suggestion : suggestions)
+			offset.suggest(suggestion);
+		return offset;
+	}
+}
@@ -1,5 +1,6 @@
 package net.codersky.mcutils.velocity.cmd;
 
+import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.SimpleCommand;
 import net.codersky.mcutils.cmd.MCCommand;
 import net.codersky.mcutils.cmd.SubCommandHandler;
@@ -64,17 +65,45 @@ public abstract class VelocityCommand<P> implements SimpleCommand, MCCommand<P,
 		return this;
 	}
 
+	@NotNull
+	@Override
+	public final SubCommandHandler<P, VelocityCommandSender> getSubCommandHandler() {
+		return subCmdHandler;
+	}
+
 	@Override
 	@ApiStatus.Internal
 	public final void execute(@NotNull final Invocation invocation) {
-		final VelocityCommandSender sender = new VelocityCommandSender(invocation.source(), getUtils());
+		final VelocityCommandSender sender = utils.getSenderCache().get(invocation.source());
 		subCmdHandler.onCommand(this, sender, invocation.arguments());
 	}
 
 	@Override
 	@ApiStatus.Internal
 	public final CompletableFuture<List<String>> suggestAsync(final Invocation invocation) {
-		final VelocityCommandSender sender = new VelocityCommandSender(invocation.source(), getUtils());
-		return CompletableFuture.supplyAsync(() -> subCmdHandler.onTab(this, sender, invocation.arguments()));
+		final VelocityCommandSender sender = utils.getSenderCache().get(invocation.source());
+		return getUtils().getCompletionEngine().completeAsync(() -> subCmdHandler.onTab(this, sender, invocation.arguments()));
+	}
+
+	// Used by VelocityBrigadierExporter, where only the raw input is available.
+
+	final void execute(@NotNull CommandSource source, @NotNull String input) {
+		subCmdHandler.onCommand(this, utils.getSenderCache().get(source), toArguments(input, false));
+	}
+
+	@NotNull
+	final CompletableFuture<List<String>> suggest(@NotNull CommandSource source, @NotNull String input) {
+		final VelocityCommandSender sender = utils.getSenderCache().get(source);
+		final String[] args = toArguments(input, true);
+		return getUtils().getCompletionEngine().completeAsync(() -> subCmdHandler.onTab(this, sender, args));
+	}
+
+	// Skips the command label, trailing spaces are only kept for suggestions.
+	@NotNull
+	private static String[] toArguments(@NotNull String input, boolean suggest) {
+		final int space = input.indexOf(' ');
+		if (space == -1)
+			return new String[0];
+		return input.substring(space + 1).split(" ", suggest ? -1 : 0);
 	}
 }
@@ -15,12 +15,19 @@ public class VelocityCommandSender implements MCCommandSender {
 
 	private final CommandSource source;
 	private final VelocityUtils<?> utils;
+	// Resolved once, wrappers are cached by the VelocitySenderCache.
+	private volatile MCPlayer player = null;
 
 	public VelocityCommandSender(@NotNull CommandSource source, @NotNull VelocityUtils<?> utils) {
 		this.source = source;
 		this.utils = utils;
 	}
 
+	@NotNull
+	public CommandSource getHandle() {
+		return source;
+	}
+
 	/*
 	 * Player related
 	 */
@@ -33,7 +40,10 @@ public class VelocityCommandSender implements MCCommandSender {
 	@Nullable
 	@Override
 	public MCPlayer asPlayer() {
-		return source instanceof Player player ? utils.getPlayer(player.getUniqueId()) : null;
+		MCPlayer mcPlayer = this.player;
+		if (mcPlayer == null && source instanceof Player handle)
+			this.player = mcPlayer = utils.getPlayer(handle.getUniqueId());
+		return mcPlayer;
 	}
 
 	@Nullable
@@ -0,0 +1,57 @@
+package net.codersky.mcutils.velocity.cmd;
+
+import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.connection.PostLoginEvent;
+import com.velocitypowered.api.event.proxy.ProxyShutdownEvent;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ProxyServer;
+import net.codersky.mcutils.cmd.completion.CompletionEngine;
+import net.codersky.mcutils.cmd.completion.SuggestionSource;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listener that keeps the {@link CompletionEngine#getPlayerNames() player names}
+ * of a {@link CompletionEngine} up to date as players join and leave the proxy, and
+ * {@link CompletionEngine#shutdown() shuts down} said engine when the proxy shuts down.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+@ApiStatus.Internal
+public class VelocityCompletionListener {
+
+	private final CompletionEngine engine;
+	private final SuggestionSource names;
+
+	public VelocityCompletionListener(@NotNull CompletionEngine engine) {
+		this.engine = engine;
+		this.names = engine.getPlayerNames();
+	}
+
+	@NotNull
+	public VelocityCompletionListener init(@NotNull Object plugin, @NotNull ProxyServer proxy) {
+		for (Player player : proxy.getAllPlayers())
+			names.add(player.getUsername());
+		proxy.getEventManager().register(plugin, this);
+		return this;
+	}
+
+	@Subscribe(order = PostOrder.LAST)
+	public void onLogin(PostLoginEvent e) {
+		names.add(e.getPlayer().getUsername());
+	}
+
+	@Subscribe(order = PostOrder.LAST)
+	public void onDisconnect(DisconnectEvent e) {
+		names.remove(e.getPlayer().getUsername());
+	}
+
+	@Subscribe(order = PostOrder.LAST)
+	public void onShutdown(ProxyShutdownEvent e) {
+		engine.shutdown();
+	}
+}
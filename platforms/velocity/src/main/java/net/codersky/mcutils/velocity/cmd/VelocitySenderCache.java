@@ -0,0 +1,50 @@
+package net.codersky.mcutils.velocity.cmd;
+
+import com.velocitypowered.api.command.CommandSource;
+import com.velocitypowered.api.proxy.Player;
+import net.codersky.mcutils.cmd.SenderCache;
+import net.codersky.mcutils.velocity.VelocityUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * {@link SenderCache} of {@link VelocityCommandSender} wrappers, obtained from
+ * {@link VelocityUtils#getSenderCache()}.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class VelocitySenderCache extends SenderCache<CommandSource, VelocityCommandSender> {
+
+	private final VelocityUtils<?> utils;
+
+	public VelocitySenderCache(@NotNull VelocityUtils<?> utils) {
+		this.utils = utils;
+	}
+
+	@Nullable
+	@Override
+	protected UUID getUUID(@NotNull CommandSource handle) {
+		return handle instanceof Player player ? player.getUniqueId() : null;
+	}
+
+	@NotNull
+	@Override
+	protected VelocityCommandSender wrap(@NotNull CommandSource handle) {
+		return new VelocityCommandSender(handle, utils);
+	}
+
+	@NotNull
+	@Override
+	protected CommandSource getHandle(@NotNull VelocityCommandSender sender) {
+		return sender.getHandle();
+	}
+
+	@Override
+	protected boolean isValid(@NotNull CommandSource handle) {
+		return handle instanceof Player player && player.isActive();
+	}
+}
@@ -0,0 +1,46 @@
+package net.codersky.mcutils.velocity.cmd;
+
+import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.proxy.ProxyShutdownEvent;
+import com.velocitypowered.api.proxy.ProxyServer;
+import net.codersky.mcutils.cmd.SenderCache;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listener that {@link SenderCache#invalidate(java.util.UUID) removes} the
+ * wrappers of players that leave the proxy from a {@link SenderCache}, so their
+ * handles aren't kept alive, and {@link SenderCache#clear() clears} said cache
+ * when the proxy shuts down.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+@ApiStatus.Internal
+public class VelocitySenderCacheListener {
+
+	private final SenderCache<?, ?> cache;
+
+	public VelocitySenderCacheListener(@NotNull SenderCache<?, ?> cache) {
+		this.cache = cache;
+	}
+
+	@NotNull
+	public VelocitySenderCacheListener init(@NotNull Object plugin, @NotNull ProxyServer proxy) {
+		proxy.getEventManager().register(plugin, this);
+		return this;
+	}
+
+	@Subscribe(order = PostOrder.LAST)
+	public void onDisconnect(DisconnectEvent e) {
+		cache.invalidate(e.getPlayer().getUniqueId());
+	}
+
+	@Subscribe(order = PostOrder.LAST)
+	public void onShutdown(ProxyShutdownEvent e) {
+		cache.clear();
+	}
+}
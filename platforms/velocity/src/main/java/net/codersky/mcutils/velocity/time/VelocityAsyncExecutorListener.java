@@ -0,0 +1,40 @@
+package net.codersky.mcutils.velocity.time;
+
+import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.proxy.ProxyShutdownEvent;
+import com.velocitypowered.api.proxy.ProxyServer;
+import net.codersky.mcutils.time.AsyncExecutor;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listener that {@link AsyncExecutor#shutdown() shuts down} the {@link AsyncExecutor}
+ * of a {@link VelocityTaskScheduler} when the proxy shuts down. This listener runs
+ * {@link PostOrder#LAST last}, so plugins can still use said executor while they
+ * handle the {@link ProxyShutdownEvent}.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+@ApiStatus.Internal
+public class VelocityAsyncExecutorListener {
+
+	private final AsyncExecutor executor;
+
+	public VelocityAsyncExecutorListener(@NotNull AsyncExecutor executor) {
+		this.executor = executor;
+	}
+
+	@NotNull
+	public VelocityAsyncExecutorListener init(@NotNull Object plugin, @NotNull ProxyServer proxy) {
+		proxy.getEventManager().register(plugin, this);
+		return this;
+	}
+
+	@Subscribe(order = PostOrder.LAST)
+	public void onShutdown(ProxyShutdownEvent e) {
+		executor.shutdown();
+	}
+}
@@ -1,14 +1,14 @@
 package net.codersky.mcutils.velocity.time;
 
-import com.velocitypowered.api.scheduler.ScheduledTask;
+import net.codersky.mcutils.time.AsyncExecutor;
 import net.codersky.mcutils.time.Task;
 import org.jetbrains.annotations.NotNull;
 
 public class VelocityTask implements Task {
 
-	private final ScheduledTask task;
+	private final AsyncExecutor.AsyncTask<?> task;
 
-	VelocityTask(@NotNull ScheduledTask task) {
+	VelocityTask(@NotNull AsyncExecutor.AsyncTask<?> task) {
 		this.task = task;
 	}
 
@@ -1,19 +1,42 @@
 package net.codersky.mcutils.velocity.time;
 
 import com.velocitypowered.api.proxy.ProxyServer;
+import net.codersky.mcutils.time.AsyncExecutor;
+import net.codersky.mcutils.time.SyncExecutor;
 import net.codersky.mcutils.time.TaskScheduler;
+import net.codersky.mcutils.time.TimerWheel;
+import net.codersky.mcutils.time.metrics.TaskMetrics;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.concurrent.TimeUnit;
 
+/**
+ * The Velocity platform {@link TaskScheduler}. Velocity has no main thread, so
+ * every task, synchronous or not, runs on the {@link #getAsyncExecutor() AsyncExecutor}
+ * of this scheduler, on virtual threads. Velocity has no ticks either, so they are
+ * converted to milliseconds (1 tick = 50 milliseconds).
+ *
+ * @since MCUtils 1.0.0
+ */
 public class VelocityTaskScheduler implements TaskScheduler {
 
-	private final ProxyServer server;
-	private final Object plugin;
+	private volatile TimerWheel timerWheel = null;
+	private volatile SyncExecutor syncExecutor = null;
+	private final AsyncExecutor asyncExecutor = new AsyncExecutor("MCUtils async");
+	private volatile TaskMetrics taskMetrics = null;
 
+	/**
+	 * Creates a new {@link VelocityTaskScheduler}, which {@link AsyncExecutor#shutdown()
+	 * shuts down} its {@link #getAsyncExecutor() AsyncExecutor} when the proxy shuts down.
+	 *
+	 * @param server The {@link ProxyServer} of {@code plugin}.
+	 * @param plugin The plugin that owns this scheduler.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
 	public VelocityTaskScheduler(@NotNull ProxyServer server, @NotNull Object plugin) {
-		this.server = server;
-		this.plugin = plugin;
+		new VelocityAsyncExecutorListener(asyncExecutor).init(plugin, server);
 	}
 
 	@Override
@@ -31,21 +54,85 @@ public class VelocityTaskScheduler implements TaskScheduler {
 		return repeatAsync(task, unit, delay, repeat);
 	}
 
+	@Override
+	public @NotNull VelocityTask delayTicks(@NotNull Runnable task, long delay) {
+		return delayTicksAsync(task, delay);
+	}
+
+	@Override
+	public @NotNull VelocityTask repeatTicks(@NotNull Runnable task, long delay, long period) {
+		return repeatTicksAsync(task, delay, period);
+	}
+
+	@Override
+	public @NotNull TimerWheel getTimerWheel() {
+		TimerWheel result = timerWheel;
+		if (result == null) {
+			synchronized (this) {
+				result = timerWheel;
+				if (result == null)
+					timerWheel = result = new TimerWheel(this);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public @NotNull SyncExecutor getSyncExecutor() {
+		SyncExecutor result = syncExecutor;
+		if (result == null) {
+			synchronized (this) {
+				result = syncExecutor;
+				if (result == null)
+					syncExecutor = result = new SyncExecutor(this);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public @NotNull AsyncExecutor getAsyncExecutor() {
+		return asyncExecutor;
+	}
+
 	@Override
 	public @NotNull VelocityTask runAsync(@NotNull Runnable task) {
-		return new VelocityTask(server.getScheduler().buildTask(plugin, task).schedule());
+		return new VelocityTask(asyncExecutor.run(TaskMetrics.wrap(this, task, false)));
 	}
 
 	@Override
 	public @NotNull VelocityTask delayAsync(@NotNull Runnable task, @NotNull TimeUnit unit, int delay) {
-		return new VelocityTask(server.getScheduler().buildTask(plugin, task).delay(delay, unit).schedule());
+		return new VelocityTask(asyncExecutor.schedule(TaskMetrics.wrap(this, task, false), delay, unit));
 	}
 
 	@Override
 	public @NotNull VelocityTask repeatAsync(@NotNull Runnable task, @NotNull TimeUnit unit, int delay, int repeat) {
-		return new VelocityTask(server.getScheduler().buildTask(plugin, task)
-				.delay(delay, unit)
-				.repeat(repeat, unit)
-				.schedule());
+		return new VelocityTask(asyncExecutor.scheduleAtFixedRate(TaskMetrics.wrap(this, task, false), delay, repeat, unit));
+	}
+
+	@Override
+	public @NotNull VelocityTask delayTicksAsync(@NotNull Runnable task, long delay) {
+		return new VelocityTask(asyncExecutor.schedule(TaskMetrics.wrap(this, task, false), Math.max(0, delay) * 50, TimeUnit.MILLISECONDS));
+	}
+
+	@Override
+	public @NotNull VelocityTask repeatTicksAsync(@NotNull Runnable task, long delay, long period) {
+		return new VelocityTask(asyncExecutor.scheduleAtFixedRate(TaskMetrics.wrap(this, task, false), Math.max(0, delay) * 50, Math.max(1, period) * 50, TimeUnit.MILLISECONDS));
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return asyncExecutor.isShutdown();
+	}
+
+	@Override
+	public @NotNull VelocityTaskScheduler setTaskMetrics(@Nullable TaskMetrics metrics) {
+		this.taskMetrics = metrics;
+		return this;
+	}
+
+	@Override
+	public @Nullable TaskMetrics getTaskMetrics() {
+		return taskMetrics;
 	}
 }
@@ -1,16 +1,32 @@
 package net.codersky.mcutils;
 
+import net.codersky.mcutils.cmd.AsyncCommandExecutor;
+import net.codersky.mcutils.cmd.AsyncMCCommand;
 import net.codersky.mcutils.cmd.MCCommand;
 import net.codersky.mcutils.cmd.MCCommandSender;
+import net.codersky.mcutils.cmd.completion.CompletionEngine;
+import net.codersky.mcutils.cmd.metrics.CommandMetrics;
 import net.codersky.mcutils.crossplatform.MCConsole;
 import net.codersky.mcutils.crossplatform.player.MCPlayer;
+import net.codersky.mcutils.storage.files.FileReloadable;
+import net.codersky.mcutils.storage.files.FileWatchService;
+import net.codersky.mcutils.time.TaskScheduler;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Platform independent class that provides access to
@@ -32,7 +48,11 @@ import java.util.UUID;
 public abstract class MCUtils<P> {
 
 	private final P plugin;
-	protected final Set<Reloadable> reloadables = new HashSet<>();
+	protected final Set<Reloadable> reloadables = new LinkedHashSet<>();
+	private final Map<Reloadable, Set<Reloadable>> reloadDependencies = new HashMap<>();
+	private volatile CompletionEngine completionEngine = null;
+	private volatile AsyncCommandExecutor asyncCommandExecutor = null;
+	private volatile CommandMetrics commandMetrics = null;
 
 	public MCUtils(@NotNull P plugin) {
 		this.plugin = Objects.requireNonNull(plugin);
@@ -70,6 +90,18 @@ public abstract class MCUtils<P> {
 	@NotNull
 	public abstract MCPlatform getPlatform();
 
+	/**
+	 * Gets the {@link TaskScheduler} of the platform this {@link MCUtils}
+	 * instance is running on, which allows scheduling tasks and handing off
+	 * work from other threads to the main thread.
+	 *
+	 * @return The {@link TaskScheduler} of this {@link MCUtils} instance.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public abstract TaskScheduler getScheduler();
+
 	/**
 	 * Gets the version of MCUtils being used by this utility
 	 * class.
@@ -90,6 +122,98 @@ public abstract class MCUtils<P> {
 
 	public abstract void registerCommands(MCCommand<P, MCCommandSender>... commands);
 
+	/**
+	 * Gets the {@link CompletionEngine} used by the commands of this {@link MCUtils}
+	 * instance, creating it on the first call.
+	 *
+	 * @return The {@link CompletionEngine} of this {@link MCUtils} instance.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public CompletionEngine getCompletionEngine() {
+		CompletionEngine engine = completionEngine;
+		if (engine == null) {
+			synchronized (this) {
+				if ((engine = completionEngine) == null)
+					completionEngine = engine = createCompletionEngine();
+			}
+		}
+		return engine;
+	}
+
+	/**
+	 * Gets the {@link AsyncCommandExecutor} used to run {@link AsyncMCCommand asynchronous
+	 * commands} registered by this {@link MCUtils} instance, creating it on the first call.
+	 *
+	 * @return The {@link AsyncCommandExecutor} of this {@link MCUtils} instance.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public AsyncCommandExecutor getAsyncCommandExecutor() {
+		AsyncCommandExecutor executor = asyncCommandExecutor;
+		if (executor == null) {
+			synchronized (this) {
+				if ((executor = asyncCommandExecutor) == null)
+					asyncCommandExecutor = executor = createAsyncCommandExecutor();
+			}
+		}
+		return executor;
+	}
+
+	/**
+	 * Enables or disables {@link CommandMetrics} for every command registered
+	 * by this {@link MCUtils} instance. Metrics are disabled by default.
+	 *
+	 * @param metrics The {@link CommandMetrics} to record commands on, {@code null} to disable them.
+	 *
+	 * @return This {@link MCUtils} instance.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public MCUtils<P> setCommandMetrics(@Nullable CommandMetrics metrics) {
+		final CommandMetrics previous = this.commandMetrics;
+		this.commandMetrics = metrics;
+		if (previous != null && previous != metrics)
+			previous.shutdown();
+		return this;
+	}
+
+	@Nullable
+	public CommandMetrics getCommandMetrics() {
+		return commandMetrics;
+	}
+
+	/**
+	 * Creates the {@link AsyncCommandExecutor} returned by {@link #getAsyncCommandExecutor()}.
+	 * Platforms override this method to {@link AsyncCommandExecutor#cancel(UUID) cancel}
+	 * the executions of players that leave.
+	 *
+	 * @return A new {@link AsyncCommandExecutor}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	protected AsyncCommandExecutor createAsyncCommandExecutor() {
+		return new AsyncCommandExecutor();
+	}
+
+	/**
+	 * Creates the {@link CompletionEngine} returned by {@link #getCompletionEngine()}.
+	 * Platforms override this method to keep the {@link CompletionEngine#getPlayerNames()
+	 * player names} source up to date.
+	 *
+	 * @return A new {@link CompletionEngine}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	protected CompletionEngine createCompletionEngine() {
+		return new CompletionEngine();
+	}
+
 	/*
 	 * Reloadables
 	 */
@@ -100,11 +224,247 @@ public abstract class MCUtils<P> {
 		return this;
 	}
 
+	/**
+	 * Registers a {@link Reloadable} that must be reloaded <b>after</b> all of the
+	 * specified {@code dependencies} finish reloading, for example, a messages file
+	 * that depends on the language selected on a config file. Any dependency that
+	 * isn't registered yet will also be registered by this method.
+	 * <p>
+	 * Dependencies are fully reloaded, including {@link SnapshotReloadable#applySnapshot(Object)
+	 * applying} their snapshots, before {@code reloadable} starts reloading, so it always sees
+	 * the new state of its dependencies (See {@link #reloadWithReport()}).
+	 *
+	 * @param reloadable The {@link Reloadable} to register.
+	 * @param dependencies The {@link Reloadable reloadables} that must be
+	 * reloaded before {@code reloadable}.
+	 *
+	 * @return This {@link MCUtils} instance.
+	 *
+	 * @throws NullPointerException if any parameter is {@code null}.
+	 * @throws IllegalArgumentException if any of the {@code dependencies} already
+	 * depends on {@code reloadable}, which would create a dependency cycle.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public MCUtils<P> registerReloadable(@NotNull Reloadable reloadable, @NotNull Reloadable... dependencies) {
+		Objects.requireNonNull(reloadable);
+		for (Reloadable dependency : dependencies)
+			if (dependsOn(Objects.requireNonNull(dependency), reloadable))
+				throw new IllegalArgumentException("Circular reload dependency between " + reloadable + " and " + dependency);
+		for (Reloadable dependency : dependencies) {
+			reloadables.add(dependency);
+			reloadDependencies.computeIfAbsent(reloadable, r -> new LinkedHashSet<>()).add(dependency);
+		}
+		reloadables.add(reloadable);
+		return this;
+	}
+
+	private boolean dependsOn(@NotNull Reloadable reloadable, @NotNull Reloadable target) {
+		if (reloadable.equals(target))
+			return true;
+		for (Reloadable dependency : reloadDependencies.getOrDefault(reloadable, Set.of()))
+			if (dependsOn(dependency, target))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Starts watching the files of every registered {@link Reloadable}
+	 * that is a {@link FileReloadable}, so they get reloaded automatically
+	 * by the specified {@code service} whenever they change. Only reloadables
+	 * registered <b>before</b> calling this method will be watched.
+	 *
+	 * @param service The {@link FileWatchService} to use.
+	 *
+	 * @return The amount of files that are now being watched.
+	 *
+	 * @throws NullPointerException if {@code service} is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int watchFiles(@NotNull FileWatchService service) {
+		int watched = 0;
+		for (Reloadable reloadable : reloadables)
+			if (reloadable instanceof FileReloadable fileReloadable && service.watch(fileReloadable))
+				watched++;
+		return watched;
+	}
+
+	/**
+	 * Reloads every registered {@link Reloadable}, returning the amount of them
+	 * that failed to reload. See {@link #reloadWithReport()} for details on how
+	 * reloading works.
+	 *
+	 * @return The amount of {@link Reloadable reloadables} that failed to reload.
+	 *
+	 * @since MCUtils 1.0.0
+	 *
+	 * @see #reloadWithReport()
+	 */
 	public int reload() {
-		int failures = 0;
+		return reloadWithReport().getFailureCount();
+	}
+
+	/**
+	 * Reloads every registered {@link Reloadable} in dependency order. Reloadables with
+	 * {@link #registerReloadable(Reloadable, Reloadable...) dependencies} only start once
+	 * all their dependencies finish, and are skipped if any of them fails.
+	 * <p>
+	 * {@link SnapshotReloadable Snapshot reloadables} {@link SnapshotReloadable#loadSnapshot()
+	 * load} their snapshot concurrently on a pool bounded by the amount of available processors
+	 * (With a minimum of two threads), starting as soon as their dependencies have been reloaded.
+	 * Snapshots are then {@link SnapshotReloadable#applySnapshot(Object) applied} on the thread
+	 * that called this method, in dependency order, so a snapshot reloadable always loads after
+	 * the snapshots of its dependencies have been applied. Any other {@link Reloadable} is
+	 * {@link Reloadable#reload() reloaded} on the thread that called this method, as they
+	 * may not be thread safe.
+	 * <p>
+	 * This method blocks until every {@link Reloadable} has been reloaded, so the thread
+	 * calling it, usually the main thread, never sees a half-reloaded state. If a reloadable
+	 * fails, reloadables that were already reloaded keep their new state, while reloadables
+	 * that depend on it keep their previous state.
+	 *
+	 * @return A {@link ReloadReport} with the timing and outcome of every {@link Reloadable}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public ReloadReport reloadWithReport() {
+		final long start = System.nanoTime();
+		final List<Reloadable> order = sortReloadables();
+		final Map<Reloadable, ReloadTask> tasks = new HashMap<>();
+		final Map<Reloadable, List<ReloadTask>> dependents = new HashMap<>();
+		int snapshots = 0;
+		for (Reloadable reloadable : order) {
+			final ReloadTask task = new ReloadTask(reloadable, reloadDependencies.getOrDefault(reloadable, Set.of()));
+			tasks.put(reloadable, task);
+			for (Reloadable dependency : task.dependencies)
+				dependents.computeIfAbsent(dependency, r -> new ArrayList<>()).add(task);
+			if (task.isSnapshot())
+				snapshots++;
+		}
+		// Loading snapshots is mostly I/O, so at least two threads are used even on single core machines.
+		final ExecutorService pool = snapshots == 0 ? null : Executors.newFixedThreadPool(
+				Math.min(snapshots, Math.max(2, Runtime.getRuntime().availableProcessors())), runnable -> {
+			final Thread thread = new Thread(runnable, "MCUtils reload");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			for (ReloadTask task : tasks.values())
+				if (task.isSnapshot() && task.dependencies.isEmpty())
+					task.load(pool);
+			final List<ReloadReport.Result> results = new ArrayList<>(order.size());
+			boolean applied = true;
+			for (Reloadable reloadable : order) {
+				final ReloadTask task = tasks.get(reloadable);
+				if (task.canRun(tasks))
+					task.finish(pool);
+				if (task.isSnapshot() && !task.success)
+					applied = false;
+				results.add(new ReloadReport.Result(reloadable, task.success, task.nanos, task.error));
+				// Dependents may now be ready to load their snapshots while the rest reload.
+				if (task.success)
+					for (ReloadTask dependent : dependents.getOrDefault(reloadable, List.of()))
+						if (dependent.isSnapshot() && dependent.canRun(tasks))
+							dependent.load(pool);
+			}
+			return new ReloadReport(results, System.nanoTime() - start, applied);
+		} finally {
+			if (pool != null)
+				pool.shutdown();
+		}
+	}
+
+	// Topological sort, dependencies always go before the reloadables that depend on them.
+	@NotNull
+	private List<Reloadable> sortReloadables() {
+		final List<Reloadable> sorted = new ArrayList<>(reloadables.size());
+		final Set<Reloadable> visited = new HashSet<>();
 		for (Reloadable reloadable : reloadables)
-			if (!reloadable.reload())
-				failures++;
-		return failures;
+			sortReloadable(reloadable, visited, sorted);
+		return sorted;
+	}
+
+	private void sortReloadable(Reloadable reloadable, Set<Reloadable> visited, List<Reloadable> sorted) {
+		if (!visited.add(reloadable))
+			return;
+		for (Reloadable dependency : reloadDependencies.getOrDefault(reloadable, Set.of()))
+			sortReloadable(dependency, visited, sorted);
+		sorted.add(reloadable);
+	}
+
+	private static class ReloadTask {
+
+		private final Reloadable reloadable;
+		private final Set<Reloadable> dependencies;
+		private CompletableFuture<Object> loading = null;
+		private boolean finished = false;
+		private boolean success = false;
+		private long nanos = 0;
+		private Throwable error = null;
+
+		ReloadTask(Reloadable reloadable, Set<Reloadable> dependencies) {
+			this.reloadable = reloadable;
+			this.dependencies = dependencies;
+		}
+
+		boolean isSnapshot() {
+			return reloadable instanceof SnapshotReloadable;
+		}
+
+		boolean canRun(Map<Reloadable, ReloadTask> tasks) {
+			for (Reloadable dependency : dependencies) {
+				final ReloadTask task = tasks.get(dependency);
+				if (!task.finished || !task.success)
+					return false;
+			}
+			return true;
+		}
+
+		void load(ExecutorService pool) {
+			if (loading != null)
+				return;
+			final SnapshotReloadable<?> snapshotReloadable = (SnapshotReloadable<?>) reloadable;
+			loading = CompletableFuture.supplyAsync(() -> {
+				final long start = System.nanoTime();
+				try {
+					return snapshotReloadable.loadSnapshot();
+				} finally {
+					nanos = System.nanoTime() - start;
+				}
+			}, pool);
+		}
+
+		// Called on the thread that is reloading, once every dependency has been reloaded.
+		@SuppressWarnings("unchecked")
+		void finish(ExecutorService pool) {
+			finished = true;
+			if (!isSnapshot()) {
+				final long start = System.nanoTime();
+				try {
+					success = reloadable.reload();
+				} catch (Throwable ex) {
+					error = ex;
+				}
+				nanos = System.nanoTime() - start;
+				return;
+			}
+			load(pool);
+			try {
+				final Object snapshot = loading.join();
+				if (snapshot == null)
+					return;
+				final long start = System.nanoTime();
+				((SnapshotReloadable<Object>) reloadable).applySnapshot(snapshot);
+				nanos += System.nanoTime() - start;
+				success = true;
+			} catch (CompletionException ex) {
+				error = ex.getCause();
+			} catch (Throwable ex) {
+				error = ex;
+			}
+		}
 	}
 }
@@ -0,0 +1,186 @@
+package net.codersky.mcutils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of reloading every {@link Reloadable} registered
+ * on a {@link MCUtils} instance, as returned by {@link MCUtils#reloadWithReport()}.
+ * Contains a {@link Result} per {@link Reloadable}, in the order they were
+ * reloaded, which respects any dependency declared between them.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class ReloadReport {
+
+	private final List<Result> results;
+	private final long nanos;
+	private final boolean applied;
+
+	ReloadReport(@NotNull List<Result> results, long nanos, boolean applied) {
+		this.results = Collections.unmodifiableList(results);
+		this.nanos = nanos;
+		this.applied = applied;
+	}
+
+	/**
+	 * Gets the {@link Result} of every {@link Reloadable} that was reloaded,
+	 * in dependency order.
+	 *
+	 * @return An unmodifiable {@link List} with every {@link Result}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public List<Result> getResults() {
+		return results;
+	}
+
+	/**
+	 * Gets the {@link Result results} of every {@link Reloadable} that
+	 * failed to reload.
+	 *
+	 * @return A new {@link List} with the {@link Result results} that failed.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public List<Result> getFailures() {
+		final List<Result> failures = new ArrayList<>();
+		for (Result result : results)
+			if (!result.isSuccess())
+				failures.add(result);
+		return failures;
+	}
+
+	/**
+	 * Gets the amount of {@link Reloadable reloadables} that failed to reload.
+	 *
+	 * @return The amount of {@link Reloadable reloadables} that failed to reload.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int getFailureCount() {
+		int failures = 0;
+		for (Result result : results)
+			if (!result.isSuccess())
+				failures++;
+		return failures;
+	}
+
+	/**
+	 * Checks whether the snapshots of every {@link SnapshotReloadable} were applied.
+	 * Snapshots that fail to load, or that depend on a {@link Reloadable} that
+	 * failed, are not applied, keeping their previous state.
+	 *
+	 * @return {@code true} if all snapshots were applied, {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public boolean isApplied() {
+		return applied;
+	}
+
+	/**
+	 * Gets the total time the reload took, from start to finish.
+	 *
+	 * @param unit The {@link TimeUnit} to get the time on.
+	 *
+	 * @return The total time the reload took, on the specified {@code unit}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public long getTime(@NotNull TimeUnit unit) {
+		return unit.convert(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public String toString() {
+		return "ReloadReport{results=" + results + ", millis=" + getTime(TimeUnit.MILLISECONDS) + ", applied=" + applied + "}";
+	}
+
+	/**
+	 * The outcome of reloading a single {@link Reloadable}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public static class Result {
+
+		private final Reloadable reloadable;
+		private final boolean success;
+		private final long nanos;
+		private final Throwable error;
+
+		Result(@NotNull Reloadable reloadable, boolean success, long nanos, @Nullable Throwable error) {
+			this.reloadable = reloadable;
+			this.success = success;
+			this.nanos = nanos;
+			this.error = error;
+		}
+
+		/**
+		 * Gets the {@link Reloadable} this {@link Result} belongs to.
+		 *
+		 * @return The {@link Reloadable} this {@link Result} belongs to.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		@NotNull
+		public Reloadable getReloadable() {
+			return reloadable;
+		}
+
+		/**
+		 * Checks whether the {@link #getReloadable() reloadable} reloaded successfully.
+		 *
+		 * @return {@code true} if the {@link #getReloadable() reloadable} reloaded
+		 * successfully, {@code false} otherwise.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		public boolean isSuccess() {
+			return success;
+		}
+
+		/**
+		 * Gets the time it took to reload the {@link #getReloadable() reloadable}.
+		 * For {@link SnapshotReloadable snapshot reloadables}, this is the time spent
+		 * loading the snapshot plus the time spent applying it.
+		 *
+		 * @param unit The {@link TimeUnit} to get the time on.
+		 *
+		 * @return The time it took to reload, on the specified {@code unit}.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		public long getTime(@NotNull TimeUnit unit) {
+			return unit.convert(nanos, TimeUnit.NANOSECONDS);
+		}
+
+		/**
+		 * Gets the error that caused the {@link #getReloadable() reloadable}
+		 * to fail, if any. Reloadables can also fail without an error by
+		 * returning {@code false}, or because a dependency of them failed.
+		 *
+		 * @return The error that caused the reload to fail, {@code null} if none.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		@Nullable
+		public Throwable getError() {
+			return error;
+		}
+
+		@Override
+		public String toString() {
+			return reloadable + "{success=" + success + ", micros=" + getTime(TimeUnit.MICROSECONDS) + (error == null ? "}" : ", error=" + error + "}");
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package net.codersky.mcutils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link Reloadable} that splits reloading in two steps. The slow
+ * part, {@link #loadSnapshot()}, reads and parses the underlying data
+ * without touching the current state of this object, which makes it safe
+ * to call from any thread. The fast part, {@link #applySnapshot(Object)},
+ * replaces the current state with the loaded snapshot in a single step,
+ * and is meant to be called from the thread that owns this object (Usually
+ * the main thread of the server).
+ *
+ * @param <T> The type of snapshot produced by this {@link SnapshotReloadable}.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public interface SnapshotReloadable<T> extends Reloadable {
+
+	/**
+	 * Loads a new snapshot of the data handled by this {@link SnapshotReloadable}.
+	 * This method must not modify the current state of this object, so it can
+	 * safely be called <b>asynchronously</b>.
+	 *
+	 * @return A new snapshot, {@code null} if the data couldn't be loaded.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Nullable
+	T loadSnapshot();
+
+	/**
+	 * Replaces the current state of this {@link SnapshotReloadable} with the
+	 * specified {@code snapshot}, previously obtained with {@link #loadSnapshot()}.
+	 *
+	 * @param snapshot The snapshot to apply.
+	 *
+	 * @throws NullPointerException if {@code snapshot} is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	void applySnapshot(@NotNull T snapshot);
+
+	/**
+	 * Reloads this {@link SnapshotReloadable} on the calling thread by
+	 * {@link #loadSnapshot() loading} a snapshot and then
+	 * {@link #applySnapshot(Object) applying} it.
+	 *
+	 * @return {@code true} if the snapshot loaded and was applied, {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Override
+	default boolean reload() {
+		final T snapshot = loadSnapshot();
+		if (snapshot == null)
+			return false;
+		applySnapshot(snapshot);
+		return true;
+	}
+}
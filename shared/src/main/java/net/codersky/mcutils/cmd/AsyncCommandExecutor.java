@@ -0,0 +1,214 @@
+package net.codersky.mcutils.cmd;
+
+import net.codersky.mcutils.MCUtils;
+import net.codersky.mcutils.crossplatform.player.MCPlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor of {@link AsyncMCCommand asynchronous commands}, obtained from
+ * {@link MCUtils#getAsyncCommandExecutor()}. Each execution runs on its own
+ * virtual thread, so commands can freely block on storage or network
+ * operations without holding a platform thread.
+ * <p>
+ * Executions of players are tracked by {@link UUID}, so platforms can
+ * {@link #cancel(UUID) cancel} them when said players leave.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class AsyncCommandExecutor {
+
+	private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+			Thread.ofVirtual().name("MCUtils async command #", 0).factory());
+	private final Map<UUID, Set<Execution<?>>> running = new ConcurrentHashMap<>();
+	private final AtomicInteger active = new AtomicInteger();
+
+	/**
+	 * Executes {@code command} asynchronously as {@code sender}. Exceptions
+	 * thrown by the command are routed to {@link AsyncMCCommand#onError(MCCommandSender, Throwable)}.
+	 *
+	 * @param command The command to execute.
+	 * @param sender The sender executing the command.
+	 * @param args The arguments of the command.
+	 *
+	 * @return A {@link Future} that can be used to cancel the execution.
+	 *
+	 * @param <S> The {@link MCCommandSender} type of the command.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public <S extends MCCommandSender> Future<?> execute(@NotNull AsyncMCCommand<?, S> command, @NotNull S sender, @NotNull String[] args) {
+		return submit(command, sender, () -> command.onCommand(sender, args));
+	}
+
+	/**
+	 * Runs {@code body} asynchronously on behalf of an execution of {@code command}
+	 * by {@code sender}. This is what {@link #execute(AsyncMCCommand, MCCommandSender, String[])}
+	 * uses, and allows the caller to wrap the command, for example, to time it.
+	 *
+	 * @param command The command being executed.
+	 * @param sender The sender executing the command.
+	 * @param body The body of the execution.
+	 *
+	 * @return A {@link Future} that can be used to cancel the execution.
+	 *
+	 * @param <S> The {@link MCCommandSender} type of the command.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public <S extends MCCommandSender> Future<?> submit(@NotNull AsyncMCCommand<?, S> command, @NotNull S sender, @NotNull Runnable body) {
+		final UUID owner = command.isCancelledOnQuit() ? getOwner(sender) : null;
+		final Execution<S> execution = new Execution<>(command, sender, body, owner);
+		// Adding and removing happen inside compute, so done() can't drop the set while it's being added to.
+		if (owner != null)
+			running.compute(owner, (uuid, executions) -> {
+				final Set<Execution<?>> result = executions == null ? ConcurrentHashMap.newKeySet() : executions;
+				result.add(execution);
+				return result;
+			});
+		try {
+			executor.execute(execution);
+		} catch (RejectedExecutionException ex) {
+			execution.cancel(false);
+			command.onError(sender, ex);
+		}
+		return execution;
+	}
+
+	@Nullable
+	private static UUID getOwner(@NotNull MCCommandSender sender) {
+		if (!sender.isPlayer())
+			return null;
+		final MCPlayer player = sender.asPlayer();
+		return player == null ? null : player.getUniqueId();
+	}
+
+	/**
+	 * Cancels every running execution of the player with the specified {@code uuid},
+	 * interrupting them. Platforms call this method when a player leaves.
+	 *
+	 * @param uuid The {@link UUID} of the player.
+	 *
+	 * @return The amount of executions that were cancelled.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int cancel(@NotNull UUID uuid) {
+		final Set<Execution<?>> executions = running.remove(uuid);
+		if (executions == null)
+			return 0;
+		int cancelled = 0;
+		for (Execution<?> execution : executions)
+			if (execution.cancel(true))
+				cancelled++;
+		return cancelled;
+	}
+
+	/**
+	 * Gets the amount of executions that are currently running.
+	 *
+	 * @return The amount of running executions.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int getActive() {
+		return active.get();
+	}
+
+	/**
+	 * Shuts down this executor, interrupting every running execution.
+	 * Platforms call this method when the plugin that owns this executor is disabled.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+		running.clear();
+	}
+
+	/**
+	 * Shuts down this executor, waiting up to {@code gracePeriod} for running
+	 * executions to finish, and then {@link #shutdown() interrupting} the ones
+	 * that are still running. No new executions are accepted once this method
+	 * is called. Keep in mind that this method blocks the calling thread for,
+	 * at most, the specified {@code gracePeriod}.
+	 *
+	 * @param gracePeriod The maximum time to wait for running executions to finish.
+	 * @param unit The {@link TimeUnit} of {@code gracePeriod}.
+	 *
+	 * @return {@code true} if every execution finished in time, {@code false}
+	 * if any of them had to be interrupted.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public boolean shutdown(long gracePeriod, @NotNull TimeUnit unit) {
+		executor.shutdown();
+		boolean terminated = false;
+		try {
+			terminated = executor.awaitTermination(gracePeriod, unit);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		if (!terminated)
+			shutdown();
+		return terminated;
+	}
+
+	private final class Execution<S extends MCCommandSender> extends FutureTask<Void> {
+
+		private final AsyncMCCommand<?, S> command;
+		private final S sender;
+		private final UUID owner;
+
+		Execution(AsyncMCCommand<?, S> command, S sender, Runnable body, @Nullable UUID owner) {
+			super(body, null);
+			this.command = command;
+			this.sender = sender;
+			this.owner = owner;
+		}
+
+		@Override
+		public void run() {
+			active.incrementAndGet();
+			try {
+				super.run();
+			} finally {
+				active.decrementAndGet();
+			}
+		}
+
+		@Override
+		protected void setException(Throwable error) {
+			super.setException(error);
+			if (!isCancelled())
+				command.onError(sender, error);
+		}
+
+		@Override
+		protected void done() {
+			if (owner != null)
+				running.compute(owner, (uuid, executions) -> {
+					if (executions == null)
+						return null;
+					executions.remove(this);
+					return executions.isEmpty() ? null : executions;
+				});
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package net.codersky.mcutils.cmd;
+
+import net.codersky.mcutils.MCUtils;
+import net.codersky.mcutils.time.Task;
+import net.codersky.mcutils.time.TaskScheduler;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * {@link MCCommand} variant whose {@link #onCommand(MCCommandSender, String[])}
+ * runs off the main thread, on the {@link AsyncCommandExecutor} of its
+ * {@link MCUtils} instance. This is meant for commands that access storage
+ * or the network, such as update checks or stats lookups, that would
+ * otherwise block the server while they run.
+ * <p>
+ * As the command runs asynchronously, its return value is ignored and the
+ * platform always considers it successful. Anything that must run on the
+ * main thread, such as most platform API calls, has to be handed off with
+ * {@link #runSync(Runnable)} or {@link #callSync(Supplier)}. Exceptions
+ * thrown by the command are routed to {@link #onError(MCCommandSender, Throwable)},
+ * and executions of players that leave are cancelled by interrupting them
+ * unless {@link #isCancelledOnQuit()} is overridden.
+ * <p>
+ * Access checks, sub command routing and {@link MCCommand#getRateLimiter() rate
+ * limits} still run on the calling thread before the command is handed off.
+ * Tab completion is never affected by this interface.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @param <P> The plugin class that owns this {@link AsyncMCCommand}.
+ * @param <S> The {@link MCCommandSender} type of this {@link AsyncMCCommand}.
+ */
+public interface AsyncMCCommand<P, S extends MCCommandSender> extends MCCommand<P, S> {
+
+	/**
+	 * Whether executions of this command should be cancelled when the player
+	 * that executed it leaves. Cancelled executions are interrupted, so
+	 * blocking operations throw and long loops should check
+	 * {@link Thread#isInterrupted()}. This is {@code true} by default.
+	 *
+	 * @return {@code true} to cancel executions of players that leave, {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	default boolean isCancelledOnQuit() {
+		return true;
+	}
+
+	/**
+	 * Called when an execution of this command throws, except when said
+	 * execution was cancelled. By default, the stack trace of {@code error}
+	 * is printed and the sender is notified with a generic error message.
+	 *
+	 * @param sender The sender that executed the command.
+	 * @param error The exception thrown by the command.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	default void onError(@NotNull S sender, @NotNull Throwable error) {
+		error.printStackTrace();
+		sender.sendMessage("An error occurred while executing this command.");
+	}
+
+	/**
+	 * Hands off a {@code task} to the main thread through the
+	 * {@link MCUtils#getScheduler() scheduler} of this command.
+	 *
+	 * @param task The task to run on the main thread.
+	 *
+	 * @return The scheduled {@link Task}.
+	 *
+	 * @since MCUtils 1.0.0
+	 *
+	 * @see TaskScheduler#runSync(Runnable)
+	 */
+	@NotNull
+	default Task runSync(@NotNull Runnable task) {
+		return getUtils().getScheduler().runSync(task);
+	}
+
+	/**
+	 * Hands off a {@code supplier} to the main thread through the
+	 * {@link MCUtils#getScheduler() scheduler} of this command, so
+	 * the async body can wait for its result if needed.
+	 *
+	 * @param supplier The supplier to call on the main thread.
+	 *
+	 * @return A {@link CompletableFuture} completed with the result of {@code supplier}.
+	 *
+	 * @param <T> The type of result of {@code supplier}.
+	 *
+	 * @since MCUtils 1.0.0
+	 *
+	 * @see TaskScheduler#callSync(Supplier)
+	 */
+	@NotNull
+	default <T> CompletableFuture<T> callSync(@NotNull Supplier<T> supplier) {
+		return getUtils().getScheduler().callSync(supplier);
+	}
+}
@@ -50,4 +50,10 @@ public abstract class GlobalCommand<P> implements MCCommand<P, MCCommandSender>
 		subCmdHandler.inject(commands);
 		return this;
 	}
+
+	@NotNull
+	@Override
+	public SubCommandHandler<P, MCCommandSender> getSubCommandHandler() {
+		return subCmdHandler;
+	}
 }
@@ -1,6 +1,10 @@
 package net.codersky.mcutils.cmd;
 
 import net.codersky.mcutils.MCUtils;
+import net.codersky.mcutils.cmd.args.ArgumentParser;
+import net.codersky.mcutils.cmd.args.ArgumentSpec;
+import net.codersky.mcutils.cmd.args.EnumArgumentType;
+import net.codersky.mcutils.cmd.limit.RateLimiter;
 import net.codersky.mcutils.java.math.MCNumbers;
 import net.codersky.mcutils.java.strings.MCStrings;
 import org.jetbrains.annotations.NotNull;
@@ -58,6 +62,55 @@ public interface MCCommand<P, S extends MCCommandSender> {
 	@NotNull
 	MCCommand<P, S> inject(@NotNull MCCommand<P, S>... commands);
 
+	/**
+	 * Gets the {@link SubCommandHandler} that routes the arguments of this
+	 * {@link MCCommand} to its {@link #inject(MCCommand[]) injected} sub commands.
+	 * Parent commands use this to route nested sub commands directly.
+	 *
+	 * @return The {@link SubCommandHandler} of this {@link MCCommand}, {@code null}
+	 * if this {@link MCCommand} doesn't support sub commands.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Nullable
+	default SubCommandHandler<P, S> getSubCommandHandler() {
+		return null;
+	}
+
+	/**
+	 * Gets the {@link RateLimiter} of this {@link MCCommand}, which is checked
+	 * by the {@link SubCommandHandler} before executing it. Override this
+	 * method returning the same instance on every call to limit how often
+	 * players can use this {@link MCCommand}.
+	 *
+	 * @return The {@link RateLimiter} of this {@link MCCommand}, {@code null}
+	 * if this {@link MCCommand} isn't limited.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Nullable
+	default RateLimiter getRateLimiter() {
+		return null;
+	}
+
+	/**
+	 * Gets the {@link ArgumentParser} this {@link MCCommand} uses for its own
+	 * arguments, those that come after any sub command. This is only used to
+	 * describe the arguments of this {@link MCCommand}, for example, so platforms
+	 * can let clients validate and suggest them. Parsing is still up to the
+	 * command, which usually returns the same {@link ArgumentSpec#compile()
+	 * compiled} parser it uses on {@link #onCommand(MCCommandSender, String[])}.
+	 *
+	 * @return The {@link ArgumentParser} of this {@link MCCommand}, {@code null}
+	 * if the arguments of this {@link MCCommand} aren't described by one.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Nullable
+	default ArgumentParser getArgumentParser() {
+		return null;
+	}
+
 	/**
 	 * Returns whether this {@link MCCommand} removes
 	 * <a href=https://mcutils.codersky.net/for-server-admins/event-patterns>event patterns</a>
@@ -439,14 +492,7 @@ public interface MCCommand<P, S extends MCCommandSender> {
 	 */
 	@Nullable
 	default <T extends Enum<T>> T asEnum(int arg, @NotNull String[] args, @NotNull Class<T> enumClass) {
-		// TODO Maybe find a better way to do this...
-		return asGeneric(str -> {
-			try {
-				return Enum.valueOf(enumClass, str);
-			} catch (IllegalArgumentException ex) {
-				return null;
-			}
-		}, arg, args);
+		return asGeneric(EnumArgumentType.of(enumClass)::parse, arg, args);
 	}
 
 	/**
@@ -469,12 +515,6 @@ public interface MCCommand<P, S extends MCCommandSender> {
 	 */
 	@NotNull
 	default <T extends Enum<T>> T asEnum(int arg, @NotNull String[] args, @NotNull T def) {
-		return asGeneric(str -> {
-			final String name = str.toUpperCase();
-			for (T constant : def.getDeclaringClass().getEnumConstants())
-				if (name.equals(str))
-					return constant;
-			return null;
-		}, arg, args, def);
+		return asGeneric(EnumArgumentType.of(def.getDeclaringClass())::parse, arg, args, def);
 	}
 }
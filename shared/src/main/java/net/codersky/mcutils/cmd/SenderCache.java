@@ -0,0 +1,157 @@
+package net.codersky.mcutils.cmd;
+
+import net.codersky.mcutils.general.PerformanceTest;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.PrintStream;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of {@link MCCommandSender} wrappers, so platforms don't need to create
+ * a new wrapper every time a command is executed or tab completed. Player
+ * wrappers are cached by {@link UUID}, and checked to wrap the exact same
+ * handle, so a player that reconnects gets a new wrapper. Getting the wrapper
+ * of a cached player doesn't allocate anything.
+ * <p>
+ * Platforms {@link #invalidate(UUID) invalidate} the wrapper of a player as
+ * soon as said player leaves, so the cache doesn't keep the handle of offline
+ * players alive. As a fallback, wrappers of players that are no longer
+ * {@link #isValid(Object) valid} are also removed in batches once the cache
+ * doubles its size since the last cleanup, so the cache never holds much more
+ * than the amount of online players, even if a leave is missed. Non
+ * player senders, such as the console, only have their last wrapper cached.
+ * This class is thread safe.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @param <H> The type of the platform handle of senders.
+ * @param <S> The {@link MCCommandSender} type that wraps said handles.
+ */
+public abstract class SenderCache<H, S extends MCCommandSender> {
+
+	private static final int MIN_CLEANUP_SIZE = 16;
+
+	private final ConcurrentHashMap<UUID, S> players = new ConcurrentHashMap<>();
+	private volatile S lastOther = null;
+	private volatile int cleanupSize = MIN_CLEANUP_SIZE;
+
+	/**
+	 * Gets the {@link UUID} of a sender {@code handle}.
+	 *
+	 * @param handle The handle of the sender.
+	 *
+	 * @return The {@link UUID} of {@code handle}, {@code null} if it isn't a player.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Nullable
+	protected abstract UUID getUUID(@NotNull H handle);
+
+	@NotNull
+	protected abstract S wrap(@NotNull H handle);
+
+	@NotNull
+	protected abstract H getHandle(@NotNull S sender);
+
+	/**
+	 * Checks whether the wrapper of a player {@code handle} should be
+	 * kept on the cache, usually, whether said player is still online.
+	 *
+	 * @param handle The handle of the player.
+	 *
+	 * @return {@code true} to keep the wrapper of {@code handle}, {@code false} to remove it.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	protected abstract boolean isValid(@NotNull H handle);
+
+	/**
+	 * Gets the wrapper of the specified {@code handle}, creating it
+	 * only if it isn't cached yet.
+	 *
+	 * @param handle The handle of the sender.
+	 *
+	 * @return The wrapper of {@code handle}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public S get(@NotNull H handle) {
+		final UUID uuid = getUUID(handle);
+		if (uuid == null) {
+			final S other = lastOther;
+			if (other != null && getHandle(other) == handle)
+				return other;
+			return lastOther = wrap(handle);
+		}
+		final S cached = players.get(uuid);
+		if (cached != null && getHandle(cached) == handle)
+			return cached;
+		final S sender = wrap(handle);
+		players.put(uuid, sender);
+		if (players.size() >= cleanupSize)
+			cleanup();
+		return sender;
+	}
+
+	/**
+	 * Removes the cached wrapper of the player with the specified {@code uuid}, if any.
+	 *
+	 * @param uuid The {@link UUID} of the player.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public void invalidate(@NotNull UUID uuid) {
+		players.remove(uuid);
+	}
+
+	public void clear() {
+		players.clear();
+		lastOther = null;
+	}
+
+	public int size() {
+		return players.size();
+	}
+
+	private synchronized void cleanup() {
+		if (players.size() < cleanupSize)
+			return;
+		players.values().removeIf(sender -> !isValid(getHandle(sender)));
+		cleanupSize = Math.max(MIN_CLEANUP_SIZE, players.size() * 2);
+	}
+
+	/*
+	 * Benchmarking
+	 */
+
+	/**
+	 * Measures the average amount of bytes allocated on the heap to get the wrapper
+	 * of {@code handle}, both through this cache and by {@link #wrap(Object) wrapping}
+	 * it on every call, as platforms did without a cache, and prints both results to
+	 * {@code stream}, for example, {@code cache.benchmark(player, 1_000_000, System.out)}.
+	 * Keep in mind that {@code handle} is cached by this method if it isn't yet.
+	 *
+	 * @param handle The handle of the sender to get the wrapper of, ideally an online player.
+	 * @param amount The amount of times to get the wrapper of {@code handle} on each measurement.
+	 * @param stream The {@link PrintStream} to print the results to.
+	 *
+	 * @since MCUtils 1.0.0
+	 *
+	 * @see PerformanceTest#measureAllocations(Runnable, long)
+	 */
+	public void benchmark(@NotNull H handle, long amount, @NotNull PrintStream stream) {
+		// Results are stored so the JIT compiler can't remove wrappers that don't escape.
+		final Object[] sink = new Object[1];
+		final double cached = PerformanceTest.measureAllocations(() -> sink[0] = get(handle), amount);
+		final double uncached = PerformanceTest.measureAllocations(() -> sink[0] = wrap(handle), amount);
+		if (cached == -1 || uncached == -1)
+			stream.println("Allocations can't be measured on this JVM");
+		else
+			stream.println("Cached: " + cached + " bytes per call | Uncached: " + uncached + " bytes per call");
+	}
+}
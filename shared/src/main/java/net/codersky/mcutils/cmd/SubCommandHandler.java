@@ -1,48 +1,190 @@
 package net.codersky.mcutils.cmd;
 
+import net.codersky.mcutils.MCUtils;
+import net.codersky.mcutils.cmd.limit.RateLimiter;
+import net.codersky.mcutils.cmd.metrics.CommandMetrics;
+import net.codersky.mcutils.java.strings.PrefixTrie;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.BiFunction;
 
+/**
+ * Class used by {@link MCCommand} implementations to route arguments to their
+ * sub commands. Names and aliases of every sub command are compiled into a
+ * case-insensitive {@link PrefixTrie}, so finding the sub command of an argument only
+ * depends on the length of said argument and not on the amount of sub
+ * commands. Sub commands that have their own {@link MCCommand#getSubCommandHandler()
+ * handler} are routed through it too, so nested sub commands such as
+ * "/cmd sub nested" are resolved in a single pass over the arguments.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @param <P> The plugin class that owns the commands of this handler.
+ * @param <S> The {@link MCCommandSender} type of the commands of this handler.
+ */
 public class SubCommandHandler<P, S extends MCCommandSender> {
 
-	private final HashSet<MCCommand<P, S>> subCommands = new HashSet<>();
+	private final List<MCCommand<P, S>> subCommands = new ArrayList<>();
+	private volatile PrefixTrie<MCCommand<P, S>> trie = null;
+
+	/*
+	 * Routing
+	 */
 
 	@NotNull
-	private String[] removeFirstArgument(@NotNull String[] args) {
-		if (args.length == 1)
-			return new String[0];
-		final String[] newArgs = new String[args.length - 1];
-		for (int i = 1; i < args.length; i++)
-			newArgs[i - 1] = args[1];
-		return newArgs;
+	private PrefixTrie<MCCommand<P, S>> getTrie() {
+		PrefixTrie<MCCommand<P, S>> result = trie;
+		if (result == null) {
+			synchronized (subCommands) {
+				if ((result = trie) == null)
+					trie = result = compile();
+			}
+		}
+		return result;
 	}
 
+	// Names are added before aliases so they always take priority, then injection order.
+	@NotNull
+	private PrefixTrie<MCCommand<P, S>> compile() {
+		final Map<String, MCCommand<P, S>> entries = new LinkedHashMap<>();
+		for (MCCommand<P, S> subCommand : subCommands)
+			entries.putIfAbsent(subCommand.getName(), subCommand);
+		for (MCCommand<P, S> subCommand : subCommands)
+			for (String alias : subCommand.getAliases())
+				entries.putIfAbsent(alias, subCommand);
+		return new PrefixTrie<>(entries, true);
+	}
+
+	/**
+	 * Gets the sub command that has {@code arg} as its name or
+	 * as one of its aliases, ignoring case.
+	 *
+	 * @param arg The argument to check.
+	 *
+	 * @return The sub command matching {@code arg}, {@code null} if none matches.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Nullable
+	public MCCommand<P, S> getSubCommand(@NotNull String arg) {
+		return getTrie().get(arg);
+	}
+
+	/**
+	 * Gets every sub command registered on this handler, in injection order.
+	 *
+	 * @return An unmodifiable {@link List} with every sub command of this handler.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public List<MCCommand<P, S>> getSubCommands() {
+		synchronized (subCommands) {
+			return List.copyOf(subCommands);
+		}
+	}
+
+	// Finds the deepest command matching args before 'limit', only copying args once.
 	private <T> T onUsedCommand(@NotNull MCCommand<P, S> mainCmd, @NotNull S sender, @NotNull String[] args,
-	                            @NotNull BiFunction<MCCommand<P, S>, String[], T> action, @NotNull T def, boolean message) {
-		if (mainCmd.hasAccess(sender, message))
+	                            @NotNull BiFunction<MCCommand<P, S>, String[], T> action, @NotNull T def, boolean execute,
+	                            int limit, @Nullable CommandMetrics metrics) {
+		final StringBuilder path = metrics == null ? null : new StringBuilder(mainCmd.getName());
+		if (!mainCmd.hasAccess(sender, execute))
+			return denied(metrics, path, def);
+		MCCommand<P, S> cmd = mainCmd;
+		SubCommandHandler<P, S> handler = this;
+		int offset = 0;
+		while (handler != null && offset < limit) {
+			final MCCommand<P, S> subCommand = handler.getSubCommand(args[offset]);
+			if (subCommand == null)
+				break;
+			if (path != null)
+				path.append(' ').append(subCommand.getName());
+			if (!subCommand.hasAccess(sender, execute))
+				return denied(metrics, path, def);
+			cmd = subCommand;
+			handler = subCommand.getSubCommandHandler();
+			offset++;
+		}
+		final RateLimiter limiter = execute ? cmd.getRateLimiter() : null;
+		if (limiter != null && !limiter.tryAcquire(sender)) {
+			if (metrics != null && path != null)
+				metrics.recordRateLimited(path.toString());
 			return def;
-		if (args.length == 0)
-			return action.apply(mainCmd, args);
-		for (MCCommand<P, S> subCommand : subCommands)
-			if (subCommand.getName().toLowerCase().equals(args[0]))
-				return subCommand.hasAccess(sender, message) ? action.apply(subCommand, removeFirstArgument(args)) : def;
-		return action.apply(mainCmd, args);
+		}
+		final String[] newArgs = offset == 0 ? args : Arrays.copyOfRange(args, offset, args.length);
+		final String metricsPath = path == null ? null : path.toString();
+		if (execute && cmd instanceof AsyncMCCommand<P, S> async) {
+			// The result of async commands is unknown here, def means the command was handled.
+			final MCCommand<P, S> target = cmd;
+			mainCmd.getUtils().getAsyncCommandExecutor().submit(async, sender,
+					() -> run(target, newArgs, action, metrics, metricsPath));
+			return def;
+		}
+		return run(cmd, newArgs, action, metrics, metricsPath);
+	}
+
+	private <T> T run(@NotNull MCCommand<P, S> cmd, @NotNull String[] args, @NotNull BiFunction<MCCommand<P, S>, String[], T> action,
+	                  @Nullable CommandMetrics metrics, @Nullable String path) {
+		if (metrics == null || path == null)
+			return action.apply(cmd, args);
+		final CommandMetrics.Invocation invocation = metrics.start(path);
+		boolean failed = true;
+		try {
+			final T result = action.apply(cmd, args);
+			failed = false;
+			return result;
+		} finally {
+			invocation.finish(failed);
+		}
+	}
+
+	private static <T> T denied(@Nullable CommandMetrics metrics, @Nullable StringBuilder path, @NotNull T def) {
+		if (metrics != null && path != null)
+			metrics.recordDenied(path.toString());
+		return def;
 	}
 
+	/**
+	 * Executes {@code mainCmd}, or the sub command matching {@code args}, unless
+	 * the {@link MCCommand#getRateLimiter() rate limit} of said command is hit.
+	 * If {@link MCUtils#getCommandMetrics() command metrics} are enabled, the
+	 * execution is recorded on them. {@link AsyncMCCommand Asynchronous commands}
+	 * are handed off to the {@link MCUtils#getAsyncCommandExecutor() executor}
+	 * once routed, and this method returns {@code true} right away for them.
+	 *
+	 * @param mainCmd The {@link MCCommand} that owns this handler.
+	 * @param sender The sender executing the command.
+	 * @param args The arguments of the command.
+	 *
+	 * @return The result of {@link MCCommand#onCommand(MCCommandSender, String[])}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
 	public boolean onCommand(@NotNull MCCommand<P, S> mainCmd, @NotNull S sender, @NotNull String[] args) {
-		return onUsedCommand(mainCmd, sender, args, (cmd, newArgs) -> cmd.onCommand(sender, newArgs), true, true);
+		return onUsedCommand(mainCmd, sender, args, (cmd, newArgs) -> cmd.onCommand(sender, newArgs), true, true,
+				args.length, mainCmd.getUtils().getCommandMetrics());
 	}
 
+	// The last argument is still being typed, so it isn't routed.
 	public List<String> onTab(@NotNull MCCommand<P, S> mainCommand, @NotNull S sender, @NotNull String[] args) {
-		return onUsedCommand(mainCommand, sender, args, (cmd, newArgs) -> cmd.onTab(sender, newArgs), List.of(), false);
+		return onUsedCommand(mainCommand, sender, args, (cmd, newArgs) -> cmd.onTab(sender, newArgs), List.of(), false, args.length - 1, null);
 	}
 
 	@SafeVarargs
 	public final void inject(@NotNull MCCommand<P, S>... commands) {
-		Collections.addAll(subCommands, commands);
+		synchronized (subCommands) {
+			Collections.addAll(subCommands, commands);
+			trie = null;
+		}
 	}
 }
@@ -0,0 +1,86 @@
+package net.codersky.mcutils.cmd.args;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Exception thrown by {@link ArgumentParser#parse(String[])} when the
+ * arguments of a command don't match its {@link ArgumentSpec}, with the
+ * exact position of the argument that caused the error.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class ArgumentParseException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The reasons why an {@link ArgumentParseException} may be thrown.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public enum Reason {
+		/** A required argument is missing. */
+		MISSING,
+		/** An argument couldn't be converted to its {@link ArgumentType}. */
+		INVALID,
+		/** More arguments than expected were provided. */
+		TOO_MANY
+	}
+
+	private final Reason reason;
+	private final int position;
+	private final String argument;
+	private final String name;
+
+	ArgumentParseException(@NotNull Reason reason, int position, @Nullable String argument, @Nullable String name, @NotNull String message) {
+		super(message, null, false, false);
+		this.reason = reason;
+		this.position = position;
+		this.argument = argument;
+		this.name = name;
+	}
+
+	@NotNull
+	public Reason getReason() {
+		return reason;
+	}
+
+	/**
+	 * Gets the position of the argument that caused this exception on the
+	 * {@code args} array, which may be out of bounds for {@link Reason#MISSING}.
+	 *
+	 * @return The position of the argument that caused this exception.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int getPosition() {
+		return position;
+	}
+
+	/**
+	 * Gets the argument, as typed, that caused this exception.
+	 *
+	 * @return The argument that caused this exception, {@code null} for {@link Reason#MISSING}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Nullable
+	public String getArgument() {
+		return argument;
+	}
+
+	/**
+	 * Gets the name given to the argument on the {@link ArgumentSpec}.
+	 *
+	 * @return The name of the argument, {@code null} for {@link Reason#TOO_MANY}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Nullable
+	public String getName() {
+		return name;
+	}
+}
@@ -0,0 +1,177 @@
+package net.codersky.mcutils.cmd.args;
+
+import net.codersky.mcutils.java.strings.MCStrings;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable parser compiled from an {@link ArgumentSpec}. Parsers are meant
+ * to be created once per command and reused, converting the arguments of
+ * each execution in a single pass into {@link ParsedArguments}. The same
+ * parser also provides tab completion {@link #suggest(String[]) suggestions}.
+ * Parsers are thread safe.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public final class ArgumentParser {
+
+	private final ArgumentSpec.Argument[] arguments;
+	private final Map<String, Integer> indexes;
+	private final boolean removeEventPatterns;
+	private final String usage;
+
+	ArgumentParser(@NotNull ArgumentSpec.Argument[] arguments, boolean removeEventPatterns) {
+		this.arguments = arguments;
+		this.indexes = new HashMap<>((int) (arguments.length / 0.75f) + 1);
+		this.removeEventPatterns = removeEventPatterns;
+		final StringBuilder usage = new StringBuilder();
+		for (int i = 0; i < arguments.length; i++) {
+			final ArgumentSpec.Argument argument = arguments[i];
+			indexes.put(argument.name, i);
+			if (i != 0)
+				usage.append(' ');
+			usage.append(argument.optional ? '[' : '<').append(argument.name);
+			if (argument.greedy)
+				usage.append("...");
+			usage.append(argument.optional ? ']' : '>');
+		}
+		this.usage = usage.toString();
+	}
+
+	/**
+	 * Gets the usage of the arguments of this parser, for example,
+	 * "&lt;target&gt; [mode] &lt;reason...&gt;", where required arguments
+	 * are surrounded by "&lt;&gt;" and optional ones by "[]".
+	 *
+	 * @return The usage of this parser.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public String getUsage() {
+		return usage;
+	}
+
+	/**
+	 * Gets the arguments of this parser, in declaration order.
+	 *
+	 * @return An unmodifiable {@link List} with the arguments of this parser.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public List<ArgumentSpec.Argument> getArguments() {
+		return List.of(arguments);
+	}
+
+	int indexOf(@NotNull String name) {
+		final Integer index = indexes.get(name);
+		if (index == null)
+			throw new IllegalArgumentException("Unknown argument: " + name);
+		return index;
+	}
+
+	/*
+	 * Parsing
+	 */
+
+	/**
+	 * Parses {@code args} starting at {@code offset}, so arguments already consumed,
+	 * for example, by sub commands, can be skipped without copying the array.
+	 *
+	 * @param args The arguments to parse.
+	 * @param offset The position of the first argument to parse.
+	 *
+	 * @return The {@link ParsedArguments}.
+	 *
+	 * @throws ArgumentParseException if {@code args} don't match the {@link ArgumentSpec}
+	 * of this parser. Positions reported by the exception are positions on {@code args}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public ParsedArguments parse(@NotNull String[] args, int offset) throws ArgumentParseException {
+		final Object[] values = new Object[arguments.length];
+		int pos = offset;
+		for (int i = 0; i < arguments.length; i++) {
+			final ArgumentSpec.Argument argument = arguments[i];
+			if (pos >= args.length) {
+				if (!argument.optional)
+					throw new ArgumentParseException(ArgumentParseException.Reason.MISSING, pos, null, argument.name,
+							"Missing argument " + argument.name + " (" + argument.type.getName() + ") at position " + pos);
+				values[i] = argument.def;
+			} else if (argument.greedy) {
+				final StringBuilder builder = new StringBuilder(strip(args[pos]));
+				while (++pos < args.length)
+					builder.append(' ').append(strip(args[pos]));
+				values[i] = builder.toString();
+			} else {
+				final Object value = argument.type.parse(args[pos]);
+				if (value == null)
+					throw new ArgumentParseException(ArgumentParseException.Reason.INVALID, pos, args[pos], argument.name,
+							"Invalid " + argument.type.getName() + " \"" + args[pos] + "\" for argument " + argument.name + " at position " + pos);
+				values[i] = argument.type == ArgumentType.STRING ? strip((String) value) : value;
+				pos++;
+			}
+		}
+		if (pos < args.length)
+			throw new ArgumentParseException(ArgumentParseException.Reason.TOO_MANY, pos, args[pos], null,
+					"Unexpected argument \"" + args[pos] + "\" at position " + pos + ", usage: " + usage);
+		return new ParsedArguments(this, values);
+	}
+
+	/**
+	 * Parses {@code args}.
+	 *
+	 * @param args The arguments to parse.
+	 *
+	 * @return The {@link ParsedArguments}.
+	 *
+	 * @throws ArgumentParseException if {@code args} don't match the {@link ArgumentSpec} of this parser.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public ParsedArguments parse(@NotNull String[] args) throws ArgumentParseException {
+		return parse(args, 0);
+	}
+
+	@NotNull
+	private String strip(@NotNull String arg) {
+		return removeEventPatterns ? MCStrings.stripEventPatterns(arg) : arg;
+	}
+
+	/*
+	 * Tab completion
+	 */
+
+	/**
+	 * Gets the tab completion suggestions for the last argument of {@code args},
+	 * which is the one being typed, starting at {@code offset}.
+	 *
+	 * @param args The arguments typed so far.
+	 * @param offset The position of the first argument handled by this parser.
+	 *
+	 * @return The suggestions provided by the {@link ArgumentType} of the argument
+	 * being typed, empty if there are none.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public List<String> suggest(@NotNull String[] args, int offset) {
+		final int index = args.length - 1 - offset;
+		if (index < 0 || index >= arguments.length || arguments[index].greedy)
+			return List.of();
+		return arguments[index].type.suggest(args[args.length - 1]);
+	}
+
+	@NotNull
+	public List<String> suggest(@NotNull String[] args) {
+		return suggest(args, 0);
+	}
+}
@@ -0,0 +1,210 @@
+package net.codersky.mcutils.cmd.args;
+
+import net.codersky.mcutils.cmd.MCCommand;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Declarative description of the arguments of a command, which is
+ * {@link #compile(boolean) compiled} once into an {@link ArgumentParser}.
+ * Arguments are declared in order, required arguments first, then optional
+ * ones, and optionally a greedy tail that takes every remaining argument.
+ * <pre>
+ * private final ArgumentParser parser = new ArgumentSpec()
+ *         .required("target", ArgumentType.STRING)
+ *         .optional("mode", ArgumentType.ofEnum(GameMode.class), GameMode.SURVIVAL)
+ *         .greedy("reason", true)
+ *         .compile();
+ * </pre>
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class ArgumentSpec {
+
+	private final List<Argument> arguments = new ArrayList<>();
+	private boolean hasOptional = false;
+	private boolean hasGreedy = false;
+
+	@NotNull
+	private ArgumentSpec add(@NotNull String name, @NotNull ArgumentType<?> type, boolean optional, @Nullable Object def, boolean greedy) {
+		Objects.requireNonNull(name, "Argument name cannot be null");
+		Objects.requireNonNull(type, "Argument type cannot be null");
+		if (hasGreedy)
+			throw new IllegalStateException("No arguments can be added after the greedy argument");
+		if (!optional && hasOptional)
+			throw new IllegalStateException("Required argument \"" + name + "\" cannot be added after optional arguments");
+		for (Argument argument : arguments)
+			if (argument.name.equals(name))
+				throw new IllegalArgumentException("Duplicate argument name: " + name);
+		arguments.add(new Argument(name, type, optional, def, greedy));
+		hasOptional |= optional;
+		hasGreedy |= greedy;
+		return this;
+	}
+
+	/**
+	 * Adds a required argument to this {@link ArgumentSpec}.
+	 *
+	 * @param name The name of the argument, used to get it from {@link ParsedArguments}.
+	 * @param type The {@link ArgumentType} of the argument.
+	 *
+	 * @return This {@link ArgumentSpec}.
+	 *
+	 * @throws IllegalStateException if optional or greedy arguments were already added.
+	 * @throws IllegalArgumentException if an argument with the same {@code name} was already added.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public ArgumentSpec required(@NotNull String name, @NotNull ArgumentType<?> type) {
+		return add(name, type, false, null, false);
+	}
+
+	/**
+	 * Adds an optional argument to this {@link ArgumentSpec}.
+	 *
+	 * @param <T> The type of the argument.
+	 * @param name The name of the argument, used to get it from {@link ParsedArguments}.
+	 * @param type The {@link ArgumentType} of the argument.
+	 * @param def The value used if the argument isn't provided, can be {@code null}.
+	 *
+	 * @return This {@link ArgumentSpec}.
+	 *
+	 * @throws IllegalStateException if a greedy argument was already added.
+	 * @throws IllegalArgumentException if an argument with the same {@code name} was already added.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public <T> ArgumentSpec optional(@NotNull String name, @NotNull ArgumentType<T> type, @Nullable T def) {
+		return add(name, type, true, def, false);
+	}
+
+	@NotNull
+	public ArgumentSpec optional(@NotNull String name, @NotNull ArgumentType<?> type) {
+		return add(name, type, true, null, false);
+	}
+
+	/**
+	 * Adds a greedy argument to this {@link ArgumentSpec}, which takes every remaining
+	 * argument joined by single spaces. Like any other {@link String} argument, event
+	 * patterns are removed from it if the parser was {@link #compile(boolean) compiled}
+	 * to do so. No more arguments can be added after it.
+	 *
+	 * @param name The name of the argument, used to get it from {@link ParsedArguments}.
+	 * @param optional Whether the argument is optional, being {@code null} if not provided.
+	 *
+	 * @return This {@link ArgumentSpec}.
+	 *
+	 * @throws IllegalStateException if a greedy argument was already added, or if
+	 * this argument is required and optional arguments were already added.
+	 * @throws IllegalArgumentException if an argument with the same {@code name} was already added.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public ArgumentSpec greedy(@NotNull String name, boolean optional) {
+		return add(name, ArgumentType.STRING, optional, null, true);
+	}
+
+	@NotNull
+	public ArgumentSpec greedy(@NotNull String name) {
+		return greedy(name, false);
+	}
+
+	/*
+	 * Compilation
+	 */
+
+	/**
+	 * Compiles this {@link ArgumentSpec} into an {@link ArgumentParser}. Changes made
+	 * to this {@link ArgumentSpec} after compiling it don't affect the parser.
+	 *
+	 * @param removeEventPatterns Whether to remove event patterns from {@link String}
+	 * arguments, see {@link MCCommand#removesEventPatterns()}.
+	 *
+	 * @return A new {@link ArgumentParser}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public ArgumentParser compile(boolean removeEventPatterns) {
+		return new ArgumentParser(arguments.toArray(new Argument[0]), removeEventPatterns);
+	}
+
+	/**
+	 * Compiles this {@link ArgumentSpec} into an {@link ArgumentParser} that
+	 * removes event patterns from {@link String} arguments.
+	 *
+	 * @return A new {@link ArgumentParser}.
+	 *
+	 * @since MCUtils 1.0.0
+	 *
+	 * @see #compile(boolean)
+	 */
+	@NotNull
+	public ArgumentParser compile() {
+		return compile(true);
+	}
+
+	/**
+	 * A single argument declared on an {@link ArgumentSpec}, exposed by
+	 * {@link ArgumentParser#getArguments()} so platforms can export the
+	 * structure of a command, for example, to Brigadier.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public static final class Argument {
+
+		final String name;
+		final ArgumentType<?> type;
+		final boolean optional;
+		final Object def;
+		final boolean greedy;
+
+		Argument(String name, ArgumentType<?> type, boolean optional, @Nullable Object def, boolean greedy) {
+			this.name = name;
+			this.type = type;
+			this.optional = optional;
+			this.def = def;
+			this.greedy = greedy;
+		}
+
+		@NotNull
+		public String getName() {
+			return name;
+		}
+
+		@NotNull
+		public ArgumentType<?> getType() {
+			return type;
+		}
+
+		public boolean isOptional() {
+			return optional;
+		}
+
+		@Nullable
+		public Object getDefault() {
+			return def;
+		}
+
+		/**
+		 * Whether this argument is greedy, meaning that it takes every
+		 * remaining argument as a single {@link String}.
+		 *
+		 * @return {@code true} if this argument is greedy, {@code false} otherwise.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		public boolean isGreedy() {
+			return greedy;
+		}
+	}
+}
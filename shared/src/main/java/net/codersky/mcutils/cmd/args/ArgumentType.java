@@ -0,0 +1,165 @@
+package net.codersky.mcutils.cmd.args;
+
+import net.codersky.mcutils.cmd.completion.CompletionEngine;
+import net.codersky.mcutils.cmd.completion.SuggestionSource;
+import net.codersky.mcutils.java.math.MCNumbers;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Represents the type of a single command argument, used by
+ * {@link ArgumentSpec} to convert arguments and to suggest values
+ * for them on tab completion.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @param <T> The type arguments are converted to.
+ */
+public interface ArgumentType<T> {
+
+	/**
+	 * {@link ArgumentType} that accepts any argument as a {@link String}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	ArgumentType<String> STRING = of("text", str -> str);
+
+	ArgumentType<Integer> INT = of("integer", str -> MCNumbers.asNumber(str, Integer.class));
+
+	ArgumentType<Long> LONG = of("integer", str -> MCNumbers.asNumber(str, Long.class));
+
+	ArgumentType<Float> FLOAT = of("number", str -> MCNumbers.asNumber(str, Float.class));
+
+	ArgumentType<Double> DOUBLE = of("number", str -> MCNumbers.asNumber(str, Double.class));
+
+	/**
+	 * {@link ArgumentType} that accepts "true" or "false", ignoring case.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	ArgumentType<Boolean> BOOLEAN = of("boolean", str -> {
+		if (str.equalsIgnoreCase("true"))
+			return true;
+		return str.equalsIgnoreCase("false") ? false : null;
+	}, List.of("false", "true"));
+
+	/**
+	 * Gets a human-readable name of this {@link ArgumentType},
+	 * used on {@link ArgumentParseException} messages.
+	 *
+	 * @return The name of this {@link ArgumentType}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	String getName();
+
+	/**
+	 * Converts the specified {@code arg} to the type of this {@link ArgumentType}.
+	 *
+	 * @param arg The argument to convert.
+	 *
+	 * @return The converted argument, {@code null} if {@code arg} isn't valid.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Nullable
+	T parse(@NotNull String arg);
+
+	/**
+	 * Gets the values of this {@link ArgumentType} that start with
+	 * the specified {@code prefix}, used for tab completion.
+	 *
+	 * @param prefix The argument being typed, may be empty.
+	 *
+	 * @return The values that start with {@code prefix}, empty by default.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	default List<String> suggest(@NotNull String prefix) {
+		return List.of();
+	}
+
+	/*
+	 * Factories
+	 */
+
+	/**
+	 * Creates a new {@link ArgumentType} with no suggestions.
+	 *
+	 * @param <T> The type arguments are converted to.
+	 * @param name The {@link #getName() name} of the type.
+	 * @param parser The {@link Function} used to convert arguments, returning
+	 * {@code null} for invalid arguments.
+	 *
+	 * @return A new {@link ArgumentType}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	static <T> ArgumentType<T> of(@NotNull String name, @NotNull Function<String, T> parser) {
+		return new SimpleArgumentType<>(Objects.requireNonNull(name), Objects.requireNonNull(parser), prefix -> List.of());
+	}
+
+	/**
+	 * Creates a new {@link ArgumentType} that suggests values from a fixed {@link List}.
+	 *
+	 * @param <T> The type arguments are converted to.
+	 * @param name The {@link #getName() name} of the type.
+	 * @param parser The {@link Function} used to convert arguments, returning
+	 * {@code null} for invalid arguments.
+	 * @param suggestions The values to suggest, filtered by prefix ignoring case.
+	 *
+	 * @return A new {@link ArgumentType}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	static <T> ArgumentType<T> of(@NotNull String name, @NotNull Function<String, T> parser, @NotNull List<String> suggestions) {
+		return of(name, parser, new SuggestionSource(suggestions));
+	}
+
+	/**
+	 * Creates a new {@link ArgumentType} that suggests values from a {@link SuggestionSource},
+	 * such as the {@link CompletionEngine#getPlayerNames() names of online players}. Changes
+	 * to the {@code source} are reflected on the suggestions of this type.
+	 *
+	 * @param <T> The type arguments are converted to.
+	 * @param name The {@link #getName() name} of the type.
+	 * @param parser The {@link Function} used to convert arguments, returning
+	 * {@code null} for invalid arguments.
+	 * @param source The {@link SuggestionSource} to suggest values from.
+	 *
+	 * @return A new {@link ArgumentType}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	static <T> ArgumentType<T> of(@NotNull String name, @NotNull Function<String, T> parser, @NotNull SuggestionSource source) {
+		return new SimpleArgumentType<>(Objects.requireNonNull(name), Objects.requireNonNull(parser), source::suggest);
+	}
+
+	/**
+	 * Gets the {@link ArgumentType} of the specified {@code enumClass}, which
+	 * accepts the name of any of its constants, ignoring case. Lookups are done
+	 * on a map built once per {@link Enum} class.
+	 *
+	 * @param <E> The {@link Enum} type.
+	 * @param enumClass The class of the {@link Enum}.
+	 *
+	 * @return The {@link ArgumentType} of {@code enumClass}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	static <E extends Enum<E>> ArgumentType<E> ofEnum(@NotNull Class<E> enumClass) {
+		return EnumArgumentType.of(enumClass);
+	}
+}
@@ -0,0 +1,95 @@
+package net.codersky.mcutils.cmd.args;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * {@link ArgumentType} of an {@link Enum}, accepting the name of any of its
+ * constants ignoring case. Instances are cached per {@link Enum} class, so
+ * the lookup map of each {@link Enum} is only built once.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @param <E> The {@link Enum} type.
+ */
+public final class EnumArgumentType<E extends Enum<E>> implements ArgumentType<E> {
+
+	private static final ClassValue<EnumArgumentType<?>> CACHE = new ClassValue<>() {
+		@Override
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		protected EnumArgumentType<?> computeValue(Class<?> type) {
+			return new EnumArgumentType(type);
+		}
+	};
+
+	private final String name;
+	private final Map<String, E> constants;
+	// Sorted lower case names, used for suggestions.
+	private final String[] names;
+
+	private EnumArgumentType(Class<E> enumClass) {
+		final E[] values = enumClass.getEnumConstants();
+		this.name = enumClass.getSimpleName();
+		this.constants = new HashMap<>((int) (values.length / 0.75f) + 1);
+		this.names = new String[values.length];
+		for (int i = 0; i < values.length; i++) {
+			constants.put(values[i].name().toUpperCase(Locale.ROOT), values[i]);
+			names[i] = values[i].name().toLowerCase(Locale.ROOT);
+		}
+		Arrays.sort(names);
+	}
+
+	/**
+	 * Gets the {@link EnumArgumentType} of the specified {@code enumClass}.
+	 *
+	 * @param <E> The {@link Enum} type.
+	 * @param enumClass The class of the {@link Enum}.
+	 *
+	 * @return The cached {@link EnumArgumentType} of {@code enumClass}.
+	 *
+	 * @throws IllegalArgumentException if {@code enumClass} isn't an {@link Enum}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	@SuppressWarnings("unchecked")
+	public static <E extends Enum<E>> EnumArgumentType<E> of(@NotNull Class<E> enumClass) {
+		if (!enumClass.isEnum())
+			throw new IllegalArgumentException(enumClass.getName() + " is not an enum");
+		return (EnumArgumentType<E>) CACHE.get(enumClass);
+	}
+
+	@NotNull
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Nullable
+	@Override
+	public E parse(@NotNull String arg) {
+		return constants.get(arg.toUpperCase(Locale.ROOT));
+	}
+
+	@NotNull
+	@Override
+	public List<String> suggest(@NotNull String prefix) {
+		final String lower = prefix.toLowerCase(Locale.ROOT);
+		int from = Arrays.binarySearch(names, lower);
+		if (from < 0)
+			from = -from - 1;
+		final List<String> result = new ArrayList<>();
+		for (int i = from; i < names.length && names[i].startsWith(lower); i++)
+			result.add(names[i]);
+		return result;
+	}
+}
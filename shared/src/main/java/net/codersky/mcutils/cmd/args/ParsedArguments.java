@@ -0,0 +1,72 @@
+package net.codersky.mcutils.cmd.args;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Arguments converted by an {@link ArgumentParser}, accessed by the
+ * names given to them on the {@link ArgumentSpec}. Arguments are stored
+ * by position, so accessing them doesn't parse anything again.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public final class ParsedArguments {
+
+	private final ArgumentParser parser;
+	private final Object[] values;
+
+	ParsedArguments(@NotNull ArgumentParser parser, @NotNull Object[] values) {
+		this.parser = parser;
+		this.values = values;
+	}
+
+	/**
+	 * Gets the value of the argument with the specified {@code name}.
+	 *
+	 * @param <T> The type of the argument, as declared on the {@link ArgumentSpec}.
+	 * @param name The name of the argument.
+	 *
+	 * @return The value of the argument, which may only be {@code null}
+	 * for optional arguments that weren't provided.
+	 *
+	 * @throws IllegalArgumentException if no argument named {@code name} exists.
+	 * @throws ClassCastException if {@code T} doesn't match the type of the argument.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public <T> T get(@NotNull String name) {
+		return (T) values[parser.indexOf(name)];
+	}
+
+	/**
+	 * Gets the value of the argument with the specified {@code name},
+	 * or {@code def} if said argument is {@code null}.
+	 *
+	 * @param <T> The type of the argument, as declared on the {@link ArgumentSpec}.
+	 * @param name The name of the argument.
+	 * @param def The value to return if the argument is {@code null}.
+	 *
+	 * @return The value of the argument, {@code def} if {@code null}.
+	 *
+	 * @throws IllegalArgumentException if no argument named {@code name} exists.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public <T> T get(@NotNull String name, @NotNull T def) {
+		final T value = get(name);
+		return value == null ? def : value;
+	}
+
+	public boolean has(@NotNull String name) {
+		return values[parser.indexOf(name)] != null;
+	}
+
+	public int size() {
+		return values.length;
+	}
+}
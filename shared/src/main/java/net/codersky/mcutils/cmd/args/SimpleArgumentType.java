@@ -0,0 +1,38 @@
+package net.codersky.mcutils.cmd.args;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.function.Function;
+
+final class SimpleArgumentType<T> implements ArgumentType<T> {
+
+	private final String name;
+	private final Function<String, T> parser;
+	private final Function<String, List<String>> suggestions;
+
+	SimpleArgumentType(String name, Function<String, T> parser, Function<String, List<String>> suggestions) {
+		this.name = name;
+		this.parser = parser;
+		this.suggestions = suggestions;
+	}
+
+	@NotNull
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Nullable
+	@Override
+	public T parse(@NotNull String arg) {
+		return parser.apply(arg);
+	}
+
+	@NotNull
+	@Override
+	public List<String> suggest(@NotNull String prefix) {
+		return suggestions.apply(prefix);
+	}
+}
@@ -0,0 +1,150 @@
+package net.codersky.mcutils.cmd.completion;
+
+import net.codersky.mcutils.MCUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Tab completion engine of MCUtils, obtained from {@link MCUtils#getCompletionEngine()}.
+ * The engine holds named {@link SuggestionSource suggestion sources} shared by every
+ * command, including the names of online players, which is kept up to date by each
+ * platform, and runs completions on its own bounded executor on platforms that
+ * support asynchronous tab completion.
+ * <p>
+ * The executor has a small amount of threads and a bounded queue. If the queue
+ * is full, new completions are not queued but answered with no suggestions,
+ * as a late suggestion is useless to the player anyway.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class CompletionEngine {
+
+	private final ThreadPoolExecutor executor;
+	private final SuggestionSource playerNames = new SuggestionSource();
+	private final Map<String, SuggestionSource> sources = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new {@link CompletionEngine}.
+	 *
+	 * @param threads The maximum amount of threads used to run completions.
+	 * @param queueSize The maximum amount of completions waiting to run.
+	 *
+	 * @throws IllegalArgumentException if {@code threads} or {@code queueSize} are lower than one.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public CompletionEngine(int threads, int queueSize) {
+		final AtomicInteger count = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize), runnable -> {
+			final Thread thread = new Thread(runnable, "MCUtils completion #" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Creates a new {@link CompletionEngine} bounded by the amount of available
+	 * processors, with a maximum of two threads and a queue of 256 completions.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public CompletionEngine() {
+		this(Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors())), 256);
+	}
+
+	/*
+	 * Sources
+	 */
+
+	/**
+	 * Gets the {@link SuggestionSource} of the names of online players,
+	 * which is updated by the platform as players join and leave.
+	 *
+	 * @return The {@link SuggestionSource} of online player names.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public SuggestionSource getPlayerNames() {
+		return playerNames;
+	}
+
+	/**
+	 * Registers a {@link SuggestionSource} under the specified {@code name}, so
+	 * it can be shared by different commands, replacing any previous source
+	 * registered with the same {@code name}.
+	 *
+	 * @param name The name of the source.
+	 * @param source The {@link SuggestionSource} to register.
+	 *
+	 * @return The registered {@code source}.
+	 *
+	 * @throws NullPointerException if any parameter is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public SuggestionSource registerSource(@NotNull String name, @NotNull SuggestionSource source) {
+		sources.put(Objects.requireNonNull(name), Objects.requireNonNull(source));
+		return source;
+	}
+
+	@Nullable
+	public SuggestionSource getSource(@NotNull String name) {
+		return sources.get(name);
+	}
+
+	@Nullable
+	public SuggestionSource unregisterSource(@NotNull String name) {
+		return sources.remove(name);
+	}
+
+	/*
+	 * Execution
+	 */
+
+	/**
+	 * Runs the specified {@code completion} on the executor of this engine.
+	 *
+	 * @param completion The completion to run.
+	 *
+	 * @return A {@link CompletableFuture} with the suggestions provided by
+	 * {@code completion}. If the executor is saturated or {@code completion}
+	 * fails, the future completes with an empty {@link List} instead.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public CompletableFuture<List<String>> completeAsync(@NotNull Supplier<List<String>> completion) {
+		Objects.requireNonNull(completion);
+		try {
+			return CompletableFuture.supplyAsync(completion, executor).exceptionally(ex -> List.of());
+		} catch (RejectedExecutionException ex) {
+			return CompletableFuture.completedFuture(List.of());
+		}
+	}
+
+	/**
+	 * Stops the executor of this engine, completions already queued still run.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+}
@@ -0,0 +1,187 @@
+package net.codersky.mcutils.cmd.completion;
+
+import net.codersky.mcutils.storage.Config;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Thread safe, sorted set of values used as a cached source of tab completion
+ * suggestions, such as the names of online players. Values are kept sorted
+ * ignoring case, so {@link #suggest(String) suggestions} for a prefix are found
+ * with a range lookup instead of filtering every value. Sources are meant to be
+ * kept up to date incrementally with {@link #add(String)} and {@link #remove(String)},
+ * for example, from join and quit events, instead of being rebuilt on every keystroke.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class SuggestionSource {
+
+	// Keys are the lower case value followed by '\0' and the original value, so
+	// values that only differ in case can coexist while sorting ignoring case.
+	private final ConcurrentSkipListMap<String, String> values = new ConcurrentSkipListMap<>();
+
+	public SuggestionSource() {}
+
+	public SuggestionSource(@NotNull Collection<String> values) {
+		// Not using addAll, as subclasses may override it before being initialized.
+		for (String value : values)
+			this.values.put(key(value), value);
+	}
+
+	/**
+	 * Creates a {@link SuggestionSource} with fixed {@code values}, which
+	 * can still be modified later on.
+	 *
+	 * @param values The values of the source.
+	 *
+	 * @return A new {@link SuggestionSource}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static SuggestionSource of(@NotNull String... values) {
+		return new SuggestionSource(List.of(values));
+	}
+
+	/**
+	 * Creates a {@link SuggestionSource} that suggests the keys of the specified
+	 * {@code config}. As {@link Config#getSnapshot() snapshots} are immutable,
+	 * the source only updates itself when a new snapshot gets published, adding
+	 * and removing the keys that changed since the last update.
+	 *
+	 * @param config The {@link Config} to suggest keys from.
+	 *
+	 * @return A new {@link SuggestionSource} of the keys of {@code config}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static SuggestionSource ofKeys(@NotNull Config config) {
+		return new ConfigKeySource(Objects.requireNonNull(config));
+	}
+
+	@NotNull
+	private static String key(@NotNull String value) {
+		return value.toLowerCase(Locale.ROOT) + '\0' + value;
+	}
+
+	/*
+	 * Modification
+	 */
+
+	public boolean add(@NotNull String value) {
+		return values.put(key(value), value) == null;
+	}
+
+	public void addAll(@NotNull Collection<String> values) {
+		for (String value : values)
+			add(value);
+	}
+
+	public boolean remove(@NotNull String value) {
+		return values.remove(key(value)) != null;
+	}
+
+	public void clear() {
+		values.clear();
+	}
+
+	/**
+	 * Replaces the values of this {@link SuggestionSource} with the specified
+	 * {@code values}, only adding and removing the values that changed, so
+	 * concurrent {@link #suggest(String) suggestions} never see an empty source.
+	 *
+	 * @param values The new values of this source.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public void set(@NotNull Collection<String> values) {
+		final Set<String> keys = new HashSet<>((int) (values.size() / 0.75f) + 1);
+		for (String value : values)
+			if (keys.add(key(value)))
+				this.values.putIfAbsent(key(value), value);
+		this.values.keySet().retainAll(keys);
+	}
+
+	/*
+	 * Queries
+	 */
+
+	// Hook for sources that update themselves lazily.
+	protected void refresh() {}
+
+	public boolean contains(@NotNull String value) {
+		refresh();
+		return values.containsKey(key(value));
+	}
+
+	public int size() {
+		refresh();
+		return values.size();
+	}
+
+	/**
+	 * Gets up to {@code limit} values of this {@link SuggestionSource} that
+	 * start with {@code prefix}, ignoring case, sorted alphabetically.
+	 *
+	 * @param prefix The prefix to match, usually the argument being typed.
+	 * @param limit The maximum amount of values to return.
+	 *
+	 * @return The matching values, which can be freely modified.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public List<String> suggest(@NotNull String prefix, int limit) {
+		refresh();
+		final String lower = prefix.toLowerCase(Locale.ROOT);
+		final ConcurrentNavigableMap<String, String> range = values.subMap(lower, true, lower + Character.MAX_VALUE, false);
+		final List<String> result = new ArrayList<>(Math.min(limit, 16));
+		for (String value : range.values()) {
+			if (result.size() >= limit)
+				break;
+			result.add(value);
+		}
+		return result;
+	}
+
+	@NotNull
+	public List<String> suggest(@NotNull String prefix) {
+		return suggest(prefix, Integer.MAX_VALUE);
+	}
+
+	private static final class ConfigKeySource extends SuggestionSource {
+
+		private final Config config;
+		private volatile Map<String, Object> snapshot = null;
+
+		ConfigKeySource(Config config) {
+			this.config = config;
+		}
+
+		@Override
+		protected void refresh() {
+			final Map<String, Object> current = config.getSnapshot();
+			if (current == snapshot)
+				return;
+			synchronized (this) {
+				if (current != snapshot) {
+					set(current.keySet());
+					snapshot = current;
+				}
+			}
+		}
+	}
+}
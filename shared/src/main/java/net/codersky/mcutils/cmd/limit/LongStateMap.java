@@ -0,0 +1,110 @@
+package net.codersky.mcutils.cmd.limit;
+
+/**
+ * Open addressing hash map from {@code long} keys to two {@code long} values,
+ * used by {@link RateLimiter} to store its state without boxing. Slots are
+ * accessed directly through the package-private arrays. Not thread safe.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+final class LongStateMap {
+
+	long[] keys;
+	long[] first;
+	long[] second;
+	private boolean[] used;
+	private int size = 0;
+
+	LongStateMap() {
+		allocate(16);
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		first = new long[capacity];
+		second = new long[capacity];
+		used = new boolean[capacity];
+	}
+
+	private static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xFF51AFD7ED558CCDL;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the slot of {@code key}.
+	 *
+	 * @return The slot of {@code key}, -1 if not present.
+	 */
+	int indexOf(long key) {
+		final int mask = keys.length - 1;
+		for (int i = hash(key) & mask; used[i]; i = (i + 1) & mask)
+			if (keys[i] == key)
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Inserts {@code key}, which must not be present, with both values set to zero.
+	 *
+	 * @return The slot of {@code key}.
+	 */
+	int insert(long key) {
+		if ((size + 1) * 2 > keys.length)
+			resize(keys.length * 2);
+		final int mask = keys.length - 1;
+		int i = hash(key) & mask;
+		while (used[i])
+			i = (i + 1) & mask;
+		used[i] = true;
+		keys[i] = key;
+		first[i] = 0;
+		second[i] = 0;
+		size++;
+		return i;
+	}
+
+	// Backward shift deletion, so no tombstones are needed.
+	void removeAt(int slot) {
+		final int mask = keys.length - 1;
+		int hole = slot;
+		for (int i = (slot + 1) & mask; used[i]; i = (i + 1) & mask) {
+			final int home = hash(keys[i]) & mask;
+			if (((i - home) & mask) >= ((i - hole) & mask)) {
+				keys[hole] = keys[i];
+				first[hole] = first[i];
+				second[hole] = second[i];
+				hole = i;
+			}
+		}
+		used[hole] = false;
+		size--;
+	}
+
+	void clear() {
+		allocate(16);
+		size = 0;
+	}
+
+	private void resize(int capacity) {
+		final long[] oldKeys = keys, oldFirst = first, oldSecond = second;
+		final boolean[] oldUsed = used;
+		allocate(capacity);
+		size = 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (!oldUsed[i])
+				continue;
+			final int slot = insert(oldKeys[i]);
+			first[slot] = oldFirst[i];
+			second[slot] = oldSecond[i];
+		}
+	}
+}
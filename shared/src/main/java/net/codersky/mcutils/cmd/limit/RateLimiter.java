@@ -0,0 +1,338 @@
+package net.codersky.mcutils.cmd.limit;
+
+import net.codersky.mcutils.cmd.MCCommand;
+import net.codersky.mcutils.cmd.MCCommandSender;
+import net.codersky.mcutils.cmd.SubCommandHandler;
+import net.codersky.mcutils.crossplatform.player.MCPlayer;
+import net.codersky.mcutils.storage.files.MessagesFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Per player cooldown and rate limit of a command. Commands return their
+ * limiter from {@link MCCommand#getRateLimiter()}, and it gets checked by
+ * the {@link SubCommandHandler} right before the command is executed. Tab
+ * completion is never limited, neither are senders that aren't players.
+ * <p>
+ * Three kinds of limits are available:
+ * <ul>
+ *     <li>{@link #cooldown(Duration) Cooldowns}, where a command can only be used once per cooldown.</li>
+ *     <li>{@link #tokenBucket(int, Duration) Token buckets}, which allow bursts of uses that
+ *     slowly refill over time, and are the best option to stop macro spam.</li>
+ *     <li>{@link #fixedWindow(int, Duration) Fixed windows}, which allow a certain amount of
+ *     uses on a time window that starts with the first use.</li>
+ * </ul>
+ * The state of each player is stored on a primitive map keyed by a {@code long}
+ * derived from their {@link UUID}, and entries are expired through a hashed timing
+ * wheel that is advanced on each use, so no scan of every entry is ever needed and
+ * players that stop using the command are forgotten once their limit fully resets.
+ * This class is thread safe.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class RateLimiter {
+
+	private static final int WHEEL_SLOTS = 64;
+
+	private final boolean window;
+	private final int limit;
+	private final long period;
+	private String bypassPermission = null;
+	private MessagesFile messages = null;
+	private String messagePath = null;
+
+	private final LongStateMap states = new LongStateMap();
+	private final long origin = System.nanoTime();
+	private final long wheelTick;
+	private final long[][] wheel = new long[WHEEL_SLOTS][];
+	private final int[] wheelSizes = new int[WHEEL_SLOTS];
+	private long lastTick = 0;
+
+	private RateLimiter(boolean window, int limit, @NotNull Duration period) {
+		if (limit < 1)
+			throw new IllegalArgumentException("Limit must be at least one, got " + limit);
+		if (period.isNegative() || period.isZero())
+			throw new IllegalArgumentException("Period must be positive, got " + period);
+		this.window = window;
+		this.limit = limit;
+		this.period = period.toNanos();
+		// The wheel covers the time it takes for a limit to fully reset in about half its slots.
+		final long horizon = window ? this.period : this.period * limit;
+		this.wheelTick = Math.max(1_000_000L, horizon / (WHEEL_SLOTS / 2));
+		for (int i = 0; i < WHEEL_SLOTS; i++)
+			wheel[i] = new long[4];
+	}
+
+	/**
+	 * Creates a {@link RateLimiter} that only allows one use per {@code cooldown}.
+	 *
+	 * @param cooldown The cooldown between uses.
+	 *
+	 * @return A new {@link RateLimiter}.
+	 *
+	 * @throws IllegalArgumentException if {@code cooldown} isn't positive.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static RateLimiter cooldown(@NotNull Duration cooldown) {
+		return new RateLimiter(false, 1, cooldown);
+	}
+
+	/**
+	 * Creates a token bucket {@link RateLimiter}. Each player has a bucket of
+	 * {@code capacity} tokens, each use takes a token, and a token is refilled
+	 * every {@code refill}. This allows short bursts of up to {@code capacity}
+	 * uses while limiting the sustained rate to one use per {@code refill}.
+	 *
+	 * @param capacity The maximum amount of tokens of a bucket.
+	 * @param refill The time it takes to refill one token.
+	 *
+	 * @return A new {@link RateLimiter}.
+	 *
+	 * @throws IllegalArgumentException if {@code capacity} is lower than one or {@code refill} isn't positive.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static RateLimiter tokenBucket(int capacity, @NotNull Duration refill) {
+		return new RateLimiter(false, capacity, refill);
+	}
+
+	/**
+	 * Creates a fixed window {@link RateLimiter}, which allows up to {@code limit}
+	 * uses on a {@code window} that starts on the first use of each player.
+	 *
+	 * @param limit The maximum amount of uses per window.
+	 * @param window The duration of each window.
+	 *
+	 * @return A new {@link RateLimiter}.
+	 *
+	 * @throws IllegalArgumentException if {@code limit} is lower than one or {@code window} isn't positive.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static RateLimiter fixedWindow(int limit, @NotNull Duration window) {
+		return new RateLimiter(true, limit, window);
+	}
+
+	/*
+	 * Configuration
+	 */
+
+	/**
+	 * Sets a permission that allows senders to bypass this {@link RateLimiter}.
+	 *
+	 * @param permission The bypass permission, {@code null} to remove it.
+	 *
+	 * @return This {@link RateLimiter}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public RateLimiter setBypassPermission(@Nullable String permission) {
+		this.bypassPermission = permission;
+		return this;
+	}
+
+	/**
+	 * Sets the message sent to players that hit the limit. The message
+	 * gets "%time%" replaced with the seconds left until the player can
+	 * use the command again, rounded up.
+	 *
+	 * @param messages The {@link MessagesFile} to get the message from, {@code null} to send no message.
+	 * @param path The path of the message.
+	 *
+	 * @return This {@link RateLimiter}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public RateLimiter setMessage(@Nullable MessagesFile messages, @NotNull String path) {
+		this.messagePath = Objects.requireNonNull(path);
+		this.messages = messages;
+		return this;
+	}
+
+	/*
+	 * Limiting
+	 */
+
+	// UUIDs are folded into a long, collisions are possible but extremely unlikely.
+	private static long keyOf(@NotNull UUID uuid) {
+		return uuid.getMostSignificantBits() * 31 + uuid.getLeastSignificantBits();
+	}
+
+	/**
+	 * Tries to use the command as {@code sender}, sending the configured
+	 * {@link #setMessage(MessagesFile, String) message} if the limit is hit.
+	 *
+	 * @param sender The sender using the command.
+	 *
+	 * @return {@code true} if {@code sender} can use the command, {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public boolean tryAcquire(@NotNull MCCommandSender sender) {
+		if (!sender.isPlayer() || (bypassPermission != null && sender.hasPermission(bypassPermission)))
+			return true;
+		final MCPlayer player = sender.asPlayer();
+		if (player == null)
+			return true;
+		final long wait = tryAcquire(keyOf(player.getUniqueId()));
+		if (wait == 0)
+			return true;
+		final MessagesFile messages = this.messages;
+		if (messages != null)
+			messages.send(sender, messagePath, "%time%", (wait + 999_999_999L) / 1_000_000_000L);
+		return false;
+	}
+
+	/**
+	 * Tries to use the command as the player with the specified {@code uuid}.
+	 *
+	 * @param uuid The {@link UUID} of the player.
+	 *
+	 * @return {@code true} if the player can use the command, {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public boolean tryAcquire(@NotNull UUID uuid) {
+		return tryAcquire(keyOf(uuid)) == 0;
+	}
+
+	// Returns zero if allowed, the nanoseconds to wait otherwise.
+	private synchronized long tryAcquire(long key) {
+		final long now = System.nanoTime() - origin;
+		advance(now);
+		int slot = states.indexOf(key);
+		if (slot == -1) {
+			slot = states.insert(key);
+			states.first[slot] = now;
+			schedule(key, expiryOf(slot));
+		}
+		if (window) {
+			// first: window start, second: uses on the window.
+			if (now - states.first[slot] >= period) {
+				states.first[slot] = now;
+				states.second[slot] = 0;
+			}
+			if (states.second[slot] >= limit)
+				return states.first[slot] + period - now;
+			states.second[slot]++;
+		} else {
+			// GCRA, first: theoretical arrival time, the bucket is full once reached.
+			final long tat = Math.max(states.first[slot], now);
+			final long allowAt = tat - (limit - 1) * period;
+			if (now < allowAt)
+				return allowAt - now;
+			states.first[slot] = tat + period;
+		}
+		return 0;
+	}
+
+	/**
+	 * Gets the time left until the player with the specified {@code uuid}
+	 * can use the command again.
+	 *
+	 * @param uuid The {@link UUID} of the player.
+	 *
+	 * @return The time left, {@link Duration#ZERO} if the player can use the command.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public synchronized Duration getRemaining(@NotNull UUID uuid) {
+		final int slot = states.indexOf(keyOf(uuid));
+		if (slot == -1)
+			return Duration.ZERO;
+		final long now = System.nanoTime() - origin;
+		final long wait;
+		if (window)
+			wait = states.second[slot] >= limit ? states.first[slot] + period - now : 0;
+		else
+			wait = states.first[slot] - (limit - 1) * period - now;
+		return Duration.ofNanos(Math.max(0, wait));
+	}
+
+	/**
+	 * Resets the limit of the player with the specified {@code uuid}.
+	 *
+	 * @param uuid The {@link UUID} of the player.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public synchronized void reset(@NotNull UUID uuid) {
+		final int slot = states.indexOf(keyOf(uuid));
+		if (slot != -1)
+			states.removeAt(slot);
+	}
+
+	public synchronized void clear() {
+		states.clear();
+		Arrays.fill(wheelSizes, 0);
+	}
+
+	/**
+	 * Gets the amount of players currently tracked by this {@link RateLimiter},
+	 * which are the players whose limit hasn't fully reset yet, plus those that
+	 * haven't been expired by the timing wheel yet.
+	 *
+	 * @return The amount of players tracked by this {@link RateLimiter}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public synchronized int size() {
+		return states.size();
+	}
+
+	/*
+	 * Expiration
+	 */
+
+	// Time at which the state on the slot is the same as having no state at all.
+	private long expiryOf(int slot) {
+		return window ? states.first[slot] + period : states.first[slot];
+	}
+
+	private void schedule(long key, long expiry) {
+		final int idx = (int) (Math.max(expiry / wheelTick, lastTick + 1) & (WHEEL_SLOTS - 1));
+		long[] keys = wheel[idx];
+		if (wheelSizes[idx] == keys.length)
+			wheel[idx] = keys = Arrays.copyOf(keys, keys.length * 2);
+		keys[wheelSizes[idx]++] = key;
+	}
+
+	// Every key is on the wheel once, keys whose state was extended are scheduled again.
+	private void advance(long now) {
+		final long tick = now / wheelTick;
+		final long from = Math.max(lastTick + 1, tick - WHEEL_SLOTS + 1);
+		lastTick = tick;
+		for (long t = from; t <= tick; t++) {
+			final int idx = (int) (t & (WHEEL_SLOTS - 1));
+			final int size = wheelSizes[idx];
+			if (size == 0)
+				continue;
+			final long[] keys = wheel[idx];
+			wheelSizes[idx] = 0;
+			for (int i = 0; i < size; i++) {
+				final int slot = states.indexOf(keys[i]);
+				if (slot == -1)
+					continue;
+				final long expiry = expiryOf(slot);
+				if (expiry <= now)
+					states.removeAt(slot);
+				else
+					schedule(keys[i], expiry);
+			}
+		}
+	}
+}
@@ -0,0 +1,289 @@
+package net.codersky.mcutils.cmd.metrics;
+
+import net.codersky.mcutils.MCUtils;
+import net.codersky.mcutils.cmd.SubCommandHandler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Optional instrumentation of command execution, enabled with
+ * {@link MCUtils#setCommandMetrics(CommandMetrics)}. Once enabled, every
+ * command routed through a {@link SubCommandHandler} records, per command
+ * and per sub command, its invocation count, a {@link LatencyHistogram}
+ * of its execution time, the amount of times access was denied or rate
+ * limited, and the amount of times it threw an exception.
+ * <p>
+ * If a {@link #setSlowThreshold(Duration) slow threshold} is set, commands
+ * that are still running once said threshold is reached get a snapshot of
+ * the stack of the thread running them logged, which shows where the
+ * command is spending its time. The {@link MetricsCommand} can be used to
+ * display this information in game.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class CommandMetrics {
+
+	private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+	private volatile long slowThreshold = 0;
+	private volatile Consumer<String> logger = System.err::println;
+	private ScheduledThreadPoolExecutor watchdog = null;
+
+	/*
+	 * Configuration
+	 */
+
+	/**
+	 * Sets the execution time after which a command is considered slow, logging
+	 * a snapshot of the stack of the thread running it. Commands are watched by
+	 * a single daemon thread, which is only created once a threshold is set.
+	 *
+	 * @param threshold The slow threshold, {@code null} or zero to disable slow command tracing.
+	 *
+	 * @return This {@link CommandMetrics}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public CommandMetrics setSlowThreshold(@Nullable Duration threshold) {
+		this.slowThreshold = threshold == null || threshold.isNegative() ? 0 : threshold.toNanos();
+		return this;
+	}
+
+	@NotNull
+	public Duration getSlowThreshold() {
+		return Duration.ofNanos(slowThreshold);
+	}
+
+	/**
+	 * Sets the logger used to report slow commands, which prints to
+	 * {@link System#err} by default.
+	 *
+	 * @param logger The logger to use.
+	 *
+	 * @return This {@link CommandMetrics}.
+	 *
+	 * @throws NullPointerException if {@code logger} is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public CommandMetrics setLogger(@NotNull Consumer<String> logger) {
+		this.logger = Objects.requireNonNull(logger);
+		return this;
+	}
+
+	/*
+	 * Recording
+	 */
+
+	/**
+	 * Gets the {@link Stats} of the specified command {@code path}, such
+	 * as "cmd" for a command or "cmd sub" for one of its sub commands.
+	 *
+	 * @param path The path of the command.
+	 *
+	 * @return The {@link Stats} of {@code path}, created if they don't exist yet.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public Stats getStats(@NotNull String path) {
+		return stats.computeIfAbsent(path, Stats::new);
+	}
+
+	public void recordDenied(@NotNull String path) {
+		getStats(path).denied.increment();
+	}
+
+	/**
+	 * Records an execution of the specified command {@code path} that was rejected
+	 * because its {@link net.codersky.mcutils.cmd.limit.RateLimiter RateLimiter} was hit.
+	 * These are counted apart from {@link #recordDenied(String) denied} executions,
+	 * so spam isn't mistaken for permission problems.
+	 *
+	 * @param path The path of the command that was rate limited.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public void recordRateLimited(@NotNull String path) {
+		getStats(path).rateLimited.increment();
+	}
+
+	/**
+	 * Starts timing an execution of the specified command {@code path}. The returned
+	 * {@link Invocation} must be {@link Invocation#finish(boolean) finished} once the
+	 * command finishes, even if it throws an exception.
+	 *
+	 * @param path The path of the command being executed.
+	 *
+	 * @return The {@link Invocation} being timed.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public Invocation start(@NotNull String path) {
+		final Invocation invocation = new Invocation(getStats(path), System.nanoTime());
+		final long threshold = slowThreshold;
+		if (threshold > 0) {
+			final Thread thread = Thread.currentThread();
+			invocation.watch = getWatchdog().schedule(() -> reportSlow(path, thread, threshold), threshold, TimeUnit.NANOSECONDS);
+		}
+		return invocation;
+	}
+
+	@NotNull
+	private synchronized ScheduledThreadPoolExecutor getWatchdog() {
+		if (watchdog == null) {
+			watchdog = new ScheduledThreadPoolExecutor(1, runnable -> {
+				final Thread thread = new Thread(runnable, "MCUtils command watchdog");
+				thread.setDaemon(true);
+				return thread;
+			});
+			watchdog.setRemoveOnCancelPolicy(true);
+		}
+		return watchdog;
+	}
+
+	private void reportSlow(String path, Thread thread, long threshold) {
+		final StringBuilder builder = new StringBuilder("Command \"/").append(path).append("\" has been running for over ")
+				.append(TimeUnit.NANOSECONDS.toMillis(threshold)).append("ms on thread ").append(thread.getName()).append(':');
+		for (StackTraceElement element : thread.getStackTrace())
+			builder.append("\n\tat ").append(element);
+		logger.accept(builder.toString());
+	}
+
+	/*
+	 * Reports
+	 */
+
+	/**
+	 * Gets a human-readable summary of the {@link Stats} of every command, one line per
+	 * command, sorted by total execution time, so the most expensive commands come first.
+	 *
+	 * @return The summary of every command, empty if no commands have been recorded.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public List<String> dump() {
+		final List<Stats> sorted = new ArrayList<>(stats.values());
+		sorted.sort(Comparator.comparingDouble((Stats s) -> s.latency.getMean() * s.latency.getCount()).reversed());
+		final List<String> lines = new ArrayList<>(sorted.size());
+		for (Stats s : sorted)
+			lines.add(s.toString());
+		return lines;
+	}
+
+	public void reset() {
+		stats.clear();
+	}
+
+	/**
+	 * Stops the watchdog thread used for slow command tracing, if any.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public synchronized void shutdown() {
+		if (watchdog != null)
+			watchdog.shutdownNow();
+		watchdog = null;
+	}
+
+	/**
+	 * Metrics recorded for a single command or sub command.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public static class Stats {
+
+		private final String path;
+		private final LongAdder denied = new LongAdder();
+		private final LongAdder rateLimited = new LongAdder();
+		private final LongAdder failed = new LongAdder();
+		private final LatencyHistogram latency = new LatencyHistogram();
+
+		Stats(String path) {
+			this.path = path;
+		}
+
+		@NotNull
+		public String getPath() {
+			return path;
+		}
+
+		public long getInvocations() {
+			return latency.getCount();
+		}
+
+		public long getDenied() {
+			return denied.sum();
+		}
+
+		public long getRateLimited() {
+			return rateLimited.sum();
+		}
+
+		public long getFailed() {
+			return failed.sum();
+		}
+
+		@NotNull
+		public LatencyHistogram getLatency() {
+			return latency;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("/%s: %d runs, %d denied, %d rate limited, %d failed, mean %.2fms, p50 %.2fms, p99 %.2fms, max %.2fms",
+					path, getInvocations(), getDenied(), getRateLimited(), getFailed(), latency.getMean() / 1e6,
+					latency.getPercentile(50) / 1e6, latency.getPercentile(99) / 1e6, latency.getMax() / 1e6);
+		}
+	}
+
+	/**
+	 * A command execution being timed by {@link CommandMetrics#start(String)}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public static final class Invocation {
+
+		private final Stats stats;
+		private final long start;
+		private ScheduledFuture<?> watch = null;
+
+		Invocation(Stats stats, long start) {
+			this.stats = stats;
+			this.start = start;
+		}
+
+		/**
+		 * Finishes this {@link Invocation}, recording its execution time.
+		 *
+		 * @param failed Whether the command threw an exception.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		public void finish(boolean failed) {
+			if (watch != null)
+				watch.cancel(false);
+			stats.latency.record(System.nanoTime() - start);
+			if (failed)
+				stats.failed.increment();
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package net.codersky.mcutils.cmd.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds, using log-linear buckets
+ * in the style of HdrHistogram. Every power of two is split in 16 linear
+ * sub buckets, so values are recorded with an error of at most 1/16 (6.25%)
+ * on a fixed amount of memory, no matter their range. Recording is a single
+ * atomic increment, so it is safe and cheap to call from any thread.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BITS = 4;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	private static final int BUCKETS = bucketOf(Long.MAX_VALUE) + 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder total = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	// Values lower than 2 * SUB_COUNT have their own bucket, higher values are split
+	// by their highest bit (shift) and the SUB_BITS bits that follow it.
+	private static int bucketOf(long value) {
+		if (value < SUB_COUNT << 1)
+			return (int) value;
+		final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+		return (shift << SUB_BITS) + (int) (value >>> shift);
+	}
+
+	// Highest value that is recorded on the specified bucket.
+	private static long highestOf(int bucket) {
+		if (bucket < SUB_COUNT << 1)
+			return bucket;
+		final int shift = (bucket >>> SUB_BITS) - 1;
+		final long top = (bucket & (SUB_COUNT - 1)) + SUB_COUNT;
+		return ((top + 1) << shift) - 1;
+	}
+
+	/**
+	 * Records a latency on this histogram.
+	 *
+	 * @param nanos The latency to record, in nanoseconds. Negative values are recorded as zero.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public void record(long nanos) {
+		final long value = Math.max(0, nanos);
+		counts.incrementAndGet(bucketOf(value));
+		total.increment();
+		sum.add(value);
+		long current;
+		while (value > (current = max.get()) && !max.compareAndSet(current, value));
+	}
+
+	public long getCount() {
+		return total.sum();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public double getMean() {
+		final long count = total.sum();
+		return count == 0 ? 0 : (double) sum.sum() / count;
+	}
+
+	/**
+	 * Gets the latency below which the specified {@code percentile} of the recorded
+	 * latencies fall, for example, {@code getPercentile(99)} returns the latency of
+	 * the slowest 1% of the recorded latencies.
+	 *
+	 * @param percentile The percentile to get, from 0 to 100.
+	 *
+	 * @return The latency of said {@code percentile}, in nanoseconds, with the precision
+	 * of this histogram, or zero if no latencies have been recorded.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public long getPercentile(double percentile) {
+		final long count = total.sum();
+		if (count == 0)
+			return 0;
+		final long target = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++)
+			if ((seen += counts.get(i)) >= target)
+				return Math.min(highestOf(i), max.get());
+		return max.get();
+	}
+
+	/**
+	 * Removes every recorded latency from this histogram. Latencies being
+	 * recorded concurrently may or may not be kept.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++)
+			counts.set(i, 0);
+		total.reset();
+		sum.reset();
+		max.set(0);
+	}
+}
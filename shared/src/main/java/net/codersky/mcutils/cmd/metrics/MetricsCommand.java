@@ -0,0 +1,85 @@
+package net.codersky.mcutils.cmd.metrics;
+
+import net.codersky.mcutils.MCUtils;
+import net.codersky.mcutils.cmd.GlobalCommand;
+import net.codersky.mcutils.cmd.MCCommandSender;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Admin command that displays the {@link CommandMetrics} of an {@link MCUtils}
+ * instance. Running it with no arguments lists the stats of every command, a
+ * command name can be provided to only list it and its sub commands, and
+ * "reset" clears every recorded stat.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @param <P> The plugin class that owns this command.
+ */
+public class MetricsCommand<P> extends GlobalCommand<P> {
+
+	private final String permission;
+
+	/**
+	 * Creates a new {@link MetricsCommand}.
+	 *
+	 * @param utils The {@link MCUtils} instance to display the metrics of.
+	 * @param name The name of the command.
+	 * @param permission The permission required to use the command.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public MetricsCommand(@NotNull MCUtils<P> utils, @NotNull String name, @NotNull String permission) {
+		super(utils, name);
+		this.permission = Objects.requireNonNull(permission);
+	}
+
+	@Override
+	public boolean onCommand(@NotNull MCCommandSender sender, @NotNull String[] args) {
+		final CommandMetrics metrics = getUtils().getCommandMetrics();
+		if (metrics == null)
+			return sender.sendMessage("Command metrics are disabled.");
+		if (args.length == 1 && args[0].equalsIgnoreCase("reset")) {
+			metrics.reset();
+			return sender.sendMessage("Command metrics have been reset.");
+		}
+		final String filter = args.length == 0 ? null : "/" + args[0].toLowerCase();
+		int shown = 0;
+		for (String line : metrics.dump()) {
+			if (filter != null && !matches(line.toLowerCase(), filter))
+				continue;
+			sender.sendMessage(line);
+			shown++;
+		}
+		if (shown == 0)
+			sender.sendMessage("No commands have been recorded yet.");
+		return true;
+	}
+
+	// Lines start with "/path: ", so "/cmd" matches "/cmd" and its sub commands, but not "/cmdx".
+	private static boolean matches(@NotNull String line, @NotNull String filter) {
+		if (!line.startsWith(filter) || line.length() == filter.length())
+			return false;
+		final char next = line.charAt(filter.length());
+		return next == ':' || next == ' ';
+	}
+
+	@NotNull
+	@Override
+	public List<String> onTab(@NotNull MCCommandSender sender, @NotNull String[] args) {
+		return args.length == 1 && "reset".startsWith(args[0].toLowerCase()) ? List.of("reset") : List.of();
+	}
+
+	@Override
+	public boolean hasAccess(@NotNull MCCommandSender sender, boolean message) {
+		if (sender.hasPermission(permission))
+			return true;
+		if (message)
+			sender.sendMessage("You don't have access to this command.");
+		return false;
+	}
+}
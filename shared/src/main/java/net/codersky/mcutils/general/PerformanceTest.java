@@ -99,6 +99,36 @@ public class PerformanceTest {
 		return this;
 	}
 
+	/**
+	 * Measures the average amount of bytes allocated on the heap by each call to
+	 * <b>task</b>, which is useful to check that a hot path doesn't allocate, for
+	 * example, {@code measureAllocations(() -> cache.get(player), 1_000_000)}.
+	 * The task is called <b>amount</b> times before measuring to warm it up,
+	 * so the JIT compiler can remove allocations that don't escape.
+	 * <p>
+	 * <b>Note:</b> This requires a JVM that supports thread allocation
+	 * measurement, such as HotSpot, -1 is returned otherwise.
+	 * 
+	 * @param task the task to measure.
+	 * @param amount the amount of times to call <b>task</b>, if <= 0, 1 will be used.
+	 * 
+	 * @return The average bytes allocated per call, -1 if allocations can't be measured.
+	 * 
+	 * @since MCUtils 1.0.0
+	 */
+	public static double measureAllocations(@NotNull Runnable task, long amount) {
+		if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMx)
+				|| !threadMx.isThreadAllocatedMemorySupported())
+			return -1;
+		final long checkedAmount = amount < 1 ? 1 : amount;
+		for (long i = 0; i < checkedAmount; i++)
+			task.run(); // Method "warm-up"
+		final long start = threadMx.getCurrentThreadAllocatedBytes();
+		for (long i = 0; i < checkedAmount; i++)
+			task.run();
+		return (double) (threadMx.getCurrentThreadAllocatedBytes() - start) / checkedAmount;
+	}
+
 	class PerformanceTestThread extends Thread {
 
 		private final PrintStream stream;
@@ -0,0 +1,632 @@
+package net.codersky.mcutils.java;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable, persistent {@link Map} implemented as a hash array mapped trie.
+ * "Modifying" a {@link HashTrieMap} with {@link #with(Object, Object)} or
+ * {@link #without(Object)} returns a new map that shares every unmodified node
+ * with the original one, so each change only copies the path to the modified
+ * entry instead of the whole map.
+ * <p>
+ * As instances never change once created, they can be freely shared and read
+ * across threads without any kind of synchronization. This makes this class
+ * ideal to publish snapshots of some data through a {@code volatile} field,
+ * where readers just read the field and writers replace it with a new version.
+ * When many changes have to be made at once, a {@link Builder} can be used
+ * to apply them in place and produce a single new version.
+ * <p>
+ * Neither {@code null} keys nor {@code null} values are supported. Methods
+ * inherited from {@link Map} that would modify the map, such as {@link #put(Object, Object)},
+ * throw an {@link UnsupportedOperationException}.
+ *
+ * @param <K> The type of keys maintained by this map.
+ * @param <V> The type of mapped values.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public final class HashTrieMap<K, V> extends AbstractMap<K, V> {
+
+	private static final HashTrieMap<?, ?> EMPTY = new HashTrieMap<>(null, 0);
+	private static final Object NOT_FOUND = new Object();
+
+	private final Node root;
+	private final int size;
+	private Set<Entry<K, V>> entrySet;
+
+	private HashTrieMap(@Nullable Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/*
+	 * Creation
+	 */
+
+	/**
+	 * Gets an empty {@link HashTrieMap}.
+	 *
+	 * @return An empty {@link HashTrieMap}.
+	 *
+	 * @param <K> The type of keys maintained by the map.
+	 * @param <V> The type of mapped values.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	@SuppressWarnings("unchecked")
+	public static <K, V> HashTrieMap<K, V> empty() {
+		return (HashTrieMap<K, V>) EMPTY;
+	}
+
+	/**
+	 * Creates a {@link HashTrieMap} with all the entries of the specified {@code map}.
+	 * If {@code map} is already a {@link HashTrieMap}, it will be returned as is.
+	 *
+	 * @param map The {@link Map} to copy.
+	 *
+	 * @return A {@link HashTrieMap} with all the entries of {@code map}.
+	 *
+	 * @param <K> The type of keys maintained by the map.
+	 * @param <V> The type of mapped values.
+	 *
+	 * @throws NullPointerException if {@code map} is {@code null} or contains {@code null} keys or values.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	@SuppressWarnings("unchecked")
+	public static <K, V> HashTrieMap<K, V> copyOf(@NotNull Map<? extends K, ? extends V> map) {
+		if (map instanceof HashTrieMap<?, ?> trie)
+			return (HashTrieMap<K, V>) trie;
+		return new Builder<K, V>(empty()).putAll(map).build();
+	}
+
+	/**
+	 * Creates a new {@link Builder} that starts with all the entries of this
+	 * {@link HashTrieMap}. Changes made to the builder don't affect this map.
+	 *
+	 * @return A new {@link Builder}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public Builder<K, V> toBuilder() {
+		return new Builder<>(this);
+	}
+
+	/*
+	 * Persistent operations
+	 */
+
+	/**
+	 * Returns a {@link HashTrieMap} with the same entries as this one, but
+	 * with {@code key} mapped to {@code value}. This map is not modified.
+	 *
+	 * @param key The key to map.
+	 * @param value The value to map {@code key} to.
+	 *
+	 * @return A {@link HashTrieMap} with the new mapping. May be this same
+	 * instance if {@code key} was already mapped to {@code value}.
+	 *
+	 * @throws NullPointerException if {@code key} or {@code value} are {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public HashTrieMap<K, V> with(@NotNull K key, @NotNull V value) {
+		Objects.requireNonNull(key);
+		Objects.requireNonNull(value);
+		final boolean[] added = new boolean[1];
+		final Node newRoot = (root == null ? BitmapNode.EMPTY : root).put(null, 0, hash(key), key, value, added);
+		return newRoot == root ? this : new HashTrieMap<>(newRoot, added[0] ? size + 1 : size);
+	}
+
+	/**
+	 * Returns a {@link HashTrieMap} with the same entries as this one, but
+	 * without any mapping for {@code key}. This map is not modified.
+	 *
+	 * @param key The key to remove.
+	 *
+	 * @return A {@link HashTrieMap} without {@code key}. May be this same
+	 * instance if {@code key} wasn't present.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public HashTrieMap<K, V> without(@Nullable Object key) {
+		if (root == null || key == null)
+			return this;
+		final boolean[] removed = new boolean[1];
+		final Node newRoot = root.remove(null, 0, hash(key), key, removed);
+		if (!removed[0])
+			return this;
+		return newRoot == null ? empty() : new HashTrieMap<>(newRoot, size - 1);
+	}
+
+	/*
+	 * Map implementation
+	 */
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(@Nullable Object key) {
+		if (root == null || key == null)
+			return null;
+		final Object value = root.find(0, hash(key), key);
+		return value == NOT_FOUND ? null : (V) value;
+	}
+
+	@Override
+	public boolean containsKey(@Nullable Object key) {
+		return root != null && key != null && root.find(0, hash(key), key) != NOT_FOUND;
+	}
+
+	@NotNull
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		final Set<Entry<K, V>> set = entrySet;
+		if (set != null)
+			return set;
+		return entrySet = new AbstractSet<>() {
+
+			@NotNull
+			@Override
+			public Iterator<Entry<K, V>> iterator() {
+				return new EntryIterator<>(root);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+			@Override
+			public boolean contains(Object obj) {
+				if (!(obj instanceof Entry<?, ?> entry))
+					return false;
+				final Object value = get(entry.getKey());
+				return value != null && value.equals(entry.getValue());
+			}
+		};
+	}
+
+	/*
+	 * Builder
+	 */
+
+	/**
+	 * Builder used to apply many changes to a {@link HashTrieMap} at once.
+	 * Nodes created by a builder are modified in place until {@link #build()}
+	 * is called, so a batch of changes doesn't copy the same path more than once.
+	 * Builders are <b>not</b> thread safe and are meant to be used by a single
+	 * thread, the maps they build, however, are as immutable as any other
+	 * {@link HashTrieMap}.
+	 *
+	 * @param <K> The type of keys maintained by this builder.
+	 * @param <V> The type of mapped values.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public static final class Builder<K, V> {
+
+		private Object edit = new Object();
+		private Node root;
+		private int size;
+
+		private Builder(@NotNull HashTrieMap<K, V> map) {
+			this.root = map.root;
+			this.size = map.size;
+		}
+
+		/**
+		 * Maps {@code key} to {@code value} on this {@link Builder}.
+		 *
+		 * @param key The key to map.
+		 * @param value The value to map {@code key} to.
+		 *
+		 * @return This {@link Builder}.
+		 *
+		 * @throws NullPointerException if {@code key} or {@code value} are {@code null}.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		@NotNull
+		public Builder<K, V> put(@NotNull K key, @NotNull V value) {
+			Objects.requireNonNull(key);
+			Objects.requireNonNull(value);
+			final boolean[] added = new boolean[1];
+			root = (root == null ? BitmapNode.EMPTY : root).put(edit, 0, hash(key), key, value, added);
+			if (added[0])
+				size++;
+			return this;
+		}
+
+		/**
+		 * Copies all the entries of the specified {@code map} to this {@link Builder}.
+		 *
+		 * @param map The {@link Map} to copy.
+		 *
+		 * @return This {@link Builder}.
+		 *
+		 * @throws NullPointerException if {@code map} is {@code null} or contains {@code null} keys or values.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		@NotNull
+		public Builder<K, V> putAll(@NotNull Map<? extends K, ? extends V> map) {
+			for (Entry<? extends K, ? extends V> entry : map.entrySet())
+				put(entry.getKey(), entry.getValue());
+			return this;
+		}
+
+		/**
+		 * Removes the mapping of {@code key} from this {@link Builder}, if present.
+		 *
+		 * @param key The key to remove.
+		 *
+		 * @return This {@link Builder}.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		@NotNull
+		public Builder<K, V> remove(@Nullable Object key) {
+			if (root == null || key == null)
+				return this;
+			final boolean[] removed = new boolean[1];
+			root = root.remove(edit, 0, hash(key), key, removed);
+			if (removed[0])
+				size--;
+			return this;
+		}
+
+		/**
+		 * Removes every mapping from this {@link Builder}.
+		 *
+		 * @return This {@link Builder}.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		@NotNull
+		public Builder<K, V> clear() {
+			root = null;
+			size = 0;
+			return this;
+		}
+
+		/**
+		 * Gets the value currently mapped to {@code key} on this {@link Builder}.
+		 *
+		 * @param key The key to get.
+		 *
+		 * @return The value mapped to {@code key}, {@code null} if none.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		@Nullable
+		@SuppressWarnings("unchecked")
+		public V get(@Nullable Object key) {
+			if (root == null || key == null)
+				return null;
+			final Object value = root.find(0, hash(key), key);
+			return value == NOT_FOUND ? null : (V) value;
+		}
+
+		/**
+		 * Gets the amount of mappings currently present on this {@link Builder}.
+		 *
+		 * @return The amount of mappings present on this {@link Builder}.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * Builds a {@link HashTrieMap} with the current mappings of this {@link Builder}.
+		 * The builder can still be used after calling this method, further changes
+		 * will not affect the returned map.
+		 *
+		 * @return A {@link HashTrieMap} with the current mappings of this {@link Builder}.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		@NotNull
+		public HashTrieMap<K, V> build() {
+			// Nodes owned by the old edit token are now shared with the built map, so they must not change.
+			edit = new Object();
+			return root == null ? empty() : new HashTrieMap<>(root, size);
+		}
+	}
+
+	/*
+	 * Trie internals
+	 */
+
+	private static int hash(@NotNull Object key) {
+		final int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private static int bitpos(int hash, int shift) {
+		return 1 << ((hash >>> shift) & 0x1f);
+	}
+
+	private static Node createNode(Object edit, int shift, Object key1, Object val1, int hash2, Object key2, Object val2) {
+		final int hash1 = hash(key1);
+		if (hash1 == hash2)
+			return new CollisionNode(edit, hash1, new Object[] {key1, val1, key2, val2});
+		final boolean[] added = new boolean[1];
+		return BitmapNode.EMPTY.put(edit, shift, hash1, key1, val1, added).put(edit, shift, hash2, key2, val2, added);
+	}
+
+	// Both node types store entries as flat key / value pairs. A null key on
+	// a BitmapNode means that the value is a child node instead of an entry.
+	private static abstract class Node {
+
+		final Object edit;
+		Object[] array;
+
+		Node(Object edit, Object[] array) {
+			this.edit = edit;
+			this.array = array;
+		}
+
+		boolean isEditable(Object edit) {
+			return edit != null && this.edit == edit;
+		}
+
+		abstract Object find(int shift, int hash, Object key);
+
+		abstract Node put(Object edit, int shift, int hash, Object key, Object value, boolean[] added);
+
+		abstract Node remove(Object edit, int shift, int hash, Object key, boolean[] removed);
+	}
+
+	private static final class BitmapNode extends Node {
+
+		static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+		int bitmap;
+
+		BitmapNode(Object edit, int bitmap, Object[] array) {
+			super(edit, array);
+			this.bitmap = bitmap;
+		}
+
+		private int index(int bit) {
+			return Integer.bitCount(bitmap & (bit - 1));
+		}
+
+		@Override
+		Object find(int shift, int hash, Object key) {
+			final int bit = bitpos(hash, shift);
+			if ((bitmap & bit) == 0)
+				return NOT_FOUND;
+			final int idx = 2 * index(bit);
+			final Object k = array[idx];
+			final Object v = array[idx + 1];
+			if (k == null)
+				return ((Node) v).find(shift + 5, hash, key);
+			return key.equals(k) ? v : NOT_FOUND;
+		}
+
+		@Override
+		Node put(Object edit, int shift, int hash, Object key, Object value, boolean[] added) {
+			final int bit = bitpos(hash, shift);
+			final int idx = 2 * index(bit);
+			if ((bitmap & bit) != 0) {
+				final Object k = array[idx];
+				final Object v = array[idx + 1];
+				if (k == null) {
+					final Node child = ((Node) v).put(edit, shift + 5, hash, key, value, added);
+					return child == v ? this : set(edit, idx + 1, child);
+				}
+				if (key.equals(k))
+					return v == value ? this : set(edit, idx + 1, value);
+				added[0] = true;
+				return set(edit, idx, null).set(edit, idx + 1, createNode(edit, shift + 5, k, v, hash, key, value));
+			}
+			final Object[] newArray = new Object[array.length + 2];
+			System.arraycopy(array, 0, newArray, 0, idx);
+			newArray[idx] = key;
+			newArray[idx + 1] = value;
+			System.arraycopy(array, idx, newArray, idx + 2, array.length - idx);
+			added[0] = true;
+			if (isEditable(edit)) {
+				array = newArray;
+				bitmap |= bit;
+				return this;
+			}
+			return new BitmapNode(edit, bitmap | bit, newArray);
+		}
+
+		@Override
+		Node remove(Object edit, int shift, int hash, Object key, boolean[] removed) {
+			final int bit = bitpos(hash, shift);
+			if ((bitmap & bit) == 0)
+				return this;
+			final int idx = 2 * index(bit);
+			final Object k = array[idx];
+			final Object v = array[idx + 1];
+			if (k == null) {
+				final Node child = ((Node) v).remove(edit, shift + 5, hash, key, removed);
+				if (child == v)
+					return this;
+				if (child != null)
+					return set(edit, idx + 1, child);
+			} else if (key.equals(k))
+				removed[0] = true;
+			else
+				return this;
+			if (bitmap == bit)
+				return null;
+			final Object[] newArray = new Object[array.length - 2];
+			System.arraycopy(array, 0, newArray, 0, idx);
+			System.arraycopy(array, idx + 2, newArray, idx, array.length - idx - 2);
+			if (isEditable(edit)) {
+				array = newArray;
+				bitmap ^= bit;
+				return this;
+			}
+			return new BitmapNode(edit, bitmap ^ bit, newArray);
+		}
+
+		private BitmapNode set(Object edit, int idx, Object value) {
+			if (isEditable(edit)) {
+				array[idx] = value;
+				return this;
+			}
+			final Object[] newArray = array.clone();
+			newArray[idx] = value;
+			return new BitmapNode(edit, bitmap, newArray);
+		}
+	}
+
+	private static final class CollisionNode extends Node {
+
+		final int hash;
+
+		CollisionNode(Object edit, int hash, Object[] array) {
+			super(edit, array);
+			this.hash = hash;
+		}
+
+		private int indexOf(Object key) {
+			for (int i = 0; i < array.length; i += 2)
+				if (key.equals(array[i]))
+					return i;
+			return -1;
+		}
+
+		@Override
+		Object find(int shift, int hash, Object key) {
+			final int idx = indexOf(key);
+			return idx == -1 ? NOT_FOUND : array[idx + 1];
+		}
+
+		@Override
+		Node put(Object edit, int shift, int hash, Object key, Object value, boolean[] added) {
+			if (hash != this.hash) {
+				final BitmapNode parent = new BitmapNode(edit, bitpos(this.hash, shift), new Object[] {null, this});
+				return parent.put(edit, shift, hash, key, value, added);
+			}
+			final int idx = indexOf(key);
+			if (idx != -1) {
+				if (array[idx + 1] == value)
+					return this;
+				if (isEditable(edit)) {
+					array[idx + 1] = value;
+					return this;
+				}
+				final Object[] newArray = array.clone();
+				newArray[idx + 1] = value;
+				return new CollisionNode(edit, hash, newArray);
+			}
+			final Object[] newArray = new Object[array.length + 2];
+			System.arraycopy(array, 0, newArray, 0, array.length);
+			newArray[array.length] = key;
+			newArray[array.length + 1] = value;
+			added[0] = true;
+			if (isEditable(edit)) {
+				array = newArray;
+				return this;
+			}
+			return new CollisionNode(edit, hash, newArray);
+		}
+
+		@Override
+		Node remove(Object edit, int shift, int hash, Object key, boolean[] removed) {
+			final int idx = indexOf(key);
+			if (idx == -1)
+				return this;
+			removed[0] = true;
+			if (array.length == 2)
+				return null;
+			final Object[] newArray = new Object[array.length - 2];
+			System.arraycopy(array, 0, newArray, 0, idx);
+			System.arraycopy(array, idx + 2, newArray, idx, array.length - idx - 2);
+			if (isEditable(edit)) {
+				array = newArray;
+				return this;
+			}
+			return new CollisionNode(edit, hash, newArray);
+		}
+	}
+
+	private static final class EntryIterator<K, V> implements Iterator<Entry<K, V>> {
+
+		// 7 bitmap levels for 32 bit hashes plus a possible collision node.
+		private final Object[][] stack = new Object[8][];
+		private final int[] positions = new int[8];
+		private int depth = -1;
+		private Entry<K, V> next;
+
+		EntryIterator(@Nullable Node root) {
+			if (root != null)
+				push(root);
+			advance();
+		}
+
+		private void push(Node node) {
+			stack[++depth] = node.array;
+			positions[depth] = 0;
+		}
+
+		@SuppressWarnings("unchecked")
+		private void advance() {
+			next = null;
+			while (depth >= 0) {
+				final Object[] array = stack[depth];
+				final int pos = positions[depth];
+				if (pos >= array.length) {
+					stack[depth--] = null;
+					continue;
+				}
+				positions[depth] = pos + 2;
+				if (array[pos] == null)
+					push((Node) array[pos + 1]);
+				else {
+					next = new SimpleImmutableEntry<>((K) array[pos], (V) array[pos + 1]);
+					return;
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			final Entry<K, V> entry = next;
+			if (entry == null)
+				throw new NoSuchElementException();
+			advance();
+			return entry;
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package net.codersky.mcutils.java.strings;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Immutable set of prefixes that can check whether a {@link String} starts
+ * with any of them in a single pass over said {@link String}, no matter how
+ * many prefixes there are. This replaces the common pattern of looping over
+ * a list of prefixes and calling {@link String#startsWith(String)} on each of
+ * them, for example, to check whether a key is ignored.
+ * <p>
+ * Prefixes can also be mapped to a value, which can then be looked up with
+ * an exact match through {@link #get(String)}, optionally ignoring case.
+ * This lookup only depends on the length of the {@link String} and not on
+ * the amount of prefixes, which makes it suitable for routing, for example,
+ * finding a sub command by its name or aliases.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @param <V> The type of the values mapped to the prefixes of this trie.
+ */
+public final class PrefixTrie<V> {
+
+	private static final char[] NO_CHARS = new char[0];
+	private static final Node[] NO_NODES = new Node[0];
+
+	private final Node root = new Node();
+	private final boolean ignoreCase;
+	private final int size;
+
+	/**
+	 * Creates a new {@link PrefixTrie} with the specified {@code prefixes}.
+	 *
+	 * @param prefixes The prefixes to add, {@code null} or empty for an empty trie
+	 * that never {@link #matches(String) matches}. {@code null} elements are ignored.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public PrefixTrie(@Nullable Collection<String> prefixes) {
+		int size = 0;
+		if (prefixes != null)
+			for (String prefix : prefixes)
+				if (prefix != null && root.add(prefix, 0, null, false))
+					size++;
+		this.ignoreCase = false;
+		this.size = size;
+	}
+
+	/**
+	 * Creates a new {@link PrefixTrie} with the specified {@code prefixes}.
+	 *
+	 * @param prefixes The prefixes to add. {@code null} elements are ignored.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public PrefixTrie(@NotNull String... prefixes) {
+		this(Arrays.asList(prefixes));
+	}
+
+	/**
+	 * Creates a new {@link PrefixTrie} that maps every key of {@code entries}
+	 * to its value. Entries are added in iteration order, so if two keys are
+	 * equal, ignoring case if {@code ignoreCase} is {@code true}, the value of
+	 * the first one is kept. Use a {@link java.util.LinkedHashMap LinkedHashMap}
+	 * if that order matters.
+	 *
+	 * @param entries The entries to add, {@code null} or empty for an empty trie.
+	 * Entries with a {@code null} key or value are ignored.
+	 * @param ignoreCase Whether keys are matched ignoring case or not.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public PrefixTrie(@Nullable Map<String, ? extends V> entries, boolean ignoreCase) {
+		int size = 0;
+		if (entries != null)
+			for (Map.Entry<String, ? extends V> entry : entries.entrySet())
+				if (entry.getKey() != null && entry.getValue() != null && root.add(entry.getKey(), 0, entry.getValue(), ignoreCase))
+					size++;
+		this.ignoreCase = ignoreCase;
+		this.size = size;
+	}
+
+	/**
+	 * Checks whether {@code str} starts with any of the prefixes of this {@link PrefixTrie}.
+	 *
+	 * @param str The {@link String} to check.
+	 *
+	 * @return {@code true} if {@code str} starts with any prefix, {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public boolean matches(@NotNull String str) {
+		Node node = root;
+		final int len = str.length();
+		for (int i = 0; !node.terminal; i++) {
+			if (i == len || (node = node.child(str.charAt(i), ignoreCase)) == null)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the value mapped to {@code str}, which must match a key of this
+	 * {@link PrefixTrie} exactly, ignoring case if this trie was created
+	 * to do so. Keys are not treated as prefixes here, so {@code "key"}
+	 * won't match {@code "keys"}.
+	 *
+	 * @param str The {@link String} to look up.
+	 *
+	 * @return The value mapped to {@code str}, {@code null} if none. Tries created
+	 * from a {@link Collection} of prefixes have no values, so {@code null} is
+	 * always returned for them.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public V get(@NotNull String str) {
+		Node node = root;
+		final int len = str.length();
+		for (int i = 0; i < len; i++)
+			if ((node = node.child(str.charAt(i), ignoreCase)) == null)
+				return null;
+		return (V) node.value;
+	}
+
+	/**
+	 * Gets the amount of different prefixes stored on this {@link PrefixTrie}.
+	 *
+	 * @return The amount of prefixes on this {@link PrefixTrie}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	private static final class Node {
+
+		// Sorted, so children can be found with a binary search.
+		private char[] chars = NO_CHARS;
+		private Node[] children = NO_NODES;
+		private boolean terminal = false;
+		private Object value = null;
+
+		@Nullable
+		Node child(char ch, boolean ignoreCase) {
+			final int idx = Arrays.binarySearch(chars, ignoreCase ? Character.toLowerCase(ch) : ch);
+			return idx < 0 ? null : children[idx];
+		}
+
+		// The first value added to a key is kept.
+		boolean add(String prefix, int from, @Nullable Object value, boolean ignoreCase) {
+			if (from == prefix.length()) {
+				final boolean added = !terminal;
+				terminal = true;
+				if (added)
+					this.value = value;
+				return added;
+			}
+			final char ch = ignoreCase ? Character.toLowerCase(prefix.charAt(from)) : prefix.charAt(from);
+			int idx = Arrays.binarySearch(chars, ch);
+			if (idx < 0) {
+				idx = -idx - 1;
+				final int len = chars.length;
+				final char[] newChars = new char[len + 1];
+				final Node[] newChildren = new Node[len + 1];
+				System.arraycopy(chars, 0, newChars, 0, idx);
+				System.arraycopy(children, 0, newChildren, 0, idx);
+				newChars[idx] = ch;
+				newChildren[idx] = new Node();
+				System.arraycopy(chars, idx, newChars, idx + 1, len - idx);
+				System.arraycopy(children, idx, newChildren, idx + 1, len - idx);
+				chars = newChars;
+				children = newChildren;
+			}
+			return children[idx].add(prefix, from + 1, value, ignoreCase);
+		}
+	}
+}
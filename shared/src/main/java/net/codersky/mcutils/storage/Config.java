@@ -1,22 +1,57 @@
 package net.codersky.mcutils.storage;
 
 import net.codersky.mcutils.Reloadable;
+import net.codersky.mcutils.java.HashTrieMap;
 import net.codersky.mcutils.java.MCCollections;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
+/**
+ * Base class of any key based configuration or storage.
+ * <p>
+ * The cached keys of a {@link Config} are published as an immutable
+ * {@link #getSnapshot() snapshot} through a {@code volatile} reference, so
+ * getters can be safely called from any thread, even while the config is being
+ * {@link #reload() reloaded} or modified, without any locking. Readers always
+ * see a complete version of the config, never a partially modified one. Writers
+ * are synchronized and publish a new version on every change, or a single one
+ * for a whole batch of changes made through {@link #edit(Consumer)}.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
 public abstract class Config implements Reloadable {
 
+	/**
+	 * The keys of this {@link Config} used to be stored on this map, which is no
+	 * longer used, as keys are now published as an immutable {@link #getSnapshot()
+	 * snapshot}. This map is always empty, so subclasses must read keys with
+	 * {@link #getSnapshot()} or {@link #getMap()}, and modify them with the
+	 * setters of this class, {@link #edit(Consumer)} or {@link #replaceEntries(Map)}.
+	 *
+	 * @deprecated Unused and always empty, see {@link #getSnapshot()}.
+	 */
+	@Deprecated
 	protected final HashMap<String, Object> keys = new HashMap<>();
+	private final Object writeLock = new Object();
+	private volatile HashTrieMap<String, Object> entries = HashTrieMap.empty();
+	// Only accessed while holding writeLock, except for the owner check on reads.
+	private HashTrieMap.Builder<String, Object> batch = null;
+	private Thread batchOwner = null;
 
 	/**
 	 * Does any necessary tasks in order to set up this {@link Config}.
@@ -63,13 +98,42 @@ public abstract class Config implements Reloadable {
 	 * Key access
 	 */
 
+	/**
+	 * Gets the current snapshot of the keys cached on this {@link Config}.
+	 * The returned {@link Map} is immutable and will never change, even if
+	 * this {@link Config} is modified or reloaded afterwards, which makes it
+	 * useful to read multiple keys from a single, consistent version of the config.
+	 * Getting the snapshot is a single volatile read, no copy is made.
+	 *
+	 * @return The current snapshot of this {@link Config}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public Map<String, Object> getSnapshot() {
+		return entries;
+	}
+
 	@NotNull
 	public HashMap<String, Object> getMap() {
-		return new HashMap<>(keys);
+		return new HashMap<>(entries);
 	}
 
+	/**
+	 * Gets the {@link Set} of entries that are currently cached on this
+	 * {@link Config}. This set supports element removal but not addition,
+	 * elements removed from this {@link Set} will also be removed from the
+	 * config cache, so it can be used, for example, to {@link Set#clear() clear}
+	 * the config. Iterating this set iterates the {@link #getSnapshot() snapshot}
+	 * that was current when the iteration started, so it never throws a
+	 * {@link java.util.ConcurrentModificationException}.
+	 *
+	 * @return The {@link Set} of entries that are currently cached on this {@link Config}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
 	public Set<Map.Entry<String, Object>> getEntries() {
-		return keys.entrySet();
+		return new RemovableView<>(HashTrieMap::entrySet, Map.Entry::getKey);
 	}
 
 	public Set<Map.Entry<String, Object>> getEntries(@NotNull Predicate<String> filter) {
@@ -78,19 +142,21 @@ public abstract class Config implements Reloadable {
 
 	@NotNull
 	public Config removeEntries(@NotNull String... keys) {
-		for (String key : keys)
-			this.keys.remove(key);
-		return this;
+		return edit(cfg -> {
+			for (String key : keys)
+				batch.remove(key);
+		});
 	}
 
 	/**
 	 * Gets the {@link Set} of keys that are currently
-	 * cached on this {@link Storage}. This set
-	 * supports element removal but not addition as
-	 * explained on {@link HashMap#keySet()}. Elements
-	 * removed from this {@link Set} will also be removed
-	 * from the storage cache. This can be used, for example
-	 * to {@link Set#clear() clear} the file.
+	 * cached on this {@link Config}. This set
+	 * supports element removal but not addition.
+	 * Elements removed from this {@link Set} will also
+	 * be removed from the config cache. This can be used,
+	 * for example to {@link Set#clear() clear} the file.
+	 * Iterating this set iterates the {@link #getSnapshot() snapshot}
+	 * that was current when the iteration started.
 	 *
 	 * @return The {@link Set} of keys that are currently
 	 * cached on this {@link Config}.
@@ -101,27 +167,175 @@ public abstract class Config implements Reloadable {
 	 * @see #containsKey(String...)
 	 */
 	public Set<String> getKeys() {
-		return keys.keySet();
+		return new RemovableView<>(HashTrieMap::keySet, Function.identity());
 	}
 
 	@NotNull
 	public Set<String> getKeys(@NotNull Predicate<String> filter) {
-		return MCCollections.clone(keys.keySet(), filter);
+		return MCCollections.clone(entries.keySet(), filter);
 	}
 
 	public boolean containsKey(@NotNull String... keys) {
 		for (String key : keys)
-			if (!this.keys.containsKey(key))
+			if (getValue(key) == null)
 				return false;
 		return true;
 	}
 
 	@NotNull
 	public Config clear() {
-		keys.clear();
+		synchronized (writeLock) {
+			if (isBatchOwner())
+				batch.clear();
+			else
+				entries = HashTrieMap.empty();
+		}
+		return this;
+	}
+
+	/**
+	 * Applies a batch of changes to this {@link Config}, publishing all of them
+	 * as a single new version. While {@code editor} runs, only the calling thread
+	 * sees the changes it makes, any other thread keeps reading the previous
+	 * version. If {@code editor} throws an exception, none of its changes are applied.
+	 * <p>
+	 * Other writers are blocked until the batch finishes, so {@code editor}
+	 * should be kept short. Calling this method inside of another batch
+	 * just runs {@code editor} as part of the outer batch.
+	 *
+	 * @param editor The {@link Consumer} that makes the changes, receiving this {@link Config}.
+	 *
+	 * @return This {@link Config}.
+	 *
+	 * @throws NullPointerException if {@code editor} is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public Config edit(@NotNull Consumer<Config> editor) {
+		Objects.requireNonNull(editor);
+		synchronized (writeLock) {
+			if (isBatchOwner()) {
+				editor.accept(this);
+				return this;
+			}
+			batch = entries.toBuilder();
+			batchOwner = Thread.currentThread();
+			try {
+				editor.accept(this);
+				entries = batch.build();
+			} finally {
+				batch = null;
+				batchOwner = null;
+			}
+		}
 		return this;
 	}
 
+	/**
+	 * Replaces every key of this {@link Config} with the entries of the
+	 * specified {@code map}, publishing them as a single new version. This
+	 * is meant to be used by implementations when loading the config.
+	 * Entries with a {@code null} value, such as a key with no value on
+	 * a YAML file, are skipped, as a {@link Config} can't store them.
+	 *
+	 * @param map The new entries of this {@link Config}.
+	 *
+	 * @throws NullPointerException if {@code map} is {@code null} or contains {@code null} keys.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	protected void replaceEntries(@NotNull Map<String, Object> map) {
+		final HashTrieMap.Builder<String, Object> builder = HashTrieMap.<String, Object>empty().toBuilder();
+		for (Map.Entry<String, Object> entry : map.entrySet())
+			if (entry.getValue() != null)
+				builder.put(entry.getKey(), entry.getValue());
+		final HashTrieMap<String, Object> snapshot = builder.build();
+		synchronized (writeLock) {
+			if (isBatchOwner())
+				batch.clear().putAll(snapshot);
+			else
+				entries = snapshot;
+		}
+	}
+
+	private boolean isBatchOwner() {
+		return batchOwner == Thread.currentThread();
+	}
+
+	// Readers see pending changes only if they are the thread editing this config.
+	@Nullable
+	private Object getValue(@NotNull String key) {
+		return isBatchOwner() ? batch.get(key) : entries.get(key);
+	}
+
+	/**
+	 * A live view of the keys or entries of this {@link Config} that supports removal.
+	 * Every read uses the current snapshot and every removal goes through
+	 * {@link #removeEntries(String...)}, so it is thread safe like the rest of the config.
+	 */
+	private final class RemovableView<E> extends AbstractSet<E> {
+
+		private final Function<HashTrieMap<String, Object>, Set<E>> view;
+		private final Function<E, String> keyOf;
+
+		private RemovableView(@NotNull Function<HashTrieMap<String, Object>, Set<E>> view, @NotNull Function<E, String> keyOf) {
+			this.view = view;
+			this.keyOf = keyOf;
+		}
+
+		@NotNull
+		@Override
+		public Iterator<E> iterator() {
+			final Iterator<E> it = view.apply(entries).iterator();
+			return new Iterator<>() {
+				private E last = null;
+
+				@Override
+				public boolean hasNext() {
+					return it.hasNext();
+				}
+
+				@Override
+				public E next() {
+					return last = it.next();
+				}
+
+				@Override
+				public void remove() {
+					if (last == null)
+						throw new IllegalStateException();
+					removeEntries(keyOf.apply(last));
+					last = null;
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return entries.size();
+		}
+
+		@Override
+		public boolean contains(Object obj) {
+			return view.apply(entries).contains(obj);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public boolean remove(Object obj) {
+			if (!contains(obj))
+				return false;
+			removeEntries(keyOf.apply((E) obj));
+			return true;
+		}
+
+		@Override
+		public void clear() {
+			Config.this.clear();
+		}
+	}
+
 	/*
 	 * Setters
 	 */
@@ -130,7 +344,14 @@ public abstract class Config implements Reloadable {
 
 	@NotNull
 	protected <T> T set(@NotNull String key, @NotNull T value) {
-		keys.put(Objects.requireNonNull(key), Objects.requireNonNull(value));
+		Objects.requireNonNull(key);
+		Objects.requireNonNull(value);
+		synchronized (writeLock) {
+			if (isBatchOwner())
+				batch.put(key, value);
+			else
+				entries = entries.with(key, value);
+		}
 		return value;
 	}
 
@@ -138,7 +359,7 @@ public abstract class Config implements Reloadable {
 	protected <T> List<T> setList(@NotNull String key, @NotNull List<T> list) {
 		Objects.requireNonNull(list);
 		final ArrayList<T> lst = list instanceof ArrayList ? (ArrayList<T>) list : new ArrayList<>(list);
-		keys.put(Objects.requireNonNull(key), lst);
+		set(key, lst);
 		return list;
 	}
 
@@ -239,13 +460,13 @@ public abstract class Config implements Reloadable {
 
 	@SuppressWarnings("unchecked")
 	protected <T> T get(@NotNull String key, @NotNull Class<T> type) {
-		final Object obj = keys.get(key);
+		final Object obj = getValue(key);
 		return (obj != null && obj.getClass().equals(type)) ? (T) obj : null;
 	}
 
 	@SuppressWarnings("unchecked")
 	protected <T> List<T> getList(@NotNull String key, @NotNull Class<T> type) {
-		final Object obj = keys.get(key);
+		final Object obj = getValue(key);
 		if (obj instanceof ArrayList<?> lst)
 			return lst.getClass().getTypeParameters()[0].getClass().equals(type) ? (List<T>) lst : null;
 		return null;
@@ -455,16 +676,16 @@ public abstract class Config implements Reloadable {
 
 	@Override
 	public boolean equals(@Nullable Object obj) {
-		return obj instanceof final Config cfg && cfg.keys.equals(this.keys);
+		return obj instanceof final Config cfg && cfg.entries.equals(this.entries);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hashCode(keys);
+		return Objects.hashCode(entries);
 	}
 
 	@Override
 	public String toString() {
-		return "Config" + keys;
+		return "Config" + entries;
 	}
 }
@@ -0,0 +1,184 @@
+package net.codersky.mcutils.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A set of transforms that upgrade the keys of a {@link Config} from
+ * one schema version to the next one, registered on a {@link StorageSchema}.
+ * Transforms are applied in the order they were added, and each of them
+ * works on a single entry, so migrations can be applied to files entry by
+ * entry without loading them into memory.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @see StorageSchema#migration(int)
+ */
+public class Migration {
+
+	private final int version;
+	private final List<Transform> transforms = new ArrayList<>();
+
+	Migration(int version) {
+		this.version = version;
+	}
+
+	/**
+	 * Gets the version this {@link Migration} upgrades from. Entries are upgraded
+	 * to {@code getVersion() + 1} by this {@link Migration}.
+	 *
+	 * @return The version this {@link Migration} upgrades from.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/*
+	 * Transforms
+	 */
+
+	/**
+	 * Renames the key {@code from} to {@code to}, keeping its value.
+	 *
+	 * @param from The key to rename.
+	 * @param to The new name of the key.
+	 *
+	 * @return This {@link Migration}.
+	 *
+	 * @throws NullPointerException if any parameter is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public Migration rename(@NotNull String from, @NotNull String to) {
+		transforms.add(new Transform(Objects.requireNonNull(from), Objects.requireNonNull(to), false, null));
+		return this;
+	}
+
+	/**
+	 * Moves every key that starts with {@code fromPrefix} so it starts with
+	 * {@code toPrefix} instead, for example, moving "stats." to "player.stats."
+	 * changes "stats.kills" to "player.stats.kills".
+	 *
+	 * @param fromPrefix The prefix of the keys to move.
+	 * @param toPrefix The new prefix of said keys.
+	 *
+	 * @return This {@link Migration}.
+	 *
+	 * @throws NullPointerException if any parameter is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public Migration move(@NotNull String fromPrefix, @NotNull String toPrefix) {
+		transforms.add(new Transform(Objects.requireNonNull(fromPrefix), Objects.requireNonNull(toPrefix), true, null));
+		return this;
+	}
+
+	/**
+	 * Deletes the specified {@code key}.
+	 *
+	 * @param key The key to delete.
+	 *
+	 * @return This {@link Migration}.
+	 *
+	 * @throws NullPointerException if {@code key} is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public Migration delete(@NotNull String key) {
+		transforms.add(new Transform(Objects.requireNonNull(key), null, false, null));
+		return this;
+	}
+
+	/**
+	 * Deletes every key that starts with the specified {@code prefix}.
+	 *
+	 * @param prefix The prefix of the keys to delete.
+	 *
+	 * @return This {@link Migration}.
+	 *
+	 * @throws NullPointerException if {@code prefix} is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public Migration deleteAll(@NotNull String prefix) {
+		transforms.add(new Transform(Objects.requireNonNull(prefix), null, true, null));
+		return this;
+	}
+
+	/**
+	 * Changes the value of {@code key} with the specified {@code converter},
+	 * usually to change its type, for example, from a {@link String} to an
+	 * {@link Integer}. The value must be of a type supported by the {@link Config}
+	 * being migrated.
+	 *
+	 * @param key The key to retype.
+	 * @param converter The {@link Function} that converts the current value,
+	 * returning {@code null} deletes the key.
+	 *
+	 * @return This {@link Migration}.
+	 *
+	 * @throws NullPointerException if any parameter is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public Migration retype(@NotNull String key, @NotNull Function<Object, Object> converter) {
+		transforms.add(new Transform(Objects.requireNonNull(key), key, false, Objects.requireNonNull(converter)));
+		return this;
+	}
+
+	/*
+	 * Application
+	 */
+
+	// Applies every transform to the record, a null key means that it was deleted.
+	// Values are only converted if loaded, otherwise the record is just marked as converted.
+	void apply(@NotNull StorageSchema.Record record) {
+		for (Transform transform : transforms) {
+			if (!transform.matches(record.key))
+				continue;
+			if (transform.converter != null) {
+				record.converted = true;
+				if (record.loaded && (record.value = transform.converter.apply(record.value)) == null)
+					record.key = null;
+			} else if (transform.to == null)
+				record.key = null;
+			else
+				record.key = transform.prefix ? transform.to + record.key.substring(transform.from.length()) : transform.to;
+			if (record.key == null)
+				return;
+		}
+	}
+
+	private static final class Transform {
+
+		private final String from;
+		private final String to;
+		private final boolean prefix;
+		private final Function<Object, Object> converter;
+
+		Transform(String from, @Nullable String to, boolean prefix, @Nullable Function<Object, Object> converter) {
+			this.from = from;
+			this.to = to;
+			this.prefix = prefix;
+			this.converter = converter;
+		}
+
+		boolean matches(String key) {
+			return prefix ? key.startsWith(from) : key.equals(from);
+		}
+	}
+}
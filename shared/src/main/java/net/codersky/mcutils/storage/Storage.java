@@ -193,6 +193,6 @@ public abstract class Storage extends Config {
 
 	@Override
 	public String toString() {
-		return "Storage" + keys;
+		return "Storage" + getSnapshot();
 	}
 }
@@ -0,0 +1,318 @@
+package net.codersky.mcutils.storage;
+
+import net.codersky.mcutils.java.strings.PrefixTrie;
+import net.codersky.mcutils.storage.files.FlatStorage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+/**
+ * Describes the current schema version of a {@link Config} and the {@link Migration
+ * migrations} needed to upgrade older versions to it. The version of each {@link Config}
+ * is stored on the {@link Config} itself, under the {@link #getVersionKey() version key},
+ * so configs that are already up to date are skipped, and configs without said key are
+ * considered to be on version zero.
+ * <p>
+ * Here is an example of a schema on version two, where version zero renamed "money"
+ * to "balance", and version one moved every "stats." key to "player.stats.":
+ * <pre>
+ * final StorageSchema schema = new StorageSchema(2).ignore("custom.");
+ * schema.migration(0).rename("money", "balance");
+ * schema.migration(1).move("stats.", "player.stats.").delete("player.stats.legacy");
+ * </pre>
+ * Migrations can be applied to any {@link Config} with {@link #migrate(Config)}. {@link FlatStorage}
+ * also supports {@link FlatStorage#migrate(StorageSchema) streaming migrations}, which upgrade the file
+ * entry by entry in a single pass without loading it, and whole directories of files can be upgraded in
+ * parallel with {@link FlatStorage#migrateDirectory(File, StorageSchema, net.codersky.mcutils.storage.files.StorageCodec)}.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class StorageSchema {
+
+	/**
+	 * The default key used to store the schema version of a {@link Config}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public static final String DEFAULT_VERSION_KEY = "schema-version";
+
+	private final String versionKey;
+	private final int version;
+	private final Migration[] migrations;
+	private PrefixTrie<?> ignored = new PrefixTrie<>();
+
+	/**
+	 * Creates a new {@link StorageSchema}.
+	 *
+	 * @param versionKey The key used to store the schema version.
+	 * @param version The current schema version.
+	 *
+	 * @throws NullPointerException if {@code versionKey} is {@code null}.
+	 * @throws IllegalArgumentException if {@code version} is negative.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public StorageSchema(@NotNull String versionKey, int version) {
+		if (version < 0)
+			throw new IllegalArgumentException("Schema version can't be negative");
+		this.versionKey = Objects.requireNonNull(versionKey);
+		this.version = version;
+		this.migrations = new Migration[version];
+	}
+
+	/**
+	 * Creates a new {@link StorageSchema} that uses the {@link #DEFAULT_VERSION_KEY default version key}.
+	 *
+	 * @param version The current schema version.
+	 *
+	 * @throws IllegalArgumentException if {@code version} is negative.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public StorageSchema(int version) {
+		this(DEFAULT_VERSION_KEY, version);
+	}
+
+	@NotNull
+	public String getVersionKey() {
+		return versionKey;
+	}
+
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Gets the {@link Migration} that upgrades from {@code fromVersion} to
+	 * {@code fromVersion + 1}, creating it if it doesn't exist yet.
+	 *
+	 * @param fromVersion The version to upgrade from.
+	 *
+	 * @return The {@link Migration} of {@code fromVersion}.
+	 *
+	 * @throws IllegalArgumentException if {@code fromVersion} is negative or not
+	 * lower than the {@link #getVersion() current version}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public Migration migration(int fromVersion) {
+		if (fromVersion < 0 || fromVersion >= version)
+			throw new IllegalArgumentException("Migration version must be between 0 and " + (version - 1) + ", got " + fromVersion);
+		Migration migration = migrations[fromVersion];
+		if (migration == null)
+			migrations[fromVersion] = migration = new Migration(fromVersion);
+		return migration;
+	}
+
+	/**
+	 * Sets the key prefixes that are ignored by every {@link Migration}. Keys
+	 * are matched against all prefixes at once through a {@link PrefixTrie}.
+	 *
+	 * @param prefixes The prefixes to ignore, replacing any previous ones.
+	 *
+	 * @return This {@link StorageSchema}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public StorageSchema ignore(@Nullable Collection<String> prefixes) {
+		this.ignored = new PrefixTrie<>(prefixes);
+		return this;
+	}
+
+	@NotNull
+	public StorageSchema ignore(@NotNull String... prefixes) {
+		return ignore(Arrays.asList(prefixes));
+	}
+
+	/**
+	 * Checks whether {@code key} is ignored by this {@link StorageSchema},
+	 * either by matching an {@link #ignore(Collection) ignored} prefix or
+	 * because it is the {@link #getVersionKey() version key}.
+	 *
+	 * @param key The key to check.
+	 *
+	 * @return {@code true} if {@code key} is ignored, {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public boolean isIgnored(@NotNull String key) {
+		return key.equals(versionKey) || ignored.matches(key);
+	}
+
+	/*
+	 * Entry migration
+	 */
+
+	/**
+	 * Checks whether any {@link Migration} from {@code fromVersion} onwards
+	 * renames, moves, deletes or retypes {@code key}. This doesn't require
+	 * the value of {@code key}, so implementations can use it to skip
+	 * parsing entries that won't change.
+	 *
+	 * @param fromVersion The current version of the entry.
+	 * @param key The key to check.
+	 *
+	 * @return {@code true} if {@code key} would change, {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public boolean affects(int fromVersion, @NotNull String key) {
+		if (isIgnored(key))
+			return false;
+		final Record record = apply(fromVersion, new Record(key, null, false));
+		return record.key == null || record.converted || !record.key.equals(key);
+	}
+
+	/**
+	 * Migrates a single entry from {@code fromVersion} to the {@link #getVersion() current version}.
+	 *
+	 * @param fromVersion The current version of the entry.
+	 * @param key The key of the entry.
+	 * @param value The value of the entry.
+	 *
+	 * @return The migrated entry, {@code null} if it was deleted.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Nullable
+	public Map.Entry<String, Object> migrate(int fromVersion, @NotNull String key, @NotNull Object value) {
+		if (isIgnored(key))
+			return new AbstractMap.SimpleImmutableEntry<>(key, value);
+		final Record record = apply(fromVersion, new Record(key, value, true));
+		return record.key == null ? null : new AbstractMap.SimpleImmutableEntry<>(record.key, record.value);
+	}
+
+	@NotNull
+	private Record apply(int fromVersion, @NotNull Record record) {
+		for (int i = Math.max(0, fromVersion); i < version && record.key != null; i++)
+			if (migrations[i] != null)
+				migrations[i].apply(record);
+		return record;
+	}
+
+	/*
+	 * Config migration
+	 */
+
+	/**
+	 * Migrates the specified {@code config} to the {@link #getVersion() current version}
+	 * in memory, as a single {@link Config#edit(java.util.function.Consumer) batch}. The
+	 * {@code config} isn't saved by this method. Configs already on the current version
+	 * are not modified.
+	 *
+	 * @param config The {@link Config} to migrate.
+	 *
+	 * @return The amount of entries that were changed.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int migrate(@NotNull Config config) {
+		final int current = config.getInt(versionKey, 0);
+		if (current >= version)
+			return 0;
+		final int[] changes = {0};
+		config.edit(cfg -> {
+			final List<String> removed = new ArrayList<>();
+			final List<Map.Entry<String, Object>> updated = new ArrayList<>();
+			for (Map.Entry<String, Object> entry : cfg.getSnapshot().entrySet()) {
+				if (!affects(current, entry.getKey()))
+					continue;
+				final Map.Entry<String, Object> migrated = migrate(current, entry.getKey(), entry.getValue());
+				removed.add(entry.getKey());
+				if (migrated != null)
+					updated.add(migrated);
+				changes[0]++;
+			}
+			cfg.removeEntries(removed.toArray(new String[0]));
+			for (Map.Entry<String, Object> entry : updated)
+				cfg.set(entry.getKey(), entry.getValue());
+			cfg.set(versionKey, version);
+		});
+		return changes[0];
+	}
+
+	/**
+	 * Migrates many {@code files} in parallel, on a pool bounded by the amount of
+	 * available processors, with the specified {@code migrator}, which usually is
+	 * something like {@code file -> new FlatStorage(file).migrate(schema)}.
+	 * <p>
+	 * As the version is stored on each file, files that are already up to date are
+	 * skipped by the migrator, so if this process gets interrupted, calling it again
+	 * just resumes the migration from where it stopped. Migrators are expected to
+	 * replace each file atomically, as {@link FlatStorage#migrate(StorageSchema)} does.
+	 *
+	 * @param files The files to migrate.
+	 * @param migrator The {@link Predicate} that migrates a single file, returning
+	 * {@code true} on success.
+	 *
+	 * @return A {@link List} with every file that failed to migrate, empty if none failed.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public List<File> migrateAll(@NotNull Collection<File> files, @NotNull Predicate<File> migrator) {
+		Objects.requireNonNull(migrator);
+		if (files.isEmpty())
+			return new ArrayList<>();
+		final int threads = Math.min(files.size(), Math.max(2, Runtime.getRuntime().availableProcessors()));
+		final ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+			final Thread thread = new Thread(runnable, "MCUtils migration");
+			thread.setDaemon(true);
+			return thread;
+		});
+		final List<File> failed = new ArrayList<>();
+		try {
+			final List<Future<Boolean>> futures = new ArrayList<>(files.size());
+			for (File file : files)
+				futures.add(pool.submit(() -> migrator.test(file)));
+			int i = 0;
+			for (File file : files) {
+				try {
+					if (!futures.get(i++).get())
+						failed.add(file);
+				} catch (ExecutionException ex) {
+					ex.getCause().printStackTrace();
+					failed.add(file);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					failed.add(file);
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		return failed;
+	}
+
+	// Entry being migrated, shared by every Migration it goes through.
+	static final class Record {
+
+		String key;
+		Object value;
+		final boolean loaded;
+		boolean converted = false;
+
+		Record(String key, @Nullable Object value, boolean loaded) {
+			this.key = key;
+			this.value = value;
+			this.loaded = loaded;
+		}
+	}
+}
@@ -0,0 +1,913 @@
+package net.codersky.mcutils.storage.files;
+
+import net.codersky.mcutils.java.MCCollections;
+import net.codersky.mcutils.java.MCFiles;
+import net.codersky.mcutils.storage.Config;
+import net.codersky.mcutils.storage.Storage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.CRC32C;
+
+/**
+ * {@link Storage} designed for big datasets, such as economy or leaderboard
+ * data of hundreds of thousands of players, stored on a single local file
+ * without requiring any external database.
+ * <p>
+ * Unlike {@link FlatStorage}, values are <b>not</b> loaded into memory. The file
+ * is an append-only log of checksummed records, and only a sorted index of keys
+ * pointing to said records is kept in memory. Values are read on demand through a
+ * bounded cache of 4 KiB pages, so memory usage doesn't grow with the size of the
+ * values stored. As the index is sorted, keys can be iterated in order and scanned
+ * by range or prefix, see {@link #getKeys(String, String)} and {@link #scan(String, String, BiConsumer)}.
+ * <p>
+ * Every change is written to the file immediately, {@link #save()} just
+ * flushes it to disk and compacts the file if too much space is used by
+ * outdated records. If the server crashes in the middle of a write, the
+ * incomplete record is detected by its checksum and discarded on the next
+ * {@link #reload()}. Corrupted records in the middle of the file are skipped,
+ * keeping every valid record after them.
+ * <p>
+ * This storage must be {@link #reload() loaded} before being used, and
+ * should be {@link #close() closed} once it is no longer needed. Reading is
+ * thread safe and can be done from any thread concurrently, writing is thread
+ * safe too, but writers block each other as well as any reader while writing.
+ * <p>
+ * Methods that need every value, such as {@link #getMap()}, {@link #getSnapshot()}
+ * or {@link #getEntries()}, read the whole file, so they should be avoided on big
+ * storages, prefer {@link #scan(String, String, BiConsumer)} instead.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class EmbeddedStorage extends Storage implements AutoCloseable {
+
+	private static final int MAGIC = 0x4D434442; // "MCDB"
+	private static final int VERSION = 1;
+	private static final int HEADER_LENGTH = 8;
+	// CRC32C of the rest of the record, key length and value length.
+	private static final int RECORD_HEADER_LENGTH = 12;
+	private static final int TOMBSTONE = -1;
+	// Outdated records are only compacted once they use at least this many bytes.
+	private static final long COMPACT_THRESHOLD = 1024 * 1024;
+
+	// Value tags //
+	private static final byte STRING = 1;
+	private static final byte CHAR = 2;
+	private static final byte BOOLEAN = 3;
+	private static final byte BYTE = 4;
+	private static final byte SHORT = 5;
+	private static final byte INT = 6;
+	private static final byte LONG = 7;
+	private static final byte FLOAT = 8;
+	private static final byte DOUBLE = 9;
+	private static final byte UUID_TAG = 10;
+	private static final byte LIST = 11;
+
+	private final File file;
+	private final PageCache cache;
+	private final ConcurrentSkipListMap<String, Pointer> index = new ConcurrentSkipListMap<>();
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// Guarded by lock //
+	private FileChannel channel = null;
+	private long end = 0;
+	private long liveBytes = 0;
+	private long garbageBytes = 0;
+
+	/**
+	 * Creates a new {@link EmbeddedStorage}.
+	 *
+	 * @param file The {@link File} to use, must have the ".mcudb" extension.
+	 * @param cachePages The maximum amount of 4 KiB pages to keep in memory.
+	 *
+	 * @throws IllegalArgumentException if {@code file} doesn't have the ".mcudb"
+	 * extension or {@code cachePages} is lower than one.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public EmbeddedStorage(@NotNull File file, int cachePages) {
+		if (!file.getName().endsWith(".mcudb"))
+			throw new IllegalArgumentException("EmbeddedStorage only accepts files with the \".mcudb\" extension.");
+		this.file = file;
+		this.cache = new PageCache(cachePages);
+	}
+
+	/**
+	 * Creates a new {@link EmbeddedStorage} with a page cache of 1 MiB.
+	 *
+	 * @param file The {@link File} to use, must have the ".mcudb" extension.
+	 *
+	 * @throws IllegalArgumentException if {@code file} doesn't have the ".mcudb" extension.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public EmbeddedStorage(@NotNull File file) {
+		this(file, 256);
+	}
+
+	public EmbeddedStorage(@NotNull String path) {
+		this(new File(path.endsWith(".mcudb") ? path : path + ".mcudb"));
+	}
+
+	/*
+	 * Utility
+	 */
+
+	@NotNull
+	public final File asFile() {
+		return file;
+	}
+
+	public final boolean exists() {
+		return file.exists();
+	}
+
+	/**
+	 * Gets the amount of keys stored on this {@link EmbeddedStorage}.
+	 *
+	 * @return The amount of keys stored on this {@link EmbeddedStorage}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int size() {
+		return index.size();
+	}
+
+	/*
+	 * Setup, saving and loading
+	 */
+
+	@Override
+	public boolean setup() {
+		lock.writeLock().lock();
+		try {
+			return open();
+		} catch (IOException ex) {
+			ex.printStackTrace();
+			return false;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private boolean open() throws IOException {
+		if (channel != null)
+			return true;
+		if (!MCFiles.create(file))
+			return false;
+		final FileChannel opened = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			if (opened.size() == 0) {
+				final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).putInt(MAGIC).putInt(VERSION).flip();
+				while (header.hasRemaining())
+					opened.write(header, header.position());
+				opened.force(true);
+			} else {
+				final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+				PageCache.readFully(opened, header, 0);
+				if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION)
+					throw new IOException(file.getPath() + " is not a valid embedded storage file.");
+			}
+		} catch (IOException ex) {
+			opened.close();
+			throw ex;
+		}
+		channel = opened;
+		end = HEADER_LENGTH;
+		return true;
+	}
+
+	/**
+	 * Flushes every change made to this {@link EmbeddedStorage} to disk. If outdated
+	 * records use more space than current ones, the file will also be {@link #compact()
+	 * compacted}. This may take some time on big files, so it is recommended to call this
+	 * method <b>asynchronously</b>.
+	 *
+	 * @return {@code true} if this {@link EmbeddedStorage} was saved correctly,
+	 * {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Override
+	public boolean save() {
+		lock.writeLock().lock();
+		try {
+			if (!open())
+				return false;
+			channel.force(false);
+			if (garbageBytes >= COMPACT_THRESHOLD && garbageBytes > liveBytes)
+				compactFile();
+			return true;
+		} catch (IOException ex) {
+			ex.printStackTrace();
+			return false;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Loads the index of this {@link EmbeddedStorage} by scanning the whole file once.
+	 * Values aren't loaded into memory, only their keys and positions on the file. If
+	 * the last record of the file is incomplete or corrupted, the file will be truncated
+	 * right before it, as this means that the server stopped while it was being written.
+	 * A corrupted record followed by valid records is skipped instead, printing a warning,
+	 * so no valid data is ever discarded. Skipped bytes are removed once the file is
+	 * {@link #compact() compacted}.
+	 *
+	 * @return {@code true} if this {@link EmbeddedStorage} loaded correctly,
+	 * {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Override
+	public boolean reload() {
+		lock.writeLock().lock();
+		try {
+			if (!open())
+				return false;
+			scan();
+			return true;
+		} catch (IOException ex) {
+			ex.printStackTrace();
+			return false;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void scan() throws IOException {
+		index.clear();
+		cache.clear();
+		liveBytes = 0;
+		garbageBytes = 0;
+		final long size = channel.size();
+		long position = HEADER_LENGTH;
+		DataInputStream in = openAt(position);
+		final CRC32C crc = new CRC32C();
+		while (position + RECORD_HEADER_LENGTH <= size) {
+			final int checksum = in.readInt();
+			final int keyLength = in.readInt();
+			final int valueLength = in.readInt();
+			final int bodyLength = keyLength + Math.max(valueLength, 0);
+			byte[] body = null;
+			if (isValidHeader(position, keyLength, valueLength, bodyLength, size)) {
+				body = new byte[bodyLength];
+				in.readFully(body);
+				crc.reset();
+				crc.update(ByteBuffer.allocate(8).putInt(keyLength).putInt(valueLength).array());
+				crc.update(body);
+				if ((int) crc.getValue() != checksum)
+					body = null;
+			}
+			if (body == null) {
+				// Only a torn record at the end of the file is discarded, valid records after a corrupted one are kept.
+				final long next = findRecord(position + 1, size);
+				if (next == -1)
+					break;
+				System.err.println("Skipping " + (next - position) + " corrupted byte(s) at offset " + position + " of " + file.getPath());
+				garbageBytes += next - position;
+				position = next;
+				in = openAt(position);
+				continue;
+			}
+			final String key = new String(body, 0, keyLength, StandardCharsets.UTF_8);
+			final int recordLength = RECORD_HEADER_LENGTH + bodyLength;
+			final Pointer old;
+			if (valueLength == TOMBSTONE) {
+				old = index.remove(key);
+				garbageBytes += recordLength;
+			} else {
+				old = index.put(key, new Pointer(position, recordLength, position + RECORD_HEADER_LENGTH + keyLength, valueLength));
+				liveBytes += recordLength;
+			}
+			if (old != null) {
+				liveBytes -= old.recordLength;
+				garbageBytes += old.recordLength;
+			}
+			position += recordLength;
+		}
+		if (position < size) {
+			System.err.println("Discarding " + (size - position) + " corrupted byte(s) at the end of " + file.getPath());
+			channel.truncate(position);
+		}
+		end = position;
+	}
+
+	@NotNull
+	private DataInputStream openAt(long position) throws IOException {
+		channel.position(position);
+		return new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+	}
+
+	private static boolean isValidHeader(long position, int keyLength, int valueLength, int bodyLength, long size) {
+		return keyLength >= 0 && valueLength >= TOMBSTONE && bodyLength >= 0 && position + RECORD_HEADER_LENGTH + bodyLength <= size;
+	}
+
+	// Finds the first position at or after "from" that holds a valid record, -1 if there is none.
+	private long findRecord(long from, long size) throws IOException {
+		// Candidate headers are read in blocks and checked in memory instead of reading every offset.
+		final ByteBuffer block = ByteBuffer.allocate(1 << 16);
+		final ByteBuffer chunk = ByteBuffer.allocate(1 << 16);
+		final byte[] bytes = block.array();
+		final CRC32C crc = new CRC32C();
+		long start = from;
+		while (start + RECORD_HEADER_LENGTH <= size) {
+			block.clear().limit((int) Math.min(size - start, block.capacity()));
+			PageCache.readFully(channel, block, start);
+			final int length = block.limit();
+			// Blocks overlap, so a header crossing the end of one block is checked at the start of the next.
+			final int candidates = length - RECORD_HEADER_LENGTH + 1;
+			for (int i = 0; i < candidates; i++) {
+				final long position = start + i;
+				final int keyLength = block.getInt(i + 4);
+				final int valueLength = block.getInt(i + 8);
+				final int bodyLength = keyLength + Math.max(valueLength, 0);
+				if (!isValidHeader(position, keyLength, valueLength, bodyLength, size))
+					continue;
+				crc.reset();
+				crc.update(bytes, i + 4, 8);
+				final int buffered = Math.min(bodyLength, length - i - RECORD_HEADER_LENGTH);
+				crc.update(bytes, i + RECORD_HEADER_LENGTH, buffered);
+				// The rest of the body is checked in chunks, as a corrupted header may claim a huge body.
+				long offset = position + RECORD_HEADER_LENGTH + buffered;
+				long remaining = bodyLength - buffered;
+				while (remaining > 0) {
+					chunk.clear().limit((int) Math.min(remaining, chunk.capacity()));
+					PageCache.readFully(channel, chunk, offset);
+					chunk.flip();
+					offset += chunk.remaining();
+					remaining -= chunk.remaining();
+					crc.update(chunk);
+				}
+				if ((int) crc.getValue() == block.getInt(i))
+					return position;
+			}
+			start += candidates;
+		}
+		return -1;
+	}
+
+	/**
+	 * Rewrites the file of this {@link EmbeddedStorage} with only the current value
+	 * of every key, sorted by key, removing any outdated record. This is done
+	 * automatically when {@link #save() saving} if needed, but can also be forced
+	 * with this method. The file is written to a temporary file first, so the
+	 * original file is kept intact if anything goes wrong.
+	 *
+	 * @return {@code true} if this {@link EmbeddedStorage} was compacted correctly,
+	 * {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public boolean compact() {
+		lock.writeLock().lock();
+		try {
+			if (!open())
+				return false;
+			compactFile();
+			return true;
+		} catch (IOException ex) {
+			ex.printStackTrace();
+			return false;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void compactFile() throws IOException {
+		final Path path = file.toPath();
+		final Path tmp = path.resolveSibling(file.getName() + ".tmp");
+		final Map<String, Pointer> moved = new HashMap<>(index.size());
+		long position = HEADER_LENGTH;
+		try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+			buffer.putInt(MAGIC).putInt(VERSION);
+			for (Map.Entry<String, Pointer> entry : index.entrySet()) {
+				final Pointer pointer = entry.getValue();
+				// Records don't depend on their position, so they can be copied as is, checksum included.
+				final ByteBuffer record = ByteBuffer.allocate(pointer.recordLength);
+				PageCache.readFully(channel, record, pointer.record);
+				record.flip();
+				if (record.remaining() > buffer.remaining())
+					flush(out, buffer);
+				if (record.remaining() > buffer.remaining())
+					write(out, record);
+				else
+					buffer.put(record);
+				moved.put(entry.getKey(), new Pointer(position, pointer.recordLength, position + (pointer.value - pointer.record), pointer.valueLength));
+				position += pointer.recordLength;
+			}
+			flush(out, buffer);
+			out.force(true);
+		} catch (IOException ex) {
+			Files.deleteIfExists(tmp);
+			throw ex;
+		}
+		channel.close();
+		boolean replaced = false;
+		try {
+			try {
+				Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException ex) {
+				Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+			replaced = true;
+		} finally {
+			channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			if (replaced) {
+				index.putAll(moved);
+				end = position;
+				liveBytes = position - HEADER_LENGTH;
+				garbageBytes = 0;
+				cache.clear();
+			}
+		}
+	}
+
+	private static void flush(FileChannel out, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		write(out, buffer);
+		buffer.clear();
+	}
+
+	private static void write(FileChannel out, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining())
+			out.write(buffer);
+	}
+
+	/**
+	 * Closes the file used by this {@link EmbeddedStorage}, flushing any change to disk
+	 * and clearing both the index and cache from memory. The storage can be loaded
+	 * again by calling {@link #reload()}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Override
+	public void close() {
+		lock.writeLock().lock();
+		try {
+			if (channel == null)
+				return;
+			channel.force(true);
+			channel.close();
+		} catch (IOException ex) {
+			ex.printStackTrace();
+		} finally {
+			channel = null;
+			index.clear();
+			cache.clear();
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*
+	 * Record I/O
+	 */
+
+	@NotNull
+	private FileChannel requireOpen() {
+		if (channel == null)
+			throw new IllegalStateException("EmbeddedStorage " + file.getPath() + " must be loaded with reload() before modifying it.");
+		return channel;
+	}
+
+	private void write(@NotNull String key, @Nullable byte[] value) {
+		lock.writeLock().lock();
+		try {
+			requireOpen();
+			final Pointer old;
+			if (value == null) {
+				if (!index.containsKey(key))
+					return;
+				garbageBytes += append(key, null).recordLength;
+				old = index.remove(key);
+			} else {
+				final Pointer pointer = append(key, value);
+				liveBytes += pointer.recordLength;
+				old = index.put(key, pointer);
+			}
+			if (old != null) {
+				liveBytes -= old.recordLength;
+				garbageBytes += old.recordLength;
+			}
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@NotNull
+	private Pointer append(@NotNull String key, @Nullable byte[] value) throws IOException {
+		final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+		final int valueLength = value == null ? TOMBSTONE : value.length;
+		final int recordLength = RECORD_HEADER_LENGTH + keyBytes.length + Math.max(valueLength, 0);
+		final ByteBuffer buffer = ByteBuffer.allocate(recordLength);
+		buffer.putInt(0).putInt(keyBytes.length).putInt(valueLength).put(keyBytes);
+		if (value != null)
+			buffer.put(value);
+		final CRC32C crc = new CRC32C();
+		crc.update(buffer.array(), 4, recordLength - 4);
+		buffer.putInt(0, (int) crc.getValue()).flip();
+		final long position = end;
+		while (buffer.hasRemaining())
+			channel.write(buffer, position + buffer.position());
+		cache.invalidate(position);
+		end += recordLength;
+		return new Pointer(position, recordLength, position + RECORD_HEADER_LENGTH + keyBytes.length, valueLength);
+	}
+
+	@Nullable
+	private Object read(@NotNull String key) {
+		lock.readLock().lock();
+		try {
+			final Pointer pointer = index.get(key);
+			return pointer == null || channel == null ? null : decode(cache.read(channel, pointer.value, pointer.valueLength));
+		} catch (IOException ex) {
+			ex.printStackTrace();
+			return null;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/*
+	 * Value encoding
+	 */
+
+	private static byte[] encode(@NotNull Object value) {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			writeValue(out, value);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex); // Can't happen with a ByteArrayOutputStream.
+		}
+		return bytes.toByteArray();
+	}
+
+	private static void writeValue(DataOutputStream out, Object value) throws IOException {
+		if (value instanceof CharSequence seq) {
+			final byte[] str = seq.toString().getBytes(StandardCharsets.UTF_8);
+			out.writeByte(STRING);
+			out.writeInt(str.length);
+			out.write(str);
+		} else if (value instanceof Character ch) {
+			out.writeByte(CHAR);
+			out.writeChar(ch);
+		} else if (value instanceof Boolean bool) {
+			out.writeByte(BOOLEAN);
+			out.writeBoolean(bool);
+		} else if (value instanceof Byte b) {
+			out.writeByte(BYTE);
+			out.writeByte(b);
+		} else if (value instanceof Short s) {
+			out.writeByte(SHORT);
+			out.writeShort(s);
+		} else if (value instanceof Integer i) {
+			out.writeByte(INT);
+			out.writeInt(i);
+		} else if (value instanceof Long l) {
+			out.writeByte(LONG);
+			out.writeLong(l);
+		} else if (value instanceof Float f) {
+			out.writeByte(FLOAT);
+			out.writeFloat(f);
+		} else if (value instanceof Double d) {
+			out.writeByte(DOUBLE);
+			out.writeDouble(d);
+		} else if (value instanceof UUID uuid) {
+			out.writeByte(UUID_TAG);
+			out.writeLong(uuid.getMostSignificantBits());
+			out.writeLong(uuid.getLeastSignificantBits());
+		} else if (value instanceof List<?> list) {
+			out.writeByte(LIST);
+			out.writeInt(list.size());
+			for (Object element : list)
+				writeValue(out, Objects.requireNonNull(element, "Lists can't contain null elements"));
+		} else
+			throw new IllegalArgumentException("Unsupported data of type " + value.getClass().getName());
+	}
+
+	@NotNull
+	private static Object decode(byte[] bytes) throws IOException {
+		return readValue(new DataInputStream(new ByteArrayInputStream(bytes)));
+	}
+
+	@NotNull
+	private static Object readValue(DataInputStream in) throws IOException {
+		final byte tag = in.readByte();
+		return switch (tag) {
+		case STRING -> {
+			final byte[] str = new byte[in.readInt()];
+			in.readFully(str);
+			yield new String(str, StandardCharsets.UTF_8);
+		}
+		case CHAR -> in.readChar();
+		case BOOLEAN -> in.readBoolean();
+		case BYTE -> in.readByte();
+		case SHORT -> in.readShort();
+		case INT -> in.readInt();
+		case LONG -> in.readLong();
+		case FLOAT -> in.readFloat();
+		case DOUBLE -> in.readDouble();
+		case UUID_TAG -> new UUID(in.readLong(), in.readLong());
+		case LIST -> {
+			final int size = in.readInt();
+			final ArrayList<Object> list = new ArrayList<>(size);
+			for (int i = 0; i < size; i++)
+				list.add(readValue(in));
+			yield list;
+		}
+		default -> throw new EOFException("Unknown value type " + tag);
+		};
+	}
+
+	/*
+	 * Key access
+	 */
+
+	/**
+	 * Gets a live, ordered and unmodifiable view of the keys stored on this
+	 * {@link EmbeddedStorage}. Iterating this view doesn't block writers,
+	 * and reflects changes made while iterating.
+	 *
+	 * @return An ordered view of the keys stored on this {@link EmbeddedStorage}.
+	 *
+	 * @since MCUtils 1.0.0
+	 *
+	 * @see #getKeys(String, String)
+	 * @see #getKeysWithPrefix(String)
+	 */
+	@Override
+	public NavigableSet<String> getKeys() {
+		return Collections.unmodifiableNavigableSet(index.keySet());
+	}
+
+	@NotNull
+	@Override
+	public Set<String> getKeys(@NotNull Predicate<String> filter) {
+		return MCCollections.add(index.keySet(), new TreeSet<>(), filter);
+	}
+
+	/**
+	 * Gets an ordered view of the keys between {@code fromKey} (inclusive)
+	 * and {@code toKey} (exclusive).
+	 *
+	 * @param fromKey The first key of the range, inclusive.
+	 * @param toKey The last key of the range, exclusive, {@code null} to include every key after {@code fromKey}.
+	 *
+	 * @return An ordered view of the keys on the specified range.
+	 *
+	 * @throws IllegalArgumentException if {@code fromKey} is greater than {@code toKey}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public NavigableSet<String> getKeys(@NotNull String fromKey, @Nullable String toKey) {
+		final NavigableSet<String> keys = toKey == null ? index.keySet().tailSet(fromKey, true) : index.keySet().subSet(fromKey, true, toKey, false);
+		return Collections.unmodifiableNavigableSet(keys);
+	}
+
+	/**
+	 * Gets an ordered view of the keys that start with the specified {@code prefix}.
+	 *
+	 * @param prefix The prefix of the keys to get.
+	 *
+	 * @return An ordered view of the keys that start with {@code prefix}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public NavigableSet<String> getKeysWithPrefix(@NotNull String prefix) {
+		return getKeys(prefix, prefix + Character.MAX_VALUE);
+	}
+
+	/**
+	 * Iterates every key between {@code fromKey} (inclusive) and {@code toKey}
+	 * (exclusive) in order, along with its value. Values are read one by one,
+	 * so the whole range is never loaded into memory at once.
+	 *
+	 * @param fromKey The first key of the range, inclusive.
+	 * @param toKey The last key of the range, exclusive, {@code null} to include every key after {@code fromKey}.
+	 * @param action The action to perform for each key and value.
+	 *
+	 * @return The amount of entries that were scanned.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int scan(@NotNull String fromKey, @Nullable String toKey, @NotNull BiConsumer<String, Object> action) {
+		int scanned = 0;
+		for (String key : getKeys(fromKey, toKey)) {
+			final Object value = read(key);
+			if (value != null) {
+				action.accept(key, value);
+				scanned++;
+			}
+		}
+		return scanned;
+	}
+
+	/**
+	 * Reads every entry of this {@link EmbeddedStorage} into an
+	 * ordered {@link Map}. This reads the whole file, so use it with care.
+	 */
+	@NotNull
+	private Map<String, Object> readAll() {
+		final LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+		for (String key : index.keySet()) {
+			final Object value = read(key);
+			if (value != null)
+				map.put(key, value);
+		}
+		return map;
+	}
+
+	/**
+	 * Reads every entry of this {@link EmbeddedStorage}, which requires reading
+	 * the whole file. Prefer {@link #scan(String, String, BiConsumer)} on big storages.
+	 *
+	 * @return An unmodifiable and ordered copy of every entry.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	@Override
+	public Map<String, Object> getSnapshot() {
+		return Collections.unmodifiableMap(readAll());
+	}
+
+	@NotNull
+	@Override
+	public HashMap<String, Object> getMap() {
+		return new HashMap<>(readAll());
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> getEntries() {
+		return getSnapshot().entrySet();
+	}
+
+	@NotNull
+	@Override
+	public EmbeddedStorage removeEntries(@NotNull String... keys) {
+		for (String key : keys)
+			write(key, null);
+		return this;
+	}
+
+	@Override
+	public boolean containsKey(@NotNull String... keys) {
+		for (String key : keys)
+			if (!index.containsKey(key))
+				return false;
+		return true;
+	}
+
+	@NotNull
+	@Override
+	public EmbeddedStorage clear() {
+		lock.writeLock().lock();
+		try {
+			requireOpen().truncate(HEADER_LENGTH);
+			channel.force(true);
+			index.clear();
+			cache.clear();
+			end = HEADER_LENGTH;
+			liveBytes = 0;
+			garbageBytes = 0;
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		} finally {
+			lock.writeLock().unlock();
+		}
+		return this;
+	}
+
+	/**
+	 * Runs {@code editor} while blocking any other reader or writer of
+	 * this {@link EmbeddedStorage}. Unlike other {@link Config configs},
+	 * changes are written to the file as they are made, so changes made
+	 * before {@code editor} throws an exception are <b>not</b> reverted.
+	 *
+	 * @param editor The {@link Consumer} that makes the changes, receiving this {@link EmbeddedStorage}.
+	 *
+	 * @return This {@link EmbeddedStorage}.
+	 *
+	 * @throws NullPointerException if {@code editor} is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	@Override
+	public EmbeddedStorage edit(@NotNull Consumer<Config> editor) {
+		Objects.requireNonNull(editor);
+		lock.writeLock().lock();
+		try {
+			editor.accept(this);
+		} finally {
+			lock.writeLock().unlock();
+		}
+		return this;
+	}
+
+	/*
+	 * Setters and getters
+	 */
+
+	@NotNull
+	@Override
+	protected <T> T set(@NotNull String key, @NotNull T value) {
+		write(Objects.requireNonNull(key), encode(Objects.requireNonNull(value)));
+		return value;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected <T> T get(@NotNull String key, @NotNull Class<T> type) {
+		final Object obj = read(key);
+		return (obj != null && obj.getClass().equals(type)) ? (T) obj : null;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected <T> List<T> getList(@NotNull String key, @NotNull Class<T> type) {
+		if (!(read(key) instanceof List<?> lst))
+			return null;
+		for (Object element : lst)
+			if (!element.getClass().equals(type))
+				return null;
+		return (List<T>) lst;
+	}
+
+	/*
+	 * Object class
+	 */
+
+	@Override
+	public boolean equals(@Nullable Object obj) {
+		return obj instanceof EmbeddedStorage other && other.file.equals(file);
+	}
+
+	@Override
+	public int hashCode() {
+		return file.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "EmbeddedStorage{file=" + file.getPath() + ", keys=" + index.size() + "}";
+	}
+
+	// Position of a record on the file, along with the position of its value.
+	private static final class Pointer {
+
+		final long record;
+		final int recordLength;
+		final long value;
+		final int valueLength;
+
+		Pointer(long record, int recordLength, long value, int valueLength) {
+			this.record = record;
+			this.recordLength = recordLength;
+			this.value = value;
+			this.valueLength = valueLength;
+		}
+	}
+}
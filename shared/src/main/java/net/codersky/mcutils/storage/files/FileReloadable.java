@@ -0,0 +1,30 @@
+package net.codersky.mcutils.storage.files;
+
+import net.codersky.mcutils.Reloadable;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+
+/**
+ * A {@link Reloadable} that loads its data from a single {@link File}.
+ * Implementing this interface allows a {@link FileWatchService} to
+ * reload it automatically whenever said {@link File} changes.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @see FileWatchService
+ */
+public interface FileReloadable extends Reloadable {
+
+	/**
+	 * Gets the {@link File} this {@link FileReloadable} loads its data from.
+	 *
+	 * @return The {@link File} this {@link FileReloadable} loads its data from.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	File asFile();
+}
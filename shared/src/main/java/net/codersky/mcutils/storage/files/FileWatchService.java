@@ -0,0 +1,400 @@
+package net.codersky.mcutils.storage.files;
+
+import net.codersky.mcutils.MCUtils;
+import net.codersky.mcutils.Reloadable;
+import net.codersky.mcutils.SnapshotReloadable;
+import net.codersky.mcutils.time.TaskScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * A service that watches the {@link File files} behind any amount of
+ * {@link Reloadable reloadables}, reloading <b>only</b> the ones whose
+ * content actually changed. This is an alternative to calling
+ * {@link MCUtils#reload()} whenever a single file is edited.
+ * <p>
+ * Changes are detected with a {@link WatchService} running on its own daemon
+ * thread. Every change is debounced, as editors tend to write a file more than once
+ * per save, and the content of the file is then hashed, so touching a file
+ * without modifying it doesn't trigger a reload. Files are reloaded <b>asynchronously</b>
+ * via the provided {@link TaskScheduler}:
+ * <ul>
+ *     <li>{@link SnapshotReloadable Snapshot reloadables} load their new snapshot off-thread,
+ *     which is then applied in a single step with {@link TaskScheduler#runSync(Runnable)}.</li>
+ *     <li>Any other {@link Reloadable} is just {@link Reloadable#reload() reloaded} with
+ *     {@link TaskScheduler#runSync(Runnable)}, as there is no way to know if it supports
+ *     asynchronous reloading.</li>
+ * </ul>
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @see #watch(FileReloadable)
+ * @see MCUtils#watchFiles(FileWatchService)
+ */
+public class FileWatchService implements AutoCloseable {
+
+	private final TaskScheduler scheduler;
+	private final long debounceMillis;
+	private final WatchService watcher;
+	private final Map<Path, WatchedFile> files = new ConcurrentHashMap<>();
+	private final Map<Path, WatchKey> directories = new ConcurrentHashMap<>();
+	private final Set<WatchedFile> pending = ConcurrentHashMap.newKeySet();
+	private final Thread thread;
+	private volatile boolean running = true;
+	@Nullable
+	private volatile BiConsumer<File, Boolean> listener = null;
+
+	/**
+	 * Creates and starts a new {@link FileWatchService}.
+	 *
+	 * @param scheduler The {@link TaskScheduler} used to reload files, both
+	 * asynchronously and synchronously.
+	 * @param debounceMillis The amount of milliseconds to wait since the last
+	 * change of a file before reloading it. Values lower than 0 will be treated as 0.
+	 *
+	 * @throws IOException If the underlying {@link WatchService} couldn't be created.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public FileWatchService(@NotNull TaskScheduler scheduler, long debounceMillis) throws IOException {
+		this.scheduler = Objects.requireNonNull(scheduler);
+		this.debounceMillis = Math.max(0, debounceMillis);
+		this.watcher = FileSystems.getDefault().newWatchService();
+		this.thread = new Thread(this::watchLoop, "MCUtils FileWatchService");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Creates and starts a new {@link FileWatchService} with a
+	 * debounce time of 500 milliseconds.
+	 *
+	 * @param scheduler The {@link TaskScheduler} used to reload files, both
+	 * asynchronously and synchronously.
+	 *
+	 * @throws IOException If the underlying {@link WatchService} couldn't be created.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public FileWatchService(@NotNull TaskScheduler scheduler) throws IOException {
+		this(scheduler, 500);
+	}
+
+	/*
+	 * Registration
+	 */
+
+	/**
+	 * Starts watching the specified {@code file}, reloading the {@code reloadable}
+	 * whenever its content changes. Watching the same {@code file} twice replaces
+	 * the previous {@link Reloadable}.
+	 *
+	 * @param file The {@link File} to watch.
+	 * @param reloadable The {@link Reloadable} to reload when the {@code file} changes.
+	 *
+	 * @return {@code true} if the {@code file} is now being watched, {@code false}
+	 * if its directory couldn't be registered or this service has been {@link #close() closed}.
+	 *
+	 * @throws NullPointerException if any parameter is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public boolean watch(@NotNull File file, @NotNull Reloadable reloadable) {
+		Objects.requireNonNull(reloadable);
+		if (!running)
+			return false;
+		final Path path = toPath(file);
+		final Path dir = path.getParent();
+		if (dir == null)
+			return false;
+		try {
+			if (!directories.containsKey(dir)) {
+				Files.createDirectories(dir);
+				directories.put(dir, dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_MODIFY));
+			}
+		} catch (IOException | SecurityException | ClosedWatchServiceException ex) {
+			return false;
+		}
+		files.put(path, new WatchedFile(path, reloadable, hash(path)));
+		return true;
+	}
+
+	/**
+	 * Starts watching the {@link FileReloadable#asFile() file} of the specified
+	 * {@code reloadable}. See {@link #watch(File, Reloadable)} for more details.
+	 *
+	 * @param reloadable The {@link FileReloadable} to watch.
+	 *
+	 * @return {@code true} if the file is now being watched, {@code false} otherwise.
+	 *
+	 * @throws NullPointerException if {@code reloadable} is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public boolean watch(@NotNull FileReloadable reloadable) {
+		return watch(reloadable.asFile(), reloadable);
+	}
+
+	/**
+	 * Stops watching the specified {@code file}.
+	 *
+	 * @param file The {@link File} to stop watching.
+	 *
+	 * @return {@code true} if the {@code file} was being watched, {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public boolean unwatch(@NotNull File file) {
+		final WatchedFile removed = files.remove(toPath(file));
+		if (removed == null)
+			return false;
+		pending.remove(removed);
+		return true;
+	}
+
+	/**
+	 * Updates the content hash stored for the specified {@code file} without
+	 * reloading it. This is meant to be called right after saving a watched
+	 * file from your own code, so the change you just wrote doesn't cause a
+	 * redundant reload.
+	 *
+	 * @param file The {@link File} to refresh.
+	 *
+	 * @return {@code true} if the {@code file} is being watched, {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public boolean refresh(@NotNull File file) {
+		final WatchedFile watched = files.get(toPath(file));
+		if (watched == null)
+			return false;
+		watched.hash = hash(watched.path);
+		return true;
+	}
+
+	/**
+	 * Sets a listener that will be called on the main thread every
+	 * time a watched file is reloaded, accepting the reloaded
+	 * {@link File} and whether it reloaded successfully or not.
+	 *
+	 * @param listener The listener to use, {@code null} to remove it.
+	 *
+	 * @return This {@link FileWatchService}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public FileWatchService setReloadListener(@Nullable BiConsumer<File, Boolean> listener) {
+		this.listener = listener;
+		return this;
+	}
+
+	/**
+	 * Checks whether this {@link FileWatchService} is still running
+	 * or has been {@link #close() closed}.
+	 *
+	 * @return {@code true} if this service is running, {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Stops this {@link FileWatchService}. Files will no longer be watched
+	 * and new files can't be registered. Reloads that are already in progress
+	 * will still finish.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Override
+	public void close() {
+		running = false;
+		try {
+			watcher.close();
+		} catch (IOException ignored) {}
+		thread.interrupt();
+		files.clear();
+		directories.clear();
+		pending.clear();
+	}
+
+	/*
+	 * Watcher thread
+	 */
+
+	private void watchLoop() {
+		while (running) {
+			try {
+				final WatchKey key = pending.isEmpty() ? watcher.take() : watcher.poll(nextDelay(), TimeUnit.MILLISECONDS);
+				if (key != null)
+					handleKey(key);
+				dispatchDue();
+			} catch (InterruptedException | ClosedWatchServiceException ex) {
+				return;
+			}
+		}
+	}
+
+	private long nextDelay() {
+		final long now = System.currentTimeMillis();
+		long next = Long.MAX_VALUE;
+		for (WatchedFile watched : pending)
+			next = Math.min(next, watched.dueAt);
+		// Overdue files are still reloading their previous change, no need to spin.
+		return next <= now ? 50 : next - now;
+	}
+
+	private void handleKey(WatchKey key) {
+		final Path dir = (Path) key.watchable();
+		final long dueAt = System.currentTimeMillis() + debounceMillis;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				// Events were lost, so every file on this directory may have changed.
+				for (WatchedFile watched : files.values())
+					if (dir.equals(watched.path.getParent()))
+						markPending(watched, dueAt);
+			} else if (event.context() instanceof Path name) {
+				final WatchedFile watched = files.get(dir.resolve(name));
+				if (watched != null)
+					markPending(watched, dueAt);
+			}
+		}
+		if (!key.reset())
+			directories.remove(dir);
+	}
+
+	private void markPending(WatchedFile watched, long dueAt) {
+		watched.dueAt = dueAt;
+		pending.add(watched);
+	}
+
+	private void dispatchDue() {
+		final long now = System.currentTimeMillis();
+		for (WatchedFile watched : pending) {
+			if (watched.dueAt > now)
+				continue;
+			if (!watched.loading.compareAndSet(false, true))
+				continue; // Still reloading the previous change, try again later.
+			pending.remove(watched);
+			scheduler.runAsync(() -> reloadChanged(watched));
+		}
+	}
+
+	/*
+	 * Reloading
+	 */
+
+	private void reloadChanged(WatchedFile watched) {
+		final long hash = hash(watched.path);
+		if (hash == watched.hash || hash == -1) {
+			watched.loading.set(false);
+			return;
+		}
+		if (watched.reloadable instanceof SnapshotReloadable<?> snapshotReloadable)
+			reloadSnapshot(watched, snapshotReloadable, hash);
+		else
+			scheduler.runSync(() -> {
+				boolean success = false;
+				try {
+					success = watched.reloadable.reload();
+				} catch (RuntimeException ex) {
+					ex.printStackTrace();
+				} finally {
+					finish(watched, success, hash);
+				}
+			});
+	}
+
+	private <T> void reloadSnapshot(WatchedFile watched, SnapshotReloadable<T> reloadable, long hash) {
+		final T snapshot;
+		try {
+			snapshot = reloadable.loadSnapshot();
+		} catch (RuntimeException ex) {
+			ex.printStackTrace();
+			scheduler.runSync(() -> finish(watched, false, hash));
+			return;
+		}
+		scheduler.runSync(() -> {
+			boolean success = false;
+			try {
+				if (snapshot != null) {
+					reloadable.applySnapshot(snapshot);
+					success = true;
+				}
+			} catch (RuntimeException ex) {
+				ex.printStackTrace();
+			} finally {
+				// The file must always be released, or it would never be reloaded again.
+				finish(watched, success, hash);
+			}
+		});
+	}
+
+	private void finish(WatchedFile watched, boolean success, long hash) {
+		if (success)
+			watched.hash = hash;
+		watched.loading.set(false);
+		final BiConsumer<File, Boolean> listener = this.listener;
+		if (listener != null)
+			listener.accept(watched.path.toFile(), success);
+	}
+
+	/*
+	 * Utility
+	 */
+
+	@NotNull
+	private static Path toPath(@NotNull File file) {
+		return file.toPath().toAbsolutePath().normalize();
+	}
+
+	// Returns -1 if the file can't be read, CRC32C values are always positive when stored on a long.
+	private static long hash(@NotNull Path path) {
+		try {
+			final CRC32C crc = new CRC32C();
+			crc.update(Files.readAllBytes(path));
+			return crc.getValue();
+		} catch (IOException | SecurityException ex) {
+			return -1;
+		}
+	}
+
+	private static class WatchedFile {
+
+		private final Path path;
+		private final Reloadable reloadable;
+		private final AtomicBoolean loading = new AtomicBoolean(false);
+		private volatile long hash;
+		private volatile long dueAt = 0;
+
+		WatchedFile(Path path, Reloadable reloadable, long hash) {
+			this.path = path;
+			this.reloadable = reloadable;
+			this.hash = hash;
+		}
+	}
+}
@@ -1,22 +1,34 @@
 package net.codersky.mcutils.storage.files;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 
+import net.codersky.mcutils.SnapshotReloadable;
 import net.codersky.mcutils.java.MCFiles;
 import net.codersky.mcutils.java.strings.MCStrings;
 import net.codersky.mcutils.storage.Storage;
+import net.codersky.mcutils.storage.StorageSchema;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * {@link Storage} class used to store data on
@@ -26,23 +38,42 @@ import org.jetbrains.annotations.NotNull;
  * data types. About memory usage, this class only
  * stores a {@link HashMap} with all keys and values
  * and the {@link File} itself.
+ * <p>
+ * As a {@link SnapshotReloadable}, the file can be parsed
+ * asynchronously with {@link #loadSnapshot()}, so it can be
+ * watched by a {@link FileWatchService}.
+ * <p>
+ * The file can optionally be compressed and protected with a
+ * checksum by specifying a {@link StorageCodec}, which
+ * is {@link StorageCodec#NONE} by default.
  * 
  * @author xDec0de_
  *
  * @since MCUtils 1.0.0
  */
-public class FlatStorage extends Storage {
+public class FlatStorage extends Storage implements SnapshotReloadable<Map<String, Object>>, FileReloadable {
 
 	private final File file;
+	private volatile StorageCodec codec;
 
-	public FlatStorage(@NotNull File file) {
+	public FlatStorage(@NotNull File file, @NotNull StorageCodec codec) {
 		if (!file.getName().endsWith(".mcufs"))
 			throw new IllegalArgumentException("FlatStorage only accepts files with the \".mcufs\" extension.");
 		this.file = file;
+		this.codec = Objects.requireNonNull(codec);
 	}
 
-	public FlatStorage(@NotNull String path) {
+	public FlatStorage(@NotNull File file) {
+		this(file, StorageCodec.NONE);
+	}
+
+	public FlatStorage(@NotNull String path, @NotNull StorageCodec codec) {
 		this.file = new File(path.endsWith(".mcufs") ? path : path + ".mcufs");
+		this.codec = Objects.requireNonNull(codec);
+	}
+
+	public FlatStorage(@NotNull String path) {
+		this(path, StorageCodec.NONE);
 	}
 
 	/*
@@ -66,6 +97,37 @@ public class FlatStorage extends Storage {
 		return file.exists();
 	}
 
+	/**
+	 * Gets the {@link StorageCodec} used to {@link #save() save} this {@link FlatStorage}.
+	 *
+	 * @return The {@link StorageCodec} used by this {@link FlatStorage}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public StorageCodec getCodec() {
+		return codec;
+	}
+
+	/**
+	 * Sets the {@link StorageCodec} used to {@link #save() save} this {@link FlatStorage}.
+	 * Files saved with any codec can always be loaded, so the file will be converted
+	 * to the new {@code codec} the next time it is saved.
+	 *
+	 * @param codec The new {@link StorageCodec} to use.
+	 *
+	 * @return This {@link FlatStorage}.
+	 *
+	 * @throws NullPointerException if {@code codec} is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public FlatStorage setCodec(@NotNull StorageCodec codec) {
+		this.codec = Objects.requireNonNull(codec);
+		return this;
+	}
+
 	/*
 	 * Saving
 	 */
@@ -76,8 +138,8 @@ public class FlatStorage extends Storage {
 			return false;
 		int errors = 0;
 		try {
-			final FileWriter writer = new FileWriter(file);
-			for (Entry<String, Object> entry : keys.entrySet()) {
+			final StringBuilder writer = new StringBuilder();
+			for (Entry<String, Object> entry : getEntries()) {
 				final String toWrite;
 				if (entry.getValue() instanceof final List<?> lst) {
 					if (lst.isEmpty())
@@ -86,11 +148,11 @@ public class FlatStorage extends Storage {
 				} else
 					toWrite = toWrite(entry.getKey(), entry.getValue());
 				if (toWrite != null)
-					writer.write(toWrite);
+					writer.append(toWrite);
 				else
 					errors++;
 			}
-			writer.close();
+			codec.write(file, writer.toString().getBytes(StandardCharsets.UTF_8));
 		} catch (IOException e) {
 			e.printStackTrace();
 			return false;
@@ -183,70 +245,84 @@ public class FlatStorage extends Storage {
 
 	@Override
 	public boolean reload() {
+		return SnapshotReloadable.super.reload();
+	}
+
+	@Nullable
+	@Override
+	public Map<String, Object> loadSnapshot() {
 		if (!setup())
-			return false;
-		try {
-			final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file)));
+			return null;
+		final HashMap<String, Object> snapshot = new HashMap<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(codec.read(file)), StandardCharsets.UTF_8))) {
 			String line;
 			while ((line = reader.readLine()) != null)
-				parseLine(line);
-			reader.close();
-			return true;
+				parseLine(snapshot, line);
+			return snapshot;
 		} catch (IOException e) {
 			e.printStackTrace();
-			return false;
+			return null;
 		}
 	}
 
-	private boolean parseLine(final String line) {
+	@Override
+	public void applySnapshot(@NotNull Map<String, Object> snapshot) {
+		replaceEntries(snapshot);
+	}
+
+	private boolean parseLine(final Map<String, Object> map, final String line) {
 		int separatorIndex = line.indexOf(':');
 		if (separatorIndex == -1)
 			return false;
 		final String key = line.substring(1, separatorIndex);
 		final String value = line.substring(separatorIndex + 1);
 		if (line.charAt(0) == '*')
-			return loadLstFromLine(line.charAt(1), key.substring(1), value);
+			return loadLstFromLine(map, line.charAt(1), key.substring(1), value);
 		else
-			return loadObjFromLine(line.charAt(0), key, value);
+			return loadObjFromLine(map, line.charAt(0), key, value);
 	}
 
 	// Loading - Simple objects //
 
-	private boolean loadObjFromLine(final char type, final String key, final String value) {
-		return switch (type) {
-		case 's' -> set(key, value.replace("\\n", "\n"));
-		case 'c' -> set(key, value.equals("\\n") ? '\n' : value.charAt(0));
-		case 'b' -> set(key, value.charAt(0) == 't');
-		case 'u' -> set(key, MCStrings.toUUID(value));
-		case 'B' -> set(key, Byte.parseByte(value));
-		case 'S' -> set(key, Short.parseShort(value));
-		case 'I' -> set(key, Integer.parseInt(value));
-		case 'L' -> set(key, Long.parseLong(value));
-		case 'F' -> set(key, Float.parseFloat(value));
-		case 'D' -> set(key, Double.parseDouble(value));
+	private boolean loadObjFromLine(final Map<String, Object> map, final char type, final String key, final String value) {
+		final Object obj = switch (type) {
+		case 's' -> value.replace("\\n", "\n");
+		case 'c' -> value.equals("\\n") ? '\n' : value.charAt(0);
+		case 'b' -> value.charAt(0) == 't';
+		case 'u' -> MCStrings.toUUID(value);
+		case 'B' -> Byte.parseByte(value);
+		case 'S' -> Short.parseShort(value);
+		case 'I' -> Integer.parseInt(value);
+		case 'L' -> Long.parseLong(value);
+		case 'F' -> Float.parseFloat(value);
+		case 'D' -> Double.parseDouble(value);
 		default -> null;
-		} != null;
+		};
+		if (obj == null)
+			return false;
+		map.put(key, obj);
+		return true;
 	}
 
 	// Loading - Lists //
 
-	private boolean loadLstFromLine(final char type, final String key, final String value) {
+	private boolean loadLstFromLine(final Map<String, Object> map, final char type, final String key, final String value) {
 		return switch (type) {
-		case 's' -> loadStringList(key, value);
-		case 'c' -> loadCharList(key, value);
-		case 'b' -> loadBoolList(key, value);
-		case 'u' -> loadList(key, value, MCStrings::toUUID);
-		case 'B' -> loadList(key, value, Byte::parseByte);
-		case 'S' -> loadList(key, value, Short::parseShort);
-		case 'I' -> loadList(key, value, Integer::parseInt);
-		case 'L' -> loadList(key, value, Long::parseLong);
-		case 'F' -> loadList(key, value, Float::parseFloat);
-		case 'D' -> loadList(key, value, Double::parseDouble);
+		case 's' -> loadStringList(map, key, value);
+		case 'c' -> loadCharList(map, key, value);
+		case 'b' -> loadBoolList(map, key, value);
+		case 'u' -> loadList(map, key, value, MCStrings::toUUID);
+		case 'B' -> loadList(map, key, value, Byte::parseByte);
+		case 'S' -> loadList(map, key, value, Short::parseShort);
+		case 'I' -> loadList(map, key, value, Integer::parseInt);
+		case 'L' -> loadList(map, key, value, Long::parseLong);
+		case 'F' -> loadList(map, key, value, Float::parseFloat);
+		case 'D' -> loadList(map, key, value, Double::parseDouble);
 		default -> false;
 		};
 	}
 
-	private <T> boolean loadList(final String key, final String lstStr, Function<String, T> modifier) {
+	private <T> boolean loadList(final Map<String, Object> map, final String key, final String lstStr, Function<String, T> modifier) {
 		final int len = lstStr.length();
 		final LinkedList<T> result = new LinkedList<>();
 		StringBuilder element = new StringBuilder();
@@ -259,13 +335,13 @@ public class FlatStorage extends Storage {
 				element.append(ch);
 		}
 		result.add(modifier.apply(element.toString()));
-		set(key, result);
+		map.put(key, result);
 		return true;
 	}
 
 	// Specific method for strings to handle the '\' character to avoid counting
 	// Strings that contain commas as different strings. Also handles the '\n' character.
-	private boolean loadStringList(final String key, final String lstStr) {
+	private boolean loadStringList(final Map<String, Object> map, final String key, final String lstStr) {
 		final int len = lstStr.length();
 		final LinkedList<String> result = new LinkedList<>();
 		StringBuilder element = new StringBuilder();
@@ -285,13 +361,13 @@ public class FlatStorage extends Storage {
 				element.append(ch);
 		}
 		result.add(element.toString());
-		set(key, result);
+		map.put(key, result);
 		return true;
 	}
 
 	// Specific method for characters, as characters don't use a separator
 	// But the '\n' character is stored as two characters.
-	private boolean loadCharList(final String key, final String lstStr) {
+	private boolean loadCharList(final Map<String, Object> map, final String key, final String lstStr) {
 		final int len = lstStr.length();
 		final LinkedList<Character> result = new LinkedList<>();
 		for (int i = 0; i < len; i++) {
@@ -302,17 +378,189 @@ public class FlatStorage extends Storage {
 			} else
 				result.add(ch);
 		}
-		set(key, result);
+		map.put(key, result);
 		return true;
 	}
 
 	// Specific method for booleans, as booleans don't need a separator.
-	private boolean loadBoolList(final String key, final String lstStr) {
+	private boolean loadBoolList(final Map<String, Object> map, final String key, final String lstStr) {
 		final int len = lstStr.length();
 		final LinkedList<Boolean> result = new LinkedList<>();
 		for (int i = 0; i < len; i++)
 			result.add(lstStr.charAt(i) == 't');
-		set(key, result);
+		map.put(key, result);
 		return true;
 	}
+
+	/*
+	 * Migration
+	 */
+
+	/**
+	 * Migrates the file of this {@link FlatStorage} to the current version of the specified
+	 * {@code schema} by streaming it entry by entry, without loading it into memory. Entries that
+	 * aren't {@link StorageSchema#affects(int, String) affected} by any migration are copied
+	 * as is, without even being parsed. The version is written as the first entry of the file,
+	 * so checking whether a migrated file is up to date only requires reading its first line.
+	 * Files without a version are read once to look for it and once more to migrate them.
+	 * <p>
+	 * The migrated file is written to a temporary file that then replaces the original one,
+	 * so files are never left half migrated. If a migration returns a value of a type that
+	 * this storage can't store, the whole migration fails and the original file is kept. If this {@link FlatStorage} was already loaded,
+	 * it will be {@link #reload() reloaded} after migrating.
+	 *
+	 * @param schema The {@link StorageSchema} to migrate to.
+	 *
+	 * @return {@code true} if the file was migrated or already up to date, {@code false} if
+	 * any error occurred.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public boolean migrate(@NotNull StorageSchema schema) {
+		if (!setup())
+			return false;
+		final String versionKey = schema.getVersionKey();
+		final boolean stream;
+		final StringWriter buffer;
+		final Path path = file.toPath();
+		final Path tmp = path.resolveSibling(file.getName() + ".tmp");
+		try {
+			stream = isStreamable();
+			buffer = stream ? null : new StringWriter();
+			// Encoded files are decoded once and kept in memory, plain files are read twice instead.
+			final byte[] decoded = stream ? null : codec.read(file);
+			int version = -1;
+			try (BufferedReader reader = openReader(decoded)) {
+				// The version is the first line on migrated files, so this only reads the whole file once.
+				String line;
+				while (version == -1 && (line = reader.readLine()) != null)
+					if (versionKey.equals(getKey(line)))
+						version = parseVersion(line);
+			}
+			if (version >= schema.getVersion())
+				return true;
+			version = Math.max(version, 0);
+			try (BufferedReader reader = openReader(decoded);
+					Writer writer = stream ? Files.newBufferedWriter(tmp, StandardCharsets.UTF_8) : buffer) {
+				writer.write(toWrite(versionKey, (Object) schema.getVersion()));
+				String line;
+				while ((line = reader.readLine()) != null)
+					if (!versionKey.equals(getKey(line)))
+						migrateLine(schema, version, line, writer);
+			}
+			if (stream)
+				StorageCodec.move(tmp, path);
+			else
+				codec.write(file, buffer.toString().getBytes(StandardCharsets.UTF_8));
+		} catch (IOException | RuntimeException ex) {
+			System.err.println("Failed to migrate " + file.getPath() + ":");
+			ex.printStackTrace();
+			try {
+				Files.deleteIfExists(tmp);
+			} catch (IOException ignored) {}
+			return false;
+		}
+		return getSnapshot().isEmpty() || reload();
+	}
+
+	private void migrateLine(StorageSchema schema, int version, String line, Writer writer) throws IOException {
+		final String key = getKey(line);
+		final Map<String, Object> parsed = new HashMap<>(2);
+		if (key == null || !schema.affects(version, key) || !parseLine(parsed, line)) {
+			writer.write(line);
+			writer.write('\n');
+			return;
+		}
+		final Map.Entry<String, Object> migrated = schema.migrate(version, key, parsed.get(key));
+		if (migrated == null)
+			return;
+		final String toWrite = format(migrated.getKey(), migrated.getValue());
+		if (toWrite == null)
+			throw new IllegalArgumentException("Migration of key \"" + key + "\" returned an unsupported value type: "
+					+ migrated.getValue().getClass().getName());
+		writer.write(toWrite);
+	}
+
+	/*
+	 * Record streaming
+	 */
+
+	// Files written without a checked codec can be read line by line.
+	private boolean isStreamable() throws IOException {
+		return !codec.isChecked() && !StorageCodec.isEncoded(file);
+	}
+
+	@NotNull
+	private BufferedReader openReader(boolean stream) throws IOException {
+		return openReader(stream ? null : codec.read(file));
+	}
+
+	// Reads the file itself if decoded is null.
+	@NotNull
+	private BufferedReader openReader(@Nullable byte[] decoded) throws IOException {
+		if (decoded == null)
+			return Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8);
+		return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(decoded), StandardCharsets.UTF_8));
+	}
+
+	// Reads every entry of the file one by one, without loading the whole file.
+	void forEachRecord(@NotNull BiConsumer<String, Object> action) throws IOException {
+		final Map<String, Object> record = new HashMap<>(2);
+		try (BufferedReader reader = openReader(isStreamable())) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				record.clear();
+				if (parseLine(record, line))
+					record.forEach(action);
+			}
+		}
+	}
+
+	// Formats an entry as a line of the file, empty for empty lists, null if the type isn't supported.
+	@Nullable
+	String format(@NotNull String key, @NotNull Object value) {
+		if (value instanceof final List<?> lst)
+			return lst.isEmpty() ? "" : toWrite(key, lst);
+		return toWrite(key, value);
+	}
+
+	@Nullable
+	private static String getKey(String line) {
+		final int separatorIndex = line.indexOf(':');
+		if (separatorIndex == -1)
+			return null;
+		return line.charAt(0) == '*' ? line.substring(2, separatorIndex) : line.substring(1, separatorIndex);
+	}
+
+	private static int parseVersion(String line) {
+		if (line.charAt(0) != 'I')
+			return 0;
+		try {
+			return Integer.parseInt(line.substring(line.indexOf(':') + 1));
+		} catch (NumberFormatException ex) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Migrates every {@link FlatStorage} file (Files with the ".mcufs" extension) inside of
+	 * the specified {@code directory} in parallel, see {@link StorageSchema#migrateAll(java.util.Collection, java.util.function.Predicate)}.
+	 * Files that are already up to date are skipped after reading their first line, so calling
+	 * this method again after an interruption resumes the migration.
+	 *
+	 * @param directory The directory that contains the files to migrate, subdirectories are ignored.
+	 * @param schema The {@link StorageSchema} to migrate to.
+	 * @param codec The {@link StorageCodec} used to write migrated files.
+	 *
+	 * @return A {@link List} with every file that failed to migrate, empty if none failed.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static List<File> migrateDirectory(@NotNull File directory, @NotNull StorageSchema schema, @NotNull StorageCodec codec) {
+		final File[] files = directory.listFiles((dir, name) -> name.endsWith(".mcufs"));
+		if (files == null)
+			return new ArrayList<>();
+		return schema.migrateAll(Arrays.asList(files), file -> new FlatStorage(file, codec).migrate(schema));
+	}
 }
@@ -0,0 +1,113 @@
+package net.codersky.mcutils.storage.files;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of fixed size pages of a {@link FileChannel},
+ * used by {@link EmbeddedStorage} to keep memory usage bounded no
+ * matter the size of the file.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+class PageCache {
+
+	static final int PAGE_SIZE = 4096;
+	// Values bigger than this are read directly so they don't evict the whole cache.
+	private static final int MAX_CACHED_READ = PAGE_SIZE * 4;
+
+	private final int maxPages;
+	private final LinkedHashMap<Long, byte[]> pages;
+
+	PageCache(int maxPages) {
+		if (maxPages < 1)
+			throw new IllegalArgumentException("Page cache must have at least one page");
+		this.maxPages = maxPages;
+		this.pages = new LinkedHashMap<>(Math.min(maxPages, 1024), 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+				return size() > PageCache.this.maxPages;
+			}
+		};
+	}
+
+	int getMaxPages() {
+		return maxPages;
+	}
+
+	synchronized int size() {
+		return pages.size();
+	}
+
+	byte[] read(@NotNull FileChannel channel, long offset, int length) throws IOException {
+		final byte[] result = new byte[length];
+		if (length > MAX_CACHED_READ) {
+			readFully(channel, ByteBuffer.wrap(result), offset);
+			return result;
+		}
+		int copied = 0;
+		while (copied < length) {
+			final long position = offset + copied;
+			final long index = position / PAGE_SIZE;
+			final int pageOffset = (int) (position % PAGE_SIZE);
+			final byte[] page = getPage(channel, index);
+			final int amount = Math.min(length - copied, page.length - pageOffset);
+			if (amount <= 0)
+				throw new EOFException("Read past the end of the file at " + position);
+			System.arraycopy(page, pageOffset, result, copied, amount);
+			copied += amount;
+		}
+		return result;
+	}
+
+	private byte[] getPage(FileChannel channel, long index) throws IOException {
+		synchronized (this) {
+			final byte[] page = pages.get(index);
+			if (page != null)
+				return page;
+		}
+		final ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+		final long start = index * PAGE_SIZE;
+		while (buffer.hasRemaining()) {
+			final int read = channel.read(buffer, start + buffer.position());
+			if (read == -1)
+				break;
+		}
+		final byte[] page = buffer.position() == PAGE_SIZE ? buffer.array() : Arrays.copyOf(buffer.array(), buffer.position());
+		synchronized (this) {
+			pages.put(index, page);
+		}
+		return page;
+	}
+
+	/**
+	 * Invalidates the page containing {@code offset}. As files are
+	 * only appended to, this must be called with the previous end of
+	 * the file after appending data, as its last page may be cached
+	 * while incomplete.
+	 */
+	synchronized void invalidate(long offset) {
+		pages.remove(offset / PAGE_SIZE);
+	}
+
+	synchronized void clear() {
+		pages.clear();
+	}
+
+	static void readFully(@NotNull FileChannel channel, @NotNull ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			final int read = channel.read(buffer, position + buffer.position());
+			if (read == -1)
+				throw new EOFException("Read past the end of the file at " + (position + buffer.position()));
+		}
+	}
+}
@@ -0,0 +1,410 @@
+package net.codersky.mcutils.storage.files;
+
+import net.codersky.mcutils.general.PerformanceTest;
+import net.codersky.mcutils.storage.files.yaml.YamlConfig;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encoding used to store the data of file based storages such as
+ * {@link FlatStorage} and {@link YamlConfig} on disk. Every codec
+ * except {@link #NONE} appends a small footer to the file with a
+ * CRC32C checksum, verified every time the file is read, so truncated
+ * or otherwise corrupted files are detected instead of silently loading
+ * partial data. Those codecs also keep a copy of the last good version of
+ * the file (With a ".bak" suffix) that is used whenever the checksum doesn't
+ * match.
+ * <p>
+ * Files are self describing, meaning that any file written with any codec
+ * can be read no matter the codec currently selected, so switching codecs
+ * only requires saving the file again. Files without a footer are read
+ * as {@link #NONE}.
+ * <p>
+ * Only classes from {@code java.util.zip} are used, so no additional
+ * dependencies are required.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public enum StorageCodec {
+
+	/**
+	 * Stores data as is, without footer, checksum nor backup.
+	 * This is the legacy format and the default codec.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	NONE(0, -1),
+	/**
+	 * Stores data uncompressed, but with a checksum footer and backup.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	PLAIN(1, -1),
+	/**
+	 * Compresses data with {@link Deflater#BEST_SPEED}, favouring save and load
+	 * speed over size, similar to what LZ4 would offer. This is usually the best
+	 * choice for data that is saved often, such as player data.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	FAST(2, Deflater.BEST_SPEED),
+	/**
+	 * Compresses data with {@link Deflater#BEST_COMPRESSION}, favouring
+	 * size over speed. Useful for big files that are rarely saved.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	DEFLATE(3, Deflater.BEST_COMPRESSION);
+
+	// Footer: codec id (1 byte), uncompressed length, CRC32C of the stored payload and magic number.
+	private static final int FOOTER_LENGTH = 13;
+	private static final int MAGIC = 0x4D435500; // "MCU\0", a null byte won't appear at the end of a text file.
+
+	private final byte id;
+	private final int level;
+
+	StorageCodec(int id, int level) {
+		this.id = (byte) id;
+		this.level = level;
+	}
+
+	/**
+	 * Checks whether this codec adds a checksum footer to the data it encodes,
+	 * which is true for every codec except {@link #NONE}.
+	 *
+	 * @return {@code true} if this codec is checked, {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public boolean isChecked() {
+		return this != NONE;
+	}
+
+	@Nullable
+	private static StorageCodec byId(byte id) {
+		for (StorageCodec codec : values())
+			if (codec.id == id)
+				return codec;
+		return null;
+	}
+
+	/**
+	 * Gets the backup {@link File} used by checked codecs for the specified {@code file}.
+	 *
+	 * @param file The {@link File} to get the backup for.
+	 *
+	 * @return The backup {@link File} of {@code file}, which may not exist.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static File getBackup(@NotNull File file) {
+		return new File(file.getPath() + ".bak");
+	}
+
+	/*
+	 * Encoding
+	 */
+
+	/**
+	 * Encodes the specified {@code data} with this codec, adding
+	 * the checksum footer if this codec {@link #isChecked() is checked}.
+	 *
+	 * @param data The data to encode.
+	 *
+	 * @return The encoded data, which will be {@code data} itself for {@link #NONE}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public byte[] encode(byte[] data) {
+		if (this == NONE)
+			return data;
+		final byte[] payload = level == -1 ? data : deflate(data, level);
+		final CRC32C crc = new CRC32C();
+		crc.update(payload);
+		return ByteBuffer.allocate(payload.length + FOOTER_LENGTH)
+				.put(payload)
+				.put(id)
+				.putInt(data.length)
+				.putInt((int) crc.getValue())
+				.putInt(MAGIC)
+				.array();
+	}
+
+	private static byte[] deflate(byte[] data, int level) {
+		final Deflater deflater = new Deflater(level, true);
+		try {
+			deflater.setInput(data);
+			deflater.finish();
+			final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+			final byte[] buffer = new byte[8192];
+			while (!deflater.finished())
+				out.write(buffer, 0, deflater.deflate(buffer));
+			return out.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Decodes data previously {@link #encode(byte[]) encoded} by any codec, verifying
+	 * its checksum. Data without a footer is returned as is, as if it was encoded
+	 * with {@link #NONE}.
+	 *
+	 * @param raw The data to decode.
+	 * @param requireChecksum Whether to reject data without a footer.
+	 *
+	 * @return The decoded data.
+	 *
+	 * @throws IOException if the checksum doesn't match, the data is malformed or
+	 * {@code requireChecksum} is {@code true} and {@code raw} has no footer.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public static byte[] decode(byte[] raw, boolean requireChecksum) throws IOException {
+		if (!hasFooter(raw)) {
+			if (requireChecksum)
+				throw new IOException("Missing checksum footer, data may be truncated");
+			return raw;
+		}
+		final ByteBuffer footer = ByteBuffer.wrap(raw, raw.length - FOOTER_LENGTH, FOOTER_LENGTH);
+		final StorageCodec codec = byId(footer.get());
+		final int length = footer.getInt();
+		final int checksum = footer.getInt();
+		final int payloadLength = raw.length - FOOTER_LENGTH;
+		if (codec == null || codec == NONE || length < 0)
+			throw new IOException("Malformed footer");
+		final CRC32C crc = new CRC32C();
+		crc.update(raw, 0, payloadLength);
+		if ((int) crc.getValue() != checksum)
+			throw new IOException("Checksum mismatch");
+		if (codec.level == -1)
+			return Arrays.copyOf(raw, payloadLength);
+		return inflate(raw, payloadLength, length);
+	}
+
+	private static boolean hasFooter(byte[] raw) {
+		return raw.length >= FOOTER_LENGTH && ByteBuffer.wrap(raw, raw.length - 4, 4).getInt() == MAGIC;
+	}
+
+	private static boolean isValid(byte[] raw) {
+		try {
+			if (!hasFooter(raw))
+				return false;
+			final ByteBuffer footer = ByteBuffer.wrap(raw, raw.length - FOOTER_LENGTH + 5, 4);
+			final CRC32C crc = new CRC32C();
+			crc.update(raw, 0, raw.length - FOOTER_LENGTH);
+			return (int) crc.getValue() == footer.getInt();
+		} catch (RuntimeException ex) {
+			return false;
+		}
+	}
+
+	private static byte[] inflate(byte[] raw, int payloadLength, int length) throws IOException {
+		final Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(raw, 0, payloadLength);
+			final byte[] data = new byte[length];
+			int read = 0;
+			while (read < length && !inflater.finished()) {
+				final int n = inflater.inflate(data, read, length - read);
+				if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+					break;
+				read += n;
+			}
+			if (read != length)
+				throw new IOException("Unexpected uncompressed length " + read + ", expected " + length);
+			return data;
+		} catch (DataFormatException ex) {
+			throw new IOException("Malformed compressed data", ex);
+		} finally {
+			inflater.end();
+		}
+	}
+
+	/*
+	 * File I/O
+	 */
+
+	/**
+	 * {@link #encode(byte[]) Encodes} and writes {@code data} to the specified {@code file}.
+	 * Data is first written to a temporary file that then replaces {@code file}, so
+	 * {@code file} is never left half written. For {@link #isChecked() checked} codecs,
+	 * the previous version of {@code file} becomes its {@link #getBackup(File) backup},
+	 * but only if its checksum is still valid.
+	 *
+	 * @param file The {@link File} to write to.
+	 * @param data The data to write.
+	 *
+	 * @throws IOException if any I/O error occurs.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public void write(@NotNull File file, byte[] data) throws IOException {
+		final Path path = file.toPath();
+		final Path tmp = path.resolveSibling(file.getName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			final ByteBuffer buffer = ByteBuffer.wrap(encode(data));
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+			channel.force(true);
+		}
+		if (isChecked() && Files.exists(path) && isValid(Files.readAllBytes(path)))
+			move(path, getBackup(file).toPath());
+		move(tmp, path);
+	}
+
+	static void move(Path from, Path to) throws IOException {
+		try {
+			Files.move(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException ex) {
+			Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	// Checks the footer without reading the whole file, so legacy files can be streamed.
+	static boolean isEncoded(@NotNull File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			final long size = channel.size();
+			if (size < FOOTER_LENGTH)
+				return false;
+			final ByteBuffer magic = ByteBuffer.allocate(4);
+			while (magic.hasRemaining())
+				if (channel.read(magic, size - 4 + magic.position()) == -1)
+					return false;
+			return magic.getInt(0) == MAGIC;
+		}
+	}
+
+	/**
+	 * Reads and {@link #decode(byte[], boolean) decodes} the specified {@code file}.
+	 * If {@code file} is corrupted and has a {@link #getBackup(File) backup}, the
+	 * backup will be read instead, printing a warning. The corrupted file is kept
+	 * as is until the next save so it can be inspected.
+	 * <p>
+	 * Once a backup exists, files written with a {@link #isChecked() checked} codec
+	 * are expected to have a footer, so a missing footer is considered corruption.
+	 * Otherwise, files without footer are read as {@link #NONE}, which allows
+	 * switching legacy files to a checked codec.
+	 *
+	 * @param file The {@link File} to read.
+	 *
+	 * @return The decoded contents of {@code file}, or its backup.
+	 *
+	 * @throws IOException if both {@code file} and its backup (If any)
+	 * are corrupted or can't be read.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public byte[] read(@NotNull File file) throws IOException {
+		final File backup = getBackup(file);
+		final boolean hasBackup = backup.exists();
+		try {
+			return decode(Files.readAllBytes(file.toPath()), isChecked() && hasBackup);
+		} catch (IOException ex) {
+			if (!hasBackup)
+				throw new IOException("Failed to read " + file.getPath() + ": " + ex.getMessage(), ex);
+			System.err.println("Failed to read " + file.getPath() + " (" + ex.getMessage() + "), using last good backup " + backup.getPath());
+			return decode(Files.readAllBytes(backup.toPath()), true);
+		}
+	}
+
+	/*
+	 * Benchmarking
+	 */
+
+	/**
+	 * Creates a {@link PerformanceTest} that encodes and decodes {@code sample} with every
+	 * codec, which is useful to choose the right codec for the data of a storage, for example,
+	 * {@code StorageCodec.benchmark(Files.readAllBytes(file.toPath()), 1000).run(System.out, 5)}.
+	 * The name of every test includes the size of {@code sample} once encoded with its codec.
+	 *
+	 * @param sample The data to encode and decode, ideally the contents of a real file.
+	 * @param amount The amount of times to encode and decode {@code sample} per execution.
+	 *
+	 * @return A new {@link PerformanceTest}, ready to {@link PerformanceTest#run(java.io.PrintStream, int) run}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static PerformanceTest benchmark(byte[] sample, long amount) {
+		return benchmark(sample, amount, null);
+	}
+
+	/**
+	 * Creates a {@link PerformanceTest} that encodes and decodes {@code sample} with every
+	 * codec, and, if {@code directory} isn't {@code null}, also {@link #write(File, byte[]) saves}
+	 * and {@link #read(File) loads} it on a file of said directory, which includes the atomic
+	 * replacement, the fsync and the backup of checked codecs, so it reflects the real cost
+	 * of saving and loading a storage on that disk. Files created by the test, named
+	 * "mcutils-benchmark-" followed by the name of the codec, are deleted when the JVM exits.
+	 *
+	 * @param sample The data to encode and decode, ideally the contents of a real file.
+	 * @param amount The amount of times to run every test per execution. Keep in mind that
+	 * file tests are much slower than in-memory ones, as every save waits for the disk.
+	 * @param directory The directory to save and load files on, {@code null} to only
+	 * measure encoding and decoding.
+	 *
+	 * @return A new {@link PerformanceTest}, ready to {@link PerformanceTest#run(java.io.PrintStream, int) run}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static PerformanceTest benchmark(byte[] sample, long amount, @Nullable File directory) {
+		final PerformanceTest test = new PerformanceTest(amount, 50);
+		for (StorageCodec codec : values()) {
+			final byte[] encoded = codec.encode(sample);
+			final String name = codec + " (" + encoded.length + " bytes)";
+			test.addTest(name + " encode", () -> codec.encode(sample));
+			test.addTest(name + " decode", () -> {
+				try {
+					decode(encoded, false);
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			});
+			if (directory != null)
+				addFileTests(test, codec, name, sample, new File(directory, "mcutils-benchmark-" + codec.name().toLowerCase()));
+		}
+		return test;
+	}
+
+	private static void addFileTests(@NotNull PerformanceTest test, @NotNull StorageCodec codec, @NotNull String name,
+	                                 byte[] sample, @NotNull File file) {
+		for (File created : new File[] {file, getBackup(file), new File(file.getPath() + ".tmp")})
+			created.deleteOnExit();
+		test.addTest(name + " save", () -> {
+			try {
+				codec.write(file, sample);
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		});
+		test.addTest(name + " load", () -> {
+			try {
+				codec.read(file);
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		});
+	}
+}
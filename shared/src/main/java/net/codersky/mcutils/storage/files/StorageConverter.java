@@ -0,0 +1,476 @@
+package net.codersky.mcutils.storage.files;
+
+import net.codersky.mcutils.storage.Config;
+import net.codersky.mcutils.storage.files.yaml.YamlConfig;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Utility class used to convert data between the different file based
+ * {@link Config} formats supported by MCUtils, see {@link Format}. Entries are
+ * streamed from the source file to the target file one by one, so no full
+ * copy of the data is built in memory. The only exception to this is YAML,
+ * which can only be written entry by entry, as YAML sources must be fully
+ * parsed by SnakeYAML.
+ * <p>
+ * Every conversion is verified by comparing the {@link #checksum(File) checksum}
+ * of the source with the checksum of the converted file, which only depends on
+ * the entries and not on their order or the format they are stored in. The
+ * converted file is written to a temporary file first, and only replaces the
+ * target once verified, so failed conversions never leave broken files behind.
+ * <p>
+ * Whole directories can be converted in parallel with
+ * {@link #convertDirectory(File, File, Format, Listener)}.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class StorageConverter {
+
+	/**
+	 * File formats supported by the {@link StorageConverter}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public enum Format {
+
+		/**
+		 * {@link FlatStorage} files, with the ".mcufs" extension.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		FLAT(".mcufs"),
+		/**
+		 * {@link YamlConfig} files, with the ".yml" extension. Nested sections
+		 * are read as dot separated keys, the same way {@link Config} keys are
+		 * accessed. As YAML doesn't distinguish every type, characters and
+		 * {@link UUID UUIDs} are stored as strings, and numbers may change
+		 * their type, for example, from {@link Long} to {@link Integer}.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		YAML(".yml"),
+		/**
+		 * {@link EmbeddedStorage} files, with the ".mcudb" extension.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		EMBEDDED(".mcudb");
+
+		private final String extension;
+
+		Format(String extension) {
+			this.extension = extension;
+		}
+
+		@NotNull
+		public String getExtension() {
+			return extension;
+		}
+
+		/**
+		 * Gets the {@link Format} of a {@link File} by its extension.
+		 *
+		 * @param file The {@link File} to check.
+		 *
+		 * @return The {@link Format} of {@code file}, {@code null} if its extension isn't supported.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		@Nullable
+		public static Format of(@NotNull File file) {
+			final String name = file.getName();
+			for (Format format : values())
+				if (name.endsWith(format.extension))
+					return format;
+			return name.endsWith(".yaml") ? YAML : null;
+		}
+	}
+
+	/**
+	 * Listener notified every time a file finishes converting
+	 * on {@link #convertDirectory(File, File, Format, Listener)}.
+	 * This may be called from any thread.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@FunctionalInterface
+	public interface Listener {
+
+		/**
+		 * Called when a file finishes converting.
+		 *
+		 * @param source The source {@link File}.
+		 * @param success Whether the conversion succeeded and was verified.
+		 * @param done The amount of files processed so far, including this one.
+		 * @param total The total amount of files to process.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		void onConverted(@NotNull File source, boolean success, int done, int total);
+	}
+
+	/*
+	 * Single file conversion
+	 */
+
+	/**
+	 * Converts {@code source} to {@code target}, detecting the {@link Format}
+	 * of both files by their extension. If {@code target} exists, it will
+	 * be replaced, but only if the conversion succeeds.
+	 *
+	 * @param source The {@link File} to convert.
+	 * @param target The {@link File} to convert to.
+	 *
+	 * @return The amount of entries converted.
+	 *
+	 * @throws IOException if any I/O error occurs, the format of either file isn't
+	 * supported or the converted file doesn't match the source.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public static int convert(@NotNull File source, @NotNull File target) throws IOException {
+		final Format from = Format.of(source);
+		final Format to = Format.of(target);
+		if (from == null || to == null)
+			throw new IOException("Unsupported conversion from " + source.getName() + " to " + target.getName());
+		return convert(source, from, target, to);
+	}
+
+	private static int convert(@NotNull File source, @NotNull Format from, @NotNull File target, @NotNull Format to) throws IOException {
+		final File tmp = new File(target.getAbsoluteFile().getParentFile(), "." + target.getName() + ".tmp" + to.extension);
+		tmp.getParentFile().mkdirs();
+		Files.deleteIfExists(tmp.toPath());
+		final Checksum expected = new Checksum();
+		try {
+			try (RecordSink sink = openSink(tmp, to)) {
+				forEach(source, from, (key, value) -> {
+					expected.add(key, value);
+					sink.accept(key, value);
+				});
+			}
+			final Checksum actual = new Checksum();
+			forEach(tmp, to, actual::add);
+			if (!expected.equals(actual))
+				throw new IOException("Checksum mismatch converting " + source.getPath() + ", expected " + expected + " but got " + actual);
+			StorageCodec.move(tmp.toPath(), target.toPath());
+			return expected.count;
+		} catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		} finally {
+			Files.deleteIfExists(tmp.toPath());
+		}
+	}
+
+	/**
+	 * Computes a checksum of the entries of {@code file} that doesn't depend on
+	 * their order nor on the {@link Format} of the file, only on their keys
+	 * and the text representation of their values. Empty lists are ignored,
+	 * as not every format stores them.
+	 *
+	 * @param file The {@link File} to compute the checksum of.
+	 *
+	 * @return The checksum of the entries of {@code file}.
+	 *
+	 * @throws IOException if any I/O error occurs or the format of {@code file} isn't supported.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public static long checksum(@NotNull File file) throws IOException {
+		final Format format = Format.of(file);
+		if (format == null)
+			throw new IOException("Unsupported format: " + file.getName());
+		final Checksum checksum = new Checksum();
+		forEach(file, format, checksum::add);
+		return checksum.value();
+	}
+
+	/*
+	 * Directory conversion
+	 */
+
+	/**
+	 * Converts every supported file inside {@code sourceDirectory} to the specified
+	 * {@link Format}, writing the converted files to {@code targetDirectory} with the
+	 * same name and the new extension. Files are converted in parallel on a
+	 * {@link ForkJoinPool} bounded by the amount of available processors.
+	 *
+	 * @param sourceDirectory The directory with the files to convert, subdirectories are ignored.
+	 * @param targetDirectory The directory to write the converted files to, may be the same directory.
+	 * @param to The {@link Format} to convert to.
+	 * @param listener The {@link Listener} to notify as files are converted, can be {@code null}.
+	 *
+	 * @return A {@link List} with every file that failed to convert, empty if none failed.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static List<File> convertDirectory(@NotNull File sourceDirectory, @NotNull File targetDirectory, @NotNull Format to, @Nullable Listener listener) {
+		Objects.requireNonNull(to);
+		final File[] found = sourceDirectory.listFiles(file -> file.isFile() && !file.getName().startsWith(".") && Format.of(file) != null && Format.of(file) != to);
+		if (found == null || found.length == 0)
+			return new ArrayList<>();
+		targetDirectory.mkdirs();
+		final List<File> failed = Collections.synchronizedList(new ArrayList<>());
+		final AtomicInteger done = new AtomicInteger();
+		final ForkJoinPool pool = new ForkJoinPool(Math.min(found.length, Math.max(2, Runtime.getRuntime().availableProcessors())));
+		try {
+			pool.invoke(new ConvertTask(found, 0, found.length, file -> {
+				boolean success;
+				try {
+					final String name = file.getName();
+					final String base = name.substring(0, name.length() - Objects.requireNonNull(Format.of(file)).extension.length());
+					convert(file, new File(targetDirectory, base + to.extension));
+					success = true;
+				} catch (IOException | RuntimeException ex) {
+					System.err.println("Failed to convert " + file.getPath() + ": " + ex.getMessage());
+					failed.add(file);
+					success = false;
+				}
+				if (listener != null)
+					listener.onConverted(file, success, done.incrementAndGet(), found.length);
+			}));
+		} finally {
+			pool.shutdown();
+		}
+		return new ArrayList<>(failed);
+	}
+
+	private static class ConvertTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final File[] files;
+		private final int from, to;
+		private final transient Consumer<File> action;
+
+		ConvertTask(File[] files, int from, int to, Consumer<File> action) {
+			this.files = files;
+			this.from = from;
+			this.to = to;
+			this.action = action;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				action.accept(files[from]);
+				return;
+			}
+			final int mid = (from + to) >>> 1;
+			invokeAll(new ConvertTask(files, from, mid, action), new ConvertTask(files, mid, to, action));
+		}
+	}
+
+	/*
+	 * Record sources
+	 */
+
+	private static void forEach(@NotNull File file, @NotNull Format format, @NotNull BiConsumer<String, Object> action) throws IOException {
+		switch (format) {
+		case FLAT -> new FlatStorage(file).forEachRecord(action);
+		case YAML -> {
+			final Map<String, Object> loaded;
+			try (InputStream in = new ByteArrayInputStream(StorageCodec.NONE.read(file))) {
+				loaded = new Yaml().load(in);
+			}
+			if (loaded != null)
+				flatten("", loaded, action);
+		}
+		case EMBEDDED -> {
+			try (EmbeddedStorage storage = new EmbeddedStorage(file)) {
+				if (!storage.reload())
+					throw new IOException("Failed to load " + file.getPath());
+				storage.scan("", null, action);
+			}
+		}
+		}
+	}
+
+	private static void flatten(String prefix, Map<?, ?> map, BiConsumer<String, Object> action) {
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			final String key = prefix + entry.getKey();
+			if (entry.getValue() instanceof Map<?, ?> section)
+				flatten(key + '.', section, action);
+			else if (entry.getValue() != null)
+				action.accept(key, entry.getValue());
+		}
+	}
+
+	/*
+	 * Record sinks
+	 */
+
+	@NotNull
+	private static RecordSink openSink(@NotNull File file, @NotNull Format format) throws IOException {
+		return switch (format) {
+		case FLAT -> {
+			final FlatStorage storage = new FlatStorage(file);
+			final BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+			yield new RecordSink() {
+				@Override
+				void write(String key, Object value) throws IOException {
+					final String line = storage.format(key, value);
+					if (line == null)
+						throw new IOException("Unsupported value of type " + value.getClass().getName() + " at " + key);
+					writer.write(line);
+				}
+
+				@Override
+				public void close() throws IOException {
+					writer.close();
+				}
+			};
+		}
+		case YAML -> {
+			final DumperOptions options = new DumperOptions();
+			options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+			final Yaml yaml = new Yaml(options);
+			final BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+			final Map<String, Object> entry = new LinkedHashMap<>(2);
+			yield new RecordSink() {
+				@Override
+				void write(String key, Object value) throws IOException {
+					if (value instanceof List<?> lst && lst.isEmpty())
+						return;
+					entry.clear();
+					entry.put(key, toYaml(value));
+					yaml.dump(entry, writer);
+				}
+
+				@Override
+				public void close() throws IOException {
+					writer.close();
+				}
+			};
+		}
+		case EMBEDDED -> {
+			final EmbeddedStorage storage = new EmbeddedStorage(file);
+			if (!storage.reload())
+				throw new IOException("Failed to create " + file.getPath());
+			yield new RecordSink() {
+				@Override
+				void write(String key, Object value) {
+					storage.set(key, value);
+				}
+
+				@Override
+				public void close() {
+					storage.close();
+				}
+			};
+		}
+		};
+	}
+
+	// YAML has no character nor UUID types.
+	private static Object toYaml(Object value) {
+		if (value instanceof Character || value instanceof UUID)
+			return value.toString();
+		if (value instanceof List<?> lst) {
+			final List<Object> converted = new ArrayList<>(lst.size());
+			for (Object element : lst)
+				converted.add(toYaml(element));
+			return converted;
+		}
+		return value;
+	}
+
+	private static abstract class RecordSink implements AutoCloseable {
+
+		// Sources use BiConsumer, so checked exceptions are wrapped.
+		void accept(String key, Object value) {
+			try {
+				write(key, value);
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+		abstract void write(String key, Object value) throws IOException;
+
+		@Override
+		public abstract void close() throws IOException;
+	}
+
+	/*
+	 * Checksums
+	 */
+
+	// Order independent checksum, the sum of a mixed CRC32C of every entry.
+	private static class Checksum {
+
+		private final CRC32C crc = new CRC32C();
+		private long sum = 0;
+		private int count = 0;
+
+		void add(String key, Object value) {
+			if (value instanceof List<?> lst && lst.isEmpty())
+				return;
+			crc.reset();
+			crc.update(key.getBytes(StandardCharsets.UTF_8));
+			crc.update(0);
+			crc.update(canonical(value).getBytes(StandardCharsets.UTF_8));
+			sum += mix(crc.getValue());
+			count++;
+		}
+
+		private static String canonical(Object value) {
+			if (!(value instanceof List<?> lst))
+				return String.valueOf(value);
+			final StringBuilder builder = new StringBuilder().append(lst.size()).append('[');
+			for (Object element : lst)
+				builder.append(canonical(element).length()).append(':').append(canonical(element));
+			return builder.append(']').toString();
+		}
+
+		private static long mix(long value) {
+			value *= 0x9E3779B97F4A7C15L;
+			return value ^ (value >>> 29);
+		}
+
+		long value() {
+			return sum * 31 + count;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Checksum other && other.sum == sum && other.count == count;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(value());
+		}
+
+		@Override
+		public String toString() {
+			return count + " entries (" + Long.toHexString(sum) + ")";
+		}
+	}
+}
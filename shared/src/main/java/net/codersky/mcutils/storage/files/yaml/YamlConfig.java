@@ -1,36 +1,44 @@
 package net.codersky.mcutils.storage.files.yaml;
 
+import net.codersky.mcutils.SnapshotReloadable;
 import net.codersky.mcutils.storage.Config;
 import net.codersky.mcutils.Reloadable;
 import net.codersky.mcutils.java.MCCollections;
 import net.codersky.mcutils.java.MCFiles;
+import net.codersky.mcutils.storage.files.FileReloadable;
+import net.codersky.mcutils.storage.files.StorageCodec;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Predicate;
 
-public class YamlConfig extends Config implements Reloadable {
+public class YamlConfig extends Config implements Reloadable, SnapshotReloadable<Map<String, Object>>, FileReloadable {
 
 	private final File file;
 	private final Yaml yaml;
+	private volatile StorageCodec codec;
 
-	public YamlConfig(String path) {
+	public YamlConfig(@NotNull String path, @NotNull StorageCodec codec) {
 		final DumperOptions dumperOptions = new DumperOptions();
 		dumperOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.FLOW);
 		this.yaml = new Yaml(dumperOptions);
 		this.file = new File(path);
+		this.codec = Objects.requireNonNull(codec);
+	}
+
+	public YamlConfig(String path) {
+		this(path, StorageCodec.NONE);
 	}
 
 	/*
@@ -46,6 +54,37 @@ public class YamlConfig extends Config implements Reloadable {
 		return file.exists();
 	}
 
+	/**
+	 * Gets the {@link StorageCodec} used to {@link #save() save} this {@link YamlConfig}.
+	 *
+	 * @return The {@link StorageCodec} used by this {@link YamlConfig}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public StorageCodec getCodec() {
+		return codec;
+	}
+
+	/**
+	 * Sets the {@link StorageCodec} used to {@link #save() save} this {@link YamlConfig}.
+	 * Keep in mind that any codec other than {@link StorageCodec#NONE} makes the file
+	 * no longer editable by hand, which may be fine for data, but not for configs.
+	 *
+	 * @param codec The new {@link StorageCodec} to use.
+	 *
+	 * @return This {@link YamlConfig}.
+	 *
+	 * @throws NullPointerException if {@code codec} is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public YamlConfig setCodec(@NotNull StorageCodec codec) {
+		this.codec = Objects.requireNonNull(codec);
+		return this;
+	}
+
 	/*
 	 * Reloadable implementation
 	 */
@@ -57,21 +96,37 @@ public class YamlConfig extends Config implements Reloadable {
 
 	@Override
 	public boolean reload() {
-		try {
-			clear();
-			this.keys.putAll(this.yaml.load(new FileInputStream(this.file)));
-			return true;
-		} catch (FileNotFoundException | SecurityException ex) {
-			return false;
+		return SnapshotReloadable.super.reload();
+	}
+
+	@Nullable
+	@Override
+	public Map<String, Object> loadSnapshot() {
+		try (InputStream in = new ByteArrayInputStream(codec.read(this.file))) {
+			final Map<String, Object> loaded;
+			// Yaml instances aren't thread safe, and this may be called asynchronously.
+			synchronized (yaml) {
+				loaded = yaml.load(in);
+			}
+			return loaded == null ? new HashMap<>() : loaded;
+		} catch (IOException | SecurityException ex) {
+			return null;
 		}
 	}
 
+	@Override
+	public void applySnapshot(@NotNull Map<String, Object> snapshot) {
+		replaceEntries(snapshot);
+	}
+
 	@Override
 	public boolean save() {
 		try {
-			Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8);
-			writer.write(yaml.dump(keys));
-			writer.close();
+			final String dumped;
+			synchronized (yaml) {
+				dumped = yaml.dump(getMap());
+			}
+			codec.write(file, dumped.getBytes(StandardCharsets.UTF_8));
 			return true;
 		} catch (IOException e) {
 			return false;
@@ -0,0 +1,547 @@
+package net.codersky.mcutils.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor owned by MCUtils that runs the asynchronous tasks of a {@link TaskScheduler},
+ * obtained from {@link TaskScheduler#getAsyncExecutor()}. Every task runs on its own
+ * virtual thread, so tasks can freely block on I/O, such as update checks, storage
+ * saves or HTTP requests, without holding a platform thread.
+ * <p>
+ * If virtual threads are not available, or are disabled with the
+ * {@code mcutils.async.virtualThreads} system property set to {@code false},
+ * tasks run on a bounded pool of platform threads instead, and tasks submitted
+ * while its queue is full are {@link #getRejected() rejected}.
+ * <p>
+ * Delayed and repeating tasks are timed by a single daemon thread that only hands
+ * them off when they are due, which is only started once a delayed task is scheduled.
+ * Every task is an {@link AsyncTask}, that can be {@link AsyncTask#cancel() cancelled}
+ * by interrupting it, and {@link #invokeAll(Collection)} and {@link #invokeAny(Collection)}
+ * allow running groups of tasks that succeed or fail together.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class AsyncExecutor {
+
+	private static final int POOL_QUEUE_CAPACITY = 16_384;
+
+	private final String name;
+	private final ExecutorService executor;
+	private final boolean virtual;
+	private volatile ScheduledThreadPoolExecutor timer = null;
+	private volatile boolean shutdown = false;
+	private final AtomicInteger queued = new AtomicInteger();
+	private final AtomicInteger active = new AtomicInteger();
+	private final AtomicLong completed = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong rejected = new AtomicLong();
+
+	/**
+	 * Creates a new {@link AsyncExecutor}. Threads are only created when tasks are
+	 * submitted, so creating an executor that is never used has almost no cost.
+	 *
+	 * @param name The name of this executor, used to name its threads.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public AsyncExecutor(@NotNull String name) {
+		this.name = Objects.requireNonNull(name, "name cannot be null");
+		final ThreadFactory factory = virtualThreadFactory(name);
+		this.virtual = factory != null;
+		this.executor = virtual ? Executors.newThreadPerTaskExecutor(factory) : newBoundedPool(name);
+	}
+
+	@Nullable
+	private static ThreadFactory virtualThreadFactory(@NotNull String name) {
+		if (!Boolean.parseBoolean(System.getProperty("mcutils.async.virtualThreads", "true")))
+			return null;
+		try {
+			return Thread.ofVirtual().name(name + " #", 0).factory();
+		} catch (UnsupportedOperationException ex) {
+			return null;
+		}
+	}
+
+	@NotNull
+	private static ExecutorService newBoundedPool(@NotNull String name) {
+		final int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+		final AtomicInteger count = new AtomicInteger();
+		final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(POOL_QUEUE_CAPACITY), runnable -> {
+			final Thread thread = new Thread(runnable, name + " #" + count.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
+
+	@NotNull
+	private ScheduledThreadPoolExecutor getTimer() {
+		ScheduledThreadPoolExecutor result = timer;
+		if (result == null) {
+			synchronized (this) {
+				result = timer;
+				if (result == null) {
+					result = new ScheduledThreadPoolExecutor(1, runnable -> {
+						final Thread thread = new Thread(runnable, name + " timer");
+						thread.setDaemon(true);
+						return thread;
+					});
+					result.setRemoveOnCancelPolicy(true);
+					if (shutdown)
+						result.shutdown();
+					timer = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether this executor runs its tasks on virtual threads
+	 * or on a bounded pool of platform threads.
+	 *
+	 * @return {@code true} if tasks run on virtual threads, {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public boolean isVirtual() {
+		return virtual;
+	}
+
+	/*
+	 * Tasks
+	 */
+
+	/**
+	 * Runs {@code task} asynchronously. Exceptions thrown by {@code task} are printed.
+	 *
+	 * @param task The task to run.
+	 *
+	 * @return The {@link AsyncTask} of {@code task}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public AsyncTask<Void> run(@NotNull Runnable task) {
+		return submit(new AsyncTask<>(Executors.callable(Objects.requireNonNull(task), null), true, false));
+	}
+
+	/**
+	 * Calls {@code task} asynchronously. Exceptions thrown by {@code task} are
+	 * not printed, but can be obtained from the returned {@link AsyncTask}.
+	 *
+	 * @param task The task to call.
+	 *
+	 * @return The {@link AsyncTask} of {@code task}, which is also a {@link java.util.concurrent.Future Future}
+	 * of its result.
+	 *
+	 * @param <T> The type of result of {@code task}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public <T> AsyncTask<T> call(@NotNull Callable<T> task) {
+		return submit(new AsyncTask<>(Objects.requireNonNull(task), false, false));
+	}
+
+	/**
+	 * Runs {@code task} asynchronously after the specified delay.
+	 *
+	 * @param task The task to run.
+	 * @param delay The delay of the task.
+	 * @param unit The {@link TimeUnit} of {@code delay}.
+	 *
+	 * @return The {@link AsyncTask} of {@code task}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public AsyncTask<Void> schedule(@NotNull Runnable task, long delay, @NotNull TimeUnit unit) {
+		if (delay <= 0)
+			return run(task);
+		final AsyncTask<Void> scheduled = new AsyncTask<>(Executors.callable(Objects.requireNonNull(task), null), true, false);
+		return trigger(scheduled, () -> getTimer().schedule(() -> submit(scheduled), delay, unit));
+	}
+
+	/**
+	 * Repeatedly runs {@code task} asynchronously at a fixed rate, after an initial
+	 * delay. Runs that are due while the previous one is still running are skipped,
+	 * and the task stops repeating if it throws.
+	 *
+	 * @param task The task to run.
+	 * @param delay The initial delay of the task.
+	 * @param period The period between runs, values lower than one are treated as one.
+	 * @param unit The {@link TimeUnit} of {@code delay} and {@code period}.
+	 *
+	 * @return The {@link AsyncTask} of {@code task}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public AsyncTask<Void> scheduleAtFixedRate(@NotNull Runnable task, long delay, long period, @NotNull TimeUnit unit) {
+		final AsyncTask<Void> scheduled = new AsyncTask<>(Executors.callable(Objects.requireNonNull(task), null), true, true);
+		return trigger(scheduled, () -> getTimer().scheduleAtFixedRate(() -> {
+			if (!scheduled.pending)
+				submit(scheduled);
+		}, Math.max(0, delay), Math.max(1, period), unit));
+	}
+
+	@NotNull
+	private <T> AsyncTask<T> trigger(@NotNull AsyncTask<T> task, @NotNull Callable<ScheduledFuture<?>> trigger) {
+		try {
+			task.trigger = trigger.call();
+		} catch (Exception ex) {
+			reject(task, ex instanceof RejectedExecutionException rejection ? rejection
+					: new RejectedExecutionException("This executor has been shut down", ex));
+		}
+		// The task may have been cancelled before its trigger was assigned.
+		if (task.isCancelled())
+			task.cancelTrigger();
+		return task;
+	}
+
+	@NotNull
+	private <T> AsyncTask<T> submit(@NotNull AsyncTask<T> task) {
+		if (task.isDone())
+			return task;
+		task.pending = true;
+		queued.incrementAndGet();
+		try {
+			if (shutdown)
+				throw new RejectedExecutionException("This executor has been shut down");
+			executor.execute(task);
+		} catch (RejectedExecutionException ex) {
+			queued.decrementAndGet();
+			task.pending = false;
+			reject(task, ex);
+		}
+		return task;
+	}
+
+	private void reject(@NotNull AsyncTask<?> task, @NotNull RejectedExecutionException ex) {
+		rejected.incrementAndGet();
+		task.cancelTrigger();
+		task.setException(ex);
+	}
+
+	/*
+	 * Structured concurrency
+	 */
+
+	/**
+	 * Calls every task concurrently and waits for all of them to finish. If any
+	 * task fails, or the calling thread is interrupted, every task that is still
+	 * running is cancelled, so no task outlives the call to this method.
+	 *
+	 * @param tasks The tasks to call.
+	 *
+	 * @return The results of {@code tasks}, in the same order.
+	 *
+	 * @throws ExecutionException if any task throws, with the first exception thrown as its cause.
+	 * @throws InterruptedException if the calling thread is interrupted while waiting.
+	 *
+	 * @param <T> The type of result of the tasks.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public <T> List<T> invokeAll(@NotNull Collection<? extends Callable<? extends T>> tasks) throws ExecutionException, InterruptedException {
+		final BlockingQueue<AsyncTask<? extends T>> done = new LinkedBlockingQueue<>();
+		final List<AsyncTask<? extends T>> submitted = submitAll(tasks, done);
+		try {
+			for (int i = 0; i < submitted.size(); i++) {
+				final AsyncTask<? extends T> task = done.take();
+				if (task.isCancelled())
+					throw new ExecutionException("A task was cancelled", null);
+				task.get(); // Throws if the task failed
+			}
+			final List<T> results = new ArrayList<>(submitted.size());
+			for (AsyncTask<? extends T> task : submitted)
+				results.add(task.get());
+			return results;
+		} finally {
+			for (AsyncTask<? extends T> task : submitted)
+				task.cancel(true);
+		}
+	}
+
+	/**
+	 * Calls every task concurrently and returns the result of the first one to
+	 * succeed, cancelling every other task. If every task fails, the exception
+	 * of the last one to fail is thrown.
+	 *
+	 * @param tasks The tasks to call.
+	 *
+	 * @return The result of the first task to succeed.
+	 *
+	 * @throws ExecutionException if every task fails, with the last exception thrown as its cause.
+	 * @throws InterruptedException if the calling thread is interrupted while waiting.
+	 * @throws IllegalArgumentException if {@code tasks} is empty.
+	 *
+	 * @param <T> The type of result of the tasks.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public <T> T invokeAny(@NotNull Collection<? extends Callable<? extends T>> tasks) throws ExecutionException, InterruptedException {
+		if (tasks.isEmpty())
+			throw new IllegalArgumentException("tasks cannot be empty");
+		final BlockingQueue<AsyncTask<? extends T>> done = new LinkedBlockingQueue<>();
+		final List<AsyncTask<? extends T>> submitted = submitAll(tasks, done);
+		try {
+			ExecutionException last = null;
+			for (int i = 0; i < submitted.size(); i++) {
+				final AsyncTask<? extends T> task = done.take();
+				try {
+					return task.get();
+				} catch (ExecutionException ex) {
+					last = ex;
+				} catch (CancellationException ex) {
+					last = new ExecutionException("A task was cancelled", ex);
+				}
+			}
+			throw last;
+		} finally {
+			for (AsyncTask<? extends T> task : submitted)
+				task.cancel(true);
+		}
+	}
+
+	@NotNull
+	private <T> List<AsyncTask<? extends T>> submitAll(@NotNull Collection<? extends Callable<? extends T>> tasks,
+	                                                   @NotNull BlockingQueue<AsyncTask<? extends T>> done) {
+		final List<AsyncTask<? extends T>> submitted = new ArrayList<>(tasks.size());
+		for (Callable<? extends T> callable : tasks) {
+			final AsyncTask<? extends T> task = new AsyncTask<>(Objects.requireNonNull(callable), false, false);
+			task.completion = () -> done.add(task);
+			submitted.add(submit(task));
+		}
+		return submitted;
+	}
+
+	/*
+	 * Metrics
+	 */
+
+	/**
+	 * Gets the amount of tasks waiting to start. Delayed tasks
+	 * are only counted once their delay has passed.
+	 *
+	 * @return The amount of queued tasks.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int getQueued() {
+		return queued.get();
+	}
+
+	public int getActive() {
+		return active.get();
+	}
+
+	/**
+	 * Gets the amount of task runs that finished without throwing.
+	 * Every run of repeating tasks is counted.
+	 *
+	 * @return The amount of completed runs.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public long getCompleted() {
+		return completed.get();
+	}
+
+	public long getFailed() {
+		return failed.get();
+	}
+
+	/**
+	 * Gets the amount of tasks that were rejected, either because this
+	 * executor was shut down or because its bounded pool was full.
+	 *
+	 * @return The amount of rejected tasks.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public long getRejected() {
+		return rejected.get();
+	}
+
+	/*
+	 * Lifecycle
+	 */
+
+	public boolean isShutdown() {
+		return shutdown;
+	}
+
+	/**
+	 * Shuts down this executor, interrupting every running task and dropping
+	 * every delayed task. Tasks that were submitted but didn't start yet are
+	 * {@link AsyncTask#isCancelled() cancelled} without running, so nothing waits
+	 * on them forever. Tasks submitted after calling this method are rejected.
+	 * Platforms call this method when the plugin that owns this executor is disabled.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public void shutdown() {
+		final ScheduledThreadPoolExecutor timer;
+		synchronized (this) {
+			shutdown = true;
+			timer = this.timer;
+		}
+		if (timer != null)
+			timer.shutdownNow();
+		// Tasks that never started are dropped, so they are no longer queued. Virtual threads
+		// are started as soon as tasks are submitted, so those return nothing and drop themselves.
+		for (Runnable dropped : executor.shutdownNow())
+			if (dropped instanceof AsyncTask<?> task)
+				task.drop();
+	}
+
+	/**
+	 * {@link #shutdown() Shuts down} this executor once the specified grace period
+	 * passes. Until then, this executor keeps working as usual, so tasks submitted
+	 * while its owner is being disabled, for example, to save data, can still run.
+	 * Tasks that are still running once the grace period passes are interrupted.
+	 *
+	 * @param gracePeriod The grace period, values lower than one shut down this executor right away.
+	 * @param unit The {@link TimeUnit} of {@code gracePeriod}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public void shutdown(long gracePeriod, @NotNull TimeUnit unit) {
+		if (gracePeriod <= 0 || shutdown) {
+			shutdown();
+			return;
+		}
+		try {
+			getTimer().schedule((Runnable) this::shutdown, gracePeriod, unit);
+		} catch (RejectedExecutionException ex) {
+			shutdown(); // Shut down while the grace period was being scheduled
+		}
+	}
+
+	/**
+	 * An asynchronous task of an {@link AsyncExecutor}, which is both a {@link Task}
+	 * and a {@link java.util.concurrent.Future Future} of its result. Cancelling
+	 * it with {@link #cancel()} interrupts it if it is running.
+	 *
+	 * @param <T> The type of result of this task.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public final class AsyncTask<T> extends FutureTask<T> implements Task {
+
+		private final boolean report;
+		private final boolean repeating;
+		private volatile ScheduledFuture<?> trigger = null;
+		private volatile boolean pending = false;
+		private Runnable completion = null;
+
+		private AsyncTask(@NotNull Callable<T> callable, boolean report, boolean repeating) {
+			super(callable);
+			this.report = report;
+			this.repeating = repeating;
+		}
+
+		@Override
+		public void run() {
+			if (shutdown) {
+				drop();
+				return;
+			}
+			queued.decrementAndGet();
+			active.incrementAndGet();
+			try {
+				if (!repeating)
+					super.run();
+				else if (runAndReset())
+					completed.incrementAndGet();
+				else
+					cancelTrigger();
+			} finally {
+				active.decrementAndGet();
+				pending = false;
+			}
+		}
+
+		@Override
+		protected void set(T result) {
+			super.set(result);
+			completed.incrementAndGet();
+		}
+
+		@Override
+		protected void setException(Throwable error) {
+			super.setException(error);
+			// Tasks interrupted by a cancellation may still throw, but they aren't failures.
+			if (isCancelled() || error instanceof RejectedExecutionException)
+				return;
+			failed.incrementAndGet();
+			if (report)
+				error.printStackTrace();
+		}
+
+		@Override
+		protected void done() {
+			if (completion != null)
+				completion.run();
+		}
+
+		// Called instead of running the task if the executor shut down before it started.
+		private void drop() {
+			queued.decrementAndGet();
+			pending = false;
+			cancel(false);
+		}
+
+		private void cancelTrigger() {
+			final ScheduledFuture<?> trigger = this.trigger;
+			if (trigger != null)
+				trigger.cancel(false);
+		}
+
+		/**
+		 * Cancels this task, interrupting it if it is running.
+		 * Repeating tasks won't run again.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		@Override
+		public void cancel() {
+			cancel(true);
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			cancelTrigger();
+			return super.cancel(mayInterruptIfRunning);
+		}
+	}
+}
@@ -0,0 +1,368 @@
+package net.codersky.mcutils.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link Executor} that spreads many small jobs across ticks, running as many of them as
+ * fit on a time budget per tick, measured with {@link System#nanoTime()}. This is meant
+ * for bulk operations on the main thread, such as refreshing inventories for every
+ * viewer or changing thousands of blocks, that would otherwise cause a lag spike if
+ * done on a single tick.
+ * <p>
+ * Jobs run in order of {@link Priority}, and in submission order within the same
+ * priority. At least one job runs every tick, even if it takes longer than the budget,
+ * so the queue always makes progress. Every job gets a {@link CompletableFuture} that
+ * completes when it runs, and cancelling said future before the job runs skips it.
+ * <p>
+ * The queue has a limited capacity to provide back-pressure to producers. Jobs
+ * submitted while the queue is full are rejected by completing their future with a
+ * {@link RejectedExecutionException}, and producers can check {@link #isSaturated()}
+ * or {@link #getEstimatedTicks()} to slow down before that happens. The repeating
+ * task that drains the queue is only scheduled while there are jobs waiting.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @see TaskScheduler#newBudgetedExecutor(long, TimeUnit)
+ */
+public class BudgetedExecutor implements Executor {
+
+	/**
+	 * The default capacity of a {@link BudgetedExecutor}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public static final int DEFAULT_CAPACITY = 65_536;
+
+	private static final Priority[] PRIORITIES = Priority.values();
+
+	private final TaskScheduler scheduler;
+	private final long budget;
+	private final int capacity;
+	private final ArrayDeque<Job<?>>[] queues;
+	private int size = 0;
+	private Task driver = null;
+	private boolean shutdown = false;
+	// Statistics, only written by the thread that drains the queue.
+	private volatile long averageJobNanos = 0;
+	private volatile int lastTickJobs = 0;
+	private volatile long lastTickNanos = 0;
+
+	/**
+	 * Creates a new {@link BudgetedExecutor} with the {@link #DEFAULT_CAPACITY default capacity}.
+	 *
+	 * @param scheduler The {@link TaskScheduler} used to drain the queue every tick.
+	 * @param budget The maximum amount of time to spend on jobs every tick.
+	 * @param unit The {@link TimeUnit} of {@code budget}.
+	 *
+	 * @throws IllegalArgumentException if {@code budget} isn't positive.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public BudgetedExecutor(@NotNull TaskScheduler scheduler, long budget, @NotNull TimeUnit unit) {
+		this(scheduler, budget, unit, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a new {@link BudgetedExecutor}.
+	 *
+	 * @param scheduler The {@link TaskScheduler} used to drain the queue every tick.
+	 * @param budget The maximum amount of time to spend on jobs every tick.
+	 * @param unit The {@link TimeUnit} of {@code budget}.
+	 * @param capacity The maximum amount of jobs that can wait on the queue.
+	 *
+	 * @throws IllegalArgumentException if {@code budget} or {@code capacity} aren't positive.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@SuppressWarnings("unchecked")
+	public BudgetedExecutor(@NotNull TaskScheduler scheduler, long budget, @NotNull TimeUnit unit, int capacity) {
+		if (budget <= 0)
+			throw new IllegalArgumentException("budget must be positive");
+		if (capacity <= 0)
+			throw new IllegalArgumentException("capacity must be positive");
+		this.scheduler = Objects.requireNonNull(scheduler, "scheduler cannot be null");
+		this.budget = unit.toNanos(budget);
+		this.capacity = capacity;
+		this.queues = (ArrayDeque<Job<?>>[]) new ArrayDeque<?>[PRIORITIES.length];
+		for (int i = 0; i < queues.length; i++)
+			queues[i] = new ArrayDeque<>();
+	}
+
+	/*
+	 * Submission
+	 */
+
+	/**
+	 * Submits a job with {@link Priority#NORMAL normal} priority. The future of
+	 * the job can't be obtained, so exceptions thrown by it are printed instead,
+	 * the same way {@link SyncExecutor} does.
+	 *
+	 * @param job The job to run.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Override
+	public void execute(@NotNull Runnable job) {
+		submit(Priority.NORMAL, job).whenComplete((result, error) -> {
+			if (error != null && !(error instanceof CancellationException))
+				error.printStackTrace();
+		});
+	}
+
+	/**
+	 * Submits a job with {@link Priority#NORMAL normal} priority.
+	 *
+	 * @param job The job to run.
+	 *
+	 * @return A {@link CompletableFuture} completed once {@code job} runs.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public CompletableFuture<Void> submit(@NotNull Runnable job) {
+		return submit(Priority.NORMAL, job);
+	}
+
+	/**
+	 * Submits a job with the specified {@link Priority}.
+	 *
+	 * @param priority The {@link Priority} of the job.
+	 * @param job The job to run.
+	 *
+	 * @return A {@link CompletableFuture} completed once {@code job} runs.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public CompletableFuture<Void> submit(@NotNull Priority priority, @NotNull Runnable job) {
+		Objects.requireNonNull(job, "job cannot be null");
+		return supply(priority, () -> {
+			job.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Submits a job that produces a result with the specified {@link Priority}.
+	 *
+	 * @param priority The {@link Priority} of the job.
+	 * @param job The job to run.
+	 *
+	 * @return A {@link CompletableFuture} completed with the result of {@code job}
+	 * once it runs, or exceptionally if {@code job} throws or is rejected.
+	 *
+	 * @param <T> The type of result of {@code job}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public <T> CompletableFuture<T> supply(@NotNull Priority priority, @NotNull Supplier<T> job) {
+		final Job<T> queued = new Job<>(Objects.requireNonNull(job, "job cannot be null"));
+		synchronized (this) {
+			if (shutdown)
+				queued.completeExceptionally(new RejectedExecutionException("This executor has been shut down"));
+			else if (size >= capacity)
+				queued.completeExceptionally(new RejectedExecutionException("This executor is full (" + capacity + " jobs)"));
+			else {
+				queues[priority.ordinal()].addLast(queued);
+				if (++size == 1 && driver == null)
+					driver = scheduler.repeatTicks(this::tick, 1, 1);
+			}
+		}
+		return queued;
+	}
+
+	/*
+	 * Draining
+	 */
+
+	/**
+	 * Runs queued jobs until the budget of this executor is spent. This is called
+	 * every tick while there are jobs waiting, so calling it manually is only
+	 * useful to drain the queue faster, for example, when the server stops.
+	 *
+	 * @return The amount of jobs that ran.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int tick() {
+		final long start = System.nanoTime();
+		long now = start;
+		int ran = 0;
+		do {
+			final Job<?> job = poll();
+			if (job == null)
+				break;
+			if (job.isDone()) // Cancelled before running
+				continue;
+			job.run();
+			ran++;
+			now = System.nanoTime();
+		} while (now - start < budget);
+		final long elapsed = now - start;
+		if (ran != 0) {
+			final long perJob = elapsed / ran;
+			final long average = averageJobNanos;
+			averageJobNanos = average == 0 ? perJob : average + (perJob - average) / 8;
+		}
+		lastTickJobs = ran;
+		lastTickNanos = elapsed;
+		return ran;
+	}
+
+	private synchronized Job<?> poll() {
+		for (ArrayDeque<Job<?>> queue : queues) {
+			final Job<?> job = queue.pollFirst();
+			if (job != null) {
+				size--;
+				return job;
+			}
+		}
+		if (driver != null) {
+			driver.cancel();
+			driver = null;
+		}
+		return null;
+	}
+
+	/**
+	 * Shuts down this executor. Jobs submitted after calling this method are
+	 * rejected, and jobs that are waiting on the queue are cancelled.
+	 *
+	 * @return The amount of jobs that were cancelled.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int shutdown() {
+		final ArrayDeque<Job<?>> cancelled = new ArrayDeque<>();
+		synchronized (this) {
+			shutdown = true;
+			for (ArrayDeque<Job<?>> queue : queues) {
+				cancelled.addAll(queue);
+				queue.clear();
+			}
+			size = 0;
+			if (driver != null) {
+				driver.cancel();
+				driver = null;
+			}
+		}
+		for (Job<?> job : cancelled)
+			job.completeExceptionally(new CancellationException("The executor has been shut down"));
+		return cancelled.size();
+	}
+
+	/*
+	 * Back-pressure
+	 */
+
+	public long getBudgetNanos() {
+		return budget;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Gets the amount of jobs waiting on the queue, including
+	 * jobs that were cancelled but weren't reached yet.
+	 *
+	 * @return The amount of queued jobs.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public synchronized int getQueued() {
+		return size;
+	}
+
+	/**
+	 * Checks whether the queue of this executor is full, meaning that
+	 * new jobs will be rejected until some of the queued jobs run.
+	 *
+	 * @return {@code true} if the queue is full, {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public synchronized boolean isSaturated() {
+		return size >= capacity;
+	}
+
+	/**
+	 * Estimates the amount of ticks needed to run every queued job, based on
+	 * the average duration of the jobs that already ran. Producers can use this
+	 * to slow down before the queue {@link #isSaturated() saturates}.
+	 *
+	 * @return The estimated amount of ticks to drain the queue, zero if the queue
+	 * is empty, or the amount of queued jobs if no job ran yet.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public long getEstimatedTicks() {
+		final int queued = getQueued();
+		final long average = averageJobNanos;
+		if (queued == 0 || average == 0)
+			return queued;
+		final long perTick = Math.max(1, budget / Math.max(1, average));
+		return (queued + perTick - 1) / perTick;
+	}
+
+	/**
+	 * Gets the average time a job takes to run, smoothed across ticks.
+	 *
+	 * @return The average duration of a job in nanoseconds, zero if no job ran yet.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public long getAverageJobNanos() {
+		return averageJobNanos;
+	}
+
+	public int getLastTickJobs() {
+		return lastTickJobs;
+	}
+
+	public long getLastTickNanos() {
+		return lastTickNanos;
+	}
+
+	/**
+	 * Priorities of the jobs of a {@link BudgetedExecutor}. Higher priority
+	 * jobs always run before lower priority ones.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public enum Priority {
+		HIGH,
+		NORMAL,
+		LOW
+	}
+
+	private static final class Job<T> extends CompletableFuture<T> {
+
+		private final Supplier<T> job;
+
+		private Job(Supplier<T> job) {
+			this.job = job;
+		}
+
+		private void run() {
+			try {
+				complete(job.get());
+			} catch (Throwable ex) {
+				completeExceptionally(ex);
+			}
+		}
+	}
+}
@@ -0,0 +1,311 @@
+package net.codersky.mcutils.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * A parsed cron expression, used to schedule tasks on wall-clock time with
+ * {@link TaskScheduler#schedule(CronExpression, Runnable)}. Expressions have five
+ * fields, "minute hour day-of-month month day-of-week", or six if they start with
+ * a seconds field. Every field accepts {@code *}, single values, ranges ({@code 1-5}),
+ * steps ({@code *}{@code /15}, {@code 10-40/5}) and lists of them ({@code 0,30}).
+ * Months and days of the week also accept their English three-letter names, and
+ * Sunday is both {@code 0} and {@code 7}. Day fields accept {@code ?} as an alias
+ * of {@code *}. The {@code @yearly}, {@code @monthly}, {@code @weekly},
+ * {@code @daily}, {@code @midnight} and {@code @hourly} macros are also supported.
+ * <p>
+ * As with standard cron, if both day-of-month and day-of-week are restricted,
+ * a day matches if either of them matches. Times are evaluated on the
+ * {@link ZoneId} of the expression. Times that are skipped by a daylight saving
+ * time change are shifted forward by the length of said change. Times that
+ * happen twice, when clocks are set back, only fire the first time if the hour
+ * field is fixed, such as "30 1 * * *". Expressions with a wildcard or stepped
+ * hour field, such as "*{@literal /}15 * * * *" or "0 *{@literal /}2 * * *", keep
+ * firing during both occurrences, as standard cron does, so they don't stop
+ * for the length of the change.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public final class CronExpression {
+
+	private static final String[] MONTHS = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+	private static final String[] DAYS = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+	/** The amount of years to search for a matching time, enough for any valid date, such as February 29. */
+	private static final int SEARCH_YEARS = 8;
+
+	private final String expression;
+	private final ZoneId zone;
+	private final long seconds, minutes, hours, daysOfMonth, months, daysOfWeek;
+	private final boolean anyDayOfMonth, anyDayOfWeek;
+	/** Whether this expression fires during both occurrences of times that happen twice. */
+	private final boolean repeatsOnOverlap;
+
+	private CronExpression(@NotNull String expression, @NotNull ZoneId zone) {
+		this.expression = expression;
+		this.zone = zone;
+		final String[] fields = expand(expression).trim().split("\\s+");
+		if (fields.length != 5 && fields.length != 6)
+			throw invalid(expression, "expected 5 or 6 fields, got " + fields.length);
+		final int offset = fields.length - 5;
+		this.seconds = offset == 0 ? 1L : parseField(expression, fields[0], 0, 59, null);
+		this.minutes = parseField(expression, fields[offset], 0, 59, null);
+		this.hours = parseField(expression, fields[offset + 1], 0, 23, null);
+		this.daysOfMonth = parseField(expression, fields[offset + 2], 1, 31, null);
+		this.months = parseField(expression, fields[offset + 3], 1, 12, MONTHS);
+		final long dow = parseField(expression, fields[offset + 4], 0, 7, DAYS);
+		this.daysOfWeek = (dow | (dow >>> 7)) & 0x7F; // 7 is also Sunday
+		this.anyDayOfMonth = isAny(fields[offset + 2]);
+		this.anyDayOfWeek = isAny(fields[offset + 4]);
+		this.repeatsOnOverlap = fields[offset + 1].contains("*") || fields[offset + 1].contains("/");
+	}
+
+	/**
+	 * Parses a cron expression on the default {@link ZoneId} of the system.
+	 *
+	 * @param expression The cron expression to parse.
+	 *
+	 * @return A new {@link CronExpression}.
+	 *
+	 * @throws IllegalArgumentException if {@code expression} isn't a valid cron expression.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static CronExpression parse(@NotNull String expression) {
+		return parse(expression, ZoneId.systemDefault());
+	}
+
+	/**
+	 * Parses a cron expression on the specified {@link ZoneId}.
+	 *
+	 * @param expression The cron expression to parse.
+	 * @param zone The {@link ZoneId} to evaluate {@code expression} on.
+	 *
+	 * @return A new {@link CronExpression}.
+	 *
+	 * @throws IllegalArgumentException if {@code expression} isn't a valid cron expression.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static CronExpression parse(@NotNull String expression, @NotNull ZoneId zone) {
+		return new CronExpression(Objects.requireNonNull(expression, "expression cannot be null"),
+				Objects.requireNonNull(zone, "zone cannot be null"));
+	}
+
+	/*
+	 * Parsing
+	 */
+
+	@NotNull
+	private static String expand(@NotNull String expression) {
+		return switch (expression.trim().toLowerCase(Locale.ROOT)) {
+			case "@yearly", "@annually" -> "0 0 1 1 *";
+			case "@monthly" -> "0 0 1 * *";
+			case "@weekly" -> "0 0 * * 0";
+			case "@daily", "@midnight" -> "0 0 * * *";
+			case "@hourly" -> "0 * * * *";
+			default -> expression;
+		};
+	}
+
+	private static boolean isAny(@NotNull String field) {
+		return field.equals("*") || field.equals("?");
+	}
+
+	private static long parseField(String expression, String field, int min, int max, @Nullable String[] names) {
+		long bits = 0;
+		for (String part : field.split(",", -1)) {
+			final int slash = part.indexOf('/');
+			final String range = slash == -1 ? part : part.substring(0, slash);
+			final int step = slash == -1 ? 1 : parseNumber(expression, part.substring(slash + 1), 1, max - min + 1, null);
+			final int from, to;
+			if (isAny(range)) {
+				from = min;
+				to = max;
+			} else {
+				final int dash = range.indexOf('-');
+				from = parseNumber(expression, dash == -1 ? range : range.substring(0, dash), min, max, names);
+				// "5/10" means every 10 starting at 5, "5" is just 5.
+				to = dash != -1 ? parseNumber(expression, range.substring(dash + 1), min, max, names) : slash != -1 ? max : from;
+			}
+			if (from > to)
+				throw invalid(expression, "range \"" + range + "\" is reversed");
+			for (int value = from; value <= to; value += step)
+				bits |= 1L << value;
+		}
+		return bits;
+	}
+
+	private static int parseNumber(String expression, String value, int min, int max, @Nullable String[] names) {
+		if (names != null) {
+			for (int i = 0; i < names.length; i++)
+				if (names[i].equalsIgnoreCase(value))
+					return names == MONTHS ? i + 1 : i;
+		}
+		final int number;
+		try {
+			number = Integer.parseInt(value);
+		} catch (NumberFormatException ex) {
+			throw invalid(expression, "\"" + value + "\" is not a valid value");
+		}
+		if (number < min || number > max)
+			throw invalid(expression, number + " is out of range (" + min + "-" + max + ")");
+		return number;
+	}
+
+	@NotNull
+	private static IllegalArgumentException invalid(String expression, String reason) {
+		return new IllegalArgumentException("Invalid cron expression \"" + expression + "\": " + reason);
+	}
+
+	/*
+	 * Matching
+	 */
+
+	private static int next(long bits, int from) {
+		final long remaining = bits & (-1L << from);
+		return remaining == 0 ? -1 : Long.numberOfTrailingZeros(remaining);
+	}
+
+	private boolean matchesDay(@NotNull LocalDate date) {
+		final boolean dayOfMonth = (daysOfMonth & (1L << date.getDayOfMonth())) != 0;
+		final boolean dayOfWeek = (daysOfWeek & (1L << (date.getDayOfWeek().getValue() % 7))) != 0;
+		if (anyDayOfMonth || anyDayOfWeek)
+			return dayOfMonth && dayOfWeek;
+		return dayOfMonth || dayOfWeek;
+	}
+
+	/**
+	 * Gets the next local time that matches this expression, strictly after {@code after}.
+	 *
+	 * @param after The local time to search from, exclusive.
+	 *
+	 * @return The next matching local time, {@code null} if this
+	 * expression never matches, such as on February 30.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Nullable
+	public LocalDateTime next(@NotNull LocalDateTime after) {
+		LocalDateTime time = after.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+		final int limit = time.getYear() + SEARCH_YEARS;
+		while (time.getYear() <= limit) {
+			final int month = next(months, time.getMonthValue());
+			if (month != time.getMonthValue()) {
+				time = month == -1 ? LocalDateTime.of(time.getYear() + 1, 1, 1, 0, 0)
+						: LocalDateTime.of(time.getYear(), month, 1, 0, 0);
+				continue;
+			}
+			if (!matchesDay(time.toLocalDate())) {
+				time = time.toLocalDate().plusDays(1).atStartOfDay();
+				continue;
+			}
+			final int hour = next(hours, time.getHour());
+			if (hour != time.getHour()) {
+				time = hour == -1 ? time.toLocalDate().plusDays(1).atStartOfDay() : time.toLocalDate().atTime(hour, 0);
+				continue;
+			}
+			final int minute = next(minutes, time.getMinute());
+			if (minute != time.getMinute()) {
+				time = minute == -1 ? time.truncatedTo(ChronoUnit.HOURS).plusHours(1) : time.withMinute(minute).withSecond(0);
+				continue;
+			}
+			final int second = next(seconds, time.getSecond());
+			if (second != time.getSecond()) {
+				time = second == -1 ? time.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1) : time.withSecond(second);
+				continue;
+			}
+			return time;
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the next time that matches this expression, strictly after {@code after},
+	 * evaluated on the {@link ZoneId} of {@code after}.
+	 *
+	 * @param after The time to search from, exclusive.
+	 *
+	 * @return The next matching time, {@code null} if this expression never matches.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Nullable
+	public ZonedDateTime next(@NotNull ZonedDateTime after) {
+		LocalDateTime local = after.toLocalDateTime();
+		ZoneOffset offset = after.getOffset();
+		final ZoneOffsetTransition transition = after.getZone().getRules().getTransition(local);
+		// On the first occurrence of an overlap, the second one comes before any later local time.
+		if (repeatsOnOverlap && transition != null && transition.isOverlap() && offset.equals(transition.getOffsetBefore())) {
+			final LocalDateTime next = next(local);
+			if (next != null && next.isBefore(transition.getDateTimeBefore()))
+				return ZonedDateTime.ofLocal(next, after.getZone(), offset);
+			local = transition.getDateTimeAfter().minusSeconds(1);
+			offset = transition.getOffsetAfter();
+		}
+		while ((local = next(local)) != null) {
+			// Keeping the offset makes times that happen twice only fire once from here.
+			final ZonedDateTime result = ZonedDateTime.ofLocal(local, after.getZone(), offset);
+			if (result.isAfter(after))
+				return result;
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the next instant that matches this expression, strictly after
+	 * {@code after}, evaluated on the {@link #getZone() zone} of this expression.
+	 *
+	 * @param after The instant to search from, exclusive.
+	 *
+	 * @return The next matching instant, {@code null} if this expression never matches.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Nullable
+	public Instant next(@NotNull Instant after) {
+		final ZonedDateTime next = next(after.atZone(zone));
+		return next == null ? null : next.toInstant();
+	}
+
+	@NotNull
+	public ZoneId getZone() {
+		return zone;
+	}
+
+	/*
+	 * Object
+	 */
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof final CronExpression other && seconds == other.seconds && minutes == other.minutes
+				&& hours == other.hours && daysOfMonth == other.daysOfMonth && months == other.months
+				&& daysOfWeek == other.daysOfWeek && anyDayOfMonth == other.anyDayOfMonth
+				&& anyDayOfWeek == other.anyDayOfWeek && repeatsOnOverlap == other.repeatsOnOverlap && zone.equals(other.zone);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(seconds, minutes, hours, daysOfMonth, months, daysOfWeek, anyDayOfMonth, anyDayOfWeek, repeatsOnOverlap, zone);
+	}
+
+	@Override
+	public String toString() {
+		return expression;
+	}
+}
@@ -0,0 +1,151 @@
+package net.codersky.mcutils.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Task} that runs on the times of a {@link CronExpression}, created by
+ * {@link TaskScheduler#schedule(CronExpression, Runnable)}. Every cron task of
+ * every scheduler shares a single daemon timer thread, which only wakes up when a
+ * task is due, and hands the task off to its {@link TaskScheduler} to run it.
+ * <p>
+ * The timer measures delays with a monotonic clock, while cron times are wall-clock
+ * times, so the wall clock is checked again at least once per {@link #MAX_SLEEP_MILLIS
+ * minute}. If the clock jumps forward past one or more fire times, the task runs once
+ * and continues from the new time, and if it jumps backward, fire times that already
+ * happened don't run again.
+ * <p>
+ * Every time the timer wakes up, the task checks whether its scheduler {@link TaskScheduler#isShutdown()
+ * shut down}, cancelling itself if so, so tasks of disabled plugins stop within a minute. The timer
+ * thread itself stops once no cron task is left, so it doesn't keep said plugins loaded.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public final class CronTask implements Task {
+
+	/**
+	 * The maximum amount of milliseconds the timer waits before checking the wall clock again.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public static final long MAX_SLEEP_MILLIS = 60_000;
+
+	private static ScheduledThreadPoolExecutor timer = null;
+
+	private final TaskScheduler scheduler;
+	private final CronExpression cron;
+	private final Runnable task;
+	private final boolean sync;
+	private final Clock clock;
+	private Instant next;
+	private ScheduledFuture<?> wakeUp = null;
+	private boolean cancelled = false;
+
+	CronTask(@NotNull TaskScheduler scheduler, @NotNull CronExpression cron, @NotNull Runnable task, boolean sync, @NotNull Clock clock) {
+		this.scheduler = scheduler;
+		this.cron = cron;
+		this.task = task;
+		this.sync = sync;
+		this.clock = clock;
+		this.next = cron.next(clock.instant());
+	}
+
+	@NotNull
+	private static synchronized ScheduledThreadPoolExecutor getTimer() {
+		if (timer == null) {
+			timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+				final Thread thread = new Thread(runnable, "MCUtils cron timer");
+				thread.setDaemon(true);
+				return thread;
+			});
+			timer.setRemoveOnCancelPolicy(true);
+			// Cron tasks wake up at least once per MAX_SLEEP_MILLIS, so the thread only times out once none is left.
+			timer.setKeepAliveTime(2 * MAX_SLEEP_MILLIS, TimeUnit.MILLISECONDS);
+			timer.allowCoreThreadTimeOut(true);
+		}
+		return timer;
+	}
+
+	@NotNull
+	CronTask start() {
+		synchronized (this) {
+			arm(clock.instant());
+		}
+		return this;
+	}
+
+	/** Must be called while holding the lock of this task. */
+	private void arm(@NotNull Instant now) {
+		if (cancelled || next == null)
+			return;
+		final long delay = Math.max(0, Math.min(next.toEpochMilli() - now.toEpochMilli(), MAX_SLEEP_MILLIS));
+		wakeUp = getTimer().schedule(this::wakeUp, delay, TimeUnit.MILLISECONDS);
+	}
+
+	private void wakeUp() {
+		if (scheduler.isShutdown()) {
+			cancel();
+			return;
+		}
+		final boolean due;
+		synchronized (this) {
+			if (cancelled || next == null)
+				return;
+			final Instant now = clock.instant();
+			due = !now.isBefore(next);
+			if (due) {
+				// Continuing from now skips fire times that the clock jumped past, continuing
+				// from next prevents firing again if the clock jumped backward.
+				next = cron.next(now.isAfter(next) ? now : next);
+			}
+			arm(now);
+		}
+		if (due)
+			fire();
+	}
+
+	private void fire() {
+		try {
+			if (sync)
+				scheduler.runSync(task);
+			else
+				scheduler.runAsync(task);
+		} catch (RuntimeException ex) {
+			// The scheduler can no longer run tasks, usually because its plugin was disabled.
+			cancel();
+		}
+	}
+
+	/**
+	 * Gets the next time this task will run.
+	 *
+	 * @return The next time this task will run, {@code null} if it was
+	 * cancelled or its {@link CronExpression} never matches again.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Nullable
+	public synchronized Instant getNext() {
+		return cancelled ? null : next;
+	}
+
+	@Override
+	public synchronized void cancel() {
+		cancelled = true;
+		if (wakeUp != null)
+			wakeUp.cancel(false);
+	}
+
+	@Override
+	public String toString() {
+		return "CronTask{cron=" + cron + ", next=" + getNext() + '}';
+	}
+}
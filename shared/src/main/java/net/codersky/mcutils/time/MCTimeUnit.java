@@ -47,7 +47,7 @@ public enum MCTimeUnit {
 		case TICKS -> amount;
 		case SECONDS -> amount * 20;
 		case MINUTES -> amount * 1200;
-		case HOURS -> amount * 7200;
+		case HOURS -> amount * 72000;
 		};
 	}
 
@@ -0,0 +1,293 @@
+package net.codersky.mcutils.time;
+
+import net.codersky.mcutils.time.metrics.TaskMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TaskScheduler} driven by a fake clock that only advances when {@link #tick()}
+ * or {@link #advance(long)} are called. Every task, synchronous or not, runs on the
+ * thread that advances the clock, on the exact tick it was scheduled for.
+ * <p>
+ * This scheduler doesn't depend on any platform, so it is meant to test and
+ * benchmark code that schedules tasks, such as {@link TimerWheel timer wheels},
+ * without a server. Time units are converted with {@link TaskScheduler#toTicks(TimeUnit, long)},
+ * so tasks scheduled with a {@link TimeUnit} behave the same way they would on a
+ * server running at full speed.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class ManualTaskScheduler implements TaskScheduler {
+
+	private final PriorityQueue<ManualTask> queue = new PriorityQueue<>();
+	private volatile TimerWheel timerWheel = null;
+	private volatile SyncExecutor syncExecutor = null;
+	private final AsyncExecutor asyncExecutor = new AsyncExecutor("MCUtils manual scheduler");
+	private volatile TaskMetrics taskMetrics = null;
+	private long tick = 0;
+	private long sequence = 0;
+	/** Cancelled tasks are removed lazily when their tick comes, this counts the ones still queued. */
+	private int cancelled = 0;
+
+	/**
+	 * Gets the current tick of this scheduler, which starts at zero.
+	 *
+	 * @return The current tick of this scheduler.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public synchronized long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Gets the amount of tasks waiting to run on this scheduler. Repeating
+	 * tasks are counted once, and cancelled tasks aren't counted.
+	 *
+	 * @return The amount of pending tasks.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public synchronized int getPending() {
+		return queue.size() - cancelled;
+	}
+
+	/*
+	 * Clock
+	 */
+
+	/**
+	 * Advances the clock of this scheduler by one tick, running every task
+	 * scheduled for it in the order they were scheduled. Tasks scheduled
+	 * while ticking never run on the same tick. Exceptions thrown by
+	 * tasks are printed without affecting other tasks.
+	 *
+	 * @return The amount of tasks that were due on this tick.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int tick() {
+		final List<ManualTask> due = new ArrayList<>();
+		synchronized (this) {
+			tick++;
+			while (!queue.isEmpty() && queue.peek().due <= tick) {
+				final ManualTask task = queue.poll();
+				task.queued = false;
+				if (task.cancelled) {
+					cancelled--;
+					continue;
+				}
+				if (task.period > 0)
+					add(task, task.period);
+				due.add(task);
+			}
+		}
+		for (ManualTask task : due) {
+			if (task.cancelled)
+				continue;
+			try {
+				task.task.run();
+			} catch (Throwable ex) {
+				ex.printStackTrace();
+			}
+		}
+		return due.size();
+	}
+
+	/**
+	 * Advances the clock of this scheduler by the specified amount of
+	 * ticks, {@link #tick() ticking} once per tick.
+	 *
+	 * @param ticks The amount of ticks to advance.
+	 *
+	 * @return The amount of tasks that were due while advancing.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int advance(long ticks) {
+		int ran = 0;
+		for (long i = 0; i < ticks; i++)
+			ran += tick();
+		return ran;
+	}
+
+	/**
+	 * Advances the clock of this scheduler by the specified {@code amount} of
+	 * {@code unit}, converted with {@link TaskScheduler#toTicks(TimeUnit, long)}.
+	 *
+	 * @param unit The {@link TimeUnit} of {@code amount}.
+	 * @param amount The amount of {@code unit} to advance.
+	 *
+	 * @return The amount of tasks that were due while advancing.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int advance(@NotNull TimeUnit unit, long amount) {
+		return advance(TaskScheduler.toTicks(unit, amount));
+	}
+
+	/*
+	 * Scheduling
+	 */
+
+	@NotNull
+	private ManualTask schedule(@NotNull Runnable task, long delay, long period) {
+		final ManualTask scheduled = new ManualTask(TaskMetrics.wrap(this, task, true), period);
+		synchronized (this) {
+			add(scheduled, delay);
+		}
+		return scheduled;
+	}
+
+	private void add(@NotNull ManualTask task, long delay) {
+		task.due = tick + Math.max(1, Math.min(delay, Long.MAX_VALUE - tick));
+		task.sequence = sequence++;
+		task.queued = true;
+		queue.add(task);
+	}
+
+	@Override
+	public @NotNull Task runSync(@NotNull Runnable task) {
+		return schedule(task, 1, 0);
+	}
+
+	@Override
+	public @NotNull Task delaySync(@NotNull Runnable task, @NotNull TimeUnit unit, int delay) {
+		return schedule(task, TaskScheduler.toTicks(unit, delay), 0);
+	}
+
+	@Override
+	public @NotNull Task repeatSync(@NotNull Runnable task, @NotNull TimeUnit unit, int delay, int repeat) {
+		return schedule(task, TaskScheduler.toTicks(unit, delay), Math.max(1, TaskScheduler.toTicks(unit, repeat)));
+	}
+
+	@Override
+	public @NotNull Task delayTicks(@NotNull Runnable task, long delay) {
+		return schedule(task, delay, 0);
+	}
+
+	@Override
+	public @NotNull Task repeatTicks(@NotNull Runnable task, long delay, long period) {
+		return schedule(task, delay, Math.max(1, period));
+	}
+
+	@Override
+	public @NotNull TimerWheel getTimerWheel() {
+		TimerWheel result = timerWheel;
+		if (result == null) {
+			synchronized (this) {
+				result = timerWheel;
+				if (result == null)
+					timerWheel = result = new TimerWheel(this);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public @NotNull SyncExecutor getSyncExecutor() {
+		SyncExecutor result = syncExecutor;
+		if (result == null) {
+			synchronized (this) {
+				result = syncExecutor;
+				if (result == null)
+					syncExecutor = result = new SyncExecutor(this);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the {@link AsyncExecutor} of this scheduler. Unlike the asynchronous
+	 * methods of this scheduler, which run on the fake clock, this is a real
+	 * executor, so it can be used to test code that blocks.
+	 *
+	 * @return The {@link AsyncExecutor} of this scheduler.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Override
+	public @NotNull AsyncExecutor getAsyncExecutor() {
+		return asyncExecutor;
+	}
+
+	@Override
+	public @NotNull Task runAsync(@NotNull Runnable task) {
+		return runSync(task);
+	}
+
+	@Override
+	public @NotNull Task delayAsync(@NotNull Runnable task, @NotNull TimeUnit unit, int delay) {
+		return delaySync(task, unit, delay);
+	}
+
+	@Override
+	public @NotNull Task repeatAsync(@NotNull Runnable task, @NotNull TimeUnit unit, int delay, int repeat) {
+		return repeatSync(task, unit, delay, repeat);
+	}
+
+	@Override
+	public @NotNull Task delayTicksAsync(@NotNull Runnable task, long delay) {
+		return delayTicks(task, delay);
+	}
+
+	@Override
+	public @NotNull Task repeatTicksAsync(@NotNull Runnable task, long delay, long period) {
+		return repeatTicks(task, delay, period);
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return asyncExecutor.isShutdown();
+	}
+
+	@Override
+	public @NotNull ManualTaskScheduler setTaskMetrics(@Nullable TaskMetrics metrics) {
+		this.taskMetrics = metrics;
+		return this;
+	}
+
+	@Override
+	public @Nullable TaskMetrics getTaskMetrics() {
+		return taskMetrics;
+	}
+
+	private final class ManualTask implements Task, Comparable<ManualTask> {
+
+		private final Runnable task;
+		private final long period;
+		private long due;
+		private long sequence;
+		private boolean queued = false;
+		private volatile boolean cancelled = false;
+
+		private ManualTask(Runnable task, long period) {
+			this.task = task;
+			this.period = period;
+		}
+
+		@Override
+		public void cancel() {
+			synchronized (ManualTaskScheduler.this) {
+				if (cancelled)
+					return;
+				cancelled = true;
+				if (queued)
+					ManualTaskScheduler.this.cancelled++;
+			}
+		}
+
+		@Override
+		public int compareTo(@NotNull ManualTask other) {
+			final int byDue = Long.compare(due, other.due);
+			return byDue != 0 ? byDue : Long.compare(sequence, other.sequence);
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package net.codersky.mcutils.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Holds the state of the default methods of {@link TaskScheduler}, which, being
+ * an interface, can't hold it by itself. Everything here is created lazily, the
+ * first time it is requested, and platforms override those methods to store
+ * said state on the scheduler itself.
+ * <p>
+ * Schedulers are weakly referenced, so their state can be collected with them.
+ * However, the {@link TimerWheel} and {@link SyncExecutor} of a scheduler reference
+ * said scheduler, which would keep it alive, so both are only kept until the
+ * {@link AsyncExecutor} of the scheduler is {@link AsyncExecutor#shutdown() shut down}.
+ * Schedulers that rely on these defaults should shut down said executor once they
+ * are no longer used.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+final class SchedulerDefaults {
+
+	private static final Map<TaskScheduler, TimerWheel> wheels = new WeakHashMap<>();
+	private static final Map<TaskScheduler, SyncExecutor> syncExecutors = new WeakHashMap<>();
+	private static final Map<TaskScheduler, AsyncExecutor> asyncExecutors = new WeakHashMap<>();
+
+	private SchedulerDefaults() {}
+
+	@NotNull
+	static synchronized TimerWheel getTimerWheel(@NotNull TaskScheduler scheduler) {
+		// Shut down schedulers get new instances that aren't kept, so they can still be collected.
+		return isShutdown(scheduler) ? new TimerWheel(scheduler) : wheels.computeIfAbsent(scheduler, TimerWheel::new);
+	}
+
+	@NotNull
+	static synchronized SyncExecutor getSyncExecutor(@NotNull TaskScheduler scheduler) {
+		return isShutdown(scheduler) ? new SyncExecutor(scheduler) : syncExecutors.computeIfAbsent(scheduler, SyncExecutor::new);
+	}
+
+	@NotNull
+	static synchronized AsyncExecutor getAsyncExecutor(@NotNull TaskScheduler scheduler) {
+		return asyncExecutors.computeIfAbsent(scheduler, key -> {
+			// A strong reference here would keep the scheduler alive.
+			final WeakReference<TaskScheduler> owner = new WeakReference<>(key);
+			return new AsyncExecutor("MCUtils async") {
+				@Override
+				public void shutdown() {
+					super.shutdown();
+					release(owner.get());
+				}
+			};
+		});
+	}
+
+	// Doesn't create the executor, schedulers that never used it can't be shut down.
+	static synchronized boolean isShutdown(@NotNull TaskScheduler scheduler) {
+		final AsyncExecutor executor = asyncExecutors.get(scheduler);
+		return executor != null && executor.isShutdown();
+	}
+
+	// The executor is kept, so the scheduler still reports being shut down.
+	private static synchronized void release(@Nullable TaskScheduler scheduler) {
+		if (scheduler == null)
+			return;
+		wheels.remove(scheduler);
+		syncExecutors.remove(scheduler);
+	}
+}
@@ -0,0 +1,119 @@
+package net.codersky.mcutils.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link Executor} that hands off jobs from any thread to the main thread of a
+ * {@link TaskScheduler}. Jobs are not scheduled one by one, they are queued and
+ * run together by a single synchronous task, so handing off thousands of jobs on
+ * the same tick only schedules one task. This is what {@link SyncFuture sync futures}
+ * and {@link TaskScheduler#callSync(java.util.function.Supplier) callSync} use to
+ * get back to the main thread.
+ * <p>
+ * Jobs run in the order they were submitted. Every drain only runs the jobs that
+ * were queued when it started, so jobs submitted while draining, for example, by
+ * chained {@link SyncFuture#thenSync(java.util.function.Function) thenSync} calls,
+ * run on the next drain, and jobs that keep submitting new ones can't hold the
+ * main thread. Exceptions thrown by jobs are printed without affecting other jobs.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @see TaskScheduler#getSyncExecutor()
+ */
+public class SyncExecutor implements Executor {
+
+	private final TaskScheduler scheduler;
+	private final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger queued = new AtomicInteger();
+	private final AtomicBoolean scheduled = new AtomicBoolean(false);
+	private volatile int lastDrained = 0;
+
+	/**
+	 * Creates a new {@link SyncExecutor}. Schedulers already provide one with
+	 * {@link TaskScheduler#getSyncExecutor()}, so this is only useful to
+	 * implement {@link TaskScheduler}.
+	 *
+	 * @param scheduler The {@link TaskScheduler} used to run jobs on the main thread.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public SyncExecutor(@NotNull TaskScheduler scheduler) {
+		this.scheduler = Objects.requireNonNull(scheduler, "scheduler cannot be null");
+	}
+
+	/**
+	 * Queues {@code job} to run on the main thread, on the
+	 * next drain of this executor.
+	 *
+	 * @param job The job to run.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Override
+	public void execute(@NotNull Runnable job) {
+		queue.add(Objects.requireNonNull(job, "job cannot be null"));
+		queued.incrementAndGet();
+		if (scheduled.compareAndSet(false, true))
+			schedule();
+	}
+
+	// The flag is cleared if the drain can't be scheduled, otherwise no job would ever schedule it again.
+	private void schedule() {
+		try {
+			scheduler.runSync(this::drain);
+		} catch (RuntimeException ex) {
+			scheduled.set(false);
+			throw ex;
+		}
+	}
+
+	private void drain() {
+		final int batch = queued.get();
+		int ran = 0;
+		Runnable job;
+		while (ran < batch && (job = queue.poll()) != null) {
+			queued.decrementAndGet();
+			ran++;
+			try {
+				job.run();
+			} catch (Throwable ex) {
+				ex.printStackTrace();
+			}
+		}
+		lastDrained = ran;
+		scheduled.set(false);
+		// Jobs queued while draining, or after the last poll but before the flag was cleared, run on the next drain.
+		if (!queue.isEmpty() && scheduled.compareAndSet(false, true))
+			schedule();
+	}
+
+	/**
+	 * Gets the amount of jobs waiting for the next drain of this executor.
+	 *
+	 * @return The amount of queued jobs.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int getQueued() {
+		return queued.get();
+	}
+
+	/**
+	 * Gets the amount of jobs that ran on the last drain of this executor.
+	 *
+	 * @return The amount of jobs that ran on the last drain.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int getLastDrained() {
+		return lastDrained;
+	}
+}
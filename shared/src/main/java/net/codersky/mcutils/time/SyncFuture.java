@@ -0,0 +1,324 @@
+package net.codersky.mcutils.time;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A {@link Future} that chains work between the main thread and the
+ * {@link AsyncExecutor} of a {@link TaskScheduler}, so code like "load
+ * something off-thread, then apply it on the main thread" doesn't need nested
+ * callbacks, nor blocking the main thread with {@link #get()}:
+ * <pre>{@code
+ * scheduler.supplyAsync(() -> database.load(uuid))
+ *     .orTimeout(5, TimeUnit.SECONDS)
+ *     .thenAcceptSync(data -> player.sendMessage(data.toString()));
+ * }</pre>
+ * Stages added with {@code thenSync} methods run on the main thread through the
+ * {@link TaskScheduler#getSyncExecutor() SyncExecutor} of the scheduler, which runs
+ * every handoff of the same tick on a single task. Stages added with
+ * {@code thenAsync} run on the {@link TaskScheduler#getAsyncExecutor() AsyncExecutor}.
+ * <p>
+ * If a stage throws, every stage that depends on it is skipped and completed
+ * exceptionally, until an {@link #exceptionallySync(Function) exceptionallySync}
+ * or {@link #whenCompleteSync(BiConsumer) whenCompleteSync} stage handles it.
+ * {@link #cancel() Cancelling} a future also cancels the stages it depends on,
+ * interrupting asynchronous ones if they are running, so a whole chain can be
+ * stopped from its last stage, for example, when a player leaves. Stages that
+ * other branches of the chain still depend on are only cancelled once every
+ * one of said branches is cancelled.
+ *
+ * @param <T> The type of result of this future.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @see TaskScheduler#supplyAsync(Supplier)
+ */
+public class SyncFuture<T> implements Future<T>, Task {
+
+	private final TaskScheduler scheduler;
+	private final CompletableFuture<T> future;
+	private final SyncFuture<?> parent;
+	/** The amount of stages that depend on this future and weren't cancelled. */
+	private final AtomicInteger dependents = new AtomicInteger();
+	private final AtomicBoolean stopped = new AtomicBoolean(false);
+	/** The asynchronous task that completes this future, if any. */
+	private volatile Task task = null;
+
+	private SyncFuture(@NotNull TaskScheduler scheduler, @NotNull CompletableFuture<T> future, @Nullable SyncFuture<?> parent) {
+		this.scheduler = scheduler;
+		this.future = future;
+		this.parent = parent;
+		if (parent != null)
+			parent.dependents.incrementAndGet();
+	}
+
+	/**
+	 * Calls {@code supplier} on the {@link AsyncExecutor} of the specified {@code scheduler}.
+	 *
+	 * @param scheduler The {@link TaskScheduler} to use for this future and every stage chained to it.
+	 * @param supplier The supplier to call asynchronously.
+	 *
+	 * @return A new {@link SyncFuture} completed with the result of {@code supplier}.
+	 *
+	 * @param <T> The type of result of {@code supplier}.
+	 *
+	 * @since MCUtils 1.0.0
+	 *
+	 * @see TaskScheduler#supplyAsync(Supplier)
+	 */
+	@NotNull
+	public static <T> SyncFuture<T> supplyAsync(@NotNull TaskScheduler scheduler, @NotNull Supplier<T> supplier) {
+		Objects.requireNonNull(supplier, "supplier cannot be null");
+		final SyncFuture<T> result = new SyncFuture<>(Objects.requireNonNull(scheduler, "scheduler cannot be null"), new CompletableFuture<>(), null);
+		result.callAsync(supplier);
+		return result;
+	}
+
+	private void callAsync(@NotNull Supplier<T> supplier) {
+		final Task scheduled = scheduler.getAsyncExecutor().run(() -> {
+			if (future.isDone())
+				return;
+			try {
+				future.complete(supplier.get());
+			} catch (Throwable ex) {
+				future.completeExceptionally(ex);
+			}
+		});
+		task = scheduled;
+		// Finished tasks always complete the future first, so this only happens on rejection or cancellation.
+		if (scheduled instanceof final Future<?> done && done.isDone() && !future.isDone())
+			future.completeExceptionally(new RejectedExecutionException("The asynchronous executor has been shut down"));
+		else if (future.isCancelled())
+			scheduled.cancel();
+	}
+
+	/*
+	 * Main thread stages
+	 */
+
+	/**
+	 * Applies {@code action} to the result of this future on the main thread.
+	 *
+	 * @param action The function to apply to the result of this future.
+	 *
+	 * @return A new {@link SyncFuture} completed with the result of {@code action}.
+	 *
+	 * @param <U> The type of result of {@code action}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public <U> SyncFuture<U> thenSync(@NotNull Function<? super T, ? extends U> action) {
+		return new SyncFuture<>(scheduler, future.thenApplyAsync(action, scheduler.getSyncExecutor()), this);
+	}
+
+	/**
+	 * Passes the result of this future to {@code action} on the main thread.
+	 *
+	 * @param action The action to perform with the result of this future.
+	 *
+	 * @return A new {@link SyncFuture} completed once {@code action} runs.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public SyncFuture<Void> thenAcceptSync(@NotNull Consumer<? super T> action) {
+		return new SyncFuture<>(scheduler, future.thenAcceptAsync(action, scheduler.getSyncExecutor()), this);
+	}
+
+	/**
+	 * Recovers from a failure of this future, or of any stage it depends on, on the
+	 * main thread. If this future completes normally, its result is used instead.
+	 *
+	 * @param action The function that maps the failure to a result.
+	 *
+	 * @return A new {@link SyncFuture} completed with the result of this future,
+	 * or with the result of {@code action} if this future failed.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public SyncFuture<T> exceptionallySync(@NotNull Function<Throwable, ? extends T> action) {
+		Objects.requireNonNull(action, "action cannot be null");
+		final CompletableFuture<T> next = future.handleAsync((result, error) -> error == null ? result : action.apply(error),
+				scheduler.getSyncExecutor());
+		return new SyncFuture<>(scheduler, next, this);
+	}
+
+	/**
+	 * Passes the result or the failure of this future to {@code action} on the main
+	 * thread. One of the arguments of {@code action} is always {@code null}.
+	 *
+	 * @param action The action to perform with the result or the failure of this future.
+	 *
+	 * @return A new {@link SyncFuture} completed with the same result or failure as this future.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public SyncFuture<T> whenCompleteSync(@NotNull BiConsumer<? super T, ? super Throwable> action) {
+		return new SyncFuture<>(scheduler, future.whenCompleteAsync(action, scheduler.getSyncExecutor()), this);
+	}
+
+	/*
+	 * Asynchronous stages
+	 */
+
+	/**
+	 * Applies {@code action} to the result of this future on the
+	 * {@link AsyncExecutor} of the scheduler of this future.
+	 *
+	 * @param action The function to apply to the result of this future.
+	 *
+	 * @return A new {@link SyncFuture} completed with the result of {@code action}.
+	 *
+	 * @param <U> The type of result of {@code action}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public <U> SyncFuture<U> thenAsync(@NotNull Function<? super T, ? extends U> action) {
+		Objects.requireNonNull(action, "action cannot be null");
+		final SyncFuture<U> next = new SyncFuture<>(scheduler, new CompletableFuture<>(), this);
+		future.whenComplete((result, error) -> {
+			if (error != null)
+				next.future.completeExceptionally(error);
+			else
+				next.callAsync(() -> action.apply(result));
+		});
+		return next;
+	}
+
+	/*
+	 * Timeouts and cancellation
+	 */
+
+	/**
+	 * Fails this future with a {@link TimeoutException} if it isn't complete after the
+	 * specified {@code timeout}. When that happens, this future is {@link #cancel() cancelled}
+	 * along with the stages it depends on that no other stage depends on, as nothing would
+	 * use their result.
+	 *
+	 * @param timeout The maximum time to wait for this future.
+	 * @param unit The {@link TimeUnit} of {@code timeout}.
+	 *
+	 * @return This future.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public SyncFuture<T> orTimeout(long timeout, @NotNull TimeUnit unit) {
+		future.orTimeout(timeout, unit).whenComplete((result, error) -> {
+			if (error instanceof TimeoutException)
+				stop();
+		});
+		return this;
+	}
+
+	/**
+	 * Cancels this future along with every stage it depends on that didn't complete
+	 * yet, interrupting asynchronous stages if they are running. Stages that other
+	 * futures still depend on are not cancelled until said futures are cancelled too.
+	 * Stages that depend on this future are completed exceptionally.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Override
+	public void cancel() {
+		cancel(true);
+	}
+
+	/**
+	 * Cancels this future along with every stage it depends on that didn't complete
+	 * yet and no other future depends on. Asynchronous stages are always interrupted
+	 * if they are running.
+	 *
+	 * @param mayInterruptIfRunning Ignored, running asynchronous stages are always interrupted.
+	 *
+	 * @return {@code true} if this future was cancelled, {@code false} if it was already complete.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		final boolean cancelled = future.cancel(false);
+		stop();
+		return cancelled;
+	}
+
+	// The parent is only cancelled by the last of its dependents to be stopped, so other branches keep it.
+	private void stop() {
+		if (!stopped.compareAndSet(false, true))
+			return;
+		final Task task = this.task;
+		if (task != null)
+			task.cancel();
+		if (parent != null && parent.dependents.decrementAndGet() == 0 && !parent.isDone())
+			parent.cancel();
+	}
+
+	/*
+	 * Future
+	 */
+
+	@Override
+	public boolean isCancelled() {
+		return future.isCancelled();
+	}
+
+	@Override
+	public boolean isDone() {
+		return future.isDone();
+	}
+
+	/**
+	 * Waits for this future to complete and gets its result. This blocks the
+	 * calling thread, so it should never be called on the main thread, use
+	 * {@link #thenSync(Function)} or {@link #thenAcceptSync(Consumer)} instead.
+	 *
+	 * @return The result of this future.
+	 *
+	 * @throws ExecutionException if this future failed.
+	 * @throws InterruptedException if the calling thread is interrupted while waiting.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@Override
+	public T get() throws InterruptedException, ExecutionException {
+		return future.get();
+	}
+
+	@Override
+	public T get(long timeout, @NotNull TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		return future.get(timeout, unit);
+	}
+
+	/**
+	 * Gets the {@link CompletableFuture} behind this future, to
+	 * use it with APIs that expect a {@link CompletableFuture}.
+	 *
+	 * @return The {@link CompletableFuture} behind this future.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public CompletableFuture<T> toCompletableFuture() {
+		return future;
+	}
+}
@@ -1,11 +1,48 @@
 package net.codersky.mcutils.time;
 
+import net.codersky.mcutils.crossplatform.player.MCPlayer;
+import net.codersky.mcutils.time.metrics.TaskMetrics;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.time.Clock;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 public interface TaskScheduler {
 
+	/**
+	 * The amount of nanoseconds that a tick lasts on a server
+	 * running at full speed (20 ticks per second).
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	long NANOS_PER_TICK = 50_000_000L;
+
+	/**
+	 * Converts an {@code amount} of {@code unit} to ticks, rounding up so tasks
+	 * never run earlier than requested. This means that any positive amount
+	 * lower than a tick is one tick, while zero or negative amounts are zero.
+	 *
+	 * @param unit The {@link TimeUnit} of {@code amount}.
+	 * @param amount The amount of {@code unit} to convert.
+	 *
+	 * @return {@code amount} converted to ticks.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	static long toTicks(@NotNull TimeUnit unit, long amount) {
+		if (amount <= 0)
+			return 0;
+		// Units of a tick or longer are converted without going through nanoseconds, which could overflow.
+		if (unit.compareTo(TimeUnit.SECONDS) >= 0)
+			return Math.min(unit.toSeconds(amount), Long.MAX_VALUE / 20) * 20;
+		final long nanos = unit.toNanos(amount);
+		return nanos / NANOS_PER_TICK + (nanos % NANOS_PER_TICK == 0 ? 0 : 1);
+	}
+
 	/*
 	 * Synchronous tasks
 	 */
@@ -15,22 +52,327 @@ public interface TaskScheduler {
 	@NotNull Task delaySync(@NotNull Runnable task, @NotNull TimeUnit unit, int delay);
 
 	default @NotNull Task delaySync(@NotNull Runnable task, int tickDelay) {
-		return delaySync(task, TimeUnit.MILLISECONDS, tickDelay * 50); // 1 tick = 50 milliseconds
+		return delayTicks(task, tickDelay);
 	}
 
 	@NotNull Task repeatSync(@NotNull Runnable task, @NotNull TimeUnit unit, int delay, int repeat);
 
+	/**
+	 * Runs {@code task} on the main thread after the specified amount of ticks.
+	 * Unlike {@link #delaySync(Runnable, TimeUnit, int)}, no conversion is involved,
+	 * so this is the most precise way to delay synchronous tasks. By default, the
+	 * delay is converted to milliseconds and passed to said method, platforms
+	 * override this method to schedule the task in ticks directly.
+	 *
+	 * @param task The task to run.
+	 * @param delay The delay in ticks, values lower than one run the task on the next tick.
+	 *
+	 * @return The scheduled {@link Task}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	default @NotNull Task delayTicks(@NotNull Runnable task, long delay) {
+		return delaySync(task, TimeUnit.MILLISECONDS, ticksToMillis(delay));
+	}
+
+	/**
+	 * Repeatedly runs {@code task} on the main thread every {@code period} ticks,
+	 * after an initial delay of {@code delay} ticks. By default, both are converted
+	 * to milliseconds and passed to {@link #repeatSync(Runnable, TimeUnit, int, int)}.
+	 *
+	 * @param task The task to run.
+	 * @param delay The initial delay in ticks, values lower than one run the task on the next tick.
+	 * @param period The period between runs in ticks, values lower than one are treated as one.
+	 *
+	 * @return The scheduled {@link Task}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	default @NotNull Task repeatTicks(@NotNull Runnable task, long delay, long period) {
+		return repeatSync(task, TimeUnit.MILLISECONDS, ticksToMillis(delay), ticksToMillis(Math.max(1, period)));
+	}
+
+	// Ticks are converted to milliseconds when they have to go through a TimeUnit, 1 tick = 50 milliseconds.
+	private static int ticksToMillis(long ticks) {
+		return (int) Math.min(Math.max(0, ticks), Integer.MAX_VALUE / 50) * 50;
+	}
+
+	/**
+	 * Calls {@code supplier} on the main thread, allowing asynchronous code to
+	 * safely hand off work to it and get its result. If {@code supplier} throws,
+	 * the returned future is completed exceptionally. Calls made on the same tick
+	 * run together through the {@link #getSyncExecutor() SyncExecutor} of this scheduler.
+	 *
+	 * @param supplier The supplier to call on the main thread.
+	 *
+	 * @return A {@link CompletableFuture} completed with the result of {@code supplier}.
+	 *
+	 * @param <T> The type of result of {@code supplier}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	default <T> @NotNull CompletableFuture<T> callSync(@NotNull Supplier<T> supplier) {
+		return CompletableFuture.supplyAsync(supplier, getSyncExecutor());
+	}
+
+	/**
+	 * Gets the {@link SyncExecutor} of this scheduler, which hands off jobs to the
+	 * main thread, running every job submitted on the same tick on a single task.
+	 * Implementations must always return the same instance. By default, the
+	 * executor is created the first time this method is called, implementations
+	 * may override it to keep the executor themselves.
+	 *
+	 * @return The {@link SyncExecutor} of this scheduler.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	default @NotNull SyncExecutor getSyncExecutor() {
+		return SchedulerDefaults.getSyncExecutor(this);
+	}
+
+	/**
+	 * Gets the {@link TimerWheel} of this scheduler, which drives delayed tasks such
+	 * as every {@link net.codersky.mcutils.time.timer.TimerTask TimerTask} from a
+	 * single repeating synchronous task. Implementations must always return the
+	 * same instance. By default, the wheel is created the first time this method
+	 * is called, implementations may override it to keep the wheel themselves.
+	 *
+	 * @return The {@link TimerWheel} of this scheduler.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	default @NotNull TimerWheel getTimerWheel() {
+		return SchedulerDefaults.getTimerWheel(this);
+	}
+
+	/**
+	 * Creates a new {@link BudgetedExecutor} that spreads jobs across the ticks
+	 * of this scheduler, spending at most {@code budget} on them every tick.
+	 *
+	 * @param budget The maximum amount of time to spend on jobs every tick.
+	 * @param unit The {@link TimeUnit} of {@code budget}.
+	 *
+	 * @return A new {@link BudgetedExecutor}.
+	 *
+	 * @throws IllegalArgumentException if {@code budget} isn't positive.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	default @NotNull BudgetedExecutor newBudgetedExecutor(long budget, @NotNull TimeUnit unit) {
+		return new BudgetedExecutor(this, budget, unit);
+	}
+
+	/*
+	 * Region aware tasks
+	 */
+
+	/**
+	 * Runs {@code task} on the thread that owns the global state of the server,
+	 * such as the world time or the weather. On most platforms this is just the
+	 * main thread, so this is the same as {@link #runSync(Runnable)}, but platforms
+	 * with multithreaded regions, such as Folia, run it on their global region.
+	 *
+	 * @param task The task to run.
+	 *
+	 * @return The scheduled {@link Task}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	default @NotNull Task runGlobal(@NotNull Runnable task) {
+		return runSync(task);
+	}
+
+	/**
+	 * Runs {@code task} on the thread that owns the specified {@code player}, which
+	 * is required to safely interact with them on platforms with multithreaded regions,
+	 * such as Folia. On any other platform this is the same as {@link #runSync(Runnable)}.
+	 * Tasks of players that leave before the task runs may never run.
+	 *
+	 * @param player The {@link MCPlayer} that {@code task} interacts with.
+	 * @param task The task to run.
+	 *
+	 * @return The scheduled {@link Task}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	default @NotNull Task runFor(@NotNull MCPlayer player, @NotNull Runnable task) {
+		return runSync(task);
+	}
+
 	/*
 	 * Asynchronous tasks
 	 */
 
+	/**
+	 * Gets the {@link AsyncExecutor} of this scheduler, which runs every asynchronous
+	 * task of it on virtual threads, so they can block on I/O without holding a
+	 * platform thread. Implementations must always return the same instance.
+	 * By default, the executor is created the first time this method is called,
+	 * and is only shut down if {@link AsyncExecutor#shutdown()} is called on it,
+	 * implementations may override this method to shut it down with its owner.
+	 * Shutting the default executor down also releases the default {@link #getTimerWheel()
+	 * wheel} and {@link #getSyncExecutor() sync executor} of this scheduler.
+	 *
+	 * @return The {@link AsyncExecutor} of this scheduler.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	default @NotNull AsyncExecutor getAsyncExecutor() {
+		return SchedulerDefaults.getAsyncExecutor(this);
+	}
+
+	/**
+	 * Calls {@code supplier} on the {@link #getAsyncExecutor() AsyncExecutor} of this
+	 * scheduler, returning a {@link SyncFuture} that can chain work back to the main
+	 * thread with {@link SyncFuture#thenSync(java.util.function.Function) thenSync}.
+	 *
+	 * @param supplier The supplier to call asynchronously.
+	 *
+	 * @return A new {@link SyncFuture} completed with the result of {@code supplier}.
+	 *
+	 * @param <T> The type of result of {@code supplier}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	default <T> @NotNull SyncFuture<T> supplyAsync(@NotNull Supplier<T> supplier) {
+		return SyncFuture.supplyAsync(this, supplier);
+	}
+
 	@NotNull Task runAsync(@NotNull Runnable task);
 
 	@NotNull Task delayAsync(@NotNull Runnable task, @NotNull TimeUnit unit, int delay);
 
 	default @NotNull Task delayAsync(@NotNull Runnable task, int tickDelay) {
-		return delayAsync(task, TimeUnit.MILLISECONDS, tickDelay * 50); // 1 tick = 50 milliseconds
+		return delayTicksAsync(task, tickDelay);
 	}
 
 	@NotNull Task repeatAsync(@NotNull Runnable task, @NotNull TimeUnit unit, int delay, int repeat);
+
+	/**
+	 * Runs {@code task} asynchronously after the specified amount of ticks. By default,
+	 * the delay is converted to milliseconds and passed to {@link #delayAsync(Runnable, TimeUnit, int)}.
+	 *
+	 * @param task The task to run.
+	 * @param delay The delay in ticks, values lower than one run the task as soon as possible.
+	 *
+	 * @return The scheduled {@link Task}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	default @NotNull Task delayTicksAsync(@NotNull Runnable task, long delay) {
+		return delayAsync(task, TimeUnit.MILLISECONDS, ticksToMillis(delay));
+	}
+
+	/**
+	 * Repeatedly runs {@code task} asynchronously every {@code period} ticks,
+	 * after an initial delay of {@code delay} ticks. By default, both are converted
+	 * to milliseconds and passed to {@link #repeatAsync(Runnable, TimeUnit, int, int)}.
+	 *
+	 * @param task The task to run.
+	 * @param delay The initial delay in ticks, values lower than one run the task as soon as possible.
+	 * @param period The period between runs in ticks, values lower than one are treated as one.
+	 *
+	 * @return The scheduled {@link Task}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	default @NotNull Task repeatTicksAsync(@NotNull Runnable task, long delay, long period) {
+		return repeatAsync(task, TimeUnit.MILLISECONDS, ticksToMillis(delay), ticksToMillis(Math.max(1, period)));
+	}
+
+	/**
+	 * Checks whether this scheduler can no longer run tasks, usually because
+	 * the plugin that owns it was disabled. Tasks that reschedule themselves,
+	 * such as {@link CronTask cron tasks}, use this to stop, so it must be cheap
+	 * and must not create anything. By default, this checks whether the default
+	 * {@link #getAsyncExecutor() AsyncExecutor} of this scheduler has been shut
+	 * down, without creating it, so implementations that override said method
+	 * should override this one too.
+	 *
+	 * @return {@code true} if this scheduler can no longer run tasks, {@code false} otherwise.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	default boolean isShutdown() {
+		return SchedulerDefaults.isShutdown(this);
+	}
+
+	/*
+	 * Wall-clock tasks
+	 */
+
+	/**
+	 * Runs {@code task} on the main thread on every time that matches the specified
+	 * {@link CronExpression}, such as "0 4 * * *" for every day at 4 AM. The next
+	 * time is computed directly from the expression, without polling, and a single
+	 * timer thread shared by every scheduler waits for it. Daylight saving time
+	 * changes and jumps of the system clock are taken into account, see
+	 * {@link CronExpression} and {@link CronTask} for details.
+	 *
+	 * @param cron The {@link CronExpression} to run {@code task} on.
+	 * @param task The task to run.
+	 *
+	 * @return The scheduled {@link CronTask}, which is cancelled automatically
+	 * once this scheduler {@link #isShutdown() shuts down}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	default @NotNull CronTask schedule(@NotNull CronExpression cron, @NotNull Runnable task) {
+		return new CronTask(this, Objects.requireNonNull(cron), Objects.requireNonNull(task), true, Clock.systemUTC()).start();
+	}
+
+	/**
+	 * Runs {@code task} asynchronously on every time that matches the specified {@link CronExpression}.
+	 *
+	 * @param cron The {@link CronExpression} to run {@code task} on.
+	 * @param task The task to run.
+	 *
+	 * @return The scheduled {@link CronTask}, which is cancelled automatically
+	 * once this scheduler {@link #isShutdown() shuts down}.
+	 *
+	 * @since MCUtils 1.0.0
+	 *
+	 * @see #schedule(CronExpression, Runnable)
+	 */
+	default @NotNull CronTask scheduleAsync(@NotNull CronExpression cron, @NotNull Runnable task) {
+		return new CronTask(this, Objects.requireNonNull(cron), Objects.requireNonNull(task), false, Clock.systemUTC()).start();
+	}
+
+	/*
+	 * Metrics
+	 */
+
+	/**
+	 * Enables or disables {@link TaskMetrics} for every task of this scheduler,
+	 * including tasks that were scheduled before metrics were enabled. Metrics
+	 * are disabled by default. Implementations must wrap every task they schedule
+	 * with {@link TaskMetrics#wrap(TaskScheduler, Runnable, boolean)}, so schedulers
+	 * that don't override this method don't support metrics.
+	 *
+	 * @param metrics The {@link TaskMetrics} to record tasks on, {@code null} to disable them.
+	 *
+	 * @return This {@link TaskScheduler}.
+	 *
+	 * @throws UnsupportedOperationException if {@code metrics} isn't {@code null}
+	 * and this scheduler doesn't support them.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	default @NotNull TaskScheduler setTaskMetrics(@Nullable TaskMetrics metrics) {
+		if (metrics != null)
+			throw new UnsupportedOperationException(getClass().getName() + " doesn't support task metrics.");
+		return this;
+	}
+
+	/**
+	 * Gets the {@link TaskMetrics} that tasks of this scheduler are recorded on.
+	 *
+	 * @return The {@link TaskMetrics} of this scheduler, {@code null} if metrics are
+	 * disabled, which they always are by default.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	default @Nullable TaskMetrics getTaskMetrics() {
+		return null;
+	}
 }
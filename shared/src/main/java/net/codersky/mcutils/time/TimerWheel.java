@@ -0,0 +1,393 @@
+package net.codersky.mcutils.time;
+
+import net.codersky.mcutils.general.PerformanceTest;
+import net.codersky.mcutils.time.timer.TimerTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Hashed hierarchical timing wheel that drives any amount of delayed tasks
+ * from a single repeating task of a {@link TaskScheduler}, obtained from
+ * {@link TaskScheduler#getTimerWheel()}. This is what drives every
+ * {@link TimerTask}, so thousands of concurrent countdowns only cost one
+ * platform task instead of one each.
+ * <p>
+ * The wheel advances one tick per game tick (50 milliseconds) and has four
+ * levels of 64 slots each. Tasks are placed on the level that covers their
+ * delay, and moved down to lower levels as time passes, so the cost of a
+ * tick only depends on the amount of tasks expiring or moving on it, and
+ * not on the total amount of tasks on the wheel. Scheduling, {@link Entry#pause()
+ * pausing}, {@link Entry#resume() resuming} and {@link Entry#cancel() cancelling}
+ * tasks are constant time operations, and every task expiring on the same tick
+ * runs on a single batch. The repeating task is only scheduled while there are
+ * tasks waiting on the wheel.
+ * <p>
+ * This class is thread safe. Tasks always run on the thread that ticks the
+ * wheel, which is the main thread on platforms that have one.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class TimerWheel {
+
+	private static final int BITS = 6;
+	private static final int SLOTS = 1 << BITS;
+	private static final int MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+	private static final long MAX_DELAY = (1L << (BITS * LEVELS)) - 1;
+
+	private final TaskScheduler scheduler;
+	private final Entry[][] wheel = new Entry[LEVELS][SLOTS];
+	private long tick = 0;
+	private int size = 0;
+	private Task driver = null;
+
+	/**
+	 * Creates a new {@link TimerWheel}. Platforms create one per {@link TaskScheduler},
+	 * so this constructor is only needed to create independent wheels.
+	 *
+	 * @param scheduler The {@link TaskScheduler} used to tick the wheel, {@code null}
+	 * to create a wheel that is only advanced by calling {@link #tick()} manually.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public TimerWheel(@Nullable TaskScheduler scheduler) {
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Gets the amount of ticks this wheel has advanced since it was created.
+	 *
+	 * @return The current tick of this wheel.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public synchronized long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Gets the amount of tasks waiting on this wheel, {@link Entry#isPaused() paused}
+	 * tasks are not waiting on the wheel, so they are not taken into account.
+	 *
+	 * @return The amount of tasks waiting on this wheel.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/*
+	 * Scheduling
+	 */
+
+	/**
+	 * Schedules a {@code task} to run once after the specified amount of ticks.
+	 *
+	 * @param delay The delay in ticks, values lower than one run the task on the next tick.
+	 * @param task The task to run.
+	 *
+	 * @return The {@link Entry} of the task, which can be used to pause or cancel it.
+	 *
+	 * @throws NullPointerException if {@code task} is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public Entry schedule(long delay, @NotNull Runnable task) {
+		final Entry entry = new Entry(this, Objects.requireNonNull(task));
+		synchronized (this) {
+			add(entry, delay);
+		}
+		return entry;
+	}
+
+	private void add(@NotNull Entry entry, long delay) {
+		entry.expiry = tick + Math.max(1, Math.min(delay, Long.MAX_VALUE - tick));
+		entry.state = Entry.SCHEDULED;
+		insert(entry);
+		if (++size == 1 && driver == null && scheduler != null)
+			driver = scheduler.repeatTicks(this::tick, 1, 1);
+	}
+
+	private void remove(@NotNull Entry entry) {
+		unlink(entry);
+		if (--size == 0 && driver != null) {
+			driver.cancel();
+			driver = null;
+		}
+	}
+
+	// Tasks too far in the future are placed on the last slot the wheel can reach and placed again from there.
+	private void insert(@NotNull Entry entry) {
+		final long expiry = entry.expiry - tick > MAX_DELAY ? tick + MAX_DELAY : entry.expiry;
+		final long delta = expiry - tick;
+		int level = 0;
+		while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1)))
+			level++;
+		final int index = (int) ((expiry >>> (BITS * level)) & MASK);
+		final Entry head = wheel[level][index];
+		entry.level = level;
+		entry.index = index;
+		entry.prev = null;
+		entry.next = head;
+		if (head != null)
+			head.prev = entry;
+		wheel[level][index] = entry;
+	}
+
+	private void unlink(@NotNull Entry entry) {
+		if (entry.prev == null)
+			wheel[entry.level][entry.index] = entry.next;
+		else
+			entry.prev.next = entry.next;
+		if (entry.next != null)
+			entry.next.prev = entry.prev;
+		entry.prev = null;
+		entry.next = null;
+	}
+
+	/*
+	 * Ticking
+	 */
+
+	/**
+	 * Advances this wheel by one tick, running every task that expires on it.
+	 * This is called automatically by the {@link TaskScheduler} of this wheel,
+	 * so it should only be called manually on wheels created without one.
+	 * Exceptions thrown by tasks are printed without affecting other tasks.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public void tick() {
+		final List<Entry> expired;
+		synchronized (this) {
+			final long now = ++tick;
+			for (int level = 1; level < LEVELS && ((now >>> (BITS * (level - 1))) & MASK) == 0; level++)
+				cascade(level, (int) ((now >>> (BITS * level)) & MASK));
+			final int index = (int) (now & MASK);
+			Entry entry = wheel[0][index];
+			if (entry == null)
+				return;
+			expired = new ArrayList<>();
+			while (entry != null) {
+				final Entry next = entry.next;
+				remove(entry);
+				entry.state = Entry.FIRING;
+				expired.add(entry);
+				entry = next;
+			}
+		}
+		for (Entry entry : expired) {
+			if (!entry.fire())
+				continue;
+			try {
+				entry.task.run();
+			} catch (Throwable ex) {
+				ex.printStackTrace();
+			}
+		}
+	}
+
+	// Moves every task of a higher level slot to the level that now covers its delay.
+	private void cascade(int level, int index) {
+		Entry entry = wheel[level][index];
+		wheel[level][index] = null;
+		while (entry != null) {
+			final Entry next = entry.next;
+			insert(entry);
+			entry = next;
+		}
+	}
+
+	/*
+	 * Benchmarking
+	 */
+
+	/**
+	 * Creates a {@link PerformanceTest} that measures the cost of ticking a wheel
+	 * depending on the amount of timers waiting on it, for example,
+	 * {@code TimerWheel.benchmark(20 * 60, 1_000, 10_000, 100_000).run(System.out, 5)}.
+	 * Every test uses its own wheel, driven by a {@link ManualTaskScheduler}, with the
+	 * specified amount of timers spread over the next minute, which schedule themselves
+	 * again when they expire, so the amount of timers doesn't change while testing.
+	 * As timers are spread evenly, about one in every 1200 of them expires on each tick,
+	 * so results are expected to grow with the amount of timers expiring, but not with
+	 * the amount of timers that are just waiting.
+	 *
+	 * @param amount The amount of ticks to advance per execution.
+	 * @param timers The amounts of active timers to test.
+	 *
+	 * @return A new {@link PerformanceTest}, ready to {@link PerformanceTest#run(java.io.PrintStream, int) run}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static PerformanceTest benchmark(long amount, int... timers) {
+		final PerformanceTest test = new PerformanceTest(amount, 50);
+		for (int count : timers) {
+			final ManualTaskScheduler scheduler = new ManualTaskScheduler();
+			final TimerWheel wheel = scheduler.getTimerWheel();
+			for (int i = 0; i < count; i++) {
+				final long delay = 1 + i % (20 * 60);
+				final Entry[] entry = new Entry[1];
+				entry[0] = wheel.schedule(delay, () -> entry[0].setRemainingTicks(delay));
+			}
+			test.addTest(count + " timers tick", scheduler::tick);
+		}
+		return test;
+	}
+
+	/**
+	 * A task scheduled on a {@link TimerWheel}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public static final class Entry {
+
+		private static final int SCHEDULED = 0, PAUSED = 1, FIRING = 2, EXPIRED = 3, CANCELLED = 4;
+
+		private final TimerWheel wheel;
+		private final Runnable task;
+		private Entry prev, next;
+		private int level, index;
+		private long expiry;
+		private long remaining;
+		private int state = SCHEDULED;
+
+		private Entry(TimerWheel wheel, Runnable task) {
+			this.wheel = wheel;
+			this.task = task;
+		}
+
+		private boolean fire() {
+			synchronized (wheel) {
+				if (state != FIRING)
+					return false;
+				state = EXPIRED;
+				return true;
+			}
+		}
+
+		/**
+		 * Gets the amount of ticks left until this task runs.
+		 *
+		 * @return The amount of ticks left, zero if this task already ran or was cancelled.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		public long getRemainingTicks() {
+			synchronized (wheel) {
+				return switch (state) {
+					case SCHEDULED -> Math.max(0, expiry - wheel.tick);
+					case PAUSED -> remaining;
+					default -> 0;
+				};
+			}
+		}
+
+		/**
+		 * Sets the amount of ticks left until this task runs. Tasks that already ran
+		 * are scheduled again, so this method can be used from the task itself to
+		 * run it again later. Paused tasks stay paused.
+		 *
+		 * @param ticks The new amount of ticks left, values lower than one run the task on the next tick.
+		 *
+		 * @return {@code true} if the task was rescheduled, {@code false} if it was cancelled.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		public boolean setRemainingTicks(long ticks) {
+			synchronized (wheel) {
+				switch (state) {
+					case CANCELLED:
+						return false;
+					case PAUSED:
+						remaining = Math.max(0, ticks);
+						return true;
+					case SCHEDULED:
+						wheel.remove(this);
+				}
+				wheel.add(this, ticks);
+				return true;
+			}
+		}
+
+		/**
+		 * Pauses this task, removing it from the wheel while keeping
+		 * the amount of ticks it had left.
+		 *
+		 * @return {@code true} if the task was paused, {@code false} if it
+		 * wasn't waiting on the wheel.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		public boolean pause() {
+			synchronized (wheel) {
+				if (state != SCHEDULED)
+					return false;
+				remaining = Math.max(0, expiry - wheel.tick);
+				wheel.remove(this);
+				state = PAUSED;
+				return true;
+			}
+		}
+
+		/**
+		 * Resumes this task, placing it back on the wheel with the
+		 * amount of ticks it had left when it was paused.
+		 *
+		 * @return {@code true} if the task was resumed, {@code false} if it wasn't paused.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		public boolean resume() {
+			synchronized (wheel) {
+				if (state != PAUSED)
+					return false;
+				wheel.add(this, remaining);
+				return true;
+			}
+		}
+
+		public boolean isPaused() {
+			synchronized (wheel) {
+				return state == PAUSED;
+			}
+		}
+
+		/**
+		 * Checks whether this task is done, meaning that it already
+		 * ran or was cancelled, and won't run unless rescheduled.
+		 *
+		 * @return {@code true} if this task is done, {@code false} otherwise.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		public boolean isDone() {
+			synchronized (wheel) {
+				return state == EXPIRED || state == CANCELLED;
+			}
+		}
+
+		/**
+		 * Cancels this task, meaning that it won't run, even if it
+		 * is expiring on the tick currently being processed.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		public void cancel() {
+			synchronized (wheel) {
+				if (state == SCHEDULED)
+					wheel.remove(this);
+				state = CANCELLED;
+			}
+		}
+	}
+}
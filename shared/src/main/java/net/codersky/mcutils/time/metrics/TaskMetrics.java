@@ -0,0 +1,410 @@
+package net.codersky.mcutils.time.metrics;
+
+import net.codersky.mcutils.time.TaskScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional instrumentation of the tasks of a {@link TaskScheduler}, enabled with
+ * {@link TaskScheduler#setTaskMetrics(TaskMetrics)}. Once enabled, every run of
+ * every task scheduled through said scheduler records, per task name, its run
+ * count, its wall time, its CPU time, measured with {@link ThreadMXBean} where
+ * supported, and the amount of synchronous runs that took longer than the
+ * {@link #setOverrunThreshold(Duration) overrun threshold}, which is one tick by default.
+ * <p>
+ * Tasks are named after the class that scheduled them, or explicitly with
+ * {@link #named(String, Runnable)}. Only tasks scheduled on the scheduler itself
+ * are recorded, so jobs batched by a single task, such as every {@link net.codersky.mcutils.time.timer.TimerTask
+ * TimerTask}, {@link net.codersky.mcutils.time.SyncExecutor SyncExecutor} job or
+ * {@link net.codersky.mcutils.time.BudgetedExecutor BudgetedExecutor} job, are recorded
+ * together as the task that runs them, named {@code TimerWheel}, {@code SyncExecutor}
+ * and {@code BudgetedExecutor} respectively. Stats are kept on a rolling window, so
+ * {@link #getTop(int)} reports what is expensive now, not since the server
+ * started. Tasks are always wrapped when they are scheduled, so metrics can be
+ * enabled at any time, even for repeating tasks that were scheduled before,
+ * while disabled metrics only cost a field read per run. The {@link TaskMetricsCommand}
+ * can be used to display this information in game.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class TaskMetrics {
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	private volatile long overrunThreshold = TaskScheduler.NANOS_PER_TICK;
+	private volatile long window = Duration.ofMinutes(1).toNanos();
+	private volatile boolean cpuTiming;
+	private volatile Window current = new Window(System.nanoTime());
+	private volatile Window previous = null;
+
+	/**
+	 * Creates a new {@link TaskMetrics}, measuring CPU time if the JVM supports it.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public TaskMetrics() {
+		this.cpuTiming = enableCpuTime();
+	}
+
+	private static boolean enableCpuTime() {
+		if (!THREADS.isCurrentThreadCpuTimeSupported())
+			return false;
+		try {
+			if (!THREADS.isThreadCpuTimeEnabled())
+				THREADS.setThreadCpuTimeEnabled(true);
+			return true;
+		} catch (UnsupportedOperationException | SecurityException ex) {
+			return false;
+		}
+	}
+
+	/*
+	 * Configuration
+	 */
+
+	/**
+	 * Sets the run time after which a synchronous task is considered to overrun,
+	 * taking more than its share of a tick. Defaults to one whole tick.
+	 *
+	 * @param threshold The overrun threshold, {@code null} or zero to count every run as an overrun.
+	 *
+	 * @return This {@link TaskMetrics}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public TaskMetrics setOverrunThreshold(@Nullable Duration threshold) {
+		this.overrunThreshold = threshold == null || threshold.isNegative() ? 0 : threshold.toNanos();
+		return this;
+	}
+
+	@NotNull
+	public Duration getOverrunThreshold() {
+		return Duration.ofNanos(overrunThreshold);
+	}
+
+	/**
+	 * Sets the length of the rolling window stats are kept on. Reports cover
+	 * between one and two windows, as the previous window is kept until the
+	 * current one ends. Defaults to one minute.
+	 *
+	 * @param window The length of the window.
+	 *
+	 * @return This {@link TaskMetrics}.
+	 *
+	 * @throws IllegalArgumentException if {@code window} isn't positive.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public TaskMetrics setWindow(@NotNull Duration window) {
+		if (window.isNegative() || window.isZero())
+			throw new IllegalArgumentException("window must be positive");
+		this.window = window.toNanos();
+		return this;
+	}
+
+	@NotNull
+	public Duration getWindow() {
+		return Duration.ofNanos(window);
+	}
+
+	/**
+	 * Enables or disables CPU time measurement. Measuring CPU time costs about
+	 * a microsecond per run, and it can't be enabled if the JVM doesn't support it.
+	 * Runs on virtual threads never measure CPU time.
+	 *
+	 * @param cpuTiming Whether to measure CPU time.
+	 *
+	 * @return This {@link TaskMetrics}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public TaskMetrics setCpuTiming(boolean cpuTiming) {
+		this.cpuTiming = cpuTiming && enableCpuTime();
+		return this;
+	}
+
+	public boolean isCpuTiming() {
+		return cpuTiming;
+	}
+
+	/*
+	 * Recording
+	 */
+
+	/**
+	 * Wraps {@code task} so its runs are recorded on the {@link TaskMetrics} of
+	 * {@code scheduler}, if any, at the time each run happens. {@link TaskScheduler}
+	 * implementations call this with every task they schedule.
+	 *
+	 * @param scheduler The {@link TaskScheduler} that schedules {@code task}.
+	 * @param task The task to wrap.
+	 * @param sync Whether {@code task} runs on the main thread, only synchronous tasks can overrun.
+	 *
+	 * @return The wrapped task.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static Runnable wrap(@NotNull TaskScheduler scheduler, @NotNull Runnable task, boolean sync) {
+		return new Timed(Objects.requireNonNull(scheduler), Objects.requireNonNull(task), sync);
+	}
+
+	/**
+	 * Gives {@code task} a name to record its runs with, instead of the name
+	 * of the class that scheduled it.
+	 *
+	 * @param name The name of the task.
+	 * @param task The task to name.
+	 *
+	 * @return The named task, to schedule instead of {@code task}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static Runnable named(@NotNull String name, @NotNull Runnable task) {
+		return new Named(Objects.requireNonNull(name), Objects.requireNonNull(task));
+	}
+
+	@NotNull
+	static String nameOf(@NotNull Runnable task) {
+		if (task instanceof final Named named)
+			return named.name;
+		final String name = task.getClass().getName();
+		// Lambdas are hidden classes named after the class that declares them, such as "Foo$$Lambda/0x1234".
+		final int lambda = name.indexOf("$$Lambda");
+		final String owner = lambda == -1 ? name : name.substring(0, lambda);
+		return owner.substring(owner.lastIndexOf('.') + 1);
+	}
+
+	private void record(@NotNull String name, boolean sync, long wall, long cpu, boolean failed) {
+		final long now = System.nanoTime();
+		Window window = current;
+		if (now - window.start >= this.window)
+			window = rotate(window, now);
+		final Stats stats = window.stats.computeIfAbsent(name, Stats::new);
+		stats.runs.increment();
+		stats.wall.add(wall);
+		stats.max.accumulateAndGet(wall, Math::max);
+		if (cpu >= 0)
+			stats.cpu.add(cpu);
+		if (sync && wall > overrunThreshold)
+			stats.overruns.increment();
+		if (failed)
+			stats.failed.increment();
+	}
+
+	@NotNull
+	private synchronized Window rotate(@NotNull Window expected, long now) {
+		if (current == expected) {
+			// If no task ran for a whole window, the expected window is too old to report.
+			previous = now - expected.start >= 2 * window ? null : expected;
+			current = new Window(now);
+		}
+		return current;
+	}
+
+	/*
+	 * Reports
+	 */
+
+	/**
+	 * Gets the {@link Stats} of every task that ran on the rolling window,
+	 * sorted by total wall time, so the most expensive tasks come first.
+	 *
+	 * @param limit The maximum amount of tasks to get.
+	 *
+	 * @return The stats of the {@code limit} most expensive tasks.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public List<Stats> getTop(int limit) {
+		final Map<String, Stats> merged = new HashMap<>();
+		final Window previous = this.previous, current = this.current;
+		if (previous != null)
+			previous.stats.values().forEach(stats -> merged.computeIfAbsent(stats.name, Stats::new).add(stats));
+		current.stats.values().forEach(stats -> merged.computeIfAbsent(stats.name, Stats::new).add(stats));
+		final List<Stats> sorted = new ArrayList<>(merged.values());
+		sorted.sort(Comparator.comparingLong(Stats::getWallNanos).reversed());
+		return sorted.size() > limit ? new ArrayList<>(sorted.subList(0, Math.max(0, limit))) : sorted;
+	}
+
+	/**
+	 * Gets a human-readable summary of the {@link #getTop(int) top} tasks,
+	 * one line per task.
+	 *
+	 * @param limit The maximum amount of tasks to list.
+	 *
+	 * @return The summary of the top tasks, empty if no task ran on the rolling window.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public List<String> dump(int limit) {
+		final List<Stats> top = getTop(limit);
+		final List<String> lines = new ArrayList<>(top.size());
+		for (Stats stats : top)
+			lines.add(stats.toString());
+		return lines;
+	}
+
+	public synchronized void reset() {
+		previous = null;
+		current = new Window(System.nanoTime());
+	}
+
+	private static final class Window {
+
+		private final long start;
+		private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+		private Window(long start) {
+			this.start = start;
+		}
+	}
+
+	/**
+	 * Metrics recorded for all the tasks with the same name.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public static class Stats {
+
+		private final String name;
+		private final LongAdder runs = new LongAdder();
+		private final LongAdder wall = new LongAdder();
+		private final LongAdder cpu = new LongAdder();
+		private final LongAdder overruns = new LongAdder();
+		private final LongAdder failed = new LongAdder();
+		private final AtomicLong max = new AtomicLong();
+
+		Stats(String name) {
+			this.name = name;
+		}
+
+		private void add(@NotNull Stats other) {
+			runs.add(other.runs.sum());
+			wall.add(other.wall.sum());
+			cpu.add(other.cpu.sum());
+			overruns.add(other.overruns.sum());
+			failed.add(other.failed.sum());
+			max.accumulateAndGet(other.max.get(), Math::max);
+		}
+
+		@NotNull
+		public String getName() {
+			return name;
+		}
+
+		public long getRuns() {
+			return runs.sum();
+		}
+
+		public long getWallNanos() {
+			return wall.sum();
+		}
+
+		/**
+		 * Gets the CPU time spent on the runs of this task, which only
+		 * includes runs that happened while CPU timing was enabled.
+		 *
+		 * @return The CPU time spent on this task in nanoseconds.
+		 *
+		 * @since MCUtils 1.0.0
+		 */
+		public long getCpuNanos() {
+			return cpu.sum();
+		}
+
+		public long getMaxNanos() {
+			return max.get();
+		}
+
+		public long getOverruns() {
+			return overruns.sum();
+		}
+
+		public long getFailed() {
+			return failed.sum();
+		}
+
+		@Override
+		public String toString() {
+			final long runs = getRuns();
+			return String.format("%s: %d runs, %d overruns, %d failed, total %.2fms, cpu %.2fms, mean %.3fms, max %.2fms",
+					name, runs, getOverruns(), getFailed(), getWallNanos() / 1e6, getCpuNanos() / 1e6,
+					runs == 0 ? 0 : getWallNanos() / 1e6 / runs, getMaxNanos() / 1e6);
+		}
+	}
+
+	private static final class Named implements Runnable {
+
+		private final String name;
+		private final Runnable task;
+
+		private Named(String name, Runnable task) {
+			this.name = name;
+			this.task = task;
+		}
+
+		@Override
+		public void run() {
+			task.run();
+		}
+	}
+
+	private static final class Timed implements Runnable {
+
+		private final TaskScheduler scheduler;
+		private final Runnable task;
+		private final boolean sync;
+		private String name = null;
+
+		private Timed(TaskScheduler scheduler, Runnable task, boolean sync) {
+			this.scheduler = scheduler;
+			this.task = task;
+			this.sync = sync;
+		}
+
+		@Override
+		public void run() {
+			final TaskMetrics metrics = scheduler.getTaskMetrics();
+			if (metrics == null) {
+				task.run();
+				return;
+			}
+			final boolean cpuTiming = metrics.cpuTiming && !Thread.currentThread().isVirtual();
+			final long cpuStart = cpuTiming ? THREADS.getCurrentThreadCpuTime() : -1;
+			final long start = System.nanoTime();
+			boolean failed = true;
+			try {
+				task.run();
+				failed = false;
+			} finally {
+				final long wall = System.nanoTime() - start;
+				final long cpu = cpuStart < 0 ? -1 : THREADS.getCurrentThreadCpuTime() - cpuStart;
+				if (name == null)
+					name = nameOf(task);
+				metrics.record(name, sync, wall, cpu, failed);
+			}
+		}
+	}
+}
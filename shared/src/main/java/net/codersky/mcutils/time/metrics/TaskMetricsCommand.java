@@ -0,0 +1,106 @@
+package net.codersky.mcutils.time.metrics;
+
+import net.codersky.mcutils.MCUtils;
+import net.codersky.mcutils.cmd.GlobalCommand;
+import net.codersky.mcutils.cmd.MCCommandSender;
+import net.codersky.mcutils.time.TaskScheduler;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Admin command that displays the {@link TaskMetrics} of the {@link TaskScheduler}
+ * of an {@link MCUtils} instance. Running it with no arguments lists the ten most
+ * expensive tasks, a number can be provided to list more or less tasks, "enable"
+ * and "disable" toggle metrics at runtime, and "reset" clears every recorded stat.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @param <P> The plugin class that owns this command.
+ */
+public class TaskMetricsCommand<P> extends GlobalCommand<P> {
+
+	private static final List<String> ACTIONS = List.of("enable", "disable", "reset");
+	private static final int DEFAULT_LIMIT = 10;
+
+	private final String permission;
+
+	/**
+	 * Creates a new {@link TaskMetricsCommand}.
+	 *
+	 * @param utils The {@link MCUtils} instance to display the task metrics of.
+	 * @param name The name of the command.
+	 * @param permission The permission required to use the command.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public TaskMetricsCommand(@NotNull MCUtils<P> utils, @NotNull String name, @NotNull String permission) {
+		super(utils, name);
+		this.permission = Objects.requireNonNull(permission);
+	}
+
+	@Override
+	public boolean onCommand(@NotNull MCCommandSender sender, @NotNull String[] args) {
+		final TaskScheduler scheduler = getUtils().getScheduler();
+		final String action = args.length == 0 ? "" : args[0].toLowerCase();
+		if (action.equals("enable")) {
+			if (scheduler.getTaskMetrics() == null) {
+				try {
+					scheduler.setTaskMetrics(new TaskMetrics());
+				} catch (UnsupportedOperationException ex) {
+					return sender.sendMessage("Task metrics are not supported by this scheduler.");
+				}
+			}
+			return sender.sendMessage("Task metrics have been enabled.");
+		}
+		if (action.equals("disable")) {
+			scheduler.setTaskMetrics(null);
+			return sender.sendMessage("Task metrics have been disabled.");
+		}
+		final TaskMetrics metrics = scheduler.getTaskMetrics();
+		if (metrics == null)
+			return sender.sendMessage("Task metrics are disabled.");
+		if (action.equals("reset")) {
+			metrics.reset();
+			return sender.sendMessage("Task metrics have been reset.");
+		}
+		int limit = DEFAULT_LIMIT;
+		if (!action.isEmpty()) {
+			try {
+				limit = Integer.parseInt(action);
+			} catch (NumberFormatException ex) {
+				return sender.sendMessage("Unknown argument \"" + args[0] + "\", use a number or one of " + ACTIONS + ".");
+			}
+		}
+		final List<String> lines = metrics.dump(limit);
+		if (lines.isEmpty())
+			return sender.sendMessage("No tasks have been recorded yet.");
+		lines.forEach(sender::sendMessage);
+		return true;
+	}
+
+	@NotNull
+	@Override
+	public List<String> onTab(@NotNull MCCommandSender sender, @NotNull String[] args) {
+		if (args.length != 1)
+			return List.of();
+		final List<String> matches = new ArrayList<>(ACTIONS.size());
+		for (String action : ACTIONS)
+			if (action.startsWith(args[0].toLowerCase()))
+				matches.add(action);
+		return matches;
+	}
+
+	@Override
+	public boolean hasAccess(@NotNull MCCommandSender sender, boolean message) {
+		if (sender.hasPermission(permission))
+			return true;
+		if (message)
+			sender.sendMessage("You don't have access to this command.");
+		return false;
+	}
+}
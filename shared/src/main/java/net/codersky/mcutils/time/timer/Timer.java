@@ -1,6 +1,5 @@
 package net.codersky.mcutils.time.timer;
 
-import java.util.Objects;
 import java.util.function.Consumer;
 
 import net.codersky.mcutils.time.MCTimeUnit;
@@ -15,6 +14,10 @@ import org.jetbrains.annotations.Nullable;
  * supporting {@link MCTimeUnit} and task creation. Implementing
  * the {@link Replacement} (With {@link #toString()}) and
  * {@link Cloneable} interfaces.
+ * <p>
+ * Time is stored as a single amount of {@link MCTimeUnit#TICKS ticks}, so
+ * a {@link Timer} is just a mutable version of a {@link TimerValue}, which
+ * can be obtained with {@link #getValue()}.
  * 
  * @since MCUtils 1.0.0
  *
@@ -32,8 +35,9 @@ import org.jetbrains.annotations.Nullable;
  */
 public class Timer implements Replacement, Cloneable {
 
-	/** Array of size 3: <p> 0: Hours <br> 1: Minutes <br> 2: Seconds */
-	private final int[] time = {0, 0, 0};
+	private long ticks = 0;
+	/** Last {@link String} this {@link Timer} was converted to, shared by every caller until the displayed time changes. */
+	private volatile Rendered rendered = null;
 
 	/**
 	 * Creates a new {@link Timer} with a set time by using {@link #add(MCTimeUnit, int)}.
@@ -88,15 +92,27 @@ public class Timer implements Replacement, Cloneable {
 		this(0, 0, seconds);
 	}
 
+	/**
+	 * Creates a new {@link Timer} with the time of the specified {@link TimerValue}.
+	 *
+	 * @param value the {@link TimerValue} to copy.
+	 *
+	 * @throws NullPointerException if <b>value</b> is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public Timer(@NotNull TimerValue value) {
+		this.ticks = value.getTicks();
+	}
+
 	/*
 	 * Add time
 	 */
 
 	/**
 	 * As the reverse of {@link #removeOne()}, this method adds one second
-	 * to the {@link Timer} in a faster way than {@link #addSeconds(int)}
-	 * as less calculations are done, even though {@link #addSeconds(int)}
-	 * calls this method if only one second is added.
+	 * to the {@link Timer}, the same as calling {@link #addSeconds(int)}
+	 * with an amount of one.
 	 * 
 	 * @return This {@link Timer}.
 	 * 
@@ -104,14 +120,7 @@ public class Timer implements Replacement, Cloneable {
 	 */
 	@NotNull
 	public Timer addOne() {
-		if (time[2] == 59) {
-			time[2] = 0;
-			time[1]++;
-		}
-		if (time[1] == 60) {
-			time[1] = 0;
-			time[0]++;
-		}
+		ticks = TimerValue.saturatedAdd(ticks, TimerValue.TICKS_PER_SECOND);
 		return this;
 	}
 
@@ -140,10 +149,9 @@ public class Timer implements Replacement, Cloneable {
 
 	/**
 	 * Adds the specified <b>amount</b> of {@link MCTimeUnit#TICKS ticks} to
-	 * this {@link Timer}. Note that {@link Timer timers} only allow precision
-	 * up to {@link MCTimeUnit#SECONDS seconds}, so this method converts
-	 * <b>amount</b> to {@link MCTimeUnit#SECONDS seconds} and then calls
-	 * {@link #addSeconds(int)}, losing precision when converting.
+	 * this {@link Timer}. Amounts lower or equal to 0 will be ignored.
+	 * {@link Timer Timers} are precise up to {@link MCTimeUnit#TICKS ticks},
+	 * so no precision is lost.
 	 * 
 	 * @param amount The amount of ticks to add.
 	 * 
@@ -153,7 +161,24 @@ public class Timer implements Replacement, Cloneable {
 	 */
 	@NotNull
 	public Timer addTicks(int amount) {
-		return addSeconds(amount / 20);
+		return addTicks((long) amount);
+	}
+
+	/**
+	 * Adds the specified <b>amount</b> of {@link MCTimeUnit#TICKS ticks} to
+	 * this {@link Timer}. Amounts lower or equal to 0 will be ignored.
+	 *
+	 * @param amount The amount of ticks to add.
+	 *
+	 * @return This {@link Timer}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public Timer addTicks(long amount) {
+		if (amount > 0)
+			ticks = TimerValue.saturatedAdd(ticks, amount);
+		return this;
 	}
 
 	/**
@@ -169,16 +194,7 @@ public class Timer implements Replacement, Cloneable {
 	 */
 	@NotNull
 	public Timer addSeconds(int amount) {
-		if (amount <= 0)
-			return this;
-		final int totalSecs = amount + time[2];
-		if (totalSecs < 60) {
-			time[2] = totalSecs;
-			return this;
-		}
-		final int minutes = totalSecs / 60;
-		time[2] = totalSecs - (minutes * 60);
-		return addMinutes(minutes);
+		return addTicks(amount * (long) TimerValue.TICKS_PER_SECOND);
 	}
 
 	/**
@@ -194,17 +210,7 @@ public class Timer implements Replacement, Cloneable {
 	 */
 	@NotNull
 	public Timer addMinutes(int amount) {
-		if (amount <= 0)
-			return this;
-		final int totalMins = amount + time[1];
-		if (totalMins < 60) {
-			time[1] = totalMins;
-			return this;
-		}
-		final int hours = totalMins / 60;
-		time[0] += hours;
-		time[1] = totalMins - (hours * 60);
-		return this;
+		return addTicks(amount * (long) TimerValue.TICKS_PER_MINUTE);
 	}
 
 	/**
@@ -220,9 +226,7 @@ public class Timer implements Replacement, Cloneable {
 	 */
 	@NotNull
 	public Timer addHours(int amount) {
-		if (amount > 0)
-			time[0] += amount;
-		return this;
+		return addTicks(amount * (long) TimerValue.TICKS_PER_HOUR);
 	}
 
 	/*
@@ -230,11 +234,9 @@ public class Timer implements Replacement, Cloneable {
 	 */
 
 	/**
-	 * Removes one second from this {@link Timer} with more optimization
-	 * than {@link #removeSeconds(int)} as less calculations are done by
-	 * assuming only one second is always removed, even though
-	 * {@link #removeSeconds(int)} calls this method if only 1 second is removed,
-	 * calling this method is still preferred if possible to skip that condition.
+	 * As the reverse of {@link #addOne()}, this method removes one second
+	 * from this {@link Timer}, the same as calling {@link #removeSeconds(int)}
+	 * with an amount of one. The {@link Timer} won't go below zero.
 	 * 
 	 * @return This {@link Timer}.
 	 * 
@@ -242,17 +244,7 @@ public class Timer implements Replacement, Cloneable {
 	 */
 	@NotNull
 	public Timer removeOne() {
-		if (time[2] > 0) {
-			time[2]--;
-			return this;
-		} else if (time[1] > 0) {
-			time[2] = 59;
-			time[1]--;
-		} else if (time[0] > 0) {
-			time[2] = 59;
-			time[1] = 59;
-			time[0]--;
-		}
+		ticks = Math.max(0, ticks - TimerValue.TICKS_PER_SECOND);
 		return this;
 	}
 
@@ -289,11 +281,8 @@ public class Timer implements Replacement, Cloneable {
 
 	/**
 	 * Removes a specific <b>amount</b> of {@link MCTimeUnit#TICKS ticks}
-	 * from this {@link Timer}. Note that {@link Timer timers} don't store
-	 * {@link MCTimeUnit#TICKS ticks}, so this method will actually use
-	 * {@link #removeSeconds(int)} with <b>amount</b> / 20, so attempting
-	 * to remove 30 {@link MCTimeUnit#TICKS ticks} will actually remove 20
-	 * {@link MCTimeUnit#TICKS ticks} (1 {@link MCTimeUnit#SECONDS second}).
+	 * from this {@link Timer}. If the <b>amount</b> to remove is higher
+	 * than {@link #getTicks()}, the resulting amount will be 0.
 	 * 
 	 * @param amount the amount of {@link MCTimeUnit#TICKS ticks} to remove.
 	 * 
@@ -303,7 +292,25 @@ public class Timer implements Replacement, Cloneable {
 	 */
 	@NotNull
 	public Timer removeTicks(int amount) {
-		return removeSeconds(amount / 20);
+		return removeTicks((long) amount);
+	}
+
+	/**
+	 * Removes a specific <b>amount</b> of {@link MCTimeUnit#TICKS ticks}
+	 * from this {@link Timer}. If the <b>amount</b> to remove is higher
+	 * than {@link #getTicks()}, the resulting amount will be 0.
+	 *
+	 * @param amount the amount of {@link MCTimeUnit#TICKS ticks} to remove.
+	 *
+	 * @return This {@link Timer}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public Timer removeTicks(long amount) {
+		if (amount > 0)
+			ticks = Math.max(0, ticks - amount);
+		return this;
 	}
 
 	/**
@@ -311,8 +318,7 @@ public class Timer implements Replacement, Cloneable {
 	 * from this {@link Timer}. If the <b>amount</b> to remove is higher
 	 * than {@link #getTotalSeconds()}, the resulting amount will be 0. This method
 	 * will also remove {@link MCTimeUnit#HOURS hours} and {@link MCTimeUnit#MINUTES minutes}
-	 * from the {@link Timer} if necessary. If <b>amount</b> is 1, {@link #removeOne()} will be
-	 * called instead.
+	 * from the {@link Timer} if necessary.
 	 * 
 	 * @param amount the amount of {@link MCTimeUnit#SECONDS seconds} to remove.
 	 * 
@@ -322,17 +328,7 @@ public class Timer implements Replacement, Cloneable {
 	 */
 	@NotNull
 	public Timer removeSeconds(int amount) {
-		if (amount == 1)
-			return removeOne();
-		if (amount <= 0)
-			return this;
-		final int totalSecs = time[2] - amount;
-		if (totalSecs >= 0) {
-			time[2] = totalSecs;
-			return this;
-		}
-		time[2] = 0;
-		return removeMinutes(+totalSecs / 60);
+		return removeTicks(amount * (long) TimerValue.TICKS_PER_SECOND);
 	}
 
 	/**
@@ -350,15 +346,7 @@ public class Timer implements Replacement, Cloneable {
 	 */
 	@NotNull
 	public Timer removeMinutes(int amount) {
-		if (amount <= 0)
-			return this;
-		final int totalMins = time[1] - amount;
-		if (totalMins >= 0) {
-			time[1] = totalMins;
-			return this;
-		}
-		time[1] = 0;
-		return removeHours(+totalMins / 60);
+		return removeTicks(amount * (long) TimerValue.TICKS_PER_MINUTE);
 	}
 
 	/**
@@ -374,9 +362,7 @@ public class Timer implements Replacement, Cloneable {
 	 */
 	@NotNull
 	public Timer removeHours(int amount) {
-		final int totalHours = time[1] - amount;
-		time[2] = Math.max(totalHours, 0);
-		return this;
+		return removeTicks(amount * (long) TimerValue.TICKS_PER_HOUR);
 	}
 
 	/*
@@ -397,7 +383,7 @@ public class Timer implements Replacement, Cloneable {
 	@NotNull
 	public Timer setSeconds(int amount) {
 		if (amount >= 0 && amount < 60)
-			time[2] = amount;
+			ticks += (amount - getSeconds()) * (long) TimerValue.TICKS_PER_SECOND;
 		return this;
 	}
 
@@ -415,7 +401,7 @@ public class Timer implements Replacement, Cloneable {
 	@NotNull
 	public Timer setMinutes(int amount) {
 		if (amount >= 0 && amount < 60)
-			time[1] = amount;
+			ticks += (amount - getMinutes()) * (long) TimerValue.TICKS_PER_MINUTE;
 		return this;
 	}
 
@@ -433,8 +419,8 @@ public class Timer implements Replacement, Cloneable {
 	 */
 	@NotNull
 	public Timer setHours(int amount) {
-		if (amount >= 0 && amount < 60)
-			time[0] = amount;
+		if (amount >= 0)
+			ticks += (amount - (ticks / TimerValue.TICKS_PER_HOUR)) * TimerValue.TICKS_PER_HOUR;
 		return this;
 	}
 
@@ -454,25 +440,83 @@ public class Timer implements Replacement, Cloneable {
 		return setHours(hours).setMinutes(minutes).setSeconds(seconds);
 	}
 
+	/**
+	 * Sets the total amount of {@link MCTimeUnit#TICKS ticks} stored in
+	 * this {@link Timer}. Amounts lower than 0 will be treated as 0.
+	 *
+	 * @param ticks the amount of {@link MCTimeUnit#TICKS ticks} to set.
+	 *
+	 * @return This {@link Timer}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public Timer setTicks(long ticks) {
+		this.ticks = Math.max(0, ticks);
+		return this;
+	}
+
+	/**
+	 * Sets the time of this {@link Timer} to the time of the specified {@link TimerValue}.
+	 *
+	 * @param value the {@link TimerValue} to copy.
+	 *
+	 * @return This {@link Timer}.
+	 *
+	 * @throws NullPointerException if <b>value</b> is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public Timer setValue(@NotNull TimerValue value) {
+		this.ticks = value.getTicks();
+		return this;
+	}
+
 	/*
 	 * Time getters
 	 */
 
 	/**
-	 * Gets the total amount of {@link MCTimeUnit#SECONDS seconds} stored on this
-	 * {@link Timer} and multiplies that by 20 to convert to {@link MCTimeUnit#TICKS ticks}.
-	 * That means this method will also take into account {@link MCTimeUnit#HOURS hours}
-	 * and {@link MCTimeUnit#MINUTES minutes} stored on this {@link Timer}.
-	 * <p>
-	 * In other words, this is {@link #getTotalSeconds()} * 20.
+	 * Gets the total amount of {@link MCTimeUnit#TICKS ticks} stored on this
+	 * {@link Timer}. That means this method will also take into account
+	 * {@link MCTimeUnit#HOURS hours}, {@link MCTimeUnit#MINUTES minutes}
+	 * and {@link MCTimeUnit#SECONDS seconds} stored on this {@link Timer}.
+	 * Amounts higher than {@link Integer#MAX_VALUE} are limited to it,
+	 * use {@link #getTicks()} to get the exact amount.
 	 * 
-	 * @return The amount of {@link MCTimeUnit#HOURS hours} stored on this
+	 * @return The amount of {@link MCTimeUnit#TICKS ticks} stored on this
 	 * {@link Timer}.
 	 * 
 	 * @since MCUtils 1.0.0
 	 */
 	public int getTotalTicks() {
-		return getTotalSeconds() * 20;
+		return (int) Math.min(ticks, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Gets the exact total amount of {@link MCTimeUnit#TICKS ticks} stored on this
+	 * {@link Timer}, which is how {@link Timer timers} store their time.
+	 *
+	 * @return The amount of {@link MCTimeUnit#TICKS ticks} stored on this
+	 * {@link Timer}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Gets an immutable {@link TimerValue} with the current time of this {@link Timer}.
+	 *
+	 * @return The current time of this {@link Timer} as a {@link TimerValue}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public TimerValue getValue() {
+		return TimerValue.ofTicks(ticks);
 	}
 
 	/**
@@ -486,7 +530,7 @@ public class Timer implements Replacement, Cloneable {
 	 * @since MCUtils 1.0.0
 	 */
 	public int getSeconds() {
-		return time[2];
+		return (int) (ticks / TimerValue.TICKS_PER_SECOND % 60);
 	}
 
 	/**
@@ -503,7 +547,7 @@ public class Timer implements Replacement, Cloneable {
 	 */
 	@NotNull
 	public String getStrSeconds() {
-		return time[2] <= 9 ? "0" + time[2] : String.valueOf(time[2]);
+		return TimerFormatter.toString(getSeconds(), true);
 	}
 
 	/**
@@ -522,7 +566,7 @@ public class Timer implements Replacement, Cloneable {
 	 */
 	@NotNull
 	public String getStrSeconds(boolean fill) {
-		return fill ? getStrSeconds() : String.valueOf(time[2]);
+		return TimerFormatter.toString(getSeconds(), fill);
 	}
 
 
@@ -538,7 +582,7 @@ public class Timer implements Replacement, Cloneable {
 	 * @since MCUtils 1.0.0
 	 */
 	public int getTotalSeconds() {
-		return getTotalMinutes() * 60 + time[2];
+		return (int) (ticks / TimerValue.TICKS_PER_SECOND);
 	}
 
 	/**
@@ -552,7 +596,7 @@ public class Timer implements Replacement, Cloneable {
 	 * @since MCUtils 1.0.0
 	 */
 	public int getMinutes() {
-		return time[1];
+		return (int) (ticks / TimerValue.TICKS_PER_MINUTE % 60);
 	}
 
 	/**
@@ -569,7 +613,7 @@ public class Timer implements Replacement, Cloneable {
 	 */
 	@NotNull
 	public String getStrMinutes() {
-		return time[1] <= 9 ? "0" + time[1] : String.valueOf(time[1]);
+		return TimerFormatter.toString(getMinutes(), true);
 	}
 
 	/**
@@ -588,7 +632,7 @@ public class Timer implements Replacement, Cloneable {
 	 */
 	@NotNull
 	public String getStrMinutes(boolean fill) {
-		return fill ? getStrMinutes() : String.valueOf(time[1]);
+		return TimerFormatter.toString(getMinutes(), fill);
 	}
 
 	/**
@@ -602,7 +646,7 @@ public class Timer implements Replacement, Cloneable {
 	 * @since MCUtils 1.0.0
 	 */
 	public int getTotalMinutes() {
-		return (time[0] * 60) + time[1];
+		return (int) (ticks / TimerValue.TICKS_PER_MINUTE);
 	}
 
 	/**
@@ -615,7 +659,7 @@ public class Timer implements Replacement, Cloneable {
 	 * @since MCUtils 1.0.0
 	 */
 	public int getHours() {
-		return time[0];
+		return (int) (ticks / TimerValue.TICKS_PER_HOUR);
 	}
 
 	/**
@@ -632,7 +676,7 @@ public class Timer implements Replacement, Cloneable {
 	 */
 	@NotNull
 	public String getStrHours() {
-		return String.valueOf(time[0]);
+		return TimerFormatter.toString(getHours(), false);
 	}
 
 	/**
@@ -651,7 +695,7 @@ public class Timer implements Replacement, Cloneable {
 	 */
 	@NotNull
 	public String getStrHours(boolean fill) {
-		return fill && time[0] <= 9 ? "0" + time[0] : getStrHours();
+		return TimerFormatter.toString(getHours(), fill);
 	}
 
 	/*
@@ -660,27 +704,20 @@ public class Timer implements Replacement, Cloneable {
 
 	/**
 	 * Checks if this {@link Timer} has ended. A {@link Timer}
-	 * is considered to be ended when {@link #getHours()}, {@link #getMinutes()}
-	 * and {@link #getSeconds()} all return zero.
+	 * is considered to be ended when {@link #getTicks()} returns zero.
 	 * 
 	 * @return {@code true} if this {@link Timer} has ended, {@code false} otherwise.
 	 * 
 	 * @since MCUtils 1.0.0
 	 */
 	public boolean hasEnded() {
-		return time[2] == 0 && time[1] == 0 && time[0] == 0;
+		return ticks == 0;
 	}
 
 	/*
 	 * String conversion
 	 */
 
-	private void appendTime(StringBuilder builder, int time, boolean fill) {
-		if (fill && time <= 9)
-			builder.append('0');
-		builder.append(time);
-	}
-
 	/**
 	 * Converts this {@link Timer} to a {@link String} with the specified
 	 * <b>separator</b> and a minimum {@link MCTimeUnit}.
@@ -698,16 +735,39 @@ public class Timer implements Replacement, Cloneable {
 	 * 
 	 * @since MCUtils 1.0.0
 	 */
+	@NotNull
 	public String toString(@Nullable CharSequence separator, boolean fill, @NotNull MCTimeUnit minUnit) {
-		final StringBuilder builder = new StringBuilder();
-		final int unitIndex = minUnit.ordinal();
-		for (int i = 0; i < 3; i++) {
-			if (!builder.isEmpty())
-				appendTime(builder.append(separator), time[i], fill);
-			else if (i >= unitIndex || time[i] != 0)
-				appendTime(builder, time[i], fill);
-		}
-		return builder.toString();
+		final Rendered last = rendered;
+		final long seconds = ticks / TimerValue.TICKS_PER_SECOND;
+		if (last != null && last.seconds == seconds && TimerFormatter.matches(last.formatter, separator, fill, minUnit))
+			return last.string;
+		return toString(TimerFormatter.of(separator, fill, minUnit));
+	}
+
+	/**
+	 * Converts this {@link Timer} to a {@link String} with the specified {@link TimerFormatter}.
+	 * The result is memoized, so converting this {@link Timer} again with the same
+	 * <b>formatter</b> returns the same {@link String} instance until the displayed
+	 * time changes, making it cheap to render the same {@link Timer} for many players.
+	 *
+	 * @param formatter the {@link TimerFormatter} to use.
+	 *
+	 * @return This {@link Timer} converted to {@link String}.
+	 *
+	 * @since MCUtils 1.0.0
+	 *
+	 * @see TimerFormatter#format(Timer)
+	 */
+	@NotNull
+	public String toString(@NotNull TimerFormatter formatter) {
+		final Rendered last = rendered;
+		final long ticks = this.ticks;
+		final long seconds = ticks / TimerValue.TICKS_PER_SECOND;
+		if (last != null && last.seconds == seconds && last.formatter.equals(formatter))
+			return last.string;
+		final String string = formatter.format(ticks);
+		rendered = new Rendered(formatter, seconds, string);
+		return string;
 	}
 
 	/**
@@ -811,7 +871,7 @@ public class Timer implements Replacement, Cloneable {
 	@NotNull
 	@Override
 	public String toString() {
-		return toString(":", true, MCTimeUnit.HOURS);
+		return toString(TimerFormatter.DEFAULT);
 	}
 
 	/*
@@ -873,8 +933,7 @@ public class Timer implements Replacement, Cloneable {
 	 */
 
 	/**
-	 * Clones this {@link Timer} by calling the {@link #Timer(int, int, int)}
-	 * constructor.
+	 * Clones this {@link Timer}, including its {@link MCTimeUnit#TICKS ticks}.
 	 * 
 	 * @return A clone of this {@link Timer}.
 	 * 
@@ -882,7 +941,7 @@ public class Timer implements Replacement, Cloneable {
 	 */
 	@NotNull
 	public Timer clone() {
-		return new Timer(getHours(), getMinutes(), getSeconds());
+		return new Timer(0).setTicks(ticks);
 	}
 
 	/*
@@ -901,15 +960,24 @@ public class Timer implements Replacement, Cloneable {
 
 	@Override
 	public boolean equals(@Nullable Object obj) {
-		if (!(obj instanceof final Timer other))
-			return false;
-		return other.getHours() == this.getHours() &&
-				other.getMinutes() == this.getMinutes() &&
-				other.getSeconds() == this.getSeconds();
+		return obj instanceof final Timer other && other.ticks == ticks;
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hashCode(time);
+		return Long.hashCode(ticks);
+	}
+
+	private static final class Rendered {
+
+		private final TimerFormatter formatter;
+		private final long seconds;
+		private final String string;
+
+		private Rendered(TimerFormatter formatter, long seconds, String string) {
+			this.formatter = formatter;
+			this.seconds = seconds;
+			this.string = string;
+		}
 	}
 }
@@ -0,0 +1,403 @@
+package net.codersky.mcutils.time.timer;
+
+import net.codersky.mcutils.time.MCTimeUnit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Immutable and reusable format of {@link Timer timers} and {@link TimerValue
+ * timer values}, meant for text that is rendered often, such as scoreboards
+ * or action bars showing a countdown.
+ * <p>
+ * Formatters write their output directly into a caller supplied {@link StringBuilder}
+ * or {@code char[]} using cached digit tables, so no intermediate {@link String strings}
+ * are created. When a {@link String} is needed, {@link #format(Timer)} memoizes the
+ * last rendered text of each {@link Timer}, so every viewer of the same {@link Timer}
+ * shares a single {@link String} until the displayed second changes.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @see #of(CharSequence, boolean, MCTimeUnit)
+ * @see #DEFAULT
+ */
+public final class TimerFormatter {
+
+	/**
+	 * The default {@link TimerFormatter}, used by {@link Timer#toString()}. Its
+	 * separator is ":", filling is enabled and the minimum {@link MCTimeUnit}
+	 * is {@link MCTimeUnit#HOURS}, so times are formatted like "01:30:45".
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public static final TimerFormatter DEFAULT = new TimerFormatter(":", true, MCTimeUnit.HOURS);
+
+	/** Digits of every number from 0 to 99, as "00" to "99". */
+	private static final char[] TENS = new char[100], ONES = new char[100];
+	/** Cached {@link String strings} of every number from 0 to 99, filled and unfilled. */
+	private static final String[] FILLED = new String[100], UNFILLED = new String[100];
+
+	static {
+		for (int i = 0; i < 100; i++) {
+			TENS[i] = (char) ('0' + i / 10);
+			ONES[i] = (char) ('0' + i % 10);
+			FILLED[i] = new String(new char[] {TENS[i], ONES[i]});
+			UNFILLED[i] = i < 10 ? String.valueOf(ONES[i]) : FILLED[i];
+		}
+	}
+
+	private final String separator;
+	private final boolean fill;
+	private final MCTimeUnit minUnit;
+
+	private TimerFormatter(@NotNull String separator, boolean fill, @NotNull MCTimeUnit minUnit) {
+		this.separator = separator;
+		this.fill = fill;
+		this.minUnit = minUnit;
+	}
+
+	/**
+	 * Gets a {@link TimerFormatter} with the specified settings.
+	 *
+	 * @param separator The separator to use between time units, a separator
+	 * of ":" will return, for example 1:30:45. {@code null} is treated as an
+	 * empty separator.
+	 * @param fill filling set to true means that if the unit is for example
+	 * 9, it will be "filled" to 09 so the length of the string is more consistent.
+	 * @param minUnit the minimum {@link MCTimeUnit} that should be displayed. Leading
+	 * units higher than <b>minUnit</b> are only displayed if they aren't zero.
+	 *
+	 * @return A {@link TimerFormatter} with the specified settings.
+	 *
+	 * @throws NullPointerException if <b>minUnit</b> is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static TimerFormatter of(@Nullable CharSequence separator, boolean fill, @NotNull MCTimeUnit minUnit) {
+		Objects.requireNonNull(minUnit, "minUnit cannot be null");
+		if (matches(DEFAULT, separator, fill, minUnit))
+			return DEFAULT;
+		return new TimerFormatter(separator == null ? "" : separator.toString(), fill, minUnit);
+	}
+
+	@NotNull
+	public String getSeparator() {
+		return separator;
+	}
+
+	public boolean isFilled() {
+		return fill;
+	}
+
+	@NotNull
+	public MCTimeUnit getMinUnit() {
+		return minUnit;
+	}
+
+	// Compares settings without creating a formatter, used to check memoized strings.
+	static boolean matches(@NotNull TimerFormatter formatter, @Nullable CharSequence separator, boolean fill, @NotNull MCTimeUnit minUnit) {
+		if (formatter.fill != fill || formatter.minUnit != minUnit)
+			return false;
+		return separator == null ? formatter.separator.isEmpty() : formatter.separator.contentEquals(separator);
+	}
+
+	/*
+	 * Digit tables
+	 */
+
+	/**
+	 * Gets the cached {@link String} of a number from 0 to 99, or a new
+	 * {@link String} if <b>number</b> is out of that range.
+	 *
+	 * @param number The number to convert.
+	 * @param fill Whether to fill numbers lower than 10 with a leading zero.
+	 *
+	 * @return <b>number</b> as a {@link String}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static String toString(long number, boolean fill) {
+		if (number >= 0 && number < 100)
+			return fill ? FILLED[(int) number] : UNFILLED[(int) number];
+		return String.valueOf(number);
+	}
+
+	private static void appendUnit(@NotNull StringBuilder builder, long number, boolean fill) {
+		if (number < 0 || number >= 100) {
+			builder.append(number);
+			return;
+		}
+		final int index = (int) number;
+		if (fill || index >= 10)
+			builder.append(TENS[index]);
+		builder.append(ONES[index]);
+	}
+
+	private static int unitLength(long number, boolean fill) {
+		if (number < 10)
+			return fill ? 2 : 1;
+		int length = 2;
+		for (long limit = 100; length < 19 && number >= limit; limit *= 10)
+			length++;
+		return length;
+	}
+
+	private static int writeUnit(char[] dst, int offset, long number, boolean fill) {
+		if (number < 100) {
+			final int index = (int) number;
+			if (fill || index >= 10)
+				dst[offset++] = TENS[index];
+			dst[offset++] = ONES[index];
+			return offset;
+		}
+		final int end = offset + unitLength(number, fill);
+		for (int i = end - 1; i >= offset; i--) {
+			dst[i] = (char) ('0' + number % 10);
+			number /= 10;
+		}
+		return end;
+	}
+
+	// Index of the first unit to display, from 0 (hours) to 2 (seconds), or 3 if none is displayed.
+	private static int firstUnit(long hours, int minutes, int seconds, @NotNull MCTimeUnit minUnit) {
+		final int unitIndex = minUnit.ordinal();
+		if (unitIndex <= 0 || hours != 0)
+			return 0;
+		if (unitIndex <= 1 || minutes != 0)
+			return 1;
+		if (unitIndex <= 2 || seconds != 0)
+			return 2;
+		return 3;
+	}
+
+	static StringBuilder append(@NotNull StringBuilder builder, long ticks, @Nullable CharSequence separator,
+	                            boolean fill, @NotNull MCTimeUnit minUnit) {
+		final long hours = ticks / TimerValue.TICKS_PER_HOUR;
+		final int minutes = (int) (ticks / TimerValue.TICKS_PER_MINUTE % 60);
+		final int seconds = (int) (ticks / TimerValue.TICKS_PER_SECOND % 60);
+		final int first = firstUnit(hours, minutes, seconds, minUnit);
+		if (first == 0)
+			appendUnit(builder, hours, fill);
+		if (first <= 1) {
+			if (first < 1 && separator != null)
+				builder.append(separator);
+			appendUnit(builder, minutes, fill);
+		}
+		if (first <= 2) {
+			if (first < 2 && separator != null)
+				builder.append(separator);
+			appendUnit(builder, seconds, fill);
+		}
+		return builder;
+	}
+
+	/*
+	 * Formatting
+	 */
+
+	/**
+	 * Appends the time of the specified amount of {@link MCTimeUnit#TICKS ticks}
+	 * to <b>builder</b>. Negative amounts are treated as zero.
+	 *
+	 * @param builder The {@link StringBuilder} to append to.
+	 * @param ticks The time to append, in ticks.
+	 *
+	 * @return <b>builder</b>.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public StringBuilder appendTo(@NotNull StringBuilder builder, long ticks) {
+		return append(builder, Math.max(0, ticks), separator, fill, minUnit);
+	}
+
+	/**
+	 * Appends the current time of <b>timer</b> to <b>builder</b>.
+	 *
+	 * @param builder The {@link StringBuilder} to append to.
+	 * @param timer The {@link Timer} to append.
+	 *
+	 * @return <b>builder</b>.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public StringBuilder appendTo(@NotNull StringBuilder builder, @NotNull Timer timer) {
+		return appendTo(builder, timer.getTicks());
+	}
+
+	/**
+	 * Appends <b>value</b> to <b>builder</b>.
+	 *
+	 * @param builder The {@link StringBuilder} to append to.
+	 * @param value The {@link TimerValue} to append.
+	 *
+	 * @return <b>builder</b>.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public StringBuilder appendTo(@NotNull StringBuilder builder, @NotNull TimerValue value) {
+		return appendTo(builder, value.getTicks());
+	}
+
+	/**
+	 * Gets the amount of characters that formatting the specified amount
+	 * of {@link MCTimeUnit#TICKS ticks} takes, useful to size the arrays
+	 * given to {@link #writeTo(char[], int, long)}.
+	 *
+	 * @param ticks The time to measure, in ticks.
+	 *
+	 * @return The length of the formatted time.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int getLength(long ticks) {
+		ticks = Math.max(0, ticks);
+		final long hours = ticks / TimerValue.TICKS_PER_HOUR;
+		final int minutes = (int) (ticks / TimerValue.TICKS_PER_MINUTE % 60);
+		final int seconds = (int) (ticks / TimerValue.TICKS_PER_SECOND % 60);
+		final int first = firstUnit(hours, minutes, seconds, minUnit);
+		if (first == 3)
+			return 0;
+		int length = (2 - first) * separator.length() + unitLength(seconds, fill);
+		if (first <= 1)
+			length += unitLength(minutes, fill);
+		if (first == 0)
+			length += unitLength(hours, fill);
+		return length;
+	}
+
+	/**
+	 * Writes the time of the specified amount of {@link MCTimeUnit#TICKS ticks}
+	 * to <b>dst</b>, starting at <b>offset</b>. Negative amounts are treated as zero.
+	 *
+	 * @param dst The array to write to.
+	 * @param offset The index of <b>dst</b> to start writing at.
+	 * @param ticks The time to write, in ticks.
+	 *
+	 * @return The amount of characters written, see {@link #getLength(long)}.
+	 *
+	 * @throws IndexOutOfBoundsException if <b>dst</b> doesn't have enough room
+	 * after <b>offset</b>, in which case nothing is written.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int writeTo(char @NotNull [] dst, int offset, long ticks) {
+		ticks = Math.max(0, ticks);
+		Objects.checkFromIndexSize(offset, getLength(ticks), dst.length);
+		final long hours = ticks / TimerValue.TICKS_PER_HOUR;
+		final int minutes = (int) (ticks / TimerValue.TICKS_PER_MINUTE % 60);
+		final int seconds = (int) (ticks / TimerValue.TICKS_PER_SECOND % 60);
+		final int first = firstUnit(hours, minutes, seconds, minUnit);
+		int pos = offset;
+		if (first == 0)
+			pos = writeUnit(dst, pos, hours, fill);
+		if (first <= 1) {
+			if (first < 1)
+				pos = writeSeparator(dst, pos);
+			pos = writeUnit(dst, pos, minutes, fill);
+		}
+		if (first <= 2) {
+			if (first < 2)
+				pos = writeSeparator(dst, pos);
+			pos = writeUnit(dst, pos, seconds, fill);
+		}
+		return pos - offset;
+	}
+
+	/**
+	 * Writes the current time of <b>timer</b> to <b>dst</b>, starting at <b>offset</b>.
+	 *
+	 * @param dst The array to write to.
+	 * @param offset The index of <b>dst</b> to start writing at.
+	 * @param timer The {@link Timer} to write.
+	 *
+	 * @return The amount of characters written.
+	 *
+	 * @throws IndexOutOfBoundsException if <b>dst</b> doesn't have enough room
+	 * after <b>offset</b>, in which case nothing is written.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int writeTo(char @NotNull [] dst, int offset, @NotNull Timer timer) {
+		return writeTo(dst, offset, timer.getTicks());
+	}
+
+	private int writeSeparator(char[] dst, int offset) {
+		separator.getChars(0, separator.length(), dst, offset);
+		return offset + separator.length();
+	}
+
+	/**
+	 * Formats the current time of <b>timer</b>. The resulting {@link String} is
+	 * memoized on <b>timer</b>, so formatting the same {@link Timer} again with
+	 * this formatter returns the same {@link String} instance until the
+	 * displayed time changes.
+	 *
+	 * @param timer The {@link Timer} to format.
+	 *
+	 * @return The formatted time of <b>timer</b>.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public String format(@NotNull Timer timer) {
+		return timer.toString(this);
+	}
+
+	/**
+	 * Formats <b>value</b>. Unlike {@link #format(Timer)}, this is not memoized.
+	 *
+	 * @param value The {@link TimerValue} to format.
+	 *
+	 * @return The formatted <b>value</b>.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public String format(@NotNull TimerValue value) {
+		return format(value.getTicks());
+	}
+
+	/**
+	 * Formats the specified amount of {@link MCTimeUnit#TICKS ticks}.
+	 * Unlike {@link #format(Timer)}, this is not memoized.
+	 *
+	 * @param ticks The time to format, in ticks.
+	 *
+	 * @return The formatted time.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public String format(long ticks) {
+		final char[] chars = new char[getLength(ticks)];
+		writeTo(chars, 0, ticks);
+		return new String(chars);
+	}
+
+	/*
+	 * Java
+	 */
+
+	@Override
+	public boolean equals(@Nullable Object obj) {
+		return obj instanceof final TimerFormatter other && matches(other, separator, fill, minUnit);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(separator, fill, minUnit);
+	}
+
+	@Override
+	public String toString() {
+		return "TimerFormatter{separator=\"" + separator + "\", fill=" + fill + ", minUnit=" + minUnit + '}';
+	}
+}
@@ -1,11 +1,9 @@
 package net.codersky.mcutils.time.timer;
 
-import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
-import com.sun.source.util.Plugin;
-import net.codersky.mcutils.time.Task;
 import net.codersky.mcutils.time.TaskScheduler;
+import net.codersky.mcutils.time.TimerWheel;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -15,17 +13,24 @@ import org.jetbrains.annotations.Nullable;
  * via {@link #getTimer()} and used to get the time left for this task to be executed.
  * <p>
  * This class is not intended to be instantiated manually but rather via
- * {@link Timer#schedule(Plugin, Runnable)} or {@link Timer#schedule(Plugin, Consumer, Object)}.
- * 
+ * {@link Timer#schedule(TaskScheduler, Runnable)} or {@link Timer#schedule(TaskScheduler, Consumer, Object)}.
+ * <p>
+ * Every {@link TimerTask} of a {@link TaskScheduler} is driven by its {@link TaskScheduler#getTimerWheel()
+ * timer wheel}, which updates the {@link Timer} of the task with the time left once per second, so
+ * references to said {@link Timer} keep counting down. Changes made to the {@link Timer} are applied
+ * to the task on its next update.
+ *
  * @since MCUtils 1.0.0
  *
  * @author xDec0de_
  */
 public class TimerTask {
 
+	private static final long TICKS_PER_SECOND = 20;
+
 	private final Timer timer;
-	private boolean paused = false;
-	private Task task = null;
+	private TimerWheel.Entry entry = null;
+	private long step;
 
 	@ApiStatus.Internal
 	TimerTask(@NotNull Timer timer) {
@@ -33,7 +38,9 @@ public class TimerTask {
 	}
 
 	/**
-	 * Gets the {@link Timer} that started this {@link TimerTask}.
+	 * Gets the {@link Timer} that started this {@link TimerTask}, which is
+	 * updated once per second with the time left for this task to be executed.
+	 * Changes made to the returned {@link Timer} delay or advance this task.
 	 * 
 	 * @return The {@link Timer} that started this {@link TimerTask}.
 	 * 
@@ -50,10 +57,10 @@ public class TimerTask {
 	 * @since MCUtils 1.0.0
 	 */
 	public void cancel() {
-		if (task == null)
+		if (entry == null)
 			return;
-		task.cancel();
-		task = null;
+		entry.cancel();
+		entry = null;
 	}
 
 	/**
@@ -65,13 +72,12 @@ public class TimerTask {
 	 * @since MCUtils 1.0.0
 	 */
 	public boolean isPaused() {
-		return paused;
+		return entry != null && entry.isPaused();
 	}
 
 	/**
 	 * Pauses or unpauses this {@link TimerTask}. Paused
-	 * tasks won't {@link Timer#removeOne() tick} their
-	 * {@link #getTimer() timer}.
+	 * tasks won't advance their {@link #getTimer() timer}.
 	 * 
 	 * @param paused Whether to pause or unpause this
 	 * {@link TimerTask}.
@@ -81,7 +87,12 @@ public class TimerTask {
 	 * @since MCUtils 1.0.0
 	 */
 	public TimerTask setPaused(boolean paused) {
-		this.paused = paused;
+		if (entry == null)
+			return this;
+		if (paused)
+			entry.pause();
+		else
+			entry.resume();
 		return this;
 	}
 
@@ -92,15 +103,30 @@ public class TimerTask {
 	@NotNull
 	@ApiStatus.Internal
 	TimerTask schedule(@NotNull TaskScheduler scheduler, @NotNull Runnable runnable) {
-		task = scheduler.repeatSync(() -> {
-			if (paused || !timer.removeOne().hasEnded())
-				return;
-			runnable.run();
-			cancel();
-		}, TimeUnit.SECONDS, 1, 1);
+		step = Math.min(timer.getTicks(), TICKS_PER_SECOND);
+		entry = scheduler.getTimerWheel().schedule(step, () -> update(runnable));
 		return this;
 	}
 
+	// Reads the timer again on every update, so changes made to it since the last one are applied.
+	private void update(@NotNull Runnable runnable) {
+		final TimerWheel.Entry current = entry;
+		if (current == null)
+			return;
+		final long left;
+		synchronized (timer) {
+			left = timer.getTicks() - step;
+			timer.setTicks(Math.max(0, left));
+		}
+		if (left > 0) {
+			step = Math.min(left, TICKS_PER_SECOND);
+			current.setRemainingTicks(step);
+			return;
+		}
+		entry = null;
+		runnable.run();
+	}
+
 	@NotNull
 	@ApiStatus.Internal
 	<T> TimerTask schedule(@NotNull TaskScheduler scheduler, @NotNull Consumer<T> consumer, @Nullable T obj) {
@@ -0,0 +1,310 @@
+package net.codersky.mcutils.time.timer;
+
+import net.codersky.mcutils.java.strings.Replacement;
+import net.codersky.mcutils.time.MCTimeUnit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Immutable amount of time with {@link MCTimeUnit#TICKS tick} precision, stored
+ * as a single {@code long}. This is the core of every {@link Timer}, which is
+ * just a mutable adapter over this class. Arithmetic never goes below zero and
+ * formatting uses the cached digit tables of {@link TimerFormatter}, so converting
+ * a {@link TimerValue} to a {@link String} only allocates the resulting {@link String}.
+ *
+ * @since MCUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @see #of(int, int, int)
+ * @see #ofTicks(long)
+ * @see #toString(CharSequence, boolean, MCTimeUnit)
+ */
+public final class TimerValue implements Replacement, Comparable<TimerValue> {
+
+	/**
+	 * A {@link TimerValue} of zero ticks, which {@link #isZero() is zero}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public static final TimerValue ZERO = new TimerValue(0);
+
+	static final int TICKS_PER_SECOND = 20;
+	static final int TICKS_PER_MINUTE = TICKS_PER_SECOND * 60;
+	static final int TICKS_PER_HOUR = TICKS_PER_MINUTE * 60;
+
+	private final long ticks;
+
+	private TimerValue(long ticks) {
+		this.ticks = ticks;
+	}
+
+	/**
+	 * Gets a {@link TimerValue} of the specified amount of {@link MCTimeUnit#TICKS ticks}.
+	 *
+	 * @param ticks The amount of ticks, negative amounts are treated as zero.
+	 *
+	 * @return A {@link TimerValue} of {@code ticks}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static TimerValue ofTicks(long ticks) {
+		return ticks <= 0 ? ZERO : new TimerValue(ticks);
+	}
+
+	/**
+	 * Gets a {@link TimerValue} of the specified {@code amount} of {@code unit}.
+	 *
+	 * @param unit The {@link MCTimeUnit} of {@code amount}.
+	 * @param amount The amount of {@code unit}, negative amounts are treated as zero.
+	 *
+	 * @return A {@link TimerValue} of {@code amount} {@code unit}s.
+	 *
+	 * @throws NullPointerException if {@code unit} is {@code null}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static TimerValue of(@NotNull MCTimeUnit unit, long amount) {
+		return ofTicks(unit.toTicks(amount));
+	}
+
+	/**
+	 * Gets a {@link TimerValue} of the specified amount of hours, minutes and
+	 * seconds. Units are not limited, so 90 seconds are a minute and a half.
+	 *
+	 * @param hours The amount of hours, negative amounts are ignored.
+	 * @param minutes The amount of minutes, negative amounts are ignored.
+	 * @param seconds The amount of seconds, negative amounts are ignored.
+	 *
+	 * @return A {@link TimerValue} of the specified time.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static TimerValue of(int hours, int minutes, int seconds) {
+		return ofTicks(Math.max(0, hours) * (long) TICKS_PER_HOUR
+				+ Math.max(0, minutes) * (long) TICKS_PER_MINUTE
+				+ Math.max(0, seconds) * (long) TICKS_PER_SECOND);
+	}
+
+	/*
+	 * Arithmetic
+	 */
+
+	/**
+	 * Adds the specified amount of {@link MCTimeUnit#TICKS ticks} to this {@link TimerValue}.
+	 *
+	 * @param ticks The amount of ticks to add.
+	 *
+	 * @return A {@link TimerValue} with the added time.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public TimerValue plusTicks(long ticks) {
+		return ticks == 0 ? this : ofTicks(saturatedAdd(this.ticks, ticks));
+	}
+
+	/**
+	 * Adds the specified {@code amount} of {@code unit} to this {@link TimerValue}.
+	 *
+	 * @param unit The {@link MCTimeUnit} of {@code amount}.
+	 * @param amount The amount of {@code unit} to add, negative amounts are ignored.
+	 *
+	 * @return A {@link TimerValue} with the added time.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public TimerValue plus(@NotNull MCTimeUnit unit, long amount) {
+		return amount <= 0 ? this : plusTicks(unit.toTicks(amount));
+	}
+
+	/**
+	 * Removes the specified amount of {@link MCTimeUnit#TICKS ticks} from this {@link TimerValue}.
+	 * Removing more time than this {@link TimerValue} has results on {@link #ZERO}.
+	 *
+	 * @param ticks The amount of ticks to remove.
+	 *
+	 * @return A {@link TimerValue} with the removed time.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public TimerValue minusTicks(long ticks) {
+		return ticks == 0 ? this : ofTicks(saturatedAdd(this.ticks, -ticks));
+	}
+
+	/**
+	 * Removes the specified {@code amount} of {@code unit} from this {@link TimerValue}.
+	 * Removing more time than this {@link TimerValue} has results on {@link #ZERO}.
+	 *
+	 * @param unit The {@link MCTimeUnit} of {@code amount}.
+	 * @param amount The amount of {@code unit} to remove, negative amounts are ignored.
+	 *
+	 * @return A {@link TimerValue} with the removed time.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public TimerValue minus(@NotNull MCTimeUnit unit, long amount) {
+		return amount <= 0 ? this : minusTicks(unit.toTicks(amount));
+	}
+
+	static long saturatedAdd(long a, long b) {
+		final long result = a + b;
+		// Overflow only happens if both operands have the same sign and the result a different one.
+		if (((a ^ result) & (b ^ result)) < 0)
+			return b < 0 ? 0 : Long.MAX_VALUE;
+		return Math.max(0, result);
+	}
+
+	/*
+	 * Getters
+	 */
+
+	public long getTicks() {
+		return ticks;
+	}
+
+	public long getTotalSeconds() {
+		return ticks / TICKS_PER_SECOND;
+	}
+
+	public long getTotalMinutes() {
+		return ticks / TICKS_PER_MINUTE;
+	}
+
+	public long getHours() {
+		return ticks / TICKS_PER_HOUR;
+	}
+
+	/**
+	 * Gets the minutes of this {@link TimerValue}, not counting hours.
+	 *
+	 * @return The minutes of this {@link TimerValue}, from 0 to 59.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int getMinutes() {
+		return (int) (ticks / TICKS_PER_MINUTE % 60);
+	}
+
+	/**
+	 * Gets the seconds of this {@link TimerValue}, not counting minutes.
+	 *
+	 * @return The seconds of this {@link TimerValue}, from 0 to 59.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int getSeconds() {
+		return (int) (ticks / TICKS_PER_SECOND % 60);
+	}
+
+	/**
+	 * Gets the ticks of this {@link TimerValue}, not counting seconds.
+	 *
+	 * @return The ticks of this {@link TimerValue}, from 0 to 19.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	public int getSubSecondTicks() {
+		return (int) (ticks % TICKS_PER_SECOND);
+	}
+
+	public boolean isZero() {
+		return ticks == 0;
+	}
+
+	/*
+	 * String conversion
+	 */
+
+	/**
+	 * Appends a time of {@code ticks} to {@code builder}, see
+	 * {@link #toString(CharSequence, boolean, MCTimeUnit)} for details.
+	 *
+	 * @param builder The {@link StringBuilder} to append to.
+	 * @param ticks The time to append, in ticks.
+	 * @param separator The separator to use between time units, {@code null} for none.
+	 * @param fill Whether to fill units lower than 10 with a leading zero.
+	 * @param minUnit The minimum {@link MCTimeUnit} to display.
+	 *
+	 * @return {@code builder}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public static StringBuilder appendTo(@NotNull StringBuilder builder, long ticks, @Nullable CharSequence separator,
+	                                     boolean fill, @NotNull MCTimeUnit minUnit) {
+		return TimerFormatter.append(builder, Math.max(0, ticks), separator, fill, minUnit);
+	}
+
+	/**
+	 * Converts this {@link TimerValue} to a {@link String} with the specified
+	 * <b>separator</b> and a minimum {@link MCTimeUnit}.
+	 *
+	 * @param separator The separator to use between time units, a separator
+	 * of ":" will return, for example 1:30:45.
+	 * @param fill filling set to true means that if the unit is for example
+	 * 9, it will be "filled" to 09 so the length of the string is more consistent.
+	 * @param minUnit the minimum {@link MCTimeUnit} that should be displayed. Leading
+	 * units higher than <b>minUnit</b> are only displayed if they aren't zero, so a
+	 * value of zero with a <b>minUnit</b> of {@link MCTimeUnit#TICKS} is an empty String.
+	 *
+	 * @return This {@link TimerValue} converted to {@link String}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public String toString(@Nullable CharSequence separator, boolean fill, @NotNull MCTimeUnit minUnit) {
+		return appendTo(new StringBuilder(16), ticks, separator, fill, minUnit).toString();
+	}
+
+	/**
+	 * Converts this {@link TimerValue} to a {@link String} with the specified {@link TimerFormatter}.
+	 *
+	 * @param formatter The {@link TimerFormatter} to use.
+	 *
+	 * @return This {@link TimerValue} converted to {@link String}.
+	 *
+	 * @since MCUtils 1.0.0
+	 */
+	@NotNull
+	public String toString(@NotNull TimerFormatter formatter) {
+		return formatter.format(ticks);
+	}
+
+	@NotNull
+	@Override
+	public String toString() {
+		return TimerFormatter.DEFAULT.format(ticks);
+	}
+
+	@NotNull
+	@Override
+	public String asReplacement() {
+		return toString();
+	}
+
+	/*
+	 * Java
+	 */
+
+	@Override
+	public int compareTo(@NotNull TimerValue other) {
+		return Long.compare(ticks, other.ticks);
+	}
+
+	@Override
+	public boolean equals(@Nullable Object obj) {
+		return obj instanceof final TimerValue other && other.ticks == ticks;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(ticks);
+	}
+}